@@ -19,6 +19,8 @@ android {
     // ViewBindingを有効化
     buildFeatures {
         viewBinding = true
+        // データベースのクエリ計測をデバッグビルドに限定するため
+        buildConfig = true
     }
 
     defaultConfig {
@@ -28,6 +30,18 @@ android {
         versionCode = 1
         versionName = "1.0"
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Roomのスキーマをapp/schemasに書き出す（マイグレーションの検証に使用）
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
+    }
+
+    // マイグレーションテストから書き出したスキーマを参照する
+    sourceSets {
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
     }
 
     // 署名設定
@@ -61,6 +75,11 @@ android {
         sourceCompatibility = JavaVersion.VERSION_17
         targetCompatibility = JavaVersion.VERSION_17
     }
+
+    // JVM上のユニットテストでandroid.util.Logなどの呼び出しを既定値で返す
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -77,6 +96,9 @@ dependencies {
     // Room データベース
     implementation("androidx.room:room-runtime:2.6.1")
     annotationProcessor("androidx.room:room-compiler:2.6.1")
+    implementation("androidx.room:room-paging:2.6.1")
+    // ページング（一覧の分割読み込み）
+    implementation("androidx.paging:paging-runtime:3.3.5")
     // Lifecycle (LiveData, ViewModel)
     implementation("androidx.lifecycle:lifecycle-livedata:2.8.7")
     implementation("androidx.lifecycle:lifecycle-viewmodel:2.8.7")
@@ -0,0 +1,74 @@
+package com.memoripass.data.local;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * データベースの性能設定のテスト（端末上で実行）
+ *
+ * <p>{@link DatabaseConfig} を適用したデータベースで、PRAGMAが有効になっていることを確認する。</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseConfigTest {
+
+    private static final String TEST_DB = "config-test";
+
+    private Context context;
+    private AppDatabase database;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        database = DatabaseConfig.apply(Room.databaseBuilder(context, AppDatabase.class, TEST_DB))
+                .addMigrations(DatabaseMigrations.all())
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void pragmas_areInEffect() {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+
+        assertTrue(db.isWriteAheadLoggingEnabled());
+        assertEquals("wal", pragma(db, "journal_mode"));
+        assertEquals(String.valueOf(DatabaseConfig.WAL_AUTOCHECKPOINT_PAGES), pragma(db, "wal_autocheckpoint"));
+        assertEquals(String.valueOf(DatabaseConfig.JOURNAL_SIZE_LIMIT_BYTES), pragma(db, "journal_size_limit"));
+    }
+
+    @Test
+    public void queries_areProfiled() {
+        assumeTrue(DatabaseConfig.PROFILE_QUERIES);
+        long before = DatabaseConfig.getProfiler().getStatementCount();
+
+        database.getOpenHelper().getWritableDatabase().query("SELECT COUNT(*) FROM password_entries").close();
+
+        assertTrue(DatabaseConfig.getProfiler().getStatementCount() > before);
+    }
+
+    private static String pragma(SupportSQLiteDatabase db, String name) {
+        try (Cursor cursor = db.query("PRAGMA " + name)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getString(0).toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.memoripass.data.local;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.memoripass.crypto.SearchTokenizer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * データベースマイグレーションのテスト（端末上で実行）
+ *
+ * <p>バージョン1のデータベースを作成し、{@link DatabaseMigrations} を順に適用して
+ * 最新のスキーマ（app/schemas に書き出したもの）と一致すること、
+ * 既存のデータが失われないことを確認する。</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    @Rule
+    public final MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(),
+            AppDatabase.class
+    );
+
+    @Test
+    public void migrateFromVersion1_preservesEntries() {
+        createVersion1Database();
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(
+                TEST_DB, DatabaseMigrations.LATEST_VERSION, true, DatabaseMigrations.all());
+
+        try (Cursor cursor = db.query("SELECT title, legacy_encrypted_password, legacy_username, "
+                + "legacy_url, legacy_notes, category, key_id FROM password_entries WHERE id = 'entry-1'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("Gmail", cursor.getString(0));
+            assertEquals("QUJDREVG", cursor.getString(1));
+            assertEquals("user@example.com", cursor.getString(2));
+            assertEquals("https://mail.google.com", cursor.getString(3));
+            assertEquals("メモ", cursor.getString(4));
+            assertEquals("仕事", cursor.getString(5));
+            assertEquals(1, cursor.getInt(6));
+        }
+
+        // 既存の行からタイトルの全文検索インデックスが構築されている
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM password_entries_fts "
+                + "WHERE password_entries_fts MATCH '\"gm*\"'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void listQueries_useIndexes() {
+        createVersion1Database();
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(
+                TEST_DB, DatabaseMigrations.LATEST_VERSION, true, DatabaseMigrations.all());
+
+        assertTrue(queryPlan(db, "SELECT * FROM password_entries ORDER BY updated_at DESC")
+                .contains("index_password_entries_updated_at"));
+        assertTrue(queryPlan(db, "SELECT * FROM password_entries WHERE category = '仕事' "
+                + "ORDER BY updated_at DESC").contains("index_password_entries_category_updated_at"));
+    }
+
+    @Test
+    public void changeLog_recordsLatestChangePerEntry() {
+        createVersion1Database();
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(
+                TEST_DB, DatabaseMigrations.LATEST_VERSION, true, DatabaseMigrations.all());
+
+        db.execSQL("UPDATE password_entries SET title = 'Gmail 2' WHERE id = 'entry-1'");
+        db.execSQL("UPDATE password_entries SET title = 'Gmail 3' WHERE id = 'entry-1'");
+        long updated = longValue(db, "SELECT revision FROM password_entries WHERE id = 'entry-1'");
+        assertTrue(updated > 0);
+        assertEquals(updated, longValue(db, "SELECT revision FROM entry_changes WHERE entry_id = 'entry-1'"));
+        // 古い履歴は削除され、エントリごとに1行のみ残る
+        assertEquals(1, longValue(db, "SELECT COUNT(*) FROM entry_changes"));
+
+        db.execSQL("DELETE FROM password_entries WHERE id = 'entry-1'");
+        assertEquals(1, longValue(db, "SELECT deleted FROM entry_changes WHERE entry_id = 'entry-1'"));
+        long deleted = longValue(db, "SELECT revision FROM entry_changes WHERE entry_id = 'entry-1'");
+        assertTrue(deleted > updated);
+
+        // 削除の印は開いた時点で削除され、番号は再利用されない
+        DatabaseMigrations.pruneDeletedChanges(db);
+        assertEquals(0, longValue(db, "SELECT COUNT(*) FROM entry_changes WHERE deleted = 1"));
+        db.execSQL("INSERT INTO password_entries (id, title, created_at, updated_at) "
+                + "VALUES ('entry-2', 'Bank', 0, 0)");
+        assertTrue(longValue(db, "SELECT MAX(revision) FROM entry_changes") > deleted);
+    }
+
+    @Test
+    public void truncatedSearchIndexes_areDroppedForReindexing() throws Exception {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 7)) {
+            db.execSQL("INSERT INTO password_entries (id, title, created_at, updated_at) "
+                    + "VALUES ('long', 'Long', 1000, 2000), ('short', 'Short', 1000, 2000)");
+            for (int token = 0; token < SearchTokenizer.MAX_TOKENS_PER_ENTRY; token++) {
+                db.execSQL("INSERT INTO search_tokens (token, entry_id) VALUES (" + token + ", 'long')");
+            }
+            db.execSQL("INSERT INTO search_tokens (token, entry_id) VALUES (1, 'short')");
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(
+                TEST_DB, DatabaseMigrations.LATEST_VERSION, true, DatabaseMigrations.all());
+
+        // 上限に達したインデックスのみ削除され、バックグラウンドで作り直される
+        assertEquals(0, longValue(db, "SELECT COUNT(*) FROM search_tokens WHERE entry_id = 'long'"));
+        assertEquals(1, longValue(db, "SELECT COUNT(*) FROM search_tokens WHERE entry_id = 'short'"));
+    }
+
+    /**
+     * バージョン1のスキーマでデータベースを作成（スキーマの書き出し導入前のため手動で作成）
+     */
+    private void createVersion1Database() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(TEST_DB), null);
+        try {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `password_entries` ("
+                    + "`id` TEXT NOT NULL, `title` TEXT NOT NULL, `username` TEXT, "
+                    + "`encrypted_password` TEXT NOT NULL, `url` TEXT, `notes` TEXT, `category` TEXT, "
+                    + "`created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `categories` ("
+                    + "`id` TEXT NOT NULL, `name` TEXT NOT NULL, `color_code` INTEGER NOT NULL, "
+                    + "`icon_res_id` INTEGER NOT NULL, `created_at` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            db.execSQL("INSERT INTO password_entries VALUES ('entry-1', 'Gmail', 'user@example.com', "
+                    + "'QUJDREVG', 'https://mail.google.com', 'メモ', '仕事', 1000, 2000)");
+            db.setVersion(1);
+        } finally {
+            db.close();
+        }
+    }
+
+    private static String queryPlan(SupportSQLiteDatabase db, String sql) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + sql)) {
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(3)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static long longValue(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
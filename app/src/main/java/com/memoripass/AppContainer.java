@@ -0,0 +1,223 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.memoripass.crypto.CryptoManager;
+import com.memoripass.crypto.CryptoService;
+import com.memoripass.data.local.AppDatabase;
+import com.memoripass.data.repository.PasswordRepository;
+import com.memoripass.domain.usecase.AddPasswordUseCase;
+import com.memoripass.domain.usecase.DecryptedPasswordCache;
+import com.memoripass.domain.usecase.DeletePasswordUseCase;
+import com.memoripass.domain.usecase.GetAllPasswordsUseCase;
+import com.memoripass.domain.usecase.GetPasswordUseCase;
+import com.memoripass.domain.usecase.UpdatePasswordUseCase;
+
+/**
+ * アプリ全体で共有する依存オブジェクトのコンテナ
+ *
+ * <p>データベース・リポジトリ・暗号処理・ユースケースを初回の取得時に作成し、
+ * 以降はすべての画面で同じインスタンスを使う。{@link MemoripassApplication} が1つだけ保持する。</p>
+ *
+ * <p>共有する理由:</p>
+ * <ul>
+ *   <li>リポジトリごとに作成される暗号化マネージャー（データ鍵の読み込み）・
+ *       書き込みキューのスレッドを画面を開くたびに作らない</li>
+ *   <li>鍵ローテーション・フィールド暗号化の再開処理を重複して起動しない</li>
+ * </ul>
+ *
+ * <p>ロック時は {@link #onLock()} で復号済みのキャッシュと暗号処理のセッションを破棄する。
+ * データベース・スレッドはロック後も使い続ける（スレッドはアイドル時に解放される）。</p>
+ *
+ * @since 1.1
+ */
+public final class AppContainer {
+
+    private static final String TAG = "AppContainer";
+
+    private final Context context;
+
+    private PasswordRepository repository;
+    private GetAllPasswordsUseCase getAllPasswordsUseCase;
+    private GetPasswordUseCase getPasswordUseCase;
+    private AddPasswordUseCase addPasswordUseCase;
+    private UpdatePasswordUseCase updatePasswordUseCase;
+    private DeletePasswordUseCase deletePasswordUseCase;
+    private UnlockPreloader unlockPreloader;
+
+    /**
+     * コンストラクタ
+     *
+     * @param context アプリケーションコンテキスト
+     */
+    AppContainer(@NonNull Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * コンテナを取得
+     *
+     * @param context コンテキスト
+     * @return アプリ全体で共有するコンテナ
+     */
+    @NonNull
+    public static AppContainer from(@NonNull Context context) {
+        return ((MemoripassApplication) context.getApplicationContext()).getContainer();
+    }
+
+    /**
+     * データベースを取得
+     *
+     * @return データベースインスタンス
+     */
+    @NonNull
+    public AppDatabase getDatabase() {
+        return AppDatabase.getInstance(context);
+    }
+
+    /**
+     * 非同期暗号化サービスを取得
+     *
+     * @return アプリ全体で共有するサービス
+     */
+    @NonNull
+    public CryptoService getCryptoService() {
+        return CryptoService.getInstance();
+    }
+
+    /**
+     * パスワードリポジトリを取得
+     *
+     * @return アプリ全体で共有するリポジトリ
+     * @throws CryptoManager.CryptoException 暗号化マネージャーの初期化に失敗（次回の取得時に再試行）
+     */
+    @NonNull
+    public synchronized PasswordRepository getPasswordRepository() throws CryptoManager.CryptoException {
+        if (repository == null) {
+            long start = System.nanoTime();
+            repository = new PasswordRepository(context);
+            Log.d(TAG, "PasswordRepository created in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+        }
+        return repository;
+    }
+
+    /**
+     * パスワード一覧取得ユースケースを取得
+     *
+     * @return ユースケース
+     * @throws CryptoManager.CryptoException リポジトリの初期化に失敗
+     */
+    @NonNull
+    public synchronized GetAllPasswordsUseCase getAllPasswordsUseCase() throws CryptoManager.CryptoException {
+        if (getAllPasswordsUseCase == null) {
+            getAllPasswordsUseCase = new GetAllPasswordsUseCase(getPasswordRepository());
+        }
+        return getAllPasswordsUseCase;
+    }
+
+    /**
+     * パスワード取得ユースケースを取得
+     *
+     * @return ユースケース
+     * @throws CryptoManager.CryptoException リポジトリの初期化に失敗
+     */
+    @NonNull
+    public synchronized GetPasswordUseCase getPasswordUseCase() throws CryptoManager.CryptoException {
+        if (getPasswordUseCase == null) {
+            getPasswordUseCase = new GetPasswordUseCase(getPasswordRepository());
+        }
+        return getPasswordUseCase;
+    }
+
+    /**
+     * パスワード追加ユースケースを取得
+     *
+     * @return ユースケース
+     * @throws CryptoManager.CryptoException リポジトリの初期化に失敗
+     */
+    @NonNull
+    public synchronized AddPasswordUseCase addPasswordUseCase() throws CryptoManager.CryptoException {
+        if (addPasswordUseCase == null) {
+            addPasswordUseCase = new AddPasswordUseCase(getPasswordRepository());
+        }
+        return addPasswordUseCase;
+    }
+
+    /**
+     * パスワード更新ユースケースを取得
+     *
+     * @return ユースケース
+     * @throws CryptoManager.CryptoException リポジトリの初期化に失敗
+     */
+    @NonNull
+    public synchronized UpdatePasswordUseCase updatePasswordUseCase() throws CryptoManager.CryptoException {
+        if (updatePasswordUseCase == null) {
+            updatePasswordUseCase = new UpdatePasswordUseCase(getPasswordRepository());
+        }
+        return updatePasswordUseCase;
+    }
+
+    /**
+     * パスワード削除ユースケースを取得
+     *
+     * @return ユースケース
+     * @throws CryptoManager.CryptoException リポジトリの初期化に失敗
+     */
+    @NonNull
+    public synchronized DeletePasswordUseCase deletePasswordUseCase() throws CryptoManager.CryptoException {
+        if (deletePasswordUseCase == null) {
+            deletePasswordUseCase = new DeletePasswordUseCase(getPasswordRepository());
+        }
+        return deletePasswordUseCase;
+    }
+
+    /**
+     * アンロックの先行準備を取得
+     *
+     * @return アプリ全体で共有する先行準備
+     */
+    @NonNull
+    public synchronized UnlockPreloader getUnlockPreloader() {
+        if (unlockPreloader == null) {
+            unlockPreloader = new UnlockPreloader(this);
+        }
+        return unlockPreloader;
+    }
+
+    /**
+     * ロック時の後処理
+     *
+     * <p>復号済みパスワードのキャッシュと、リポジトリが保持する鍵の参照・Cipherを破棄する。
+     * リポジトリが未作成の場合は作成しない。</p>
+     */
+    public void onLock() {
+        DecryptedPasswordCache.getInstance().clear();
+        PasswordRepository current;
+        synchronized (this) {
+            current = repository;
+        }
+        if (current != null) {
+            current.clearCryptoSession();
+        }
+        Log.d(TAG, "Session state cleared on lock");
+    }
+}
@@ -18,15 +18,18 @@ package com.memoripass;
 import android.os.Bundle;
 import com.memoripass.util.RootDetector;
 import com.memoripass.util.AuditLogger;
+import com.memoripass.util.StartupOrchestrator;
 import android.util.Log;
 import android.view.View;
 import android.view.WindowManager;
 import android.widget.Toast;
 
+import androidx.annotation.WorkerThread;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.memoripass.auth.AuthenticationManager;
 import com.memoripass.crypto.CryptoManager;
+import com.memoripass.crypto.KeyManager;
 import com.memoripass.data.model.PasswordEntry;
 import com.memoripass.data.repository.PasswordRepository;
 import com.memoripass.databinding.ActivityMainBinding;
@@ -39,11 +42,15 @@ import com.memoripass.ui.list.PasswordListFragment;
  * セキュリティのため、FLAG_SECUREを設定し、
  * スクリーンショットと画面録画を防止する。</p>
  *
+ * <p>起動処理は {@link StartupOrchestrator} で実行し、最初のフレームまでに
+ * 行うのはロック画面に必要な認証マネージャーの初期化のみとする。</p>
+ *
  * <p>認証機能:</p>
  * <ul>
  *   <li>起動時に生体認証を要求</li>
  *   <li>バックグラウンド移行時にオートロックタイマー開始</li>
  *   <li>フォアグラウンド復帰時に再認証</li>
+ *   <li>認証待ちの間に一覧の表示に必要な処理を先行して準備（{@link UnlockPreloader}）</li>
  * </ul>
  *
  * @since 1.0
@@ -54,7 +61,6 @@ public class MainActivity extends AppCompatActivity {
 
     private ActivityMainBinding binding;
     private AuthenticationManager authManager;
-    private RootDetector rootDetector;
     private AuditLogger auditLogger;
 
     @Override
@@ -70,27 +76,17 @@ public class MainActivity extends AppCompatActivity {
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        // 認証マネージャーの初期化
-        authManager = new AuthenticationManager(this);
-
-        // root化検知・監査ログの初期化
-        rootDetector = new RootDetector(this);
+        // 監査ログ（書き込みは呼び出し時に行うため、生成は軽い）
         auditLogger = new AuditLogger(this);
 
-        // アプリ起動を記録
-        auditLogger.log(AuditLogger.Action.APP_LAUNCHED, null);
-
-        // root化チェック
-        if (rootDetector.isRooted()) {
-            auditLogger.logSecurityEvent(AuditLogger.Action.ROOT_DETECTED, "Device may be rooted");
-            new androidx.appcompat.app.AlertDialog.Builder(this)
-                .setTitle("セキュリティ警告")
-                .setMessage("このデバイスはroot化されている可能性があります。パスワードのセキュリティが低下するリスクがあります。続行しますか？")
-                .setPositiveButton("続行", (dialog, which) -> dialog.dismiss())
-                .setNegativeButton("終了", (dialog, which) -> finish())
-                .setCancelable(false)
-                .show();
-        }
+        // 起動処理: ロック画面に必要な認証マネージャーのみ最初のフレーム前に初期化し、
+        // KeyStoreの読み込み・監査ログの書き込み・root化チェックはバックグラウンドで並行に行う
+        new StartupOrchestrator()
+                .addBlocking("auth", () -> authManager = new AuthenticationManager(this))
+                .add("keystore", () -> KeyManager.getInstance().warmUp().join())
+                .add("audit-launch", () -> auditLogger.log(AuditLogger.Action.APP_LAUNCHED, null))
+                .add("root-check", this::checkRoot, "audit-launch")
+                .start();
 
         // 初回起動時の認証
         if (!authManager.isAuthenticated()) {
@@ -137,6 +133,31 @@ public class MainActivity extends AppCompatActivity {
         binding = null;
     }
 
+    /**
+     * root化チェック（バックグラウンドスレッドで実行）
+     *
+     * <p>root化の可能性がある場合は監査ログに記録し、メインスレッドで警告を表示する。</p>
+     */
+    @WorkerThread
+    private void checkRoot() {
+        if (!new RootDetector(this).isRooted()) {
+            return;
+        }
+        auditLogger.logSecurityEvent(AuditLogger.Action.ROOT_DETECTED, "Device may be rooted");
+        runOnUiThread(() -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
+            new androidx.appcompat.app.AlertDialog.Builder(this)
+                .setTitle("セキュリティ警告")
+                .setMessage("このデバイスはroot化されている可能性があります。パスワードのセキュリティが低下するリスクがあります。続行しますか？")
+                .setPositiveButton("続行", (dialog, which) -> dialog.dismiss())
+                .setNegativeButton("終了", (dialog, which) -> finish())
+                .setCancelable(false)
+                .show();
+        });
+    }
+
     /**
      * 認証をリクエスト
      */
@@ -151,6 +172,10 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
+        // プロンプトの表示中にデータベース・データ鍵・一覧の最初のページを準備する
+        UnlockPreloader preloader = AppContainer.from(this).getUnlockPreloader();
+        preloader.start();
+
         authManager.authenticate(this, new AuthenticationManager.AuthenticationCallback() {
             @Override
             public void onAuthenticationSuccess() {
@@ -182,6 +207,7 @@ public class MainActivity extends AppCompatActivity {
             @Override
             public void onAuthenticationError(String errorMessage) {
                 Log.e(TAG, "Authentication error: " + errorMessage);
+                preloader.discard();
                 runOnUiThread(() -> {
                     Toast.makeText(
                             MainActivity.this,
@@ -195,6 +221,7 @@ public class MainActivity extends AppCompatActivity {
             @Override
             public void onAuthenticationCancelled() {
                 Log.d(TAG, "Authentication cancelled");
+                preloader.discard();
                 auditLogger.logAuth(AuditLogger.Action.AUTH_LOCKED);
                 runOnUiThread(() -> {
                     Toast.makeText(
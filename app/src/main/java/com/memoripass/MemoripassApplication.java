@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass;
+
+import android.app.Application;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+/**
+ * アプリケーションクラス
+ *
+ * <p>アプリ全体で共有する依存オブジェクトのコンテナ（{@link AppContainer}）を保持する。
+ * コンテナ内のオブジェクトは初回の取得時に作成するため、起動時の処理は増えない。</p>
+ *
+ * @since 1.1
+ */
+public class MemoripassApplication extends Application {
+
+    private static final String TAG = "MemoripassApplication";
+
+    private AppContainer container;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        container = new AppContainer(this);
+        Log.d(TAG, "Application created");
+    }
+
+    /**
+     * 依存オブジェクトのコンテナを取得
+     *
+     * @return アプリ全体で共有するコンテナ
+     */
+    @NonNull
+    public AppContainer getContainer() {
+        return container;
+    }
+}
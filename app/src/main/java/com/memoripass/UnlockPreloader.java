@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.memoripass.crypto.CryptoService;
+import com.memoripass.crypto.DataKeyHolder;
+import com.memoripass.data.repository.PasswordRepository;
+import com.memoripass.data.repository.RevealedSummaries;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * アンロックの先行準備
+ *
+ * <p>生体認証のプロンプトを表示している間に、認証成功後の一覧表示に必要な処理を並行して済ませる。
+ * 認証成功後は最初のフレームで一覧を表示できる。</p>
+ *
+ * <p>準備する内容:</p>
+ * <ul>
+ *   <li>データベースのオープン（マイグレーション・書き込みジャーナルの再適用を含む）</li>
+ *   <li>リポジトリの作成と現在のデータ鍵のアンラップ（上記と並行）</li>
+ *   <li>一覧の最初のページの読み込みとユーザー名の復号（上記の完了後）。
+ *       結果は復号済みの要約（{@link RevealedSummaries}）に保持し、
+ *       一覧のViewModelが {@link #takeRevealed()} で引き取る</li>
+ * </ul>
+ *
+ * <p>データ鍵は認証前にアンラップするため、準備の開始時にアンロック中のセッションを
+ * 明示的に開始する（{@link DataKeyHolder#beginSession()}）。
+ * 認証がキャンセル・エラーになった場合は {@link #discard()} で保持した要約と
+ * データ鍵を破棄し、セッションを終了する。破棄後に完了した準備の結果も破棄する。</p>
+ *
+ * @since 1.1
+ */
+public final class UnlockPreloader {
+
+    private static final String TAG = "UnlockPreloader";
+
+    private final AppContainer container;
+    private final Object lock = new Object();
+    private Run current;
+
+    /**
+     * コンストラクタ
+     *
+     * @param container 依存オブジェクトのコンテナ
+     */
+    UnlockPreloader(@NonNull AppContainer container) {
+        this.container = container;
+    }
+
+    /**
+     * 準備を開始（認証のプロンプトを表示する直前に呼び出す）
+     *
+     * <p>呼び出し元をブロックしない。準備中・引き取り前の結果がある場合は何もしない。</p>
+     */
+    public void start() {
+        Run run = new Run();
+        synchronized (lock) {
+            if (current != null) {
+                return;
+            }
+            current = run;
+        }
+        // 認証待ちの間だけ、データ鍵のアンラップを許可する
+        run.session = DataKeyHolder.getInstance().beginSession();
+
+        long begin = System.nanoTime();
+        CryptoService cryptoService = container.getCryptoService();
+        CompletableFuture<Void> database = cryptoService.submit(CryptoService.Priority.BACKGROUND, () -> {
+            run.checkActive();
+            container.getDatabase().getOpenHelper().getWritableDatabase();
+            return null;
+        });
+        CompletableFuture<PasswordRepository> keys = cryptoService.submit(CryptoService.Priority.BACKGROUND, () -> {
+            run.checkActive();
+            PasswordRepository repository = container.getPasswordRepository();
+            repository.prepareKeys();
+            return repository;
+        });
+
+        database.thenCombine(keys, (ignored, repository) -> repository)
+                .thenCompose(repository -> {
+                    run.checkActive();
+                    return repository.prefetchFirstPage(run.revealed);
+                })
+                .whenComplete((count, error) -> {
+                    if (run.discarded) {
+                        // 破棄後にアンラップされた鍵を残さない（その後の認証で始まったセッションは終了しない）
+                        DataKeyHolder.getInstance().endSession(run.session);
+                        return;
+                    }
+                    long elapsedMs = (System.nanoTime() - begin) / 1_000_000;
+                    if (error != null) {
+                        Log.w(TAG, "Unlock preload incomplete after " + elapsedMs + "ms", error);
+                    } else {
+                        Log.d(TAG, "Unlock preload finished in " + elapsedMs + "ms (" + count + " summaries)");
+                    }
+                });
+    }
+
+    /**
+     * 一覧の復号済みの要約を引き取る
+     *
+     * <p>準備中の場合も同じ要約を返す（準備の完了後に反映される）。</p>
+     *
+     * @return 先読みした復号済みの要約（準備していない場合は空）
+     */
+    @NonNull
+    public RevealedSummaries takeRevealed() {
+        synchronized (lock) {
+            Run run = current;
+            current = null;
+            if (run != null) {
+                Log.d(TAG, "Handing over " + run.revealed.size() + " preloaded summaries");
+                return run.revealed;
+            }
+        }
+        return new RevealedSummaries();
+    }
+
+    /**
+     * 準備の結果を破棄（認証がキャンセル・エラーになった時に呼び出す）
+     *
+     * <p>保持した要約を手放し、データ鍵と暗号処理のセッションを破棄する。</p>
+     */
+    public void discard() {
+        Run run;
+        synchronized (lock) {
+            run = current;
+            current = null;
+        }
+        if (run != null) {
+            run.discarded = true;
+        }
+        DataKeyHolder.getInstance().clear();
+        container.onLock();
+        Log.d(TAG, "Unlock preload discarded");
+    }
+
+    /**
+     * 1回分の準備
+     */
+    private static final class Run {
+
+        final RevealedSummaries revealed = new RevealedSummaries();
+        volatile boolean discarded;
+        // 準備のために開始したセッションの番号
+        volatile long session;
+
+        /**
+         * 破棄済みであれば以降の処理を中止
+         */
+        void checkActive() {
+            if (discarded) {
+                throw new CancellationException("Unlock preload discarded");
+            }
+        }
+    }
+}
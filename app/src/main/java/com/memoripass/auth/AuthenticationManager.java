@@ -27,6 +27,9 @@ import androidx.biometric.BiometricPrompt;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.FragmentActivity;
 
+import com.memoripass.AppContainer;
+import com.memoripass.crypto.DataKeyHolder;
+
 import java.util.concurrent.Executor;
 
 /**
@@ -148,6 +151,8 @@ public class AuthenticationManager {
                         super.onAuthenticationSucceeded(result);
                         Log.d(TAG, "Authentication succeeded");
                         isAuthenticated = true;
+                        // ロックまでの間、データ鍵のアンラップを許可する
+                        DataKeyHolder.getInstance().beginSession();
                         stopAutoLock();
                         callback.onAuthenticationSuccess();
                     }
@@ -198,11 +203,18 @@ public class AuthenticationManager {
 
     /**
      * アプリをロック
+     *
+     * <p>メモリ上のデータ鍵もゼロクリアしてセッションを終了し（次の認証まで再びアンラップしない）、
+     * 復号済みパスワードのキャッシュと
+     * 暗号処理のセッションを破棄する（{@link AppContainer#onLock()}）。
+     * オートロックタイマーの発火時もこのメソッドが呼ばれる。</p>
      */
     public void lock() {
         Log.d(TAG, "Locking application");
         isAuthenticated = false;
         stopAutoLock();
+        DataKeyHolder.getInstance().clear();
+        AppContainer.from(context).onLock();
     }
 
     /**
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 一括暗号化・復号プロセッサ
+ *
+ * <p>エクスポート・再暗号化・ヘルスチェック・インポートなど、
+ * 多数の項目をまとめて処理する用途向け。入力をチャンクに分割し、
+ * ワーカープールで並列に処理する。</p>
+ *
+ * <p>特徴:</p>
+ * <ul>
+ *   <li>処理中のチャンク数を制限し、メモリ使用量を抑える</li>
+ *   <li>項目単位で失敗を記録（バッチ全体は中断しない）</li>
+ *   <li>チャンク完了ごとに進捗を通知</li>
+ *   <li>中間バッファは {@link CryptoManager} 内でゼロクリアされる</li>
+ * </ul>
+ *
+ * <p>呼び出しはブロッキングのため、メインスレッドから呼び出さないこと。</p>
+ *
+ * @since 1.1
+ */
+public class BatchCryptoProcessor {
+
+    private static final String TAG = "BatchCryptoProcessor";
+
+    // デフォルトのチャンクサイズ
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    // ワーカーのアイドルタイムアウト（秒）
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+
+    // ワーカーあたりの同時投入チャンク数
+    static final int CHUNKS_IN_FLIGHT_PER_WORKER = 2;
+
+    private final CryptoManager cryptoManager;
+    private final ThreadPoolExecutor workers;
+    private final int workerCount;
+    private final int chunkSize;
+
+    /**
+     * コンストラクタ
+     *
+     * @param cryptoManager 暗号化マネージャー（スレッドセーフであること）
+     * @param workerCount ワーカースレッド数
+     * @param chunkSize 1タスクで処理する項目数
+     */
+    public BatchCryptoProcessor(
+            @NonNull CryptoManager cryptoManager,
+            int workerCount,
+            int chunkSize
+    ) {
+        if (workerCount < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("workerCount and chunkSize must be positive");
+        }
+        this.cryptoManager = cryptoManager;
+        this.workerCount = workerCount;
+        this.chunkSize = chunkSize;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                workerCount,
+                workerCount,
+                WORKER_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-crypto-" + threadIndex.incrementAndGet());
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }
+        );
+        // アイドル時はスレッドを解放する
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 端末に応じたデフォルトのワーカー数を取得
+     *
+     * <p>UIスレッド用に1コアを残す。</p>
+     *
+     * @return ワーカー数
+     */
+    public static int defaultWorkerCount() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(4, cores - 1));
+    }
+
+    /**
+     * 一括復号
+     *
+     * @param items 入力項目
+     * @param ciphertextOf 項目から暗号文を取り出す関数
+     * @param listener 進捗リスナー（ワーカースレッドから呼ばれる）
+     * @param <T> 入力項目の型
+     * @return 入力順の復号結果
+     * @throws InterruptedException 呼び出しスレッドが割り込まれた
+     */
+    @WorkerThread
+    @NonNull
+    public <T> BatchResult<String> decryptAll(
+            @NonNull List<T> items,
+            @NonNull Function<T, byte[]> ciphertextOf,
+            @Nullable ProgressListener listener
+    ) throws InterruptedException {
+        return processAll(items, item -> cryptoManager.decrypt(ciphertextOf.apply(item)), listener);
+    }
+
+    /**
+     * 一括暗号化
+     *
+     * @param items 入力項目
+     * @param plaintextOf 項目から平文を取り出す関数
+     * @param listener 進捗リスナー（ワーカースレッドから呼ばれる）
+     * @param <T> 入力項目の型
+     * @return 入力順の暗号化結果
+     * @throws InterruptedException 呼び出しスレッドが割り込まれた
+     */
+    @WorkerThread
+    @NonNull
+    public <T> BatchResult<byte[]> encryptAll(
+            @NonNull List<T> items,
+            @NonNull Function<T, String> plaintextOf,
+            @Nullable ProgressListener listener
+    ) throws InterruptedException {
+        return processAll(items, item -> cryptoManager.encrypt(plaintextOf.apply(item)), listener);
+    }
+
+    /**
+     * 任意の暗号処理を一括実行
+     *
+     * <p>旧形式データの復号など、項目ごとに処理を切り替える場合に使用する。</p>
+     *
+     * @param items 入力項目
+     * @param operation 1項目の処理（ワーカースレッドから呼ばれる）
+     * @param listener 進捗リスナー（ワーカースレッドから呼ばれる）
+     * @param <T> 入力項目の型
+     * @param <R> 結果の型
+     * @return 入力順の処理結果
+     * @throws InterruptedException 呼び出しスレッドが割り込まれた
+     */
+    @WorkerThread
+    @NonNull
+    public <T, R> BatchResult<R> processAll(
+            @NonNull List<T> items,
+            @NonNull Operation<T, R> operation,
+            @Nullable ProgressListener listener
+    ) throws InterruptedException {
+        final int total = items.size();
+        final BatchResult<R> result = new BatchResult<>(total);
+        if (total == 0) {
+            return result;
+        }
+
+        int chunkCount = (total + chunkSize - 1) / chunkSize;
+        CountDownLatch remaining = new CountDownLatch(chunkCount);
+        Semaphore inFlight = new Semaphore(workerCount * CHUNKS_IN_FLIGHT_PER_WORKER);
+        AtomicInteger completed = new AtomicInteger();
+
+        for (int start = 0; start < total; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, total);
+
+            // 処理中のチャンク数を制限（メモリ使用量の上限）
+            inFlight.acquire();
+            try {
+                workers.execute(() -> {
+                    try {
+                        for (int i = from; i < to; i++) {
+                            try {
+                                result.setValue(i, operation.apply(items.get(i)));
+                            } catch (Exception e) {
+                                result.setError(i, e);
+                            }
+                        }
+                        int done = completed.addAndGet(to - from);
+                        if (listener != null) {
+                            listener.onProgress(done, total);
+                        }
+                    } finally {
+                        inFlight.release();
+                        remaining.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                Log.e(TAG, "Batch chunk rejected", e);
+                for (int i = from; i < to; i++) {
+                    result.setError(i, e);
+                }
+                inFlight.release();
+                remaining.countDown();
+            }
+        }
+
+        remaining.await();
+
+        if (result.getFailureCount() > 0) {
+            Log.w(TAG, "Batch finished with " + result.getFailureCount() + "/" + total + " failures");
+        }
+        return result;
+    }
+
+    /**
+     * ワーカーの待ち行列にあるチャンク数を取得（テスト用）
+     *
+     * @return 実行待ちのチャンク数
+     */
+    @VisibleForTesting
+    int getQueuedChunkCount() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * ワーカーを停止
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * 1項目の暗号処理
+     *
+     * @param <T> 入力項目の型
+     * @param <R> 結果の型
+     */
+    public interface Operation<T, R> {
+        /**
+         * 1項目を処理
+         *
+         * @param item 入力項目
+         * @return 処理結果
+         * @throws CryptoManager.CryptoException 暗号処理に失敗
+         */
+        R apply(T item) throws CryptoManager.CryptoException;
+    }
+
+    /**
+     * 進捗リスナー
+     */
+    public interface ProgressListener {
+        /**
+         * チャンクの処理完了時
+         *
+         * @param completed 処理済み件数
+         * @param total 全件数
+         */
+        void onProgress(int completed, int total);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import androidx.annotation.Nullable;
+
+/**
+ * 一括暗号化・復号の結果
+ *
+ * <p>入力と同じ順序で、項目ごとに成功値または失敗理由を保持する。
+ * 1件の失敗でバッチ全体が中断されることはない。</p>
+ *
+ * @param <T> 成功時の値の型
+ * @since 1.1
+ */
+public class BatchResult<T> {
+
+    private final Object[] values;
+    private final Exception[] errors;
+
+    /**
+     * コンストラクタ
+     *
+     * @param size 項目数
+     */
+    BatchResult(int size) {
+        this.values = new Object[size];
+        this.errors = new Exception[size];
+    }
+
+    void setValue(int index, T value) {
+        values[index] = value;
+    }
+
+    void setError(int index, Exception error) {
+        errors[index] = error;
+    }
+
+    /**
+     * 項目数を取得
+     *
+     * @return 項目数
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * 項目が成功したかチェック
+     *
+     * @param index 入力順のインデックス
+     * @return true: 成功
+     */
+    public boolean isSuccess(int index) {
+        return errors[index] == null;
+    }
+
+    /**
+     * 成功値を取得
+     *
+     * @param index 入力順のインデックス
+     * @return 成功値（失敗時はnull）
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T getValue(int index) {
+        return (T) values[index];
+    }
+
+    /**
+     * 失敗理由を取得
+     *
+     * @param index 入力順のインデックス
+     * @return 例外（成功時はnull）
+     */
+    @Nullable
+    public Exception getError(int index) {
+        return errors[index];
+    }
+
+    /**
+     * 成功件数を取得
+     *
+     * @return 成功件数
+     */
+    public int getSuccessCount() {
+        return values.length - getFailureCount();
+    }
+
+    /**
+     * 失敗件数を取得
+     *
+     * @return 失敗件数
+     */
+    public int getFailureCount() {
+        int count = 0;
+        for (Exception error : errors) {
+            if (error != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        // セキュリティ: 値は出力しない
+        return "BatchResult{" +
+                "size=" + values.length +
+                ", failures=" + getFailureCount() +
+                '}';
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.ShortBufferException;
+
+/**
+ * 呼び出し側の char[] / ByteBuffer を対象とする暗号化ヘルパー
+ *
+ * <p>平文をStringにせず、呼び出し側が所有する配列・バッファとの間で直接
+ * 暗号化・復号する。UTF-8変換の中間領域はスレッドごとに再利用し、
+ * 使用後は必ずゼロクリアする。定常状態ではこの層での割り当ては発生しない
+ * （JCEプロバイダー内部の割り当ては除く）。</p>
+ *
+ * @since 1.1
+ */
+final class BufferCrypto {
+
+    // スレッドごとの中間領域
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private BufferCrypto() {
+        // インスタンス化禁止
+    }
+
+    /**
+     * ヘッダー書き込み用のスレッド別領域を取得
+     *
+     * @return {@link CiphertextFormat#HEADER_SIZE_V2} バイトの配列
+     */
+    @NonNull
+    static byte[] headerScratch() {
+        return SCRATCH.get().header;
+    }
+
+    /**
+     * 文字列を暗号化してバッファに書き込む
+     *
+     * @param engine 暗号エンジン
+     * @param header ヘッダー（nullの場合はヘッダーなし）
+     * @param plaintext 平文
+     * @param offset 開始位置
+     * @param length 文字数
+     * @param output 出力先
+     * @return 書き込んだバイト数
+     * @throws GeneralSecurityException 暗号化に失敗
+     */
+    static int encrypt(
+            @NonNull CipherEngine engine,
+            @Nullable byte[] header,
+            @NonNull char[] plaintext,
+            int offset,
+            int length,
+            @NonNull ByteBuffer output
+    ) throws GeneralSecurityException {
+        Scratch scratch = SCRATCH.get();
+        ByteBuffer encoded = scratch.ensureCapacity(Utf8.maxEncodedLength(length));
+        int encodedLength = Utf8.encode(plaintext, offset, length, scratch.bytes, 0);
+        try {
+            encoded.clear();
+            encoded.limit(encodedLength);
+            return engine.encrypt(header, encoded, output);
+        } finally {
+            // センシティブデータをクリア
+            Arrays.fill(scratch.bytes, 0, encodedLength, (byte) 0);
+        }
+    }
+
+    /**
+     * 暗号化データを文字列として配列に復号
+     *
+     * @param engine 暗号エンジン
+     * @param data ヘッダー + IV + 暗号文
+     * @param offset 開始位置
+     * @param length 長さ（ヘッダーを含む）
+     * @param headerSize ヘッダーのバイト数
+     * @param output 出力先
+     * @param outputOffset 出力の開始位置
+     * @return 書き込んだ文字数
+     * @throws GeneralSecurityException 復号に失敗、または出力先が不足
+     */
+    static int decrypt(
+            @NonNull CipherEngine engine,
+            @NonNull byte[] data,
+            int offset,
+            int length,
+            int headerSize,
+            @NonNull char[] output,
+            int outputOffset
+    ) throws GeneralSecurityException {
+        Scratch scratch = SCRATCH.get();
+        scratch.ensureCapacity(CipherEngine.decryptedSize(headerSize, length));
+        int plaintextLength = 0;
+        try {
+            plaintextLength = engine.decrypt(data, offset, length, headerSize, scratch.bytes, 0);
+            return decode(scratch.bytes, plaintextLength, output, outputOffset);
+        } finally {
+            Arrays.fill(scratch.bytes, 0, plaintextLength, (byte) 0);
+        }
+    }
+
+    /**
+     * 暗号化データを文字列として配列に復号
+     *
+     * @param engine 暗号エンジン
+     * @param input ヘッダー + IV + 暗号文（position〜limit）
+     * @param headerSize ヘッダーのバイト数
+     * @param output 出力先
+     * @param outputOffset 出力の開始位置
+     * @return 書き込んだ文字数
+     * @throws GeneralSecurityException 復号に失敗、または出力先が不足
+     */
+    static int decrypt(
+            @NonNull CipherEngine engine,
+            @NonNull ByteBuffer input,
+            int headerSize,
+            @NonNull char[] output,
+            int outputOffset
+    ) throws GeneralSecurityException {
+        Scratch scratch = SCRATCH.get();
+        ByteBuffer plaintext = scratch.ensureCapacity(
+                CipherEngine.decryptedSize(headerSize, input.remaining()));
+        plaintext.clear();
+        int plaintextLength = 0;
+        try {
+            plaintextLength = engine.decrypt(input, headerSize, plaintext);
+            return decode(scratch.bytes, plaintextLength, output, outputOffset);
+        } finally {
+            Arrays.fill(scratch.bytes, 0, plaintextLength, (byte) 0);
+        }
+    }
+
+    /**
+     * 配列をゼロクリア
+     *
+     * @param data 消去する配列
+     */
+    static void wipe(@NonNull char[] data) {
+        Arrays.fill(data, '\0');
+    }
+
+    /**
+     * バッファの全領域をゼロクリア（ダイレクトバッファにも対応）
+     *
+     * @param buffer 消去するバッファ
+     */
+    static void wipe(@NonNull ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            Arrays.fill(buffer.array(), buffer.arrayOffset(),
+                    buffer.arrayOffset() + buffer.capacity(), (byte) 0);
+        } else {
+            for (int i = 0; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        buffer.clear();
+    }
+
+    /**
+     * UTF-8の平文を出力先にデコード
+     */
+    private static int decode(
+            @NonNull byte[] plaintext,
+            int length,
+            @NonNull char[] output,
+            int outputOffset
+    ) throws ShortBufferException {
+        if (output.length - outputOffset < Utf8.decodedLength(plaintext, 0, length)) {
+            throw new ShortBufferException("Output buffer too small");
+        }
+        return Utf8.decode(plaintext, 0, length, output, outputOffset);
+    }
+
+    /**
+     * スレッドごとの中間領域
+     */
+    private static final class Scratch {
+
+        // 一般的なエントリの平文が収まる初期サイズ
+        private static final int INITIAL_CAPACITY = 256;
+
+        final byte[] header = new byte[CiphertextFormat.HEADER_SIZE_V2];
+        byte[] bytes = new byte[INITIAL_CAPACITY];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        /**
+         * 指定サイズ以上の領域を確保（拡張時は古い領域をゼロクリア）
+         */
+        @NonNull
+        ByteBuffer ensureCapacity(int capacity) {
+            if (bytes.length < capacity) {
+                Arrays.fill(bytes, (byte) 0);
+                bytes = new byte[Math.max(capacity, bytes.length * 2)];
+                buffer = ByteBuffer.wrap(bytes);
+            }
+            return buffer;
+        }
+    }
+}
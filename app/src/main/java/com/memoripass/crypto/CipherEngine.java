@@ -0,0 +1,476 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+
+/**
+ * スレッドセーフな認証付き暗号エンジン
+ *
+ * <p>鍵の解決をセッションごとに1回に抑え、Cipherインスタンスを
+ * {@link CipherPool} で再利用する。複数のワーカースレッドから
+ * 同時に呼び出してよい。アルゴリズムは {@link CipherSuite} で指定する。</p>
+ *
+ * <p>暗号化データのフォーマット:</p>
+ * <pre>
+ * [ヘッダー (任意、AADとして認証)] [ノンス (12 bytes)] [暗号文 + 認証タグ (n + 16 bytes)]
+ * </pre>
+ *
+ * <p>Android依存を持たないため、JVM上のユニットテストで検証できる。</p>
+ *
+ * @since 1.1
+ */
+public class CipherEngine {
+
+    // IVサイズ（NIST SP 800-38D推奨: 96ビット）
+    public static final int IV_SIZE_BYTES = 12;
+
+    // 認証タグのサイズ（ビット）
+    public static final int AUTH_TAG_SIZE_BITS = 128;
+
+    private static final int AUTH_TAG_SIZE_BYTES = AUTH_TAG_SIZE_BITS / 8;
+
+    private final CipherSuite suite;
+    private final KeyResolver keyResolver;
+    private final CipherPool cipherPool;
+    private final SecureRandom secureRandom;
+
+    // ダイレクトバッファからIVを読み出すためのスレッド別領域
+    private final ThreadLocal<byte[]> ivScratch =
+            ThreadLocal.withInitial(() -> new byte[IV_SIZE_BYTES]);
+
+    private final Object keyLock = new Object();
+
+    private volatile SecretKey cachedKey;
+
+    /**
+     * コンストラクタ（AES-256-GCM）
+     *
+     * @param keyResolver 鍵の解決処理（初回利用時・無効化後にのみ呼ばれる）
+     * @param maxCiphersPerThread スレッドごとに保持するCipherの上限
+     */
+    public CipherEngine(@NonNull KeyResolver keyResolver, int maxCiphersPerThread) {
+        this(CipherSuite.AES_256_GCM, keyResolver, maxCiphersPerThread);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param suite 暗号スイート
+     * @param keyResolver 鍵の解決処理（初回利用時・無効化後にのみ呼ばれる）
+     * @param maxCiphersPerThread スレッドごとに保持するCipherの上限
+     */
+    public CipherEngine(
+            @NonNull CipherSuite suite,
+            @NonNull KeyResolver keyResolver,
+            int maxCiphersPerThread
+    ) {
+        this.suite = suite;
+        this.keyResolver = keyResolver;
+        this.cipherPool = new CipherPool(suite.getTransformation(), maxCiphersPerThread);
+        this.secureRandom = new SecureRandom();
+    }
+
+    /**
+     * データを暗号化
+     *
+     * @param plaintext 平文バイト列
+     * @param offset 開始位置
+     * @param length 長さ
+     * @return IV + 暗号文
+     * @throws GeneralSecurityException 暗号化に失敗
+     */
+    @NonNull
+    public byte[] encrypt(@NonNull byte[] plaintext, int offset, int length)
+            throws GeneralSecurityException {
+        return encrypt(null, plaintext, offset, length);
+    }
+
+    /**
+     * ヘッダー付きでデータを暗号化
+     *
+     * <p>出力配列の先頭にヘッダーを配置し、続けて IV + 暗号文 を書き込む。
+     * ヘッダーはAADとして認証されるため、改ざんすると復号に失敗する。
+     * 出力配列は1回だけ確保し、ヘッダー付与のための再コピーは行わない。</p>
+     *
+     * @param header ヘッダー（nullの場合はヘッダーなし）
+     * @param plaintext 平文バイト列
+     * @param offset 開始位置
+     * @param length 長さ
+     * @return ヘッダー + IV + 暗号文
+     * @throws GeneralSecurityException 暗号化に失敗
+     */
+    @NonNull
+    public byte[] encrypt(@Nullable byte[] header, @NonNull byte[] plaintext, int offset, int length)
+            throws GeneralSecurityException {
+        int headerSize = header != null ? header.length : 0;
+        byte[] output = new byte[encryptedSize(headerSize, length)];
+        encrypt(header, plaintext, offset, length, output, 0);
+        return output;
+    }
+
+    /**
+     * ヘッダー付きでデータを呼び出し側の配列に暗号化
+     *
+     * @param header ヘッダー（nullの場合はヘッダーなし）
+     * @param plaintext 平文バイト列
+     * @param offset 開始位置
+     * @param length 長さ
+     * @param output 出力先（{@link #encryptedSize(int, int)} バイト以上の空きが必要）
+     * @param outputOffset 出力の開始位置
+     * @return 書き込んだバイト数
+     * @throws GeneralSecurityException 暗号化に失敗
+     */
+    public int encrypt(
+            @Nullable byte[] header,
+            @NonNull byte[] plaintext,
+            int offset,
+            int length,
+            @NonNull byte[] output,
+            int outputOffset
+    ) throws GeneralSecurityException {
+        int headerSize = header != null ? header.length : 0;
+        if (output.length - outputOffset < encryptedSize(headerSize, length)) {
+            throw new ShortBufferException("Output buffer too small");
+        }
+
+        Cipher cipher = acquireForEncrypt();
+        try {
+            int position = outputOffset;
+            if (headerSize > 0) {
+                cipher.updateAAD(header);
+                System.arraycopy(header, 0, output, position, headerSize);
+                position += headerSize;
+            }
+            System.arraycopy(ivOf(cipher), 0, output, position, IV_SIZE_BYTES);
+            position += IV_SIZE_BYTES;
+            position += cipher.doFinal(plaintext, offset, length, output, position);
+            return position - outputOffset;
+        } finally {
+            cipherPool.release(cipher);
+        }
+    }
+
+    /**
+     * ヘッダー付きでデータを呼び出し側のバッファに暗号化
+     *
+     * <p>{@code plaintext} の残り全体を暗号化し、{@code output} の現在位置から書き込む。
+     * ダイレクトバッファも使用できる。</p>
+     *
+     * @param header ヘッダー（nullの場合はヘッダーなし）
+     * @param plaintext 平文（position〜limit）
+     * @param output 出力先
+     * @return 書き込んだバイト数
+     * @throws GeneralSecurityException 暗号化に失敗
+     */
+    public int encrypt(
+            @Nullable byte[] header,
+            @NonNull ByteBuffer plaintext,
+            @NonNull ByteBuffer output
+    ) throws GeneralSecurityException {
+        int headerSize = header != null ? header.length : 0;
+        if (output.remaining() < encryptedSize(headerSize, plaintext.remaining())) {
+            throw new ShortBufferException("Output buffer too small");
+        }
+
+        Cipher cipher = acquireForEncrypt();
+        try {
+            int start = output.position();
+            if (headerSize > 0) {
+                cipher.updateAAD(header);
+                output.put(header);
+            }
+            output.put(ivOf(cipher));
+            cipher.doFinal(plaintext, output);
+            return output.position() - start;
+        } finally {
+            cipherPool.release(cipher);
+        }
+    }
+
+    /**
+     * データを復号
+     *
+     * <p>入力配列をコピーせず、IVと暗号文を直接参照する。</p>
+     *
+     * @param data IV + 暗号文
+     * @param offset 開始位置
+     * @param length 長さ
+     * @return 平文バイト列（利用後は呼び出し側でゼロクリアすること）
+     * @throws GeneralSecurityException 復号に失敗（改ざん検出を含む）
+     */
+    @NonNull
+    public byte[] decrypt(@NonNull byte[] data, int offset, int length)
+            throws GeneralSecurityException {
+        return decrypt(data, offset, length, 0);
+    }
+
+    /**
+     * ヘッダー付きのデータを復号
+     *
+     * <p>先頭 {@code headerSize} バイトをAADとして検証し、続く IV + 暗号文 を復号する。
+     * 入力配列はコピーしない。</p>
+     *
+     * @param data ヘッダー + IV + 暗号文
+     * @param offset 開始位置
+     * @param length 長さ（ヘッダーを含む）
+     * @param headerSize ヘッダーのバイト数
+     * @return 平文バイト列（利用後は呼び出し側でゼロクリアすること）
+     * @throws GeneralSecurityException 復号に失敗（改ざん検出を含む）
+     */
+    @NonNull
+    public byte[] decrypt(@NonNull byte[] data, int offset, int length, int headerSize)
+            throws GeneralSecurityException {
+        byte[] output = new byte[decryptedSize(headerSize, length)];
+        decrypt(data, offset, length, headerSize, output, 0);
+        return output;
+    }
+
+    /**
+     * ヘッダー付きのデータを呼び出し側の配列に復号
+     *
+     * @param data ヘッダー + IV + 暗号文
+     * @param offset 開始位置
+     * @param length 長さ（ヘッダーを含む）
+     * @param headerSize ヘッダーのバイト数
+     * @param output 出力先（{@link #decryptedSize(int, int)} バイト以上の空きが必要）
+     * @param outputOffset 出力の開始位置
+     * @return 書き込んだバイト数
+     * @throws GeneralSecurityException 復号に失敗（改ざん検出を含む）
+     */
+    public int decrypt(
+            @NonNull byte[] data,
+            int offset,
+            int length,
+            int headerSize,
+            @NonNull byte[] output,
+            int outputOffset
+    ) throws GeneralSecurityException {
+        int plaintextSize = decryptedSize(headerSize, length);
+        if (output.length - outputOffset < plaintextSize) {
+            throw new ShortBufferException("Output buffer too small");
+        }
+
+        int ivOffset = offset + headerSize;
+        Cipher cipher = acquireForDecrypt(suite.decryptParameters(data, ivOffset));
+        try {
+            if (headerSize > 0) {
+                cipher.updateAAD(data, offset, headerSize);
+            }
+            return cipher.doFinal(data, ivOffset + IV_SIZE_BYTES,
+                    length - headerSize - IV_SIZE_BYTES, output, outputOffset);
+        } finally {
+            cipherPool.release(cipher);
+        }
+    }
+
+    /**
+     * ヘッダー付きのデータを呼び出し側のバッファに復号
+     *
+     * <p>{@code input} の残り全体を [ヘッダー][IV][暗号文] として復号し、
+     * {@code output} の現在位置から書き込む。ダイレクトバッファも使用できる。</p>
+     *
+     * @param input ヘッダー + IV + 暗号文（position〜limit）
+     * @param headerSize ヘッダーのバイト数
+     * @param output 出力先
+     * @return 書き込んだバイト数
+     * @throws GeneralSecurityException 復号に失敗（改ざん検出を含む）
+     */
+    public int decrypt(@NonNull ByteBuffer input, int headerSize, @NonNull ByteBuffer output)
+            throws GeneralSecurityException {
+        int length = input.remaining();
+        if (output.remaining() < decryptedSize(headerSize, length)) {
+            throw new ShortBufferException("Output buffer too small");
+        }
+
+        int start = input.position();
+        int limit = input.limit();
+        byte[] iv = ivScratch.get();
+        input.position(start + headerSize);
+        input.get(iv);
+        input.position(start);
+
+        Cipher cipher = acquireForDecrypt(suite.decryptParameters(iv, 0));
+        try {
+            if (headerSize > 0) {
+                input.limit(start + headerSize);
+                cipher.updateAAD(input);
+                input.limit(limit);
+            }
+            input.position(start + headerSize + IV_SIZE_BYTES);
+            return cipher.doFinal(input, output);
+        } finally {
+            input.limit(limit);
+            cipherPool.release(cipher);
+        }
+    }
+
+    /**
+     * 暗号化後のサイズを取得
+     *
+     * @param headerSize ヘッダーのバイト数
+     * @param plaintextLength 平文のバイト数
+     * @return ヘッダー + IV + 暗号文 + 認証タグ のバイト数
+     */
+    public static int encryptedSize(int headerSize, int plaintextLength) {
+        return headerSize + IV_SIZE_BYTES + plaintextLength + AUTH_TAG_SIZE_BYTES;
+    }
+
+    /**
+     * 復号後のサイズを取得
+     *
+     * @param headerSize ヘッダーのバイト数
+     * @param encryptedLength 暗号化データのバイト数（ヘッダーを含む）
+     * @return 平文のバイト数
+     * @throws GeneralSecurityException 暗号化データが短すぎる
+     */
+    public static int decryptedSize(int headerSize, int encryptedLength)
+            throws GeneralSecurityException {
+        int size = encryptedLength - headerSize - IV_SIZE_BYTES - AUTH_TAG_SIZE_BYTES;
+        if (size < 0) {
+            throw new GeneralSecurityException("Invalid encrypted data format");
+        }
+        return size;
+    }
+
+    /**
+     * 暗号スイートを取得
+     *
+     * @return 暗号スイート
+     */
+    @NonNull
+    public CipherSuite getSuite() {
+        return suite;
+    }
+
+    /**
+     * キャッシュした鍵とCipherを破棄
+     *
+     * <p>次回の操作時に鍵を再解決する。鍵の再生成やロック時に呼び出す。</p>
+     */
+    public void invalidateKey() {
+        synchronized (keyLock) {
+            cachedKey = null;
+        }
+        cipherPool.clear();
+    }
+
+    /**
+     * Cipherプールを取得（計測用）
+     *
+     * @return Cipherプール
+     */
+    @NonNull
+    public CipherPool getCipherPool() {
+        return cipherPool;
+    }
+
+    /**
+     * 暗号化用に初期化したCipherを取得
+     */
+    @NonNull
+    private Cipher acquireForEncrypt() throws GeneralSecurityException {
+        SecretKey key = resolveKey();
+        Cipher cipher = cipherPool.acquire();
+        AlgorithmParameterSpec params = suite.newEncryptParameters(secureRandom);
+        if (params == null) {
+            // IVはプロバイダーが生成する（Android KeyStore要件）
+            cipher.init(Cipher.ENCRYPT_MODE, key);
+        } else {
+            cipher.init(Cipher.ENCRYPT_MODE, key, params);
+        }
+        return cipher;
+    }
+
+    /**
+     * 暗号化用に初期化したCipherのIVを取得
+     */
+    @NonNull
+    private static byte[] ivOf(@NonNull Cipher cipher) throws GeneralSecurityException {
+        byte[] iv = cipher.getIV();
+        if (iv == null || iv.length != IV_SIZE_BYTES) {
+            throw new GeneralSecurityException("Unexpected IV length");
+        }
+        return iv;
+    }
+
+    /**
+     * 復号用に初期化したCipherを取得
+     */
+    @NonNull
+    private Cipher acquireForDecrypt(@NonNull AlgorithmParameterSpec params)
+            throws GeneralSecurityException {
+        SecretKey key = resolveKey();
+        Cipher cipher = cipherPool.acquire();
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, key, params);
+        } catch (InvalidKeyException e) {
+            // 一部のプロバイダー（JDKのChaCha20-Poly1305）は直前と同じ鍵・ノンスでの
+            // 再初期化を拒否するため、新しいCipherに置き換えて再試行する
+            cipher = cipherPool.create();
+            cipher.init(Cipher.DECRYPT_MODE, key, params);
+        }
+        return cipher;
+    }
+
+    /**
+     * 鍵を解決（セッション中はキャッシュを返す）
+     */
+    @NonNull
+    private SecretKey resolveKey() throws GeneralSecurityException {
+        SecretKey key = cachedKey;
+        if (key == null || key.isDestroyed()) {
+            synchronized (keyLock) {
+                key = cachedKey;
+                if (key == null || key.isDestroyed()) {
+                    if (key != null) {
+                        // 破棄済みの鍵で初期化されたCipherを再利用しない
+                        cipherPool.clear();
+                    }
+                    key = keyResolver.resolve();
+                    cachedKey = key;
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * 鍵の解決処理
+     */
+    public interface KeyResolver {
+        /**
+         * 暗号化に使用する鍵を返す
+         *
+         * @return 秘密鍵
+         * @throws GeneralSecurityException 鍵の取得に失敗
+         */
+        @NonNull
+        SecretKey resolve() throws GeneralSecurityException;
+    }
+}
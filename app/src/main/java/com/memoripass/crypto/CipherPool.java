@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+
+/**
+ * Cipherインスタンスのスレッド別プール
+ *
+ * <p>{@link Cipher#getInstance(String)} はプロバイダー検索を伴うため、
+ * 1件ごとに呼び出すと大量のエントリを扱う処理で支配的なコストになる。
+ * このクラスはスレッドごとに上限付きのCipherを保持し、再利用する。</p>
+ *
+ * <p>Cipherはスレッドセーフではないため、スレッド間で共有しない。
+ * 取得したCipherは必ず同じスレッドで {@link #release(Cipher)} すること。
+ * {@link #clear()} は他のスレッドのプールも空にする（初期化済みのCipherは鍵を保持しているため）。</p>
+ *
+ * @since 1.1
+ */
+public class CipherPool {
+
+    private final String transformation;
+    private final int maxPerThread;
+    private final ThreadLocal<Slot> slots;
+    // すべてのスレッドのスロット（clear()で空にする。スレッドは暗号処理のプールに限られる）
+    private final Set<Slot> allSlots = ConcurrentHashMap.newKeySet();
+
+    // clear()のたびに進む世代番号（古い世代のCipherは再利用しない）
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+
+    /**
+     * コンストラクタ
+     *
+     * @param transformation 変換名（例: "AES/GCM/NoPadding"）
+     * @param maxPerThread スレッドごとに保持するCipherの上限
+     */
+    public CipherPool(@NonNull String transformation, int maxPerThread) {
+        if (maxPerThread < 1) {
+            throw new IllegalArgumentException("maxPerThread must be positive");
+        }
+        this.transformation = transformation;
+        this.maxPerThread = maxPerThread;
+        this.slots = ThreadLocal.withInitial(() -> {
+            Slot slot = new Slot();
+            allSlots.add(slot);
+            return slot;
+        });
+    }
+
+    /**
+     * Cipherを取得
+     *
+     * <p>プールに空きがあれば再利用し、なければ新規に生成する。
+     * 返されるCipherは未初期化として扱い、呼び出し側でinitすること。</p>
+     *
+     * @return Cipher
+     * @throws NoSuchAlgorithmException アルゴリズムが利用不可
+     * @throws NoSuchPaddingException パディングが利用不可
+     */
+    @NonNull
+    public Cipher acquire() throws NoSuchAlgorithmException, NoSuchPaddingException {
+        Slot slot = currentSlot();
+        Cipher cipher;
+        synchronized (slot) {
+            cipher = slot.ciphers.pollFirst();
+        }
+        if (cipher != null) {
+            return cipher;
+        }
+        return create();
+    }
+
+    /**
+     * プールを経由せずにCipherを新規生成
+     *
+     * <p>再利用したCipherが初期化を拒否した場合の置き換え用。
+     * 生成したCipherは {@link #release(Cipher)} でプールに返却してよい。</p>
+     *
+     * @return Cipher
+     * @throws NoSuchAlgorithmException アルゴリズムが利用不可
+     * @throws NoSuchPaddingException パディングが利用不可
+     */
+    @NonNull
+    public Cipher create() throws NoSuchAlgorithmException, NoSuchPaddingException {
+        createdCount.incrementAndGet();
+        return Cipher.getInstance(transformation);
+    }
+
+    /**
+     * Cipherをプールに返却
+     *
+     * <p>上限を超える場合や、返却前に {@link #clear()} された場合は破棄する。</p>
+     *
+     * @param cipher 返却するCipher
+     */
+    public void release(@NonNull Cipher cipher) {
+        Slot slot = slots.get();
+        synchronized (slot) {
+            // clear()より前に取得したCipherは、このスレッドで世代が進む前に返却される
+            if (slot.generation == generation.get() && slot.ciphers.size() < maxPerThread) {
+                slot.ciphers.offerFirst(cipher);
+            }
+        }
+    }
+
+    /**
+     * すべてのスレッドのプールを無効化
+     *
+     * <p>すべてのスレッドのプール中のCipherを破棄する。取得中のCipherは
+     * 返却時に破棄する。鍵の切り替え・ロック時に呼び出す。</p>
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        for (Slot slot : allSlots) {
+            synchronized (slot) {
+                slot.ciphers.clear();
+            }
+        }
+    }
+
+    /**
+     * プール中のCipherの数（全スレッドの合計、テスト用）
+     *
+     * @return プール中のCipherの数
+     */
+    @VisibleForTesting
+    int getPooledCount() {
+        int count = 0;
+        for (Slot slot : allSlots) {
+            synchronized (slot) {
+                count += slot.ciphers.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * これまでに生成したCipherの数を取得（計測用）
+     *
+     * @return 生成数
+     */
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    /**
+     * 現在のスレッドのスロットを取得（世代が古ければ空にする）
+     */
+    private Slot currentSlot() {
+        Slot slot = slots.get();
+        int current = generation.get();
+        synchronized (slot) {
+            if (slot.generation != current) {
+                slot.ciphers.clear();
+                slot.generation = current;
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * スレッドごとのCipher保持領域
+     */
+    private static final class Slot {
+        final ArrayDeque<Cipher> ciphers = new ArrayDeque<>();
+        int generation;
+    }
+}
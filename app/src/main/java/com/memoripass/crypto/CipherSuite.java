@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+
+/**
+ * 暗号スイートのレジストリ
+ *
+ * <p>暗号文ヘッダー（{@link CiphertextFormat#VERSION_2}）に記録するスイートIDと、
+ * 各スイートのアルゴリズム・ノンス・鍵の扱いを定義する。
+ * 新しいスイートを追加する場合は、未使用のIDで定数を追加する（既存IDは変更しないこと）。</p>
+ *
+ * <p>どのスイートもノンス12バイト・認証タグ16バイトの認証付き暗号であり、
+ * 暗号文のレイアウトは共通。</p>
+ *
+ * @since 1.1
+ */
+public enum CipherSuite {
+
+    /**
+     * AES-256-GCM
+     *
+     * <p>データ鍵をそのまま使用する。IVはプロバイダーが生成する
+     * （AndroidKeyStoreの鍵でも使用できるようにするため）。</p>
+     */
+    AES_256_GCM((byte) 0x01, "AES/GCM/NoPadding", "AES", null) {
+        @Nullable
+        @Override
+        AlgorithmParameterSpec newEncryptParameters(@NonNull SecureRandom random) {
+            return null;
+        }
+
+        @NonNull
+        @Override
+        AlgorithmParameterSpec decryptParameters(@NonNull byte[] data, int offset) {
+            return new GCMParameterSpec(CipherEngine.AUTH_TAG_SIZE_BITS, data, offset, NONCE_SIZE_BYTES);
+        }
+    },
+
+    /**
+     * ChaCha20-Poly1305（RFC 8439）
+     *
+     * <p>AES命令を持たない端末でも高速なソフトウェア実装。
+     * データ鍵から導出したサブ鍵を使用し、同じ鍵素材を複数のアルゴリズムで共有しない。</p>
+     */
+    CHACHA20_POLY1305((byte) 0x02, "ChaCha20-Poly1305", "ChaCha20", "memoripass/suite/chacha20-poly1305") {
+        @NonNull
+        @Override
+        AlgorithmParameterSpec newEncryptParameters(@NonNull SecureRandom random) {
+            byte[] nonce = new byte[NONCE_SIZE_BYTES];
+            random.nextBytes(nonce);
+            return new IvParameterSpec(nonce);
+        }
+
+        @NonNull
+        @Override
+        AlgorithmParameterSpec decryptParameters(@NonNull byte[] data, int offset) {
+            return new IvParameterSpec(data, offset, NONCE_SIZE_BYTES);
+        }
+    };
+
+    // ノンスサイズ（全スイート共通）
+    public static final int NONCE_SIZE_BYTES = CipherEngine.IV_SIZE_BYTES;
+
+    // values() は呼び出しごとに配列を複製するため、復号の経路ではこちらを使う
+    private static final CipherSuite[] VALUES = values();
+
+    private final byte id;
+    private final String transformation;
+    private final String keyAlgorithm;
+    private final String keyDerivationLabel;
+
+    CipherSuite(byte id, String transformation, String keyAlgorithm, String keyDerivationLabel) {
+        this.id = id;
+        this.transformation = transformation;
+        this.keyAlgorithm = keyAlgorithm;
+        this.keyDerivationLabel = keyDerivationLabel;
+    }
+
+    /**
+     * 暗号化用のパラメータを生成
+     *
+     * @param random 乱数生成器
+     * @return パラメータ（nullの場合はプロバイダーにIVを生成させる）
+     */
+    @Nullable
+    abstract AlgorithmParameterSpec newEncryptParameters(@NonNull SecureRandom random);
+
+    /**
+     * 復号用のパラメータを生成
+     *
+     * @param data 暗号文
+     * @param offset ノンスの開始位置
+     * @return パラメータ
+     */
+    @NonNull
+    abstract AlgorithmParameterSpec decryptParameters(@NonNull byte[] data, int offset);
+
+    /**
+     * ヘッダーに記録するスイートIDを取得
+     *
+     * @return スイートID
+     */
+    public byte getId() {
+        return id;
+    }
+
+    /**
+     * Cipherの変換名を取得
+     *
+     * @return 変換名
+     */
+    @NonNull
+    public String getTransformation() {
+        return transformation;
+    }
+
+    /**
+     * 鍵のアルゴリズム名を取得
+     *
+     * @return アルゴリズム名
+     */
+    @NonNull
+    public String getKeyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    /**
+     * サブ鍵導出のラベルを取得
+     *
+     * @return ラベル（データ鍵をそのまま使う場合はnull）
+     */
+    @Nullable
+    public String getKeyDerivationLabel() {
+        return keyDerivationLabel;
+    }
+
+    /**
+     * この端末で利用可能かチェック
+     *
+     * @return true: 利用可能, false: 利用不可
+     */
+    public boolean isAvailable() {
+        try {
+            Cipher.getInstance(transformation);
+            return true;
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * スイートIDからスイートを取得
+     *
+     * @param id スイートID
+     * @return 暗号スイート
+     * @throws CryptoManager.CryptoException 未知のスイートID
+     */
+    @NonNull
+    public static CipherSuite fromId(byte id) throws CryptoManager.CryptoException {
+        for (CipherSuite suite : VALUES) {
+            if (suite.id == id) {
+                return suite;
+            }
+        }
+        throw new CryptoManager.CryptoException("Unknown cipher suite: " + id);
+    }
+}
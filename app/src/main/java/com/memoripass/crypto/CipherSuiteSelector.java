@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 新規暗号化に使用する暗号スイートの選択
+ *
+ * <p>初回アンロック後に1回だけ、利用可能な各スイートで小さなマイクロベンチマークを行い、
+ * 最も速いスイートを端末に保存する。以降の新規書き込みはそのスイートを使用する。
+ * 読み出しはヘッダーのスイートIDで判別するため、選択が変わっても既存データは復号できる。</p>
+ *
+ * <p>ベンチマークは使い捨てのランダム鍵で行い、データ鍵は使用しない。
+ * 計測が完了するまでは {@link CipherSuite#AES_256_GCM} を使用する。</p>
+ *
+ * @since 1.1
+ */
+public class CipherSuiteSelector {
+
+    private static final String TAG = "CipherSuiteSelector";
+
+    // 選択結果の保存キー（値はスイートID）
+    private static final String KEY_PREFERRED_SUITE = "preferred_cipher_suite";
+
+    // 計測前・計測失敗時のスイート
+    private static final CipherSuite DEFAULT_SUITE = CipherSuite.AES_256_GCM;
+
+    // 計測に使うペイロード（一般的なエントリの大きさ）
+    private static final int BENCHMARK_PAYLOAD_BYTES = 256;
+
+    // ウォームアップ回数（JIT・プロバイダー初期化の影響を除く）
+    private static final int BENCHMARK_WARMUP_ITERATIONS = 50;
+
+    // 計測回数
+    private static final int BENCHMARK_ITERATIONS = 300;
+
+    private final SharedPreferences prefs;
+    private final Collection<CipherSuite> availableSuites;
+    private final AtomicBoolean benchmarkStarted = new AtomicBoolean();
+
+    private volatile CipherSuite writeSuite;
+
+    /**
+     * コンストラクタ
+     *
+     * @param context アプリケーションコンテキスト
+     * @param availableSuites この端末で利用可能なスイート
+     */
+    public CipherSuiteSelector(
+            @NonNull Context context,
+            @NonNull Collection<CipherSuite> availableSuites
+    ) {
+        this.prefs = context.getApplicationContext()
+                .getSharedPreferences(DataKeyManager.PREFS_NAME, Context.MODE_PRIVATE);
+        this.availableSuites = availableSuites;
+    }
+
+    /**
+     * 新規暗号化に使用するスイートを取得
+     *
+     * @return 暗号スイート
+     */
+    @NonNull
+    public CipherSuite getWriteSuite() {
+        CipherSuite suite = writeSuite;
+        if (suite == null) {
+            suite = loadPreferredSuite();
+            if (suite == null) {
+                // 計測完了までは既定のスイートを使う（保存はしない）
+                return DEFAULT_SUITE;
+            }
+            writeSuite = suite;
+        }
+        return suite;
+    }
+
+    /**
+     * 未計測であればバックグラウンドでベンチマークを開始
+     *
+     * <p>プロセス内で1回だけ実行する。</p>
+     */
+    public void selectInBackgroundIfNeeded() {
+        if (loadPreferredSuite() != null || !benchmarkStarted.compareAndSet(false, true)) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            CipherSuite fastest = benchmark(availableSuites, BENCHMARK_ITERATIONS);
+            prefs.edit().putInt(KEY_PREFERRED_SUITE, fastest.getId()).apply();
+            writeSuite = fastest;
+            Log.i(TAG, "Selected cipher suite: " + fastest);
+        }, "cipher-suite-benchmark");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * 保存済みのスイートを読み込む
+     *
+     * @return 暗号スイート（未計測・この端末で利用不可の場合はnull）
+     */
+    @Nullable
+    private CipherSuite loadPreferredSuite() {
+        if (!prefs.contains(KEY_PREFERRED_SUITE)) {
+            return null;
+        }
+        try {
+            CipherSuite suite = CipherSuite.fromId((byte) prefs.getInt(KEY_PREFERRED_SUITE, 0));
+            return availableSuites.contains(suite) ? suite : null;
+        } catch (CryptoManager.CryptoException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 各スイートの暗号化+復号の所要時間を計測し、最も速いスイートを返す
+     *
+     * @param suites 候補のスイート
+     * @param iterations 計測回数
+     * @return 最も速いスイート（全スイートで計測に失敗した場合は既定のスイート）
+     */
+    @WorkerThread
+    @NonNull
+    static CipherSuite benchmark(@NonNull Collection<CipherSuite> suites, int iterations) {
+        SecureRandom random = new SecureRandom();
+        byte[] payload = new byte[BENCHMARK_PAYLOAD_BYTES];
+        random.nextBytes(payload);
+
+        CipherSuite fastest = DEFAULT_SUITE;
+        long fastestNanos = Long.MAX_VALUE;
+        for (CipherSuite suite : suites) {
+            byte[] keyBytes = new byte[32];
+            random.nextBytes(keyBytes);
+            SessionKey key = new SessionKey(keyBytes, suite.getKeyAlgorithm());
+            Arrays.fill(keyBytes, (byte) 0);
+
+            try {
+                CipherEngine engine = new CipherEngine(suite, () -> key, 1);
+                runRounds(engine, payload, BENCHMARK_WARMUP_ITERATIONS);
+
+                long start = System.nanoTime();
+                runRounds(engine, payload, iterations);
+                long elapsed = System.nanoTime() - start;
+
+                Log.d(TAG, suite + ": " + (elapsed / iterations) + " ns/op");
+                if (elapsed < fastestNanos) {
+                    fastestNanos = elapsed;
+                    fastest = suite;
+                }
+            } catch (GeneralSecurityException e) {
+                Log.w(TAG, "Benchmark failed for " + suite, e);
+            } finally {
+                key.destroy();
+            }
+        }
+        return fastest;
+    }
+
+    /**
+     * 暗号化+復号を指定回数実行
+     */
+    private static void runRounds(@NonNull CipherEngine engine, @NonNull byte[] payload, int rounds)
+            throws GeneralSecurityException {
+        for (int i = 0; i < rounds; i++) {
+            byte[] encrypted = engine.encrypt(payload, 0, payload.length);
+            engine.decrypt(encrypted, 0, encrypted.length);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 暗号文のバイナリフォーマット定義
+ *
+ * <p>データベースのBLOB列に保存する暗号文の形式。先頭1バイトのバージョンで
+ * 形式を識別するため、将来フォーマットを変更しても既存データを読み出せる。</p>
+ *
+ * <p>バージョン1（AES-256-GCMのみ）:</p>
+ * <pre>
+ * [version (1 byte) = 0x01] [IV (12 bytes)] [暗号文 + 認証タグ (n + 16 bytes)]
+ * </pre>
+ *
+ * <p>バージョン2（自己記述ヘッダー、ヘッダー全体をAADとして認証）:</p>
+ * <pre>
+ * [version (1 byte) = 0x02] [suite id (1 byte)] [key id (4 bytes, big-endian)]
+ * [ノンス (12 bytes)] [暗号文 + 認証タグ (n + 16 bytes)]
+ * </pre>
+ *
+ * <p>Base64テキスト形式（バージョン1.0）の暗号文は、デコード後の
+ * [IV][暗号文] の先頭にバージョンを付与するだけで変換できる（再暗号化は不要）。</p>
+ *
+ * @since 1.1
+ */
+public final class CiphertextFormat {
+
+    // バージョン1: [version][IV][暗号文 + 認証タグ]
+    public static final byte VERSION_1 = 0x01;
+
+    // バージョン1のヘッダーサイズ
+    public static final int HEADER_SIZE_V1 = 1;
+
+    // バージョン2: [version][suite id][key id][ノンス][暗号文 + 認証タグ]
+    public static final byte VERSION_2 = 0x02;
+
+    // バージョン2のヘッダーサイズ
+    public static final int HEADER_SIZE_V2 = 6;
+
+    private static final int SUITE_ID_OFFSET = 1;
+    private static final int KEY_ID_OFFSET = 2;
+
+    private CiphertextFormat() {
+        // インスタンス化禁止
+    }
+
+    /**
+     * 暗号文のバージョンを取得
+     *
+     * @param data 暗号文
+     * @return バージョン
+     * @throws CryptoManager.CryptoException 空データ、または未対応のバージョン
+     */
+    public static byte versionOf(@NonNull byte[] data) throws CryptoManager.CryptoException {
+        if (data.length == 0) {
+            throw new CryptoManager.CryptoException("Encrypted data cannot be empty");
+        }
+        byte version = data[0];
+        if (version == VERSION_1) {
+            return version;
+        }
+        if (version == VERSION_2) {
+            if (data.length < HEADER_SIZE_V2) {
+                throw new CryptoManager.CryptoException("Truncated ciphertext header");
+            }
+            return version;
+        }
+        throw new CryptoManager.CryptoException("Unsupported ciphertext version: " + version);
+    }
+
+    /**
+     * バージョン2のヘッダーを生成
+     *
+     * @param suite 暗号スイート
+     * @param keyId データ鍵ID
+     * @return ヘッダー
+     */
+    @NonNull
+    public static byte[] newHeaderV2(@NonNull CipherSuite suite, int keyId) {
+        byte[] header = new byte[HEADER_SIZE_V2];
+        writeHeaderV2(header, suite, keyId);
+        return header;
+    }
+
+    /**
+     * バージョン2のヘッダーを既存の配列に書き込む
+     *
+     * @param header 出力先（{@link #HEADER_SIZE_V2} バイト）
+     * @param suite 暗号スイート
+     * @param keyId データ鍵ID
+     */
+    public static void writeHeaderV2(@NonNull byte[] header, @NonNull CipherSuite suite, int keyId) {
+        header[0] = VERSION_2;
+        header[SUITE_ID_OFFSET] = suite.getId();
+        header[KEY_ID_OFFSET] = (byte) (keyId >>> 24);
+        header[KEY_ID_OFFSET + 1] = (byte) (keyId >>> 16);
+        header[KEY_ID_OFFSET + 2] = (byte) (keyId >>> 8);
+        header[KEY_ID_OFFSET + 3] = (byte) keyId;
+    }
+
+    /**
+     * バージョン2の暗号文からスイートを取得
+     *
+     * @param data バージョン2の暗号文
+     * @return 暗号スイート
+     * @throws CryptoManager.CryptoException 未知のスイートID
+     */
+    @NonNull
+    public static CipherSuite suiteOf(@NonNull byte[] data) throws CryptoManager.CryptoException {
+        return CipherSuite.fromId(data[SUITE_ID_OFFSET]);
+    }
+
+    /**
+     * 暗号文からデータ鍵IDを取得
+     *
+     * <p>鍵IDを持たないバージョン1の暗号文は最初の世代
+     * （{@link DataKeyManager#INITIAL_KEY_ID}）として扱う。</p>
+     *
+     * @param data 暗号文
+     * @return データ鍵ID
+     */
+    public static int keyIdOf(@NonNull byte[] data) {
+        if (data[0] == VERSION_1) {
+            return DataKeyManager.INITIAL_KEY_ID;
+        }
+        return ((data[KEY_ID_OFFSET] & 0xFF) << 24)
+                | ((data[KEY_ID_OFFSET + 1] & 0xFF) << 16)
+                | ((data[KEY_ID_OFFSET + 2] & 0xFF) << 8)
+                | (data[KEY_ID_OFFSET + 3] & 0xFF);
+    }
+
+    /**
+     * 旧形式（[IV][暗号文]）の暗号文をバージョン1形式に変換
+     *
+     * @param legacy Base64デコード済みの旧形式暗号文
+     * @return バージョン1形式の暗号文
+     */
+    @NonNull
+    public static byte[] fromLegacy(@NonNull byte[] legacy) {
+        byte[] data = new byte[HEADER_SIZE_V1 + legacy.length];
+        data[0] = VERSION_1;
+        System.arraycopy(legacy, 0, data, HEADER_SIZE_V1, legacy.length);
+        return data;
+    }
+
+    /**
+     * バッファ上の暗号文のバージョンを取得
+     *
+     * <p>バッファの位置は変更しない。</p>
+     *
+     * @param data 暗号文（position〜limit）
+     * @return バージョン
+     * @throws CryptoManager.CryptoException 空データ、または未対応のバージョン
+     */
+    public static byte versionOf(@NonNull ByteBuffer data) throws CryptoManager.CryptoException {
+        if (!data.hasRemaining()) {
+            throw new CryptoManager.CryptoException("Encrypted data cannot be empty");
+        }
+        byte version = data.get(data.position());
+        if (version == VERSION_1) {
+            return version;
+        }
+        if (version == VERSION_2) {
+            if (data.remaining() < HEADER_SIZE_V2) {
+                throw new CryptoManager.CryptoException("Truncated ciphertext header");
+            }
+            return version;
+        }
+        throw new CryptoManager.CryptoException("Unsupported ciphertext version: " + version);
+    }
+
+    /**
+     * バッファ上のバージョン2の暗号文からスイートを取得
+     *
+     * @param data バージョン2の暗号文（position〜limit）
+     * @return 暗号スイート
+     * @throws CryptoManager.CryptoException 未知のスイートID
+     */
+    @NonNull
+    public static CipherSuite suiteOf(@NonNull ByteBuffer data) throws CryptoManager.CryptoException {
+        return CipherSuite.fromId(data.get(data.position() + SUITE_ID_OFFSET));
+    }
+
+    /**
+     * バッファ上の暗号文からデータ鍵IDを取得
+     *
+     * @param data 暗号文（position〜limit）
+     * @return データ鍵ID
+     */
+    public static int keyIdOf(@NonNull ByteBuffer data) {
+        int position = data.position();
+        if (data.get(position) == VERSION_1) {
+            return DataKeyManager.INITIAL_KEY_ID;
+        }
+        return ((data.get(position + KEY_ID_OFFSET) & 0xFF) << 24)
+                | ((data.get(position + KEY_ID_OFFSET + 1) & 0xFF) << 16)
+                | ((data.get(position + KEY_ID_OFFSET + 2) & 0xFF) << 8)
+                | (data.get(position + KEY_ID_OFFSET + 3) & 0xFF);
+    }
+}
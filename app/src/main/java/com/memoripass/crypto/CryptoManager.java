@@ -16,26 +16,25 @@
 
 package com.memoripass.crypto;
 
+import android.content.Context;
 import android.util.Base64;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
+import java.security.GeneralSecurityException;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.SecretKey;
-import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Mac;
 
 /**
  * 暗号化管理クラス
@@ -45,7 +44,7 @@ import javax.crypto.spec.GCMParameterSpec;
  *
  * <p>暗号化仕様:</p>
  * <ul>
- *   <li>アルゴリズム: AES-256-GCM</li>
+ *   <li>アルゴリズム: AES-256-GCM / ChaCha20-Poly1305</li>
  *   <li>鍵サイズ: 256ビット</li>
  *   <li>IVサイズ: 96ビット（12バイト）</li>
  *   <li>認証タグ: 128ビット（16バイト）</li>
@@ -58,194 +57,720 @@ import javax.crypto.spec.GCMParameterSpec;
  *   <li>NIST準拠の実装</li>
  * </ul>
  *
+ * <p>鍵階層（エンベロープ暗号化）:</p>
+ * <ul>
+ *   <li>マスター鍵（KeyStore/StrongBox）はデータ鍵のラップにのみ使用</li>
+ *   <li>データ鍵はアンロック中だけメモリに保持し、ソフトウェアAES-GCMで使用</li>
+ *   <li>データ鍵導入前にマスター鍵で直接暗号化されたデータも復号可能</li>
+ *   <li>鍵IDは暗号文ヘッダーに記録され、ローテーション中は新旧の鍵で復号可能</li>
+ * </ul>
+ *
+ * <p>暗号スイート（{@link CipherSuite}）:</p>
+ * <ul>
+ *   <li>新規暗号化は端末で最も速いスイートを使用（{@link CipherSuiteSelector}）</li>
+ *   <li>暗号文ヘッダーのスイートIDで判別し、利用可能なすべてのスイートを復号できる</li>
+ * </ul>
+ *
+ * <p>鍵はセッション中に1回だけ解決し、Cipherはスレッドごとに
+ * プールして再利用する（{@link CipherEngine}）。スレッドセーフ。</p>
+ *
+ * <p>一覧表示など大量のエントリを扱う経路向けに、呼び出し側の {@code char[]}・
+ * {@link ByteBuffer} に直接読み書きするオーバーロードを提供する。これらは
+ * String・中間のbyte[]を生成せず、平文がヒープに残らないよう利用後に
+ * {@link #wipe(char[])} で消去できる。</p>
+ *
  * @since 1.0
  */
 public class CryptoManager {
 
     private static final String TAG = "CryptoManager";
 
-    // 暗号化アルゴリズム
-    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    // スレッドごとに保持するCipherの上限
+    private static final int MAX_CIPHERS_PER_THREAD = 2;
 
-    // IV（Initialization Vector）のサイズ（バイト）
-    // NIST SP 800-38D推奨: 96ビット（12バイト）
-    private static final int IV_SIZE_BYTES = 12;
+    private final KeyManager keyManager;
+    private final DataKeyManager dataKeyManager;
 
-    // 認証タグのサイズ（ビット）
-    // NIST推奨: 128ビット
-    private static final int AUTH_TAG_SIZE_BITS = 128;
+    // この端末で利用可能な暗号スイート
+    private final Set<CipherSuite> availableSuites;
 
-    private final KeyManager keyManager;
-    private final SecureRandom secureRandom;
+    // データ鍵による暗号エンジン（鍵ID・スイートごと、初回利用時に生成）
+    // 参照側でボクシング・ラムダ生成が起きないよう、コピーオンライトの配列で保持する
+    private volatile EngineSlot[] engines = new EngineSlot[0];
+
+    // 新規暗号化のスイート選択
+    private final CipherSuiteSelector suiteSelector;
 
     /**
      * コンストラクタ
      *
+     * @param context アプリケーションコンテキスト
      * @throws CryptoException 初期化に失敗
      */
-    public CryptoManager() throws CryptoException {
-        try {
-            this.keyManager = new KeyManager();
-            this.secureRandom = new SecureRandom();
-
-            // マスター鍵が存在しない場合は生成
-            if (!keyManager.hasMasterKey()) {
-                Log.i(TAG, "Master key not found, generating new key");
-                keyManager.generateMasterKey();
+    public CryptoManager(@NonNull Context context) throws CryptoException {
+        // KeyStoreはアプリ全体で共有し、読み込みはバックグラウンドで行う
+        // （マスター鍵は最初のデータ鍵の生成時に作成する）
+        this.keyManager = KeyManager.getInstance();
+        keyManager.warmUp();
+        this.dataKeyManager = new DataKeyManager(context, keyManager);
+        this.availableSuites = EnumSet.noneOf(CipherSuite.class);
+        for (CipherSuite suite : CipherSuite.values()) {
+            if (suite.isAvailable()) {
+                availableSuites.add(suite);
             }
-
-            Log.d(TAG, "CryptoManager initialized successfully");
-        } catch (KeyStoreException e) {
-            Log.e(TAG, "Failed to initialize CryptoManager", e);
-            throw new CryptoException("Failed to initialize CryptoManager", e);
         }
+        if (!availableSuites.contains(CipherSuite.AES_256_GCM)) {
+            throw new CryptoException("AES-GCM is not available");
+        }
+        this.suiteSelector = new CipherSuiteSelector(context, availableSuites);
+
+        // 初回のみ、新規暗号化に使うスイートを計測して選択する
+        suiteSelector.selectInBackgroundIfNeeded();
+
+        Log.d(TAG, "CryptoManager initialized successfully");
     }
 
     /**
      * データを暗号化
      *
-     * <p>暗号化データのフォーマット:</p>
+     * <p>暗号化データのフォーマット（{@link CiphertextFormat#VERSION_2}）:</p>
      * <pre>
-     * [IV (12 bytes)] [暗号文 + 認証タグ (n + 16 bytes)]
+     * [version (1 byte)] [suite id (1 byte)] [key id (4 bytes)]
+     * [ノンス (12 bytes)] [暗号文 + 認証タグ (n + 16 bytes)]
      * </pre>
      *
+     * <p>複数スレッドから同時に呼び出してよい。</p>
+     *
      * @param plaintext 平文
-     * @return Base64エンコードされた暗号化データ
+     * @return バイナリ形式の暗号化データ
      * @throws CryptoException 暗号化に失敗
      */
+    @WorkerThread
     @NonNull
-
-
-public String encrypt(@NonNull String plaintext) throws CryptoException {
+    public byte[] encrypt(@NonNull String plaintext) throws CryptoException {
         if (plaintext == null || plaintext.isEmpty()) {
             throw new IllegalArgumentException("Plaintext cannot be null or empty");
         }
 
+        byte[] plaintextBytes = plaintext.getBytes(StandardCharsets.UTF_8);
         try {
-            // マスターキーを取得
-            SecretKey masterKey = keyManager.getMasterKey();
+            CipherSuite suite = suiteSelector.getWriteSuite();
+            int keyId = dataKeyManager.getActiveKeyId();
+            byte[] header = CiphertextFormat.newHeaderV2(suite, keyId);
+            return engineFor(suite, keyId).encrypt(header, plaintextBytes, 0, plaintextBytes.length);
 
-            // Cipherを初期化（IVは自動生成される - Android KeyStore要件）
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            cipher.init(Cipher.ENCRYPT_MODE, masterKey);
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Encryption failed", e);
+            throw new CryptoException("Encryption failed", e);
+        } finally {
+            // センシティブデータをクリア
+            Arrays.fill(plaintextBytes, (byte) 0);
+        }
+    }
 
-            // 自動生成されたIVを取得
-            byte[] iv = cipher.getIV();
+    /**
+     * データを復号
+     *
+     * <p>入力配列をコピーせず、ヘッダー以降を直接復号する。
+     * 複数スレッドから同時に呼び出してよい。</p>
+     *
+     * @param encryptedData バイナリ形式の暗号化データ
+     * @return 平文
+     * @throws CryptoException 復号に失敗
+     */
+    @WorkerThread
+    @NonNull
+    public String decrypt(@NonNull byte[] encryptedData) throws CryptoException {
+        if (encryptedData == null) {
+            throw new CryptoException("Encrypted data cannot be null or empty");
+        }
+        byte version = CiphertextFormat.versionOf(encryptedData);
+
+        if (version == CiphertextFormat.VERSION_1) {
+            return decryptPayload(
+                    encryptedData,
+                    CiphertextFormat.HEADER_SIZE_V1,
+                    encryptedData.length - CiphertextFormat.HEADER_SIZE_V1
+            );
+        }
 
-            // 暗号化
-            byte[] plaintextBytes = plaintext.getBytes(StandardCharsets.UTF_8);
-            byte[] ciphertext = cipher.doFinal(plaintextBytes);
+        CipherEngine suiteEngine = engineFor(version, encryptedData);
 
-            // IV + 暗号文を結合
-            ByteBuffer buffer = ByteBuffer.allocate(iv.length + ciphertext.length);
-            buffer.put(iv);
-            buffer.put(ciphertext);
+        byte[] plaintextBytes = null;
+        try {
+            plaintextBytes = suiteEngine.decrypt(
+                    encryptedData, 0, encryptedData.length, CiphertextFormat.HEADER_SIZE_V2);
+            return new String(plaintextBytes, StandardCharsets.UTF_8);
+
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Decryption failed", e);
+            throw new CryptoException("Decryption failed", e);
+        } finally {
+            // センシティブデータをクリア
+            if (plaintextBytes != null) {
+                Arrays.fill(plaintextBytes, (byte) 0);
+            }
+        }
+    }
 
-            // Base64エンコード
-            String encoded = Base64.encodeToString(buffer.array(), Base64.NO_WRAP);
+    /**
+     * 文字列を呼び出し側のバッファに暗号化
+     *
+     * <p>String・中間のbyte[]を生成しない。{@code output} の現在位置から
+     * {@link CiphertextFormat#VERSION_2} 形式で書き込む。平文の配列は
+     * 呼び出し側で消去すること（{@link #wipe(char[])}）。</p>
+     *
+     * @param plaintext 平文
+     * @param offset 開始位置
+     * @param length 文字数
+     * @param output 出力先（{@link #maxEncryptedSize(int)} バイト以上の空きが必要）
+     * @return 書き込んだバイト数
+     * @throws CryptoException 暗号化に失敗、または出力先が不足
+     */
+    @WorkerThread
+    public int encrypt(
+            @NonNull char[] plaintext,
+            int offset,
+            int length,
+            @NonNull ByteBuffer output
+    ) throws CryptoException {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Plaintext cannot be null or empty");
+        }
 
-            Log.d(TAG, "Encryption successful");
-            return encoded;
+        try {
+            CipherSuite suite = suiteSelector.getWriteSuite();
+            int keyId = dataKeyManager.getActiveKeyId();
+            byte[] header = BufferCrypto.headerScratch();
+            CiphertextFormat.writeHeaderV2(header, suite, keyId);
+            return BufferCrypto.encrypt(engineFor(suite, keyId), header, plaintext, offset, length, output);
 
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
-            Log.e(TAG, "Encryption algorithm not available", e);
-            throw new CryptoException("Encryption failed", e);
-        } catch (InvalidKeyException e) {
-            Log.e(TAG, "Invalid key for encryption", e);
-            throw new CryptoException("Encryption failed", e);
-        } catch (IllegalBlockSizeException | BadPaddingException e) {
-            Log.e(TAG, "Encryption processing error", e);
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Encryption failed", e);
             throw new CryptoException("Encryption failed", e);
-        } catch (Exception e) {
+        }
+    }
+
+    /**
+     * バイト列を呼び出し側のバッファに暗号化
+     *
+     * <p>{@code plaintext} の残り全体を暗号化し、{@code output} の現在位置から
+     * {@link CiphertextFormat#VERSION_2} 形式で書き込む。ダイレクトバッファも使用できる。</p>
+     *
+     * @param plaintext 平文（position〜limit）
+     * @param output 出力先
+     * @return 書き込んだバイト数
+     * @throws CryptoException 暗号化に失敗、または出力先が不足
+     */
+    @WorkerThread
+    public int encrypt(@NonNull ByteBuffer plaintext, @NonNull ByteBuffer output)
+            throws CryptoException {
+        if (!plaintext.hasRemaining()) {
+            throw new IllegalArgumentException("Plaintext cannot be null or empty");
+        }
+
+        try {
+            CipherSuite suite = suiteSelector.getWriteSuite();
+            int keyId = dataKeyManager.getActiveKeyId();
+            byte[] header = BufferCrypto.headerScratch();
+            CiphertextFormat.writeHeaderV2(header, suite, keyId);
+            return engineFor(suite, keyId).encrypt(header, plaintext, output);
+
+        } catch (GeneralSecurityException e) {
             Log.e(TAG, "Encryption failed", e);
             throw new CryptoException("Encryption failed", e);
         }
     }
 
     /**
-     * データを復号
+     * 呼び出し側の配列に文字列として復号
      *
-     * @param encryptedData Base64エンコードされた暗号化データ
-     * @return 平文
-     * @throws CryptoException 復号に失敗
+     * <p>String・中間のbyte[]を生成しない。出力先は呼び出し側で消去すること。</p>
+     *
+     * @param encryptedData バイナリ形式の暗号化データ
+     * @param output 出力先（{@link #maxDecryptedLength(int)} 文字あれば常に足りる）
+     * @return 書き込んだ文字数
+     * @throws CryptoException 復号に失敗、または出力先が不足
      */
-    @NonNull
-    public String decrypt(@NonNull String encryptedData) throws CryptoException {
-        if (encryptedData == null || encryptedData.isEmpty()) {
-            throw new CryptoException("Encrypted data cannot be null or empty");
+    @WorkerThread
+    public int decrypt(@NonNull byte[] encryptedData, @NonNull char[] output)
+            throws CryptoException {
+        byte version = CiphertextFormat.versionOf(encryptedData);
+        int headerSize = headerSizeOf(version);
+        int length = encryptedData.length;
+        try {
+            try {
+                return BufferCrypto.decrypt(
+                        engineFor(version, encryptedData), encryptedData, 0, length, headerSize, output, 0);
+            } catch (AEADBadTagException e) {
+                if (version != CiphertextFormat.VERSION_1) {
+                    throw e;
+                }
+                // データ鍵導入前にマスター鍵で直接暗号化されたデータ
+                return BufferCrypto.decrypt(legacyMasterKeyEngine(),
+                        encryptedData, 0, length, headerSize, output, 0);
+            }
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Decryption failed", e);
+            throw new CryptoException("Decryption failed", e);
         }
+    }
 
+    /**
+     * 呼び出し側の配列に文字列として復号
+     *
+     * <p>{@code encryptedData} の残り全体を復号する。成功時はlimitまで読み進める。</p>
+     *
+     * @param encryptedData バイナリ形式の暗号化データ（position〜limit）
+     * @param output 出力先（{@link #maxDecryptedLength(int)} 文字あれば常に足りる）
+     * @return 書き込んだ文字数
+     * @throws CryptoException 復号に失敗、または出力先が不足
+     */
+    @WorkerThread
+    public int decrypt(@NonNull ByteBuffer encryptedData, @NonNull char[] output)
+            throws CryptoException {
+        byte version = CiphertextFormat.versionOf(encryptedData);
+        int headerSize = headerSizeOf(version);
+        int start = encryptedData.position();
         try {
-            // Base64デコード
-            byte[] decodedData = Base64.decode(encryptedData, Base64.NO_WRAP);
+            try {
+                return BufferCrypto.decrypt(
+                        engineFor(version, encryptedData), encryptedData, headerSize, output, 0);
+            } catch (AEADBadTagException e) {
+                if (version != CiphertextFormat.VERSION_1) {
+                    throw e;
+                }
+                encryptedData.position(start);
+                return BufferCrypto.decrypt(legacyMasterKeyEngine(), encryptedData, headerSize, output, 0);
+            }
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Decryption failed", e);
+            throw new CryptoException("Decryption failed", e);
+        }
+    }
 
-            if (decodedData.length < IV_SIZE_BYTES) {
-                throw new CryptoException("Invalid encrypted data format");
+    /**
+     * 呼び出し側のバッファにバイト列として復号
+     *
+     * <p>{@code encryptedData} の残り全体を復号し、{@code output} の現在位置から
+     * UTF-8の平文を書き込む。ダイレクトバッファも使用できる。出力先は呼び出し側で
+     * 消去すること（{@link #wipe(ByteBuffer)}）。</p>
+     *
+     * @param encryptedData バイナリ形式の暗号化データ（position〜limit）
+     * @param output 出力先
+     * @return 書き込んだバイト数
+     * @throws CryptoException 復号に失敗、または出力先が不足
+     */
+    @WorkerThread
+    public int decrypt(@NonNull ByteBuffer encryptedData, @NonNull ByteBuffer output)
+            throws CryptoException {
+        byte version = CiphertextFormat.versionOf(encryptedData);
+        int headerSize = headerSizeOf(version);
+        int start = encryptedData.position();
+        int outputStart = output.position();
+        try {
+            try {
+                return engineFor(version, encryptedData).decrypt(encryptedData, headerSize, output);
+            } catch (AEADBadTagException e) {
+                if (version != CiphertextFormat.VERSION_1) {
+                    throw e;
+                }
+                encryptedData.position(start);
+                output.position(outputStart);
+                return legacyMasterKeyEngine().decrypt(encryptedData, headerSize, output);
             }
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Decryption failed", e);
+            throw new CryptoException("Decryption failed", e);
+        }
+    }
 
-            // IVと暗号文を分離
-            ByteBuffer buffer = ByteBuffer.wrap(decodedData);
-            byte[] iv = new byte[IV_SIZE_BYTES];
-            buffer.get(iv);
+    /**
+     * 文字列を暗号化した結果の最大サイズを取得
+     *
+     * @param charCount 平文の文字数
+     * @return 暗号化データの最大バイト数
+     */
+    public static int maxEncryptedSize(int charCount) {
+        return CipherEngine.encryptedSize(CiphertextFormat.HEADER_SIZE_V2, Utf8.maxEncodedLength(charCount));
+    }
 
-            byte[] ciphertext = new byte[buffer.remaining()];
-            buffer.get(ciphertext);
+    /**
+     * 復号結果の最大文字数を取得
+     *
+     * @param encryptedLength 暗号化データのバイト数
+     * @return 平文の最大文字数（UTF-8の1バイトが1文字を超えることはない）
+     */
+    public static int maxDecryptedLength(int encryptedLength) {
+        return Math.max(0, encryptedLength - CiphertextFormat.HEADER_SIZE_V1
+                - CipherEngine.IV_SIZE_BYTES - CipherEngine.AUTH_TAG_SIZE_BITS / 8);
+    }
 
-            // マスター鍵を取得
-            SecretKey masterKey = keyManager.getMasterKey();
+    /**
+     * 平文の配列をゼロクリア
+     *
+     * @param plaintext 消去する配列
+     */
+    public static void wipe(@NonNull char[] plaintext) {
+        BufferCrypto.wipe(plaintext);
+    }
 
-            // Cipherを初期化
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            GCMParameterSpec spec = new GCMParameterSpec(AUTH_TAG_SIZE_BITS, iv);
-            cipher.init(Cipher.DECRYPT_MODE, masterKey, spec);
+    /**
+     * 平文のバッファをゼロクリア（ダイレクトバッファにも対応）
+     *
+     * @param plaintext 消去するバッファ
+     */
+    public static void wipe(@NonNull ByteBuffer plaintext) {
+        BufferCrypto.wipe(plaintext);
+    }
 
-            // 復号
-            byte[] plaintextBytes = cipher.doFinal(ciphertext);
-            String plaintext = new String(plaintextBytes, StandardCharsets.UTF_8);
+    /**
+     * 旧形式（Base64テキスト）のデータを復号
+     *
+     * <p>BLOB列への移行が完了していない行の読み出し用。</p>
+     *
+     * @param encryptedData Base64エンコードされた暗号化データ（[IV][暗号文]）
+     * @return 平文
+     * @throws CryptoException 復号に失敗
+     */
+    @WorkerThread
+    @NonNull
+    public String decryptLegacy(@NonNull String encryptedData) throws CryptoException {
+        if (encryptedData == null || encryptedData.isEmpty()) {
+            throw new CryptoException("Encrypted data cannot be null or empty");
+        }
 
-            Log.d(TAG, "Decryption successful");
+        byte[] decodedData;
+        try {
+            decodedData = Base64.decode(encryptedData, Base64.NO_WRAP);
+        } catch (IllegalArgumentException e) {
+            throw new CryptoException("Invalid encrypted data format", e);
+        }
 
-            // センシティブデータをクリア
-            Arrays.fill(plaintextBytes, (byte) 0);
-            Arrays.fill(iv, (byte) 0);
-            Arrays.fill(ciphertext, (byte) 0);
+        try {
+            return decryptPayload(decodedData, 0, decodedData.length);
+        } finally {
+            Arrays.fill(decodedData, (byte) 0);
+        }
+    }
 
-            return plaintext;
+    /**
+     * ヘッダーなしの [IV][暗号文] 部分を復号（AES-256-GCM）
+     *
+     * <p>バージョン1・旧形式のデータ用。データ鍵で復号できない場合は、データ鍵導入前の
+     * マスター鍵で直接暗号化されたデータとして復号する。</p>
+     */
+    @NonNull
+    private String decryptPayload(@NonNull byte[] data, int offset, int length)
+            throws CryptoException {
+        byte[] plaintextBytes = null;
+        try {
+            try {
+                plaintextBytes = engineFor(CipherSuite.AES_256_GCM, DataKeyManager.INITIAL_KEY_ID)
+                        .decrypt(data, offset, length);
+            } catch (AEADBadTagException e) {
+                // データ鍵導入前にマスター鍵で直接暗号化されたデータ
+                plaintextBytes = legacyMasterKeyEngine().decrypt(data, offset, length);
+            }
+            return new String(plaintextBytes, StandardCharsets.UTF_8);
 
-        } catch (KeyStoreException | NoSuchAlgorithmException | NoSuchPaddingException |
-                 InvalidKeyException | InvalidAlgorithmParameterException |
-                 IllegalBlockSizeException | BadPaddingException e) {
+        } catch (GeneralSecurityException e) {
             Log.e(TAG, "Decryption failed", e);
             throw new CryptoException("Decryption failed", e);
+        } finally {
+            // センシティブデータをクリア
+            if (plaintextBytes != null) {
+                Arrays.fill(plaintextBytes, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * フィールドの平文から検索用のブラインドインデックスを生成
+     *
+     * <p>{@link SearchTokenizer#indexTokens(String...)} の各トークンを、データ鍵から
+     * 導出したHMAC鍵でハッシュし先頭64ビットを取り出す。鍵を知らなければ
+     * トークンから平文を推測できない。鍵IDが異なると値も異なるため、
+     * エントリの暗号化に使用した鍵IDを指定すること。</p>
+     *
+     * @param keyId データ鍵ID
+     * @param fields フィールドの平文（nullは無視する）
+     * @return ブラインドトークン（重複なし）
+     * @throws CryptoException 鍵の取得に失敗
+     */
+    @WorkerThread
+    @NonNull
+    public long[] indexTokens(int keyId, @NonNull String... fields) throws CryptoException {
+        return blindTokens(keyId, SearchTokenizer.indexTokens(fields));
+    }
+
+    /**
+     * 検索語から検索用のブラインドトークンを生成
+     *
+     * @param keyId データ鍵ID
+     * @param query 検索語
+     * @return ブラインドトークン（重複なし、検索語に英数字が含まれない場合は空）
+     * @throws CryptoException 鍵の取得に失敗
+     */
+    @WorkerThread
+    @NonNull
+    public long[] queryTokens(int keyId, @NonNull String query) throws CryptoException {
+        return blindTokens(keyId, SearchTokenizer.queryTokens(query));
+    }
+
+    /**
+     * インデックスを切り捨てたエントリの印のブラインドトークンを生成
+     *
+     * <p>この値を持つエントリは、検索語のトークンに関わらず検索の候補とする。</p>
+     *
+     * @param keyId データ鍵ID
+     * @return ブラインドトークン
+     * @throws CryptoException 鍵の取得に失敗
+     */
+    @WorkerThread
+    public long truncatedIndexToken(int keyId) throws CryptoException {
+        return blindTokens(keyId, Collections.singletonList(SearchTokenizer.TRUNCATED_TOKEN))[0];
+    }
+
+    /**
+     * トークンを鍵付きハッシュに変換
+     *
+     * <p>MACは呼び出しごとに生成する。初期化したMACはインデックス鍵を保持し続けるため、
+     * スレッドをまたいで再利用するとロック後も鍵が残る。</p>
+     */
+    @NonNull
+    private long[] blindTokens(int keyId, @NonNull Collection<String> tokens) throws CryptoException {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(dataKeyManager.getIndexKey(keyId));
+            long[] blinded = new long[tokens.size()];
+            int i = 0;
+            for (String token : tokens) {
+                byte[] digest = mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+                long value = 0;
+                for (int b = 0; b < Long.BYTES; b++) {
+                    value = (value << 8) | (digest[b] & 0xFF);
+                }
+                blinded[i++] = value;
+            }
+            return blinded;
+
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Failed to compute search tokens", e);
+            throw new CryptoException("Failed to compute search tokens", e);
         }
     }
 
     /**
      * 暗号化が利用可能かチェック
      *
+     * <p>KeyStoreの読み込みが完了していなければ完了まで待つ。</p>
+     *
      * @return true: 利用可能, false: 利用不可
      */
+    @WorkerThread
     public boolean isEncryptionAvailable() {
-        return keyManager.hasMasterKey();
+        return keyManager.hasMasterKey(dataKeyManager.getActiveKeyId());
+    }
+
+    /**
+     * 新規暗号化に使用するデータ鍵のIDを取得
+     *
+     * @return データ鍵ID
+     */
+    public int getActiveKeyId() {
+        return dataKeyManager.getActiveKeyId();
+    }
+
+    /**
+     * 現在のデータ鍵を準備
+     *
+     * <p>KeyStoreの読み込みを待ち、現在のデータ鍵をアンラップして {@link DataKeyHolder} に保持する。
+     * 最初の暗号化・復号で行う処理を先に済ませるためのもので、認証待ちの間に呼び出す。
+     * 呼び出し側で先に {@link DataKeyHolder#beginSession()} でセッションを開始し、
+     * 認証されなかった場合は {@link DataKeyHolder#clear()} すること。</p>
+     *
+     * @throws CryptoException KeyStoreの読み込み・鍵のアンラップに失敗
+     */
+    @WorkerThread
+    public void prepareActiveKey() throws CryptoException {
+        try {
+            keyManager.whenReady().join();
+            dataKeyManager.getDataKey(dataKeyManager.getActiveKeyId());
+        } catch (GeneralSecurityException | CompletionException e) {
+            throw new CryptoException("Failed to prepare data key", e);
+        }
+    }
+
+    /**
+     * セッションをクリア
+     *
+     * <p>キャッシュした鍵の参照とプール中のCipherを破棄する。
+     * 次回の暗号化・復号時に鍵を再解決する。データ鍵そのものの消去は
+     * {@link DataKeyHolder#clear()}（ロック時）で行う。</p>
+     */
+    public void clearSession() {
+        invalidateEngines();
+        Log.d(TAG, "Crypto session cleared");
+    }
+
+    /**
+     * マスター鍵をローテーション
+     *
+     * <p>新しい世代のマスター鍵とデータ鍵を旧世代と並べて作成し、
+     * 以降の暗号化を新しい鍵に切り替える。既存データは旧世代の鍵で
+     * 引き続き復号できる。既存データの再暗号化と旧世代の削除
+     * （{@link #retireKeysBefore(int)}）は呼び出し側で行う。</p>
+     *
+     * <p>KeyStoreでの鍵生成を伴うため、バックグラウンドスレッドから呼び出すこと。</p>
+     *
+     * @return 新しいデータ鍵ID
+     * @throws CryptoException 鍵の生成に失敗
+     */
+    public int rotateMasterKey() throws CryptoException {
+        try {
+            int keyId = dataKeyManager.createNextKey();
+            Log.i(TAG, "Master key rotated, new key id: " + keyId);
+            return keyId;
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Failed to rotate master key", e);
+            throw new CryptoException("Failed to rotate master key", e);
+        }
     }
 
     /**
-     * マスター鍵を再生成
+     * 指定した鍵IDより前の世代の鍵をすべて削除
      *
-     * <p>警告: すべての暗号化データが復号不可能になります。</p>
+     * <p>警告: 削除した世代の鍵で暗号化されたデータは復号不可能になります。
+     * すべてのデータを再暗号化した後にのみ呼び出すこと。</p>
      *
-     * @throws CryptoException 鍵の再生成に失敗
+     * @param keyId 残す最古の鍵ID（現在の鍵ID）
+     * @throws CryptoException 鍵の削除に失敗
      */
-    public void regenerateMasterKey() throws CryptoException {
+    public void retireKeysBefore(int keyId) throws CryptoException {
         try {
-            Log.w(TAG, "Regenerating master key - all encrypted data will be lost!");
-            keyManager.deleteMasterKey();
-            keyManager.generateMasterKey();
-            Log.i(TAG, "Master key regenerated successfully");
-        } catch (KeyStoreException e) {
-            Log.e(TAG, "Failed to regenerate master key", e);
-            throw new CryptoException("Failed to regenerate master key", e);
+            for (int oldKeyId = DataKeyManager.INITIAL_KEY_ID; oldKeyId < keyId; oldKeyId++) {
+                dataKeyManager.retireKey(oldKeyId);
+                removeEngines(oldKeyId);
+            }
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Failed to retire old keys", e);
+            throw new CryptoException("Failed to retire old keys", e);
+        }
+    }
+
+    /**
+     * 鍵ID・スイートに対応する暗号エンジンを取得
+     *
+     * <p>復号のたびに呼ばれるため、既存エンジンの参照はロック・オブジェクト生成なしで行う。</p>
+     */
+    @NonNull
+    private CipherEngine engineFor(@NonNull CipherSuite suite, int keyId) {
+        for (EngineSlot slot : engines) {
+            if (slot.keyId == keyId && slot.suite == suite) {
+                return slot.engine;
+            }
+        }
+        return addEngine(suite, keyId);
+    }
+
+    /**
+     * 暗号化データのヘッダーに対応する暗号エンジンを取得
+     */
+    @NonNull
+    private CipherEngine engineFor(byte version, @NonNull byte[] encryptedData) throws CryptoException {
+        if (version == CiphertextFormat.VERSION_1) {
+            return engineFor(CipherSuite.AES_256_GCM, DataKeyManager.INITIAL_KEY_ID);
+        }
+        return engineFor(checkAvailable(CiphertextFormat.suiteOf(encryptedData)),
+                CiphertextFormat.keyIdOf(encryptedData));
+    }
+
+    /**
+     * 暗号化データのヘッダーに対応する暗号エンジンを取得
+     */
+    @NonNull
+    private CipherEngine engineFor(byte version, @NonNull ByteBuffer encryptedData) throws CryptoException {
+        if (version == CiphertextFormat.VERSION_1) {
+            return engineFor(CipherSuite.AES_256_GCM, DataKeyManager.INITIAL_KEY_ID);
+        }
+        return engineFor(checkAvailable(CiphertextFormat.suiteOf(encryptedData)),
+                CiphertextFormat.keyIdOf(encryptedData));
+    }
+
+    /**
+     * データ鍵導入前にマスター鍵で直接暗号化されたデータ用の暗号エンジン
+     */
+    @NonNull
+    private CipherEngine legacyMasterKeyEngine() {
+        return dataKeyManager.wrappingEngineFor(DataKeyManager.INITIAL_KEY_ID);
+    }
+
+    /**
+     * 暗号スイートがこの端末で利用可能か確認
+     */
+    @NonNull
+    private CipherSuite checkAvailable(@NonNull CipherSuite suite) throws CryptoException {
+        if (!availableSuites.contains(suite)) {
+            throw new CryptoException("Cipher suite not available on this device: " + suite);
+        }
+        return suite;
+    }
+
+    /**
+     * バージョンに対応するヘッダーのバイト数
+     */
+    private static int headerSizeOf(byte version) {
+        return version == CiphertextFormat.VERSION_1
+                ? CiphertextFormat.HEADER_SIZE_V1
+                : CiphertextFormat.HEADER_SIZE_V2;
+    }
+
+    /**
+     * 暗号エンジンを生成して登録
+     */
+    @NonNull
+    private synchronized CipherEngine addEngine(@NonNull CipherSuite suite, int keyId) {
+        EngineSlot[] current = engines;
+        for (EngineSlot slot : current) {
+            if (slot.keyId == keyId && slot.suite == suite) {
+                return slot.engine;
+            }
+        }
+
+        CipherEngine engine = new CipherEngine(
+                suite, () -> dataKeyManager.getSuiteKey(keyId, suite), MAX_CIPHERS_PER_THREAD);
+        EngineSlot[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new EngineSlot(keyId, suite, engine);
+        engines = updated;
+        return engine;
+    }
+
+    /**
+     * 指定した鍵IDの暗号エンジンを破棄
+     */
+    private synchronized void removeEngines(int keyId) {
+        EngineSlot[] current = engines;
+        EngineSlot[] remaining = new EngineSlot[current.length];
+        int count = 0;
+        for (EngineSlot slot : current) {
+            if (slot.keyId == keyId) {
+                slot.engine.invalidateKey();
+            } else {
+                remaining[count++] = slot;
+            }
+        }
+        engines = Arrays.copyOf(remaining, count);
+    }
+
+    /**
+     * すべての暗号エンジンの鍵キャッシュを破棄
+     */
+    private void invalidateEngines() {
+        for (EngineSlot slot : engines) {
+            slot.engine.invalidateKey();
         }
+        legacyMasterKeyEngine().invalidateKey();
     }
 
     /**
@@ -253,16 +778,38 @@ public String encrypt(@NonNull String plaintext) throws CryptoException {
      */
     public void printCryptoInfo() {
         Log.d(TAG, "=== Crypto Information ===");
-        Log.d(TAG, "Transformation: " + TRANSFORMATION);
-        Log.d(TAG, "IV size: " + IV_SIZE_BYTES + " bytes");
-        Log.d(TAG, "Auth tag size: " + AUTH_TAG_SIZE_BITS + " bits");
-        Log.d(TAG, "Master key exists: " + keyManager.hasMasterKey());
-        Log.d(TAG, "StrongBox available: " + keyManager.isStrongBoxAvailable());
+        Log.d(TAG, "Available suites: " + availableSuites);
+        Log.d(TAG, "Active key id: " + dataKeyManager.getActiveKeyId());
+        Log.d(TAG, "Write suite: " + suiteSelector.getWriteSuite());
+        Log.d(TAG, "IV size: " + CipherEngine.IV_SIZE_BYTES + " bytes");
+        Log.d(TAG, "Auth tag size: " + CipherEngine.AUTH_TAG_SIZE_BITS + " bits");
+        for (EngineSlot slot : engines) {
+            Log.d(TAG, "Pooled ciphers created (" + slot.suite + ", key " + slot.keyId + "): "
+                    + slot.engine.getCipherPool().getCreatedCount());
+        }
+        Log.d(TAG, "Master key exists: " + isEncryptionAvailable());
+        Log.d(TAG, "StrongBox available: "
+                + keyManager.isStrongBoxAvailable(dataKeyManager.getActiveKeyId()));
         Log.d(TAG, "=========================");
 
         keyManager.printKeyStoreInfo();
     }
 
+    /**
+     * 鍵ID・スイートと暗号エンジンの組
+     */
+    private static final class EngineSlot {
+        final int keyId;
+        final CipherSuite suite;
+        final CipherEngine engine;
+
+        EngineSlot(int keyId, @NonNull CipherSuite suite, @NonNull CipherEngine engine) {
+            this.keyId = keyId;
+            this.suite = suite;
+            this.engine = engine;
+        }
+    }
+
     /**
      * 暗号化例外クラス
      */
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 非同期暗号化サービス
+ *
+ * <p>暗号化・復号を専用スレッドで実行し、結果を {@link CompletableFuture} で返す。
+ * UIスレッドから暗号処理を呼び出す代わりに使用する。</p>
+ *
+ * <p>特徴:</p>
+ * <ul>
+ *   <li>優先レーン（{@link Priority#INTERACTIVE}）: 詳細画面の表示・保存など、
+ *       ユーザーが結果を待っている処理。専用スレッドで実行され、
+ *       バックグラウンド処理の後ろに並ばない</li>
+ *   <li>通常レーン（{@link Priority#BACKGROUND}）: 一覧の復号・検索結果の確認など</li>
+ *   <li>各レーンの待ち行列は上限付き。満杯の場合は
+ *       {@link RejectedExecutionException} で失敗したFutureを返す（呼び出し側で再試行可能）</li>
+ *   <li>待ち行列の長さ・実行中・完了・拒否の件数を取得できる</li>
+ * </ul>
+ *
+ * <p>Futureは暗号処理スレッド上で完了するため、後続処理でUIを更新する場合は
+ * {@code postValue} などでメインスレッドに戻すこと。</p>
+ *
+ * @since 1.1
+ */
+public final class CryptoService {
+
+    private static final String TAG = "CryptoService";
+
+    // 優先レーンの待ち行列上限（表示中の画面の分だけあれば足りる）
+    static final int INTERACTIVE_QUEUE_CAPACITY = 16;
+
+    // 通常レーンの待ち行列上限
+    static final int BACKGROUND_QUEUE_CAPACITY = 64;
+
+    // 通常レーンのスレッド数上限
+    private static final int MAX_BACKGROUND_THREADS = 2;
+
+    // アイドル時にスレッドを解放するまでの時間（秒）
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static volatile CryptoService instance;
+
+    /**
+     * 実行レーン
+     */
+    public enum Priority {
+        /** ユーザーが結果を待っている処理 */
+        INTERACTIVE,
+        /** 一覧表示・検索など、遅れても支障のない処理 */
+        BACKGROUND
+    }
+
+    /**
+     * 暗号処理
+     *
+     * @param <T> 結果の型
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws CryptoManager.CryptoException;
+    }
+
+    private final Lane interactive;
+    private final Lane background;
+
+    /**
+     * インスタンスを取得
+     *
+     * @return アプリ全体で共有するサービス
+     */
+    @NonNull
+    public static CryptoService getInstance() {
+        if (instance == null) {
+            synchronized (CryptoService.class) {
+                if (instance == null) {
+                    instance = new CryptoService(
+                            Math.min(MAX_BACKGROUND_THREADS, BatchCryptoProcessor.defaultWorkerCount()),
+                            INTERACTIVE_QUEUE_CAPACITY,
+                            BACKGROUND_QUEUE_CAPACITY
+                    );
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param backgroundThreads 通常レーンのスレッド数
+     * @param interactiveCapacity 優先レーンの待ち行列上限
+     * @param backgroundCapacity 通常レーンの待ち行列上限
+     */
+    @VisibleForTesting
+    CryptoService(int backgroundThreads, int interactiveCapacity, int backgroundCapacity) {
+        this.interactive = new Lane("crypto-interactive", 1, interactiveCapacity, Thread.NORM_PRIORITY);
+        this.background = new Lane("crypto-background", backgroundThreads, backgroundCapacity,
+                Thread.NORM_PRIORITY - 1);
+    }
+
+    /**
+     * 暗号処理を非同期に実行
+     *
+     * <p>処理が例外を投げた場合、Futureはその例外で失敗する。
+     * 実行前にFutureがキャンセルされた場合、処理は実行されない。</p>
+     *
+     * @param priority 実行レーン
+     * @param task 暗号処理
+     * @param <T> 結果の型
+     * @return 処理結果のFuture（待ち行列が満杯の場合は {@link RejectedExecutionException} で失敗）
+     */
+    @NonNull
+    public <T> CompletableFuture<T> submit(@NonNull Priority priority, @NonNull Task<T> task) {
+        Lane lane = laneFor(priority);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            lane.executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            long rejected = lane.rejected.incrementAndGet();
+            Log.w(TAG, "Crypto queue full (" + priority + "), rejected total: " + rejected);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * レーンを {@link Executor} として取得
+     *
+     * <p>ページングの変換処理など、Executorを受け取るライブラリに渡す用途。
+     * 待ち行列が満杯の場合は {@link RejectedExecutionException} を投げる
+     * （拒否件数に計上する）。</p>
+     *
+     * @param priority 実行レーン
+     * @return レーンで実行するExecutor
+     */
+    @NonNull
+    public Executor executor(@NonNull Priority priority) {
+        Lane lane = laneFor(priority);
+        return command -> {
+            try {
+                lane.executor.execute(command);
+            } catch (RejectedExecutionException e) {
+                lane.rejected.incrementAndGet();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * 待ち行列の長さを取得
+     *
+     * @param priority 実行レーン
+     * @return 実行待ちの処理数
+     */
+    public int getQueueDepth(@NonNull Priority priority) {
+        return laneFor(priority).executor.getQueue().size();
+    }
+
+    /**
+     * 実行中の処理数を取得
+     *
+     * @param priority 実行レーン
+     * @return 実行中の処理数（概算）
+     */
+    public int getActiveCount(@NonNull Priority priority) {
+        return laneFor(priority).executor.getActiveCount();
+    }
+
+    /**
+     * 完了した処理数を取得
+     *
+     * @param priority 実行レーン
+     * @return 完了した処理数（概算）
+     */
+    public long getCompletedCount(@NonNull Priority priority) {
+        return laneFor(priority).executor.getCompletedTaskCount();
+    }
+
+    /**
+     * 待ち行列が満杯で拒否した処理数を取得
+     *
+     * @param priority 実行レーン
+     * @return 拒否した処理数
+     */
+    public long getRejectedCount(@NonNull Priority priority) {
+        return laneFor(priority).rejected.get();
+    }
+
+    @NonNull
+    private Lane laneFor(@NonNull Priority priority) {
+        return priority == Priority.INTERACTIVE ? interactive : background;
+    }
+
+    /**
+     * 上限付き待ち行列を持つ実行レーン
+     */
+    private static final class Lane {
+
+        final ThreadPoolExecutor executor;
+        final AtomicLong rejected = new AtomicLong();
+
+        Lane(@NonNull String name, int threads, int capacity, int threadPriority) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(
+                    threads,
+                    threads,
+                    KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name + "-" + threadIndex.incrementAndGet());
+                        thread.setPriority(threadPriority);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+            // アイドル時はスレッドを解放する
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.crypto.Mac;
+
+/**
+ * アンロック中のデータ鍵を保持するホルダー（シングルトン）
+ *
+ * <p>KeyStoreでアンラップしたデータ暗号化鍵（DEK）をアプリ全体で共有する。
+ * ロック時に {@link #clear()} を呼び出し、鍵素材をゼロクリアする。</p>
+ *
+ * <p>アンロック中のセッションも管理する。KEKの使用にはユーザー認証が不要なため、
+ * セッション外（ロック中）はDEKをアンラップさせない（{@link DataKeyManager} が確認し、
+ * {@link LockedException} で失敗する）。セッションは認証の成功時、または認証待ちの間の
+ * 先行準備で {@link #beginSession()} により開始し、{@link #clear()} で終了する。
+ * バックグラウンドの処理は {@link #awaitUnlocked()} でアンロックまで待機する。</p>
+ *
+ * <p>鍵のローテーション中は新旧のDEKを鍵IDごとに保持する。
+ * 暗号スイートごとのサブ鍵（{@link #derive(int, String, String)}）も保持し、
+ * 親のデータ鍵と同時に破棄する。</p>
+ *
+ * @since 1.1
+ */
+public final class DataKeyHolder {
+
+    private static final String TAG = "DataKeyHolder";
+
+    private static final DataKeyHolder INSTANCE = new DataKeyHolder();
+
+    // サブ鍵の導出に使用するMAC
+    private static final String DERIVATION_ALGORITHM = "HmacSHA256";
+
+    private final Map<Integer, SessionKey> dataKeys = new HashMap<>();
+    private final Map<String, SessionKey> derivedKeys = new HashMap<>();
+
+    // アンロック中のセッションの番号（0: ロック中）
+    private long session;
+    private long lastSession;
+
+    private DataKeyHolder() {
+    }
+
+    /**
+     * インスタンスを取得
+     *
+     * @return DataKeyHolder
+     */
+    @NonNull
+    public static DataKeyHolder getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * アンロック中のセッションを開始（DEKのアンラップを許可）
+     *
+     * <p>認証の成功時、または認証待ちの間の先行準備の開始時に呼び出す。</p>
+     *
+     * @return セッションの番号（{@link #endSession(long)} に渡す）
+     */
+    public synchronized long beginSession() {
+        session = ++lastSession;
+        notifyAll();
+        Log.d(TAG, "Unlocked session started");
+        return session;
+    }
+
+    /**
+     * 指定したセッションが続いていれば終了し、データ鍵を破棄
+     *
+     * <p>認証待ちの先行準備を破棄する場合に使う。その後に認証が成功して
+     * 新しいセッションが始まっていれば何もしない。</p>
+     *
+     * @param session {@link #beginSession()} の戻り値
+     */
+    public synchronized void endSession(long session) {
+        if (this.session == session) {
+            clear();
+        }
+    }
+
+    /**
+     * アンロック中かチェック
+     *
+     * @return true: アンロック中（DEKをアンラップできる）, false: ロック中
+     */
+    public synchronized boolean isUnlocked() {
+        return session != 0;
+    }
+
+    /**
+     * アンロックされるまで待機（バックグラウンドの処理がロック中に一時停止するために使う）
+     *
+     * @throws InterruptedException 待機中に割り込まれた
+     */
+    public synchronized void awaitUnlocked() throws InterruptedException {
+        while (session == 0) {
+            wait();
+        }
+    }
+
+    /**
+     * ロック中にDEKのアンラップを試みたことによる失敗かチェック
+     *
+     * @param error 例外（原因をたどって判定する）
+     * @return true: ロック中のため失敗した
+     */
+    public static boolean isLockedError(@Nullable Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof LockedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 保持中のデータ鍵を取得
+     *
+     * @param keyId データ鍵ID
+     * @return データ鍵（ロック中・未アンラップの場合はnull）
+     */
+    @Nullable
+    public synchronized SessionKey get(int keyId) {
+        SessionKey key = dataKeys.get(keyId);
+        if (key == null || key.isDestroyed()) {
+            return null;
+        }
+        return key;
+    }
+
+    /**
+     * データ鍵を保持
+     *
+     * <p>同じIDで既に保持している鍵とそのサブ鍵は破棄する。</p>
+     *
+     * @param keyId データ鍵ID
+     * @param keyBytes 鍵素材（コピーされるため、呼び出し側で消去すること）
+     * @param algorithm アルゴリズム名
+     * @return 保持したデータ鍵
+     */
+    @NonNull
+    public synchronized SessionKey set(int keyId, @NonNull byte[] keyBytes, @NonNull String algorithm) {
+        remove(keyId);
+        SessionKey key = new SessionKey(keyBytes, algorithm);
+        dataKeys.put(keyId, key);
+        return key;
+    }
+
+    /**
+     * 保持中のデータ鍵からサブ鍵を導出
+     *
+     * <p>HMAC-SHA256(データ鍵, ラベル) を鍵素材とする。導出結果はキャッシュし、
+     * データ鍵の破棄時に合わせて破棄する。</p>
+     *
+     * @param keyId データ鍵ID
+     * @param label 用途ラベル
+     * @param algorithm サブ鍵のアルゴリズム名
+     * @return サブ鍵
+     * @throws GeneralSecurityException データ鍵が未保持、または導出に失敗
+     */
+    @NonNull
+    public synchronized SessionKey derive(int keyId, @NonNull String label, @NonNull String algorithm)
+            throws GeneralSecurityException {
+        SessionKey parent = get(keyId);
+        if (parent == null) {
+            throw new GeneralSecurityException("Data key is not unlocked");
+        }
+
+        String cacheKey = derivedKeyName(keyId, label);
+        SessionKey derived = derivedKeys.get(cacheKey);
+        if (derived != null && !derived.isDestroyed()) {
+            return derived;
+        }
+
+        Mac mac = Mac.getInstance(DERIVATION_ALGORITHM);
+        mac.init(parent);
+        byte[] keyBytes = mac.doFinal(label.getBytes(StandardCharsets.UTF_8));
+        try {
+            derived = new SessionKey(keyBytes, algorithm);
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+        derivedKeys.put(cacheKey, derived);
+        return derived;
+    }
+
+    /**
+     * 指定したデータ鍵とそのサブ鍵をゼロクリアして破棄
+     *
+     * @param keyId データ鍵ID
+     */
+    public synchronized void remove(int keyId) {
+        SessionKey key = dataKeys.remove(keyId);
+        if (key != null) {
+            key.destroy();
+        }
+
+        String prefix = keyId + "/";
+        Iterator<Map.Entry<String, SessionKey>> iterator = derivedKeys.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, SessionKey> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                entry.getValue().destroy();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * すべてのデータ鍵をゼロクリアして破棄し、セッションを終了（ロック）
+     *
+     * <p>以降は {@link #beginSession()} までDEKをアンラップしない。</p>
+     */
+    public synchronized void clear() {
+        session = 0;
+        for (SessionKey key : derivedKeys.values()) {
+            key.destroy();
+        }
+        derivedKeys.clear();
+
+        if (!dataKeys.isEmpty()) {
+            for (SessionKey key : dataKeys.values()) {
+                key.destroy();
+            }
+            dataKeys.clear();
+            Log.d(TAG, "Data keys wiped");
+        }
+    }
+
+    /**
+     * ロック中にDEKが必要になった
+     */
+    public static final class LockedException extends GeneralSecurityException {
+        /**
+         * コンストラクタ
+         *
+         * @param keyId 必要になったデータ鍵ID
+         */
+        public LockedException(int keyId) {
+            super("Vault is locked; data key " + keyId + " is not available");
+        }
+    }
+
+    /**
+     * サブ鍵のキャッシュキー
+     */
+    @NonNull
+    private static String derivedKeyName(int keyId, @NonNull String label) {
+        return keyId + "/" + label;
+    }
+}
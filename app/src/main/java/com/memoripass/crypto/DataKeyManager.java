@@ -0,0 +1,310 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyStoreException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.SecretKey;
+
+/**
+ * データ暗号化鍵（DEK）管理クラス
+ *
+ * <p>エンベロープ暗号化の2層構造を提供する。</p>
+ * <ul>
+ *   <li>KEK: AndroidKeyStore（StrongBox）のマスター鍵。DEKのラップ・アンラップにのみ使用</li>
+ *   <li>DEK: ボルトごとのAES-256鍵。KEKでラップした状態で端末内に保存</li>
+ * </ul>
+ *
+ * <p>DEKはアンロック後の初回利用時に1回だけアンラップされ、
+ * {@link DataKeyHolder} に保持される。各エントリの暗号化・復号は
+ * ソフトウェアで行うため、StrongBoxへの往復が発生しない。
+ * ロック時にDEKはゼロクリアされ、次のセッションの開始
+ * （{@link DataKeyHolder#beginSession()}）まで再びアンラップしない。</p>
+ *
+ * <p>鍵ローテーション:</p>
+ * <ul>
+ *   <li>KEKとDEKは同じ番号（鍵ID = KEKの世代）で対になる</li>
+ *   <li>{@link #createNextKey()} は旧世代を残したまま新世代を作成し、新規暗号化の鍵を切り替える</li>
+ *   <li>全データの再暗号化後に {@link #retireKey(int)} で旧世代を削除する</li>
+ * </ul>
+ *
+ * @since 1.1
+ */
+public class DataKeyManager {
+
+    private static final String TAG = "DataKeyManager";
+
+    // ラップ済みDEKの保存先
+    static final String PREFS_NAME = "memoripass_keys";
+
+    // ラップ済みDEKの保存キー（第1世代。以降は末尾に "_鍵ID" を付与）
+    private static final String KEY_WRAPPED_DATA_KEY = "wrapped_data_key";
+
+    // 新規暗号化に使用する鍵ID
+    private static final String KEY_ACTIVE_KEY_ID = "active_data_key_id";
+
+    // 最初の鍵ID（データ鍵導入前・バージョン1の暗号文もこの世代に属する）
+    public static final int INITIAL_KEY_ID = KeyManager.INITIAL_GENERATION;
+
+    // 検索用ブラインドインデックスの鍵（データ鍵から導出）
+    private static final String INDEX_KEY_LABEL = "memoripass/search-index";
+    private static final String INDEX_KEY_ALGORITHM = "HmacSHA256";
+
+    // DEKの仕様（AES-256）
+    private static final String DATA_KEY_ALGORITHM = "AES";
+    private static final int DATA_KEY_SIZE_BYTES = 32;
+
+    private final SharedPreferences prefs;
+    private final KeyManager keyManager;
+    private final DataKeyHolder holder;
+    private final SecureRandom secureRandom;
+
+    // 世代ごとのKEKによる暗号エンジン（DEKのラップ用）
+    private final Map<Integer, CipherEngine> wrappingEngines = new ConcurrentHashMap<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param context アプリケーションコンテキスト
+     * @param keyManager マスター鍵（KEK）の管理
+     */
+    public DataKeyManager(@NonNull Context context, @NonNull KeyManager keyManager) {
+        this.prefs = context.getApplicationContext()
+                .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.keyManager = keyManager;
+        this.holder = DataKeyHolder.getInstance();
+        this.secureRandom = new SecureRandom();
+    }
+
+    /**
+     * データ鍵を取得
+     *
+     * <p>保持中であればそれを返す。未保持ならラップ済みDEKをアンラップする。
+     * 最初の世代のDEKが存在しなければ新規に生成してラップ・保存する。
+     * アンラップ・生成はアンロック中のセッションでのみ行う。</p>
+     *
+     * @param keyId データ鍵ID
+     * @return データ鍵
+     * @throws DataKeyHolder.LockedException ロック中で、データ鍵を保持していない
+     * @throws GeneralSecurityException 鍵の生成・アンラップに失敗、または未知の鍵ID
+     */
+    @NonNull
+    public SecretKey getDataKey(int keyId) throws GeneralSecurityException {
+        // ホルダーはアプリ全体で共有されるため、生成競合を防ぐために同じロックを使う
+        synchronized (holder) {
+            SessionKey key = holder.get(keyId);
+            if (key != null) {
+                return key;
+            }
+            if (!holder.isUnlocked()) {
+                throw new DataKeyHolder.LockedException(keyId);
+            }
+
+            byte[] rawKey = null;
+            try {
+                String wrapped = prefs.getString(wrappedKeyName(keyId), null);
+                if (wrapped != null) {
+                    byte[] wrappedBytes = Base64.decode(wrapped, Base64.NO_WRAP);
+                    rawKey = wrappingEngineFor(keyId).decrypt(wrappedBytes, 0, wrappedBytes.length);
+                    Log.d(TAG, "Data key " + keyId + " unwrapped for this session");
+                } else if (keyId == INITIAL_KEY_ID && getActiveKeyId() == INITIAL_KEY_ID) {
+                    rawKey = generateAndStore(keyId);
+                } else {
+                    throw new GeneralSecurityException("Unknown data key: " + keyId);
+                }
+                return holder.set(keyId, rawKey, DATA_KEY_ALGORITHM);
+            } finally {
+                if (rawKey != null) {
+                    Arrays.fill(rawKey, (byte) 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * 暗号スイート用の鍵を取得
+     *
+     * <p>データ鍵をそのまま使うスイートはデータ鍵を、それ以外は
+     * データ鍵から導出したサブ鍵を返す。</p>
+     *
+     * @param keyId データ鍵ID
+     * @param suite 暗号スイート
+     * @return 秘密鍵
+     * @throws GeneralSecurityException 鍵の取得・導出に失敗
+     */
+    @NonNull
+    public SecretKey getSuiteKey(int keyId, @NonNull CipherSuite suite) throws GeneralSecurityException {
+        String label = suite.getKeyDerivationLabel();
+        synchronized (holder) {
+            SecretKey dataKey = getDataKey(keyId);
+            if (label == null) {
+                return dataKey;
+            }
+            return holder.derive(keyId, label, suite.getKeyAlgorithm());
+        }
+    }
+
+    /**
+     * 検索用ブラインドインデックスの鍵を取得
+     *
+     * <p>データ鍵から導出したHMAC鍵。暗号化用の鍵とは用途ラベルで分離する。</p>
+     *
+     * @param keyId データ鍵ID
+     * @return HMAC-SHA256鍵
+     * @throws GeneralSecurityException 鍵の取得・導出に失敗
+     */
+    @NonNull
+    public SecretKey getIndexKey(int keyId) throws GeneralSecurityException {
+        synchronized (holder) {
+            getDataKey(keyId);
+            return holder.derive(keyId, INDEX_KEY_LABEL, INDEX_KEY_ALGORITHM);
+        }
+    }
+
+    /**
+     * 新規暗号化に使用するデータ鍵のIDを取得
+     *
+     * @return データ鍵ID
+     */
+    public int getActiveKeyId() {
+        return prefs.getInt(KEY_ACTIVE_KEY_ID, INITIAL_KEY_ID);
+    }
+
+    /**
+     * 世代のKEKによる暗号エンジンを取得
+     *
+     * <p>データ鍵導入前にマスター鍵で直接暗号化されたデータの復号にも使用する。</p>
+     *
+     * @param keyId データ鍵ID（KEKの世代）
+     * @return 暗号エンジン
+     */
+    @NonNull
+    public CipherEngine wrappingEngineFor(int keyId) {
+        return wrappingEngines.computeIfAbsent(keyId,
+                id -> new CipherEngine(() -> keyManager.getMasterKey(id), 1));
+    }
+
+    /**
+     * 次の世代のKEK・DEKを作成し、新規暗号化の鍵を切り替える
+     *
+     * <p>旧世代の鍵は残すため、再暗号化が完了するまで既存データを読み出せる。
+     * KeyStoreでの鍵生成を伴うため、バックグラウンドスレッドから呼び出すこと。</p>
+     *
+     * @return 新しいデータ鍵ID
+     * @throws DataKeyHolder.LockedException ロック中
+     * @throws GeneralSecurityException 鍵の生成・保存に失敗
+     */
+    public int createNextKey() throws GeneralSecurityException {
+        synchronized (holder) {
+            if (!holder.isUnlocked()) {
+                throw new DataKeyHolder.LockedException(getActiveKeyId() + 1);
+            }
+            int nextKeyId = getActiveKeyId() + 1;
+            byte[] rawKey = generateAndStore(nextKeyId);
+            try {
+                holder.set(nextKeyId, rawKey, DATA_KEY_ALGORITHM);
+            } finally {
+                Arrays.fill(rawKey, (byte) 0);
+            }
+
+            if (!prefs.edit().putInt(KEY_ACTIVE_KEY_ID, nextKeyId).commit()) {
+                throw new GeneralSecurityException("Failed to persist active data key id");
+            }
+            Log.i(TAG, "Data key rotated: " + (nextKeyId - 1) + " -> " + nextKeyId);
+            return nextKeyId;
+        }
+    }
+
+    /**
+     * 旧世代のDEK・KEKを削除
+     *
+     * <p>警告: この世代の鍵で暗号化されたデータは復号不可能になります。
+     * すべてのデータを新しい世代で再暗号化した後にのみ使用する。</p>
+     *
+     * @param keyId 削除するデータ鍵ID
+     * @throws GeneralSecurityException 現在の鍵を指定した、またはKEKの削除に失敗
+     */
+    public void retireKey(int keyId) throws GeneralSecurityException {
+        synchronized (holder) {
+            if (keyId == getActiveKeyId()) {
+                throw new GeneralSecurityException("Cannot retire the active data key");
+            }
+            holder.remove(keyId);
+            prefs.edit().remove(wrappedKeyName(keyId)).commit();
+
+            CipherEngine wrappingEngine = wrappingEngines.remove(keyId);
+            if (wrappingEngine != null) {
+                wrappingEngine.invalidateKey();
+            }
+            try {
+                keyManager.deleteMasterKey(keyId);
+            } catch (KeyStoreException e) {
+                throw new GeneralSecurityException("Failed to delete master key " + keyId, e);
+            }
+            Log.i(TAG, "Data key retired: " + keyId);
+        }
+    }
+
+    /**
+     * DEKを生成し、同じ世代のKEKでラップして保存
+     *
+     * @return 生成したDEKの鍵素材（呼び出し側で消去すること）
+     */
+    @NonNull
+    private byte[] generateAndStore(int keyId) throws GeneralSecurityException {
+        // 同じ世代のKEKが未作成であれば作成する（作成済みなら何もしない）
+        keyManager.generateMasterKey(keyId);
+
+        byte[] rawKey = new byte[DATA_KEY_SIZE_BYTES];
+        secureRandom.nextBytes(rawKey);
+
+        byte[] wrapped = wrappingEngineFor(keyId).encrypt(rawKey, 0, rawKey.length);
+        boolean saved = prefs.edit()
+                .putString(wrappedKeyName(keyId), Base64.encodeToString(wrapped, Base64.NO_WRAP))
+                .commit();
+        if (!saved) {
+            Arrays.fill(rawKey, (byte) 0);
+            throw new GeneralSecurityException("Failed to persist wrapped data key");
+        }
+
+        Log.i(TAG, "Data key " + keyId + " generated and wrapped");
+        return rawKey;
+    }
+
+    /**
+     * ラップ済みDEKの保存キー
+     */
+    @NonNull
+    private static String wrappedKeyName(int keyId) {
+        if (keyId == INITIAL_KEY_ID) {
+            return KEY_WRAPPED_DATA_KEY;
+        }
+        return KEY_WRAPPED_DATA_KEY + "_" + keyId;
+    }
+}
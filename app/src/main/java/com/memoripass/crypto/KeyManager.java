@@ -23,6 +23,7 @@ import android.security.keystore.KeyProperties;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
 
 import java.io.IOException;
 import java.security.InvalidAlgorithmParameterException;
@@ -32,6 +33,10 @@ import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
@@ -47,10 +52,16 @@ import javax.crypto.SecretKey;
  * <ul>
  *   <li>StrongBoxによるハードウェア保護</li>
  *   <li>AES-256鍵の生成</li>
- *   <li>鍵のライフサイクル管理</li>
+ *   <li>鍵のライフサイクル管理（世代ごとのエイリアスによるローテーション）</li>
  *   <li>生体認証による鍵アクセス制御</li>
  * </ul>
  *
+ * <p>アプリ全体で1つのインスタンスを共有する（{@link #getInstance()}）。
+ * KeyStoreの読み込みは起動時に {@link #warmUp()} でバックグラウンドスレッドに
+ * 逃がし、呼び出し側は {@link #whenReady()} で完了を待ち合わせる。
+ * エイリアスの有無と鍵ハンドルは世代ごとにキャッシュし、鍵の生成・削除時に
+ * 更新する。</p>
+ *
  * @since 1.0
  */
 public class KeyManager {
@@ -60,9 +71,12 @@ public class KeyManager {
     // AndroidKeyStoreプロバイダー
     private static final String KEYSTORE_PROVIDER = "AndroidKeyStore";
 
-    // マスター鍵のエイリアス
+    // マスター鍵のエイリアス（第1世代。以降の世代は末尾に "_世代番号" を付与）
     private static final String MASTER_KEY_ALIAS = "memoripass_master_key";
 
+    // 最初の世代
+    public static final int INITIAL_GENERATION = 1;
+
     // 鍵のアルゴリズム
     private static final String KEY_ALGORITHM = KeyProperties.KEY_ALGORITHM_AES;
 
@@ -75,33 +89,160 @@ public class KeyManager {
     // 鍵サイズ（256ビット）
     private static final int KEY_SIZE = 256;
 
-    private final KeyStore keyStore;
+    private static final KeyManager INSTANCE = new KeyManager();
+
+    // 読み込み済みのKeyStore（warmUp() で読み込みを開始する）
+    // 読み込みに失敗した場合は新しいFutureに置き換え、次の warmUp() で再試行する
+    private final Object readyLock = new Object();
+    private CompletableFuture<KeyManager> ready = new CompletableFuture<>();
+    private boolean warmUpStarted;
+    private volatile KeyStore keyStore;
+
+    // 世代ごとのエイリアスの有無・鍵ハンドルのキャッシュ
+    private final Map<Integer, Boolean> aliasExists = new ConcurrentHashMap<>();
+    private final Map<Integer, SecretKey> keyHandles = new ConcurrentHashMap<>();
+
+    private KeyManager() {
+    }
+
+    /**
+     * インスタンスを取得
+     *
+     * @return KeyManager
+     */
+    @NonNull
+    public static KeyManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * KeyStoreの読み込みをバックグラウンドで開始
+     *
+     * <p>読み込み中・読み込み済みの場合は何もせず、同じ待ち合わせ用のFutureを返す。
+     * 前回の読み込みが失敗していれば、読み込みをやり直す。
+     * アプリ起動直後に呼び出しておくと、最初の暗号化・復号までに読み込みが完了する。</p>
+     *
+     * @return 読み込み完了で完了するFuture（失敗時は {@link KeyStoreException} で例外完了）
+     */
+    @NonNull
+    public CompletableFuture<KeyManager> warmUp() {
+        synchronized (readyLock) {
+            if (!warmUpStarted) {
+                warmUpStarted = true;
+                CompletableFuture<KeyManager> attempt = ready;
+                Thread thread = new Thread(() -> load(attempt), "keystore-warmup");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            return ready;
+        }
+    }
+
+    /**
+     * KeyStoreの読み込み完了を待ち合わせるFutureを取得
+     *
+     * <p>読み込みが未開始であれば開始する。</p>
+     *
+     * @return 読み込み完了で完了するFuture
+     */
+    @NonNull
+    public CompletableFuture<KeyManager> whenReady() {
+        return warmUp();
+    }
+
+    /**
+     * KeyStoreの読み込みが完了しているかチェック
+     *
+     * @return true: 読み込み済み, false: 未完了または失敗
+     */
+    public boolean isReady() {
+        return keyStore != null;
+    }
 
     /**
-     * コンストラクタ
+     * KeyStoreを読み込む（ウォームアップスレッドで実行）
+     *
+     * <p>失敗した場合は、待ち合わせ中の呼び出し側に失敗を通知する前に
+     * 次の {@link #warmUp()} で再試行できる状態に戻す（一時的な失敗をプロセス全体に残さない）。</p>
      *
-     * @throws KeyStoreException KeyStoreの初期化に失敗
+     * @param attempt この読み込みの完了を通知するFuture
      */
-    public KeyManager() throws KeyStoreException {
+    @WorkerThread
+    private void load(@NonNull CompletableFuture<KeyManager> attempt) {
         try {
-            keyStore = KeyStore.getInstance(KEYSTORE_PROVIDER);
-            keyStore.load(null);
+            KeyStore loaded = KeyStore.getInstance(KEYSTORE_PROVIDER);
+            loaded.load(null);
+            keyStore = loaded;
             Log.d(TAG, "KeyStore initialized successfully");
-        } catch (IOException | NoSuchAlgorithmException | CertificateException e) {
+            attempt.complete(this);
+        } catch (KeyStoreException | IOException | NoSuchAlgorithmException | CertificateException e) {
             Log.e(TAG, "Failed to initialize KeyStore", e);
-            throw new KeyStoreException("Failed to initialize KeyStore", e);
+            synchronized (readyLock) {
+                ready = new CompletableFuture<>();
+                warmUpStarted = false;
+            }
+            attempt.completeExceptionally(new KeyStoreException("Failed to initialize KeyStore", e));
+        }
+    }
+
+    /**
+     * 読み込み済みのKeyStoreを取得
+     *
+     * <p>読み込みが完了していなければ完了まで待つ。メインスレッドから呼び出さないこと。</p>
+     */
+    @WorkerThread
+    @NonNull
+    private KeyStore keyStore() throws KeyStoreException {
+        KeyStore loaded = keyStore;
+        if (loaded != null) {
+            return loaded;
         }
+
+        try {
+            warmUp().get();
+            return keyStore;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeyStoreException("Interrupted while loading KeyStore", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof KeyStoreException) {
+                throw (KeyStoreException) e.getCause();
+            }
+            throw new KeyStoreException("Failed to initialize KeyStore", e.getCause());
+        }
+    }
+
+    /**
+     * 世代に対応するエイリアスを取得
+     *
+     * @param generation 鍵の世代
+     * @return エイリアス
+     */
+    @NonNull
+    static String aliasFor(int generation) {
+        if (generation == INITIAL_GENERATION) {
+            return MASTER_KEY_ALIAS;
+        }
+        return MASTER_KEY_ALIAS + "_" + generation;
     }
 
     /**
      * マスター鍵が存在するかチェック
      *
+     * @param generation 鍵の世代
      * @return true: 存在する, false: 存在しない
      */
-    public boolean hasMasterKey() {
+    @WorkerThread
+    public boolean hasMasterKey(int generation) {
+        Boolean cached = aliasExists.get(generation);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
-            boolean exists = keyStore.containsAlias(MASTER_KEY_ALIAS);
+            boolean exists = keyStore().containsAlias(aliasFor(generation));
             Log.d(TAG, "Master key exists: " + exists);
+            aliasExists.put(generation, exists);
             return exists;
         } catch (KeyStoreException e) {
             Log.e(TAG, "Failed to check master key existence", e);
@@ -113,12 +254,15 @@ public class KeyManager {
      * マスター鍵を生成
      *
      * <p>StrongBoxを使用してハードウェア保護された鍵を生成する。
-     * 生体認証が必須で、鍵はアプリからは抽出不可能。</p>
+     * 生体認証が必須で、鍵はアプリからは抽出不可能。
+     * ローテーション時は既存の世代を残したまま新しい世代を生成する。</p>
      *
+     * @param generation 鍵の世代
      * @throws KeyStoreException 鍵の生成に失敗
      */
-    public void generateMasterKey() throws KeyStoreException {
-        if (hasMasterKey()) {
+    @WorkerThread
+    public void generateMasterKey(int generation) throws KeyStoreException {
+        if (hasMasterKey(generation)) {
             Log.w(TAG, "Master key already exists");
             return;
         }
@@ -130,7 +274,7 @@ public class KeyManager {
             );
 
             KeyGenParameterSpec.Builder builder = new KeyGenParameterSpec.Builder(
-                    MASTER_KEY_ALIAS,
+                    aliasFor(generation),
                     KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT
             )
                     .setBlockModes(BLOCK_MODE)
@@ -152,8 +296,10 @@ public class KeyManager {
 
             keyGenerator.init(builder.build());
             SecretKey key = keyGenerator.generateKey();
+            keyHandles.put(generation, key);
+            aliasExists.put(generation, true);
 
-            Log.i(TAG, "Master key generated successfully");
+            Log.i(TAG, "Master key generated successfully (generation " + generation + ")");
             Log.d(TAG, "Key algorithm: " + key.getAlgorithm());
             Log.d(TAG, "Key format: " + key.getFormat());
 
@@ -167,18 +313,24 @@ public class KeyManager {
     /**
      * マスター鍵を取得
      *
+     * @param generation 鍵の世代
      * @return マスター鍵
      * @throws KeyStoreException 鍵の取得に失敗
      */
+    @WorkerThread
     @NonNull
-    public SecretKey getMasterKey() throws KeyStoreException {
-        if (!hasMasterKey()) {
+    public SecretKey getMasterKey(int generation) throws KeyStoreException {
+        SecretKey cached = keyHandles.get(generation);
+        if (cached != null) {
+            return cached;
+        }
+        if (!hasMasterKey(generation)) {
             throw new KeyStoreException("Master key does not exist");
         }
 
         try {
-            KeyStore.SecretKeyEntry entry = (KeyStore.SecretKeyEntry) keyStore.getEntry(
-                    MASTER_KEY_ALIAS,
+            KeyStore.SecretKeyEntry entry = (KeyStore.SecretKeyEntry) keyStore().getEntry(
+                    aliasFor(generation),
                     null
             );
 
@@ -187,6 +339,7 @@ public class KeyManager {
             }
 
             SecretKey key = entry.getSecretKey();
+            keyHandles.put(generation, key);
             Log.d(TAG, "Master key retrieved successfully");
             return key;
 
@@ -201,19 +354,26 @@ public class KeyManager {
      * マスター鍵を削除
      *
      * <p>警告: この操作は取り消せません。
-     * すべての暗号化データが復号不可能になります。</p>
+     * この世代の鍵でラップされたデータは復号不可能になります。
+     * ローテーションで全データの移行が完了した世代にのみ使用する。</p>
      *
+     * @param generation 鍵の世代
      * @throws KeyStoreException 鍵の削除に失敗
      */
-    public void deleteMasterKey() throws KeyStoreException {
-        if (!hasMasterKey()) {
+    @WorkerThread
+    public void deleteMasterKey(int generation) throws KeyStoreException {
+        if (!hasMasterKey(generation)) {
             Log.w(TAG, "Master key does not exist");
             return;
         }
 
+        // 削除に失敗した場合も次回はKeyStoreに問い合わせ直す
+        keyHandles.remove(generation);
+        aliasExists.remove(generation);
         try {
-            keyStore.deleteEntry(MASTER_KEY_ALIAS);
-            Log.i(TAG, "Master key deleted successfully");
+            keyStore().deleteEntry(aliasFor(generation));
+            aliasExists.put(generation, false);
+            Log.i(TAG, "Master key deleted successfully (generation " + generation + ")");
         } catch (KeyStoreException e) {
             Log.e(TAG, "Failed to delete master key", e);
             throw e;
@@ -223,15 +383,17 @@ public class KeyManager {
     /**
      * StrongBoxが利用可能かチェック
      *
+     * @param generation 確認する鍵の世代
      * @return true: 利用可能, false: 利用不可
      */
-    public boolean isStrongBoxAvailable() {
+    @WorkerThread
+    public boolean isStrongBoxAvailable(int generation) {
         if (android.os.Build.VERSION.SDK_INT < android.os.Build.VERSION_CODES.P) {
             Log.d(TAG, "StrongBox not available (Android version < 9)");
             return false;
         }
         try {
-            SecretKey key = getMasterKey();
+            SecretKey key = getMasterKey(generation);
             javax.crypto.SecretKeyFactory factory = javax.crypto.SecretKeyFactory.getInstance(
                     key.getAlgorithm(), KEYSTORE_PROVIDER);
             android.security.keystore.KeyInfo keyInfo =
@@ -250,8 +412,10 @@ public class KeyManager {
     /**
      * KeyStoreの情報を出力（デバッグ用）
      */
+    @WorkerThread
     public void printKeyStoreInfo() {
         try {
+            KeyStore keyStore = keyStore();
             Log.d(TAG, "=== KeyStore Information ===");
             Log.d(TAG, "Provider: " + keyStore.getProvider().getName());
             Log.d(TAG, "Type: " + keyStore.getType());
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 検索用トークンの生成
+ *
+ * <p>暗号化したフィールドを検索するため、平文から検索語の単位（トークン）を
+ * 取り出す。トークンはそのまま保存せず、{@link CryptoManager} が鍵付きハッシュ
+ * （ブラインドインデックス）に変換してから保存する。</p>
+ *
+ * <p>トークンの種類:</p>
+ * <ul>
+ *   <li>単語の先頭1文字（1文字の検索語を前方一致で扱う）</li>
+ *   <li>単語内の2文字・3文字の部分文字列（2文字以上の検索語を部分一致で扱う）</li>
+ * </ul>
+ *
+ * <p>1エントリあたりのトークン数には上限があり、超えた分は切り捨てて代わりに
+ * 切り捨ての印（{@link #TRUNCATED_TOKEN}）を加える。印を持つエントリは、
+ * トークンに含まれない語でも見つかるよう常に検索の候補とする。</p>
+ *
+ * <p>NFKC正規化・小文字化した上で、英数字以外（空白・記号）で単語に区切る。
+ * 日本語など空白で区切らない文字列は全体が1つの単語となる。
+ * トークンの一致は部分一致の必要条件にすぎないため、最終的な判定は
+ * {@link #matches(String, String...)} で復号後に行う。</p>
+ *
+ * @since 1.1
+ */
+public final class SearchTokenizer {
+
+    // 1エントリあたりのトークン数の上限（長いメモによるインデックスの肥大化を防ぐ）
+    public static final int MAX_TOKENS_PER_ENTRY = 512;
+
+    // インデックスを切り捨てたエントリの印（他の種別の接頭辞と重ならない）
+    static final String TRUNCATED_TOKEN = "t:";
+
+    // 部分一致に使う部分文字列の長さ
+    private static final int MAX_GRAM_LENGTH = 3;
+
+    // トークン種別の接頭辞（種別間でハッシュが衝突しないようにする）
+    private static final String PREFIX_TOKEN = "p:";
+    private static final String GRAM_TOKEN = "g:";
+
+    private SearchTokenizer() {
+        // インスタンス化禁止
+    }
+
+    /**
+     * 検索用に正規化
+     *
+     * @param text 文字列
+     * @return NFKC正規化・小文字化した文字列
+     */
+    @NonNull
+    public static String normalize(@NonNull String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * エントリのフィールドからインデックス用のトークンを生成
+     *
+     * <p>上限を超えた場合は先頭のフィールド・単語のトークンを優先して残し、
+     * 最後の1個を {@link #TRUNCATED_TOKEN} に置き換える。</p>
+     *
+     * @param fields フィールドの平文（nullは無視する）
+     * @return トークン（重複なし、最大 {@link #MAX_TOKENS_PER_ENTRY} 個）
+     */
+    @NonNull
+    public static Set<String> indexTokens(@NonNull String... fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            for (String word : words(field)) {
+                if (!addWordTokens(word, tokens)) {
+                    return truncate(tokens);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 検索語からトークンを生成
+     *
+     * <p>返したトークンをすべて含むエントリが検索結果の候補となる。</p>
+     *
+     * @param query 検索語
+     * @return トークン（検索語に英数字が含まれない場合は空）
+     */
+    @NonNull
+    public static Set<String> queryTokens(@NonNull String query) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : words(query)) {
+            int length = word.codePointCount(0, word.length());
+            if (length == 1) {
+                tokens.add(PREFIX_TOKEN + word);
+            } else if (length == 2) {
+                tokens.add(GRAM_TOKEN + word);
+            } else {
+                addGrams(word, MAX_GRAM_LENGTH, tokens, Integer.MAX_VALUE);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 全文検索（FTS）の前方一致クエリに変換
+     *
+     * <p>検索語の各単語を引用符で囲んだ前方一致の語（{@code "word*"}）とし、
+     * 空白で連結する（すべての単語を含む行に一致）。単語は英数字のみで
+     * 構成されるため、FTSの演算子として解釈されることはない。</p>
+     *
+     * @param query 検索語
+     * @return MATCH に渡す式（検索語に英数字が含まれない場合は空文字）
+     */
+    @NonNull
+    public static String prefixMatchQuery(@NonNull String query) {
+        StringBuilder match = new StringBuilder();
+        for (String word : words(query)) {
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append('"').append(word).append("*\"");
+        }
+        return match.toString();
+    }
+
+    /**
+     * 復号したフィールドが検索語に一致するかチェック
+     *
+     * <p>検索語の各単語が、いずれかのフィールドに部分一致（1文字の場合は単語の前方一致）
+     * すれば一致とする。</p>
+     *
+     * @param query 検索語
+     * @param fields フィールドの平文（nullは無視する）
+     * @return true: 一致, false: 不一致
+     */
+    public static boolean matches(@NonNull String query, @Nullable String... fields) {
+        for (String word : words(query)) {
+            if (!anyFieldMatches(word, fields)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 単語の検索語がいずれかのフィールドに一致するかチェック
+     */
+    private static boolean anyFieldMatches(@NonNull String word, @Nullable String... fields) {
+        boolean prefixOnly = word.codePointCount(0, word.length()) == 1;
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            for (String candidate : words(field)) {
+                if (prefixOnly ? candidate.startsWith(word) : candidate.contains(word)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 単語のトークンを追加
+     *
+     * <p>上限を超えたことが分かるよう、上限より1個多くまで追加する。</p>
+     *
+     * @return false: 上限を超えた
+     */
+    private static boolean addWordTokens(@NonNull String word, @NonNull Set<String> tokens) {
+        tokens.add(PREFIX_TOKEN + word.substring(0, word.offsetByCodePoints(0, 1)));
+        for (int gramLength = 2; gramLength <= MAX_GRAM_LENGTH; gramLength++) {
+            addGrams(word, gramLength, tokens, MAX_TOKENS_PER_ENTRY + 1);
+        }
+        return tokens.size() <= MAX_TOKENS_PER_ENTRY;
+    }
+
+    /**
+     * 上限を超えたトークンを切り捨て、切り捨ての印を加える
+     */
+    @NonNull
+    private static Set<String> truncate(@NonNull Set<String> tokens) {
+        Set<String> truncated = new LinkedHashSet<>();
+        for (String token : tokens) {
+            if (truncated.size() == MAX_TOKENS_PER_ENTRY - 1) {
+                break;
+            }
+            truncated.add(token);
+        }
+        truncated.add(TRUNCATED_TOKEN);
+        return truncated;
+    }
+
+    /**
+     * 指定した長さ（コードポイント数）の部分文字列を上限まで追加
+     */
+    private static void addGrams(
+            @NonNull String word,
+            int gramLength,
+            @NonNull Set<String> tokens,
+            int maxTokens
+    ) {
+        int start = 0;
+        int count = word.codePointCount(0, word.length()) - gramLength + 1;
+        for (int i = 0; i < count && tokens.size() < maxTokens; i++) {
+            int end = word.offsetByCodePoints(start, gramLength);
+            tokens.add(GRAM_TOKEN + word.substring(start, end));
+            start = word.offsetByCodePoints(start, 1);
+        }
+    }
+
+    /**
+     * 正規化して英数字の連続（単語）に区切る
+     */
+    @NonNull
+    private static Iterable<String> words(@NonNull String text) {
+        Set<String> words = new LinkedHashSet<>();
+        String normalized = normalize(text);
+        int start = -1;
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            boolean wordChar = Character.isLetterOrDigit(codePoint);
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            words.add(normalized.substring(start));
+        }
+        return words;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+import javax.crypto.SecretKey;
+
+/**
+ * ゼロクリア可能なセッション鍵
+ *
+ * <p>{@link javax.crypto.spec.SecretKeySpec} は鍵素材を消去できないため、
+ * アンロック中だけメモリに保持するデータ鍵にはこのクラスを使用する。
+ * {@link #destroy()} で鍵素材を上書きし、以降は利用できなくなる。</p>
+ *
+ * @since 1.1
+ */
+public final class SessionKey implements SecretKey {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String algorithm;
+    private final byte[] keyBytes;
+    private volatile boolean destroyed;
+
+    /**
+     * コンストラクタ
+     *
+     * @param keyBytes 鍵素材（コピーして保持するため、呼び出し側で消去してよい）
+     * @param algorithm アルゴリズム名（例: "AES"）
+     */
+    public SessionKey(@NonNull byte[] keyBytes, @NonNull String algorithm) {
+        this.keyBytes = keyBytes.clone();
+        this.algorithm = algorithm;
+    }
+
+    @NonNull
+    @Override
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    @NonNull
+    @Override
+    public String getFormat() {
+        return "RAW";
+    }
+
+    /**
+     * 鍵素材のコピーを取得
+     *
+     * @return 鍵素材（破棄済みの場合はnull）
+     */
+    @Nullable
+    @Override
+    public byte[] getEncoded() {
+        if (destroyed) {
+            return null;
+        }
+        return keyBytes.clone();
+    }
+
+    /**
+     * 鍵素材をゼロクリアして破棄
+     */
+    @Override
+    public void destroy() {
+        destroyed = true;
+        Arrays.fill(keyBytes, (byte) 0);
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        // セキュリティ: 鍵素材は出力しない
+        return "SessionKey{" +
+                "algorithm='" + algorithm + '\'' +
+                ", destroyed=" + destroyed +
+                '}';
+    }
+}
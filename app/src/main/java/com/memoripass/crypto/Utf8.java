@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.crypto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 割り当てを行わないUTF-8変換
+ *
+ * <p>{@link String#getBytes} や {@link java.nio.charset.CharsetEncoder} は
+ * 中間バッファやStringを生成し、平文のコピーが消去できない形で残る。
+ * このクラスは呼び出し側の配列間で直接変換する。</p>
+ *
+ * @since 1.1
+ */
+final class Utf8 {
+
+    // 不正なバイト列の置換文字
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private Utf8() {
+        // インスタンス化禁止
+    }
+
+    /**
+     * エンコード後の最大バイト数を取得
+     *
+     * @param charCount 文字数
+     * @return 最大バイト数
+     */
+    static int maxEncodedLength(int charCount) {
+        return charCount * 3;
+    }
+
+    /**
+     * UTF-8にエンコード
+     *
+     * <p>対になっていないサロゲートは '?' に置換する（{@link String#getBytes} と同じ）。</p>
+     *
+     * @param src 文字列
+     * @param offset 開始位置
+     * @param length 文字数
+     * @param dst 出力先（{@link #maxEncodedLength(int)} バイト以上の空きが必要）
+     * @param dstOffset 出力の開始位置
+     * @return 書き込んだバイト数
+     */
+    static int encode(@NonNull char[] src, int offset, int length, @NonNull byte[] dst, int dstOffset) {
+        int end = offset + length;
+        int out = dstOffset;
+        for (int i = offset; i < end; i++) {
+            char c = src[i];
+            if (c < 0x80) {
+                dst[out++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[out++] = (byte) (0xC0 | (c >> 6));
+                dst[out++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(src[i + 1])) {
+                int codePoint = Character.toCodePoint(c, src[++i]);
+                dst[out++] = (byte) (0xF0 | (codePoint >> 18));
+                dst[out++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                dst[out++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                dst[out++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dst[out++] = (byte) '?';
+            } else {
+                dst[out++] = (byte) (0xE0 | (c >> 12));
+                dst[out++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dst[out++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return out - dstOffset;
+    }
+
+    /**
+     * デコード後の文字数を取得
+     *
+     * @param src バイト列
+     * @param offset 開始位置
+     * @param length バイト数
+     * @return 文字数（入力のバイト数を超えない）
+     */
+    static int decodedLength(@NonNull byte[] src, int offset, int length) {
+        return decode(src, offset, length, null, 0);
+    }
+
+    /**
+     * UTF-8をデコード
+     *
+     * <p>不正なバイト列は U+FFFD に置換する。</p>
+     *
+     * @param src バイト列
+     * @param offset 開始位置
+     * @param length バイト数
+     * @param dst 出力先（{@link #decodedLength} 文字以上の空きが必要。nullの場合は文字数のみ数える）
+     * @param dstOffset 出力の開始位置
+     * @return 書き込んだ文字数
+     */
+    static int decode(@NonNull byte[] src, int offset, int length, @Nullable char[] dst, int dstOffset) {
+        int end = offset + length;
+        int out = dstOffset;
+        int i = offset;
+        while (i < end) {
+            int b = src[i] & 0xFF;
+            if (b < 0x80) {
+                out = put(dst, out, (char) b);
+                i++;
+            } else if (b >= 0xC2 && b < 0xE0 && i + 1 < end && isContinuation(src[i + 1])) {
+                out = put(dst, out, (char) (((b & 0x1F) << 6) | (src[i + 1] & 0x3F)));
+                i += 2;
+            } else if (b >= 0xE0 && b < 0xF0 && i + 2 < end
+                    && isContinuation(src[i + 1]) && isContinuation(src[i + 2])) {
+                int c = ((b & 0x0F) << 12) | ((src[i + 1] & 0x3F) << 6) | (src[i + 2] & 0x3F);
+                out = put(dst, out, c < 0x800 || Character.isSurrogate((char) c) ? REPLACEMENT : (char) c);
+                i += 3;
+            } else if (b >= 0xF0 && b < 0xF5 && i + 3 < end && isContinuation(src[i + 1])
+                    && isContinuation(src[i + 2]) && isContinuation(src[i + 3])) {
+                int codePoint = ((b & 0x07) << 18) | ((src[i + 1] & 0x3F) << 12)
+                        | ((src[i + 2] & 0x3F) << 6) | (src[i + 3] & 0x3F);
+                if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT
+                        || codePoint > Character.MAX_CODE_POINT) {
+                    out = put(dst, out, REPLACEMENT);
+                } else {
+                    out = put(dst, out, Character.highSurrogate(codePoint));
+                    out = put(dst, out, Character.lowSurrogate(codePoint));
+                }
+                i += 4;
+            } else {
+                out = put(dst, out, REPLACEMENT);
+                i++;
+            }
+        }
+        return out - dstOffset;
+    }
+
+    private static int put(@Nullable char[] dst, int position, char c) {
+        if (dst != null) {
+            dst[position] = c;
+        }
+        return position + 1;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
@@ -22,11 +22,17 @@ import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.memoripass.data.local.dao.CategoryDao;
+import com.memoripass.data.local.dao.EntryChangeDao;
 import com.memoripass.data.local.dao.PasswordEntryDao;
+import com.memoripass.data.local.dao.SearchTokenDao;
 import com.memoripass.data.model.Category;
+import com.memoripass.data.model.EntryChange;
 import com.memoripass.data.model.PasswordEntry;
+import com.memoripass.data.model.PasswordEntryFts;
+import com.memoripass.data.model.SearchToken;
 
 /**
  * Roomデータベース
@@ -37,16 +43,27 @@ import com.memoripass.data.model.PasswordEntry;
  * <p>セキュリティ機能:</p>
  * <ul>
  *   <li>端末内のみに保存（外部バックアップ無効）</li>
- *   <li>暗号化されたパスワードのみ保存</li>
+ *   <li>パスワード・ユーザー名・URL・メモは暗号化して保存</li>
+ *   <li>暗号化したフィールドの検索は鍵付きハッシュ（ブラインドインデックス）で行い、平文を保存しない</li>
+ *   <li>タイトルの検索は全文検索テーブル（FTS4）で行う</li>
+ *   <li>エントリの変更は変更履歴（{@link EntryChange}）に記録し、一覧の差分更新に使う</li>
+ *   <li>WALモード・読み取り用スレッドなどの性能設定は {@link DatabaseConfig} にまとめる</li>
+ *   <li>コミット前の書き込みは {@link WriteJournal} に記録し、プロセス終了後の次回オープン時に再適用</li>
  *   <li>シングルトンパターンでインスタンス管理</li>
  * </ul>
  *
+ * <p>スキーマ変更時はバージョンを上げ、{@link DatabaseMigrations} にマイグレーションを
+ * 追加すること。破壊的マイグレーション（全データ削除）へのフォールバックは行わない。
+ * スキーマは app/schemas に書き出され、マイグレーションテストで検証する。</p>
+ *
  * @since 1.0
  */
 @Database(
-    entities = {PasswordEntry.class, Category.class},
-    version = 1,
-    exportSchema = false
+    entities = {
+        PasswordEntry.class, PasswordEntryFts.class, Category.class, SearchToken.class, EntryChange.class
+    },
+    version = DatabaseMigrations.LATEST_VERSION,
+    exportSchema = true
 )
 public abstract class AppDatabase extends RoomDatabase {
 
@@ -67,6 +84,20 @@ public abstract class AppDatabase extends RoomDatabase {
      */
     public abstract CategoryDao categoryDao();
 
+    /**
+     * SearchTokenDaoを取得
+     *
+     * @return SearchTokenDao
+     */
+    public abstract SearchTokenDao searchTokenDao();
+
+    /**
+     * EntryChangeDaoを取得
+     *
+     * @return EntryChangeDao
+     */
+    public abstract EntryChangeDao entryChangeDao();
+
     /**
      * データベースインスタンスを取得（シングルトン）
      *
@@ -77,14 +108,32 @@ public abstract class AppDatabase extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
-                        context.getApplicationContext(),
+                    Context appContext = context.getApplicationContext();
+                    INSTANCE = DatabaseConfig.apply(Room.databaseBuilder(
+                        appContext,
                         AppDatabase.class,
                         DATABASE_NAME
-                    )
-                    // マイグレーション失敗時は再構築（開発中のみ）
-                    .fallbackToDestructiveMigration()
+                    ))
+                    .addMigrations(DatabaseMigrations.all())
+                    .addCallback(new RoomDatabase.Callback() {
+                        @Override
+                        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                            // Roomが作成しない変更履歴のトリガー（既存のデータベースはマイグレーションで作成）
+                            DatabaseMigrations.createChangeTriggers(db);
+                        }
+
+                        @Override
+                        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                            // 前回のプロセスまでに反映済みの削除の印を削除
+                            DatabaseMigrations.pruneDeletedChanges(db);
+                            // 前回のプロセスでコミットされなかった書き込みを再適用
+                            WriteJournal.getInstance(appContext).replay(db);
+                        }
+                    })
                     .build();
+
+                    // 旧形式の暗号文をバックグラウンドで変換
+                    CiphertextMigrator.start(INSTANCE);
                 }
             }
         }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.local;
+
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.memoripass.crypto.CiphertextFormat;
+import com.memoripass.data.local.dao.PasswordEntryDao;
+import com.memoripass.data.model.PasswordEntry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 暗号文フォーマット移行処理
+ *
+ * <p>データベースバージョン2への移行で legacy_encrypted_password 列に退避した
+ * Base64テキストの暗号文を、{@link CiphertextFormat} のバイナリ形式に変換して
+ * encrypted_password（BLOB）列へ書き込む。</p>
+ *
+ * <p>特徴:</p>
+ * <ul>
+ *   <li>Base64デコードとヘッダー付与のみで、再暗号化・鍵の取得は行わない</li>
+ *   <li>小さなバッチごとにトランザクションを分け、UIの書き込みを長時間ブロックしない</li>
+ *   <li>中断されても次回起動時に未変換の行から再開する</li>
+ *   <li>変換前の行は {@link com.memoripass.crypto.CryptoManager#decryptLegacy(String)} で読み出せる</li>
+ * </ul>
+ *
+ * @since 1.1
+ */
+public final class CiphertextMigrator {
+
+    private static final String TAG = "CiphertextMigrator";
+
+    // 1トランザクションで変換する行数
+    private static final int BATCH_SIZE = 100;
+
+    private CiphertextMigrator() {
+        // インスタンス化禁止
+    }
+
+    /**
+     * バックグラウンドで変換を開始
+     *
+     * @param database データベース
+     */
+    static void start(@NonNull AppDatabase database) {
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+                runnable -> new Thread(runnable, "ciphertext-migrator"));
+        executor.execute(() -> {
+            try {
+                migrate(database);
+            } catch (RuntimeException e) {
+                // 未変換の行は旧形式のまま読み出せるため、次回起動時に再試行する
+                Log.e(TAG, "Ciphertext migration failed", e);
+            }
+        });
+        executor.shutdown();
+    }
+
+    /**
+     * 未変換の行をすべて変換
+     *
+     * @param database データベース
+     * @return 変換した行数
+     */
+    @WorkerThread
+    static int migrate(@NonNull AppDatabase database) {
+        PasswordEntryDao dao = database.passwordEntryDao();
+        String afterId = "";
+        int converted = 0;
+
+        while (true) {
+            List<PasswordEntry> batch = dao.getLegacyCiphertextEntries(afterId, BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            Integer count = database.runInTransaction(() -> convertBatch(dao, batch));
+            converted += count != null ? count : 0;
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+
+        if (converted > 0) {
+            Log.i(TAG, "Converted " + converted + " entries to binary ciphertext");
+        }
+        return converted;
+    }
+
+    /**
+     * 1バッチ分の行を変換
+     */
+    private static int convertBatch(@NonNull PasswordEntryDao dao, @NonNull List<PasswordEntry> batch) {
+        int converted = 0;
+        for (PasswordEntry entry : batch) {
+            byte[] legacy;
+            try {
+                legacy = Base64.decode(entry.getLegacyEncryptedPassword(), Base64.NO_WRAP);
+            } catch (IllegalArgumentException e) {
+                // 破損した行は旧形式のまま残す（読み出し時にエラーとなる）
+                Log.w(TAG, "Skipping malformed ciphertext: " + entry.getId());
+                continue;
+            }
+
+            byte[] binary = CiphertextFormat.fromLegacy(legacy);
+            Arrays.fill(legacy, (byte) 0);
+            converted += dao.replaceLegacyCiphertext(entry.getId(), binary);
+        }
+        return converted;
+    }
+}
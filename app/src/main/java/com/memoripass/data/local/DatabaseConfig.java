@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.local;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.memoripass.BuildConfig;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * データベースの性能設定
+ *
+ * <p>SQLiteの動作設定とRoomの実行スレッドを1か所にまとめる。
+ * 値を変更する場合はこのクラスの定数のみを変更する。</p>
+ *
+ * <p>設定内容:</p>
+ * <ul>
+ *   <li>WALモード: 読み取りが書き込みのトランザクションを待たない
+ *       （書き込みは {@code WriteQueue} の専用スレッド、移行処理はそれぞれのスレッドで行う）</li>
+ *   <li>自動チェックポイント: WALが一定のページ数に達したら本体に書き戻し、
+ *       WALファイルの大きさも上限までに切り詰める</li>
+ *   <li>読み取り用のスレッドプール: 一覧の読み込みを並行に実行する</li>
+ *   <li>デバッグビルドのみ、{@link QueryProfiler} で文ごとの実行時間を計測し、遅いクエリを警告する
+ *       （リリースビルドでは全ての文の引数を複製するコールバックを登録しない）</li>
+ * </ul>
+ *
+ * @since 1.1
+ */
+public final class DatabaseConfig {
+
+    private static final String TAG = "DatabaseConfig";
+
+    // 自動チェックポイントを行うWALのページ数（4KBページで約2MB）
+    static final int WAL_AUTOCHECKPOINT_PAGES = 500;
+
+    // チェックポイント後に残すWALファイルの大きさの上限（バイト）
+    static final long JOURNAL_SIZE_LIMIT_BYTES = 4L * 1024 * 1024;
+
+    // 読み取り用のスレッド数（WALでは読み取り同士も並行に実行できる）
+    static final int QUERY_THREADS = 4;
+
+    // 警告するクエリの実行時間（ミリ秒、1フレーム分）
+    static final long SLOW_QUERY_THRESHOLD_MS = 16;
+
+    // クエリの実行時間を計測するか（デバッグビルドのみ）
+    static final boolean PROFILE_QUERIES = BuildConfig.DEBUG;
+
+    // アイドル時にスレッドを解放するまでの時間（秒）
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final QueryProfiler PROFILER = new QueryProfiler(SLOW_QUERY_THRESHOLD_MS);
+
+    private DatabaseConfig() {
+        // インスタンス化禁止
+    }
+
+    /**
+     * データベースのビルダーに性能設定を適用
+     *
+     * @param builder Roomのビルダー
+     * @param <T> データベースの型
+     * @return 同じビルダー
+     */
+    @NonNull
+    public static <T extends RoomDatabase> RoomDatabase.Builder<T> apply(@NonNull RoomDatabase.Builder<T> builder) {
+        Executor queryExecutor = newPool("db-query", QUERY_THREADS);
+        if (PROFILE_QUERIES) {
+            queryExecutor = PROFILER.wrap(queryExecutor);
+            builder.setQueryCallback(PROFILER, QueryProfiler.callbackExecutor());
+        }
+        return builder
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(queryExecutor)
+                .addCallback(new RoomDatabase.Callback() {
+                    @Override
+                    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                        applyPragmas(db);
+                    }
+                });
+    }
+
+    /**
+     * クエリの計測結果を取得
+     *
+     * @return アプリ全体で共有する計測（リリースビルドでは何も記録しない）
+     */
+    @NonNull
+    public static QueryProfiler getProfiler() {
+        return PROFILER;
+    }
+
+    /**
+     * 接続ごとのPRAGMAを設定
+     *
+     * <p>PRAGMAは結果の行を返すため、execSQLではなくqueryで実行する。</p>
+     */
+    static void applyPragmas(@NonNull SupportSQLiteDatabase db) {
+        pragma(db, "PRAGMA wal_autocheckpoint = " + WAL_AUTOCHECKPOINT_PAGES);
+        pragma(db, "PRAGMA journal_size_limit = " + JOURNAL_SIZE_LIMIT_BYTES);
+        Log.d(TAG, "Database pragmas applied");
+    }
+
+    private static void pragma(@NonNull SupportSQLiteDatabase db, @NonNull String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * 名前付きスレッドの固定サイズのプールを作成（アイドル時は解放する）
+     */
+    @NonNull
+    private static Executor newPool(@NonNull String name, int threads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
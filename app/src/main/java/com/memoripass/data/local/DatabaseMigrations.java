@@ -0,0 +1,279 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.memoripass.crypto.SearchTokenizer;
+
+/**
+ * データベースのマイグレーション一覧
+ *
+ * <p>{@link AppDatabase} のすべてのスキーマ変更を、バージョン1から
+ * {@link #LATEST_VERSION} まで途切れなく定義する。ユーザーのデータを
+ * 削除して再作成するフォールバックは使用しない。</p>
+ *
+ * <p>スキーマを変更する手順:</p>
+ * <ol>
+ *   <li>{@link #LATEST_VERSION} を1つ上げる</li>
+ *   <li>{@code MIGRATION_<旧>_<新>} を定義し、{@link #all()} の末尾に追加する</li>
+ *   <li>ビルドで書き出された app/schemas の新しいスキーマをコミットする</li>
+ *   <li>マイグレーションテスト（androidTest の MigrationTest）で検証する</li>
+ * </ol>
+ *
+ * <p>SQLはRoomが生成するテーブル・インデックス定義と一致させること
+ * （一致しない場合、起動時のスキーマ検証に失敗する）。</p>
+ *
+ * @since 1.1
+ */
+public final class DatabaseMigrations {
+
+    /** 現在のスキーマバージョン */
+    public static final int LATEST_VERSION = 8;
+
+    /**
+     * バージョン1 → 2: 暗号文をBase64テキストからBLOB列へ
+     *
+     * <p>SQLiteは列の型を変更できないため、テーブルを再作成する。
+     * 既存の暗号文は legacy_encrypted_password 列へそのまま移し、
+     * バイナリ形式への変換は {@link CiphertextMigrator} がバックグラウンドで行う。
+     * 鍵を必要としないため、ロック中でも変換できる。</p>
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `password_entries_new` ("
+                    + "`id` TEXT NOT NULL, "
+                    + "`title` TEXT NOT NULL, "
+                    + "`username` TEXT, "
+                    + "`encrypted_password` BLOB, "
+                    + "`legacy_encrypted_password` TEXT, "
+                    + "`url` TEXT, "
+                    + "`notes` TEXT, "
+                    + "`category` TEXT, "
+                    + "`created_at` INTEGER NOT NULL, "
+                    + "`updated_at` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`id`))");
+            db.execSQL("INSERT INTO `password_entries_new` ("
+                    + "`id`, `title`, `username`, `legacy_encrypted_password`, "
+                    + "`url`, `notes`, `category`, `created_at`, `updated_at`) "
+                    + "SELECT `id`, `title`, `username`, `encrypted_password`, "
+                    + "`url`, `notes`, `category`, `created_at`, `updated_at` "
+                    + "FROM `password_entries`");
+            db.execSQL("DROP TABLE `password_entries`");
+            db.execSQL("ALTER TABLE `password_entries_new` RENAME TO `password_entries`");
+        }
+    };
+
+    /**
+     * バージョン2 → 3: 暗号化に使用したデータ鍵IDの列を追加
+     *
+     * <p>既存の行はすべて最初の世代の鍵で暗号化されている。</p>
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `password_entries` "
+                    + "ADD COLUMN `key_id` INTEGER NOT NULL DEFAULT 1");
+        }
+    };
+
+    /**
+     * バージョン3 → 4: ユーザー名・URL・メモの暗号化と検索用インデックス
+     *
+     * <p>平文の列は legacy_* に名前を変えて残し、暗号化した値の列を追加する。
+     * 暗号化には鍵が必要なため、平文の暗号化と検索用トークンの作成は
+     * {@link com.memoripass.data.repository.FieldEncryptionMigrator} が
+     * バックグラウンドで行う。</p>
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `password_entries` RENAME COLUMN `username` TO `legacy_username`");
+            db.execSQL("ALTER TABLE `password_entries` RENAME COLUMN `url` TO `legacy_url`");
+            db.execSQL("ALTER TABLE `password_entries` RENAME COLUMN `notes` TO `legacy_notes`");
+            db.execSQL("ALTER TABLE `password_entries` ADD COLUMN `encrypted_username` BLOB");
+            db.execSQL("ALTER TABLE `password_entries` ADD COLUMN `encrypted_url` BLOB");
+            db.execSQL("ALTER TABLE `password_entries` ADD COLUMN `encrypted_notes` BLOB");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_password_entries_key_id` "
+                    + "ON `password_entries` (`key_id`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `search_tokens` ("
+                    + "`token` INTEGER NOT NULL, "
+                    + "`entry_id` TEXT NOT NULL, "
+                    + "PRIMARY KEY(`token`, `entry_id`), "
+                    + "FOREIGN KEY(`entry_id`) REFERENCES `password_entries`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_search_tokens_entry_id` "
+                    + "ON `search_tokens` (`entry_id`)");
+        }
+    };
+
+    /**
+     * バージョン4 → 5: タイトルの全文検索テーブル
+     *
+     * <p>password_entries を外部コンテンツとするFTS4テーブルと、同期用のトリガーを作成し、
+     * 既存の行から索引を構築する。トリガー名・定義はRoomが生成するものと同じにする。</p>
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `password_entries_fts` "
+                    + "USING FTS4(`title` TEXT NOT NULL, tokenize=unicode61, content=`password_entries`)");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_password_entries_fts_BEFORE_UPDATE "
+                    + "BEFORE UPDATE ON `password_entries` BEGIN "
+                    + "DELETE FROM `password_entries_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_password_entries_fts_BEFORE_DELETE "
+                    + "BEFORE DELETE ON `password_entries` BEGIN "
+                    + "DELETE FROM `password_entries_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_password_entries_fts_AFTER_UPDATE "
+                    + "AFTER UPDATE ON `password_entries` BEGIN "
+                    + "INSERT INTO `password_entries_fts`(`docid`, `title`) VALUES (NEW.`rowid`, NEW.`title`); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_password_entries_fts_AFTER_INSERT "
+                    + "AFTER INSERT ON `password_entries` BEGIN "
+                    + "INSERT INTO `password_entries_fts`(`docid`, `title`) VALUES (NEW.`rowid`, NEW.`title`); END");
+            db.execSQL("INSERT INTO `password_entries_fts`(`password_entries_fts`) VALUES('rebuild')");
+        }
+    };
+
+    /**
+     * バージョン5 → 6: 一覧表示用のインデックス
+     *
+     * <p>更新日時順の一覧と、カテゴリで絞り込んだ更新日時順の一覧を
+     * インデックスの走査で返せるようにする（並べ替え用の一時B-treeを作らない）。</p>
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_password_entries_updated_at` "
+                    + "ON `password_entries` (`updated_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_password_entries_category_updated_at` "
+                    + "ON `password_entries` (`category`, `updated_at`)");
+        }
+    };
+
+    /**
+     * バージョン6 → 7: 変更履歴（差分更新用）
+     *
+     * <p>エントリに最後の変更の番号（revision）の列を追加し、変更履歴のテーブルと
+     * 書き込み時に履歴を記録するトリガーを作成する。既存の行の番号は0のままとする
+     * （番号は差分の検出にのみ使うため、過去の履歴は不要）。</p>
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `password_entries` ADD COLUMN `revision` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `entry_changes` ("
+                    + "`revision` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`entry_id` TEXT NOT NULL, "
+                    + "`deleted` INTEGER NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_entry_changes_entry_id` "
+                    + "ON `entry_changes` (`entry_id`)");
+            createChangeTriggers(db);
+        }
+    };
+
+    /**
+     * バージョン7 → 8: 上限で切り捨てた検索用インデックスの作り直し
+     *
+     * <p>上限に達したインデックスは、切り捨ての印（検索時に常に候補とする）を持たないため、
+     * 上限以降の語で検索しても見つからなかった。該当するエントリのトークンを削除し、
+     * {@link com.memoripass.data.repository.FieldEncryptionMigrator} にインデックスを
+     * 作り直させる（鍵が必要なため、マイグレーションでは作成できない）。</p>
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DELETE FROM `search_tokens` WHERE `entry_id` IN ("
+                    + "SELECT `entry_id` FROM `search_tokens` GROUP BY `entry_id` "
+                    + "HAVING COUNT(*) >= " + SearchTokenizer.MAX_TOKENS_PER_ENTRY + ")");
+        }
+    };
+
+    private DatabaseMigrations() {
+        // インスタンス化禁止
+    }
+
+    /**
+     * すべてのマイグレーションを取得
+     *
+     * @return バージョン順のマイグレーション
+     */
+    @NonNull
+    public static Migration[] all() {
+        return new Migration[] {
+                MIGRATION_1_2,
+                MIGRATION_2_3,
+                MIGRATION_3_4,
+                MIGRATION_4_5,
+                MIGRATION_5_6,
+                MIGRATION_6_7,
+                MIGRATION_7_8
+        };
+    }
+
+    /**
+     * 変更履歴を記録するトリガーを作成
+     *
+     * <p>Roomはエンティティ以外のトリガーを作成しないため、マイグレーションと
+     * 新規作成時（{@link AppDatabase} のコールバック）の両方から呼ぶ。</p>
+     *
+     * <ul>
+     *   <li>挿入・更新: 履歴を追加し、エントリの revision を新しい番号にする
+     *       （トリガー自身による revision の更新では再度記録しない）</li>
+     *   <li>削除: 削除の印を履歴に追加する（{@link #pruneDeletedChanges(SupportSQLiteDatabase)} で削除）</li>
+     *   <li>履歴の追加時に同じエントリの古い履歴を削除し、エントリごとに最新の1行のみ残す</li>
+     * </ul>
+     *
+     * @param db データベース
+     */
+    static void createChangeTriggers(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `password_entries_revision_AFTER_INSERT` "
+                + "AFTER INSERT ON `password_entries` BEGIN "
+                + "INSERT INTO `entry_changes`(`entry_id`, `deleted`) VALUES (NEW.`id`, 0); "
+                + "UPDATE `password_entries` SET `revision` = (SELECT MAX(`revision`) FROM `entry_changes`) "
+                + "WHERE `rowid` = NEW.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `password_entries_revision_AFTER_UPDATE` "
+                + "AFTER UPDATE ON `password_entries` WHEN NEW.`revision` <= OLD.`revision` BEGIN "
+                + "INSERT INTO `entry_changes`(`entry_id`, `deleted`) VALUES (NEW.`id`, 0); "
+                + "UPDATE `password_entries` SET `revision` = (SELECT MAX(`revision`) FROM `entry_changes`) "
+                + "WHERE `rowid` = NEW.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `password_entries_revision_AFTER_DELETE` "
+                + "AFTER DELETE ON `password_entries` BEGIN "
+                + "INSERT INTO `entry_changes`(`entry_id`, `deleted`) VALUES (OLD.`id`, 1); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `entry_changes_compact_AFTER_INSERT` "
+                + "AFTER INSERT ON `entry_changes` BEGIN "
+                + "DELETE FROM `entry_changes` WHERE `entry_id` = NEW.`entry_id` "
+                + "AND `revision` < NEW.`revision`; END");
+    }
+
+    /**
+     * 削除の印を変更履歴から削除
+     *
+     * <p>削除の印は、削除されたエントリごとに1行ずつ残り続ける。差分を取得する側
+     * （一覧の復号済みの要約）はプロセス内にのみ番号を保持するため、データベースを開いた時点で
+     * 反映待ちの削除はない。開くたびに呼び出し、それまでの削除の印をすべて削除する。
+     * 番号は AUTOINCREMENT のため、削除しても再利用されない。</p>
+     *
+     * @param db データベース
+     */
+    static void pruneDeletedChanges(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM `entry_changes` WHERE `deleted` = 1");
+    }
+}
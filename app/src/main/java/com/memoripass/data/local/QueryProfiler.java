@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.local;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * クエリの実行時間の計測
+ *
+ * <p>Roomの {@link RoomDatabase.QueryCallback} としてSQL文の実行開始を受け取り、
+ * 次の文の開始（またはタスクの終了）までを1文の実行時間として記録する。
+ * Androidのカーソルは読み出し時に文を実行するため、この区間に実際の実行が含まれる。</p>
+ *
+ * <p>特徴:</p>
+ * <ul>
+ *   <li>計測するのは {@link #wrap(Executor)} したExecutor（Roomのクエリ用）上の文のみ。
+ *       その他のスレッドの文は件数のみ数える</li>
+ *   <li>しきい値以上の文は警告ログに出力する（SQLのみ。引数には暗号文・トークンが含まれるため出力しない）</li>
+ *   <li>文の数・しきい値を超えた数・最大実行時間を取得できる</li>
+ * </ul>
+ *
+ * <p>コールバックは文を実行するスレッド上で呼ばれる必要があるため、
+ * {@link #callbackExecutor()} と組み合わせて登録すること。</p>
+ *
+ * @since 1.1
+ */
+public final class QueryProfiler implements RoomDatabase.QueryCallback {
+
+    private static final String TAG = "QueryProfiler";
+
+    private final long thresholdNanos;
+    private final ThreadLocal<Trace> traces = new ThreadLocal<>();
+    private final AtomicLong statementCount = new AtomicLong();
+    private final AtomicLong timedCount = new AtomicLong();
+    private final AtomicLong slowCount = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * 計測中のタスクの直前の文
+     */
+    private static final class Trace {
+        String sql;
+        long startNanos;
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param slowQueryThresholdMs 警告するクエリの実行時間（ミリ秒）
+     */
+    public QueryProfiler(long slowQueryThresholdMs) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+    }
+
+    /**
+     * コールバックを呼び出すExecutor（文を実行するスレッド上でそのまま呼ぶ）
+     *
+     * @return Executor
+     */
+    @NonNull
+    public static Executor callbackExecutor() {
+        return Runnable::run;
+    }
+
+    /**
+     * Executorのタスク内の文を計測対象にする
+     *
+     * @param delegate Roomのクエリ用のExecutor
+     * @return 計測付きのExecutor
+     */
+    @NonNull
+    public Executor wrap(@NonNull Executor delegate) {
+        return command -> delegate.execute(() -> {
+            Trace previous = traces.get();
+            Trace trace = new Trace();
+            traces.set(trace);
+            try {
+                command.run();
+            } finally {
+                finish(trace, System.nanoTime());
+                traces.set(previous);
+            }
+        });
+    }
+
+    @Override
+    public void onQuery(@NonNull String sql, @NonNull List<? extends Object> bindArgs) {
+        statementCount.incrementAndGet();
+        Trace trace = traces.get();
+        if (trace == null) {
+            return;
+        }
+        finish(trace, System.nanoTime());
+        // 直前の文の記録（ログ出力など）を次の文の時間に含めない
+        trace.sql = sql;
+        trace.startNanos = System.nanoTime();
+    }
+
+    /**
+     * 実行された文の数を取得
+     *
+     * @return 文の数（計測対象外のスレッドの文を含む）
+     */
+    public long getStatementCount() {
+        return statementCount.get();
+    }
+
+    /**
+     * 実行時間を計測した文の数を取得
+     *
+     * @return 文の数
+     */
+    public long getTimedCount() {
+        return timedCount.get();
+    }
+
+    /**
+     * しきい値以上かかった文の数を取得
+     *
+     * @return 文の数
+     */
+    public long getSlowCount() {
+        return slowCount.get();
+    }
+
+    /**
+     * 最大実行時間を取得
+     *
+     * @return 計測した文の最大実行時間（ミリ秒）
+     */
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    /**
+     * 直前の文の計測を終了
+     */
+    private void finish(@NonNull Trace trace, long nowNanos) {
+        if (trace.sql == null) {
+            return;
+        }
+        long elapsed = nowNanos - trace.startNanos;
+        timedCount.incrementAndGet();
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+        if (elapsed >= thresholdNanos) {
+            slowCount.incrementAndGet();
+            Log.w(TAG, "Slow query (" + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms): " + trace.sql);
+        }
+        trace.sql = null;
+    }
+}
@@ -0,0 +1,617 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.local;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.memoripass.data.model.PasswordEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 書き込みジャーナル
+ *
+ * <p>コミット待ちの書き込み（暗号化済み）を追記専用のファイルに記録し、
+ * コミット前にプロセスが終了した場合は次回のデータベースオープン時に再適用する。
+ * 保存直後にバックグラウンドでプロセスが終了した場合の消失を防ぐ。</p>
+ *
+ * <p>特徴:</p>
+ * <ul>
+ *   <li>記録は書き込みごとに1回の追記（fsyncなし）。プロセスが終了してもOSのページキャッシュから
+ *       書き出されるため、保存の待ち時間をほとんど増やさない</li>
+ *   <li>記録するのは暗号化済みの列と検索用ブラインドトークンのみで、平文は含まない</li>
+ *   <li>コミット（または失敗）した書き込みには解決済みの印を追記し、再適用の対象から外す。
+ *       未解決の書き込みがなくなった時点でファイルを削除する</li>
+ *   <li>各記録はCRC32付き。途中で切れた末尾の記録は無視する</li>
+ *   <li>再適用は挿入または更新・削除で行うため、何度適用しても結果は同じ</li>
+ * </ul>
+ *
+ * <p>前回のプロセスのジャーナルは起動時に再適用用のファイルに移し、
+ * 今回のプロセスの記録と混ざらないようにする。</p>
+ *
+ * @since 1.1
+ */
+public final class WriteJournal {
+
+    private static final String TAG = "WriteJournal";
+
+    // ジャーナルのファイル名（noBackupFilesDir内）
+    static final String FILE_NAME = "write_journal.bin";
+
+    // 前回のプロセスから引き継いだ再適用待ちのファイル名
+    static final String REPLAY_FILE_NAME = "write_journal.replay";
+
+    // 記録の形式バージョン
+    private static final int FORMAT_VERSION = 1;
+
+    // 記録の種類
+    private static final byte OP_UPSERT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_MOVE = 3;
+    private static final byte OP_RESOLVED = 4;
+
+    private static volatile WriteJournal instance;
+
+    private final File file;
+    private final File replayFile;
+    private OutputStream out;
+    private long nextSequence = 1;
+    private int outstanding;
+
+    /**
+     * ジャーナルの1件の記録
+     */
+    public static final class Record {
+
+        final byte op;
+        final String id;
+        @Nullable
+        final PasswordEntry entry;
+        @NonNull
+        final long[] tokens;
+        @Nullable
+        final String category;
+        final long updatedAt;
+
+        private Record(
+                byte op,
+                @NonNull String id,
+                @Nullable PasswordEntry entry,
+                @NonNull long[] tokens,
+                @Nullable String category,
+                long updatedAt
+        ) {
+            this.op = op;
+            this.id = id;
+            this.entry = entry;
+            this.tokens = tokens;
+            this.category = category;
+            this.updatedAt = updatedAt;
+        }
+
+        /**
+         * 挿入または更新の記録
+         *
+         * @param sealed フィールドを暗号化済みのエントリ
+         * @param tokens 検索用ブラインドトークン
+         * @return 記録
+         */
+        @NonNull
+        public static Record upsert(@NonNull PasswordEntry sealed, @NonNull long[] tokens) {
+            return new Record(OP_UPSERT, sealed.getId(), sealed, tokens.clone(), null, 0);
+        }
+
+        /**
+         * 削除の記録
+         *
+         * @param id エントリID
+         * @return 記録
+         */
+        @NonNull
+        public static Record delete(@NonNull String id) {
+            return new Record(OP_DELETE, id, null, new long[0], null, 0);
+        }
+
+        /**
+         * カテゴリ変更の記録
+         *
+         * @param id エントリID
+         * @param category 変更後のカテゴリ名（nullの場合は未分類）
+         * @param updatedAt 更新日時
+         * @return 記録
+         */
+        @NonNull
+        public static Record move(@NonNull String id, @Nullable String category, long updatedAt) {
+            return new Record(OP_MOVE, id, null, new long[0], category, updatedAt);
+        }
+    }
+
+    /**
+     * インスタンスを取得
+     *
+     * @param context コンテキスト
+     * @return アプリ全体で共有するジャーナル
+     */
+    @NonNull
+    public static WriteJournal getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (WriteJournal.class) {
+                if (instance == null) {
+                    File dir = context.getApplicationContext().getNoBackupFilesDir();
+                    instance = new WriteJournal(new File(dir, FILE_NAME), new File(dir, REPLAY_FILE_NAME));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param file ジャーナルのファイル
+     * @param replayFile 前回のプロセスから引き継ぐ再適用待ちのファイル
+     */
+    @VisibleForTesting
+    WriteJournal(@NonNull File file, @NonNull File replayFile) {
+        this.file = file;
+        this.replayFile = replayFile;
+        carryOver();
+    }
+
+    /**
+     * 書き込みを記録
+     *
+     * <p>記録できなかった場合も書き込み自体は続行できる（コミットまでの保護がなくなるのみ）。
+     * 記録できた場合は、コミット後（または失敗後）に返した番号で {@link #resolve(long)} を呼ぶこと。</p>
+     *
+     * @param records 1つの書き込みの記録（一括書き込みの場合は複数）
+     * @return 書き込みの番号（記録に失敗した場合は0）
+     */
+    public synchronized long append(@NonNull List<Record> records) {
+        long sequence = nextSequence;
+        try {
+            ByteArrayOutputStream frames = new ByteArrayOutputStream();
+            for (Record record : records) {
+                writeFrame(frames, encode(sequence, record));
+            }
+            // 1回の追記で記録する（途中で終了しても切れた記録はCRCで検出できる）
+            write(frames.toByteArray());
+        } catch (IOException e) {
+            Log.w(TAG, "Write not journaled: " + records.size(), e);
+            return 0;
+        }
+        nextSequence++;
+        outstanding++;
+        return sequence;
+    }
+
+    /**
+     * 記録した書き込みのコミット（または失敗）を通知
+     *
+     * <p>未解決の書き込みがなくなった時点でジャーナルを削除する。</p>
+     *
+     * @param sequence {@link #append(List)} が返した番号
+     */
+    public synchronized void resolve(long sequence) {
+        if (sequence <= 0 || outstanding == 0) {
+            return;
+        }
+        outstanding--;
+        if (outstanding == 0) {
+            closeQuietly();
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "Journal not deleted");
+            }
+            return;
+        }
+        try {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            writeFrame(frame, encodeResolved(sequence));
+            write(frame.toByteArray());
+        } catch (IOException e) {
+            // 印がなくても再適用は同じ結果になるため続行する
+            Log.w(TAG, "Journal resolution not recorded: " + sequence, e);
+        }
+    }
+
+    /**
+     * 未解決の書き込みがあるかチェック
+     *
+     * <p>コミット待ちの書き込みに加え、前回のプロセスから引き継いだ再適用待ちの記録も含む。
+     * これらの記録は旧世代の鍵で暗号化されている可能性があるため、
+     * 残っている間は旧世代の鍵を削除しないこと。</p>
+     *
+     * @return true: 未解決の書き込みあり, false: なし
+     */
+    public synchronized boolean hasOutstanding() {
+        return outstanding > 0 || replayFile.exists();
+    }
+
+    /**
+     * 前回のプロセスで未解決だった書き込みを再適用
+     *
+     * <p>データベースのオープン時（{@link androidx.room.RoomDatabase.Callback#onOpen}）に呼ばれ、
+     * 他の読み書きより先に実行される。失敗した場合はファイルを残し、次回のオープン時に再試行する。</p>
+     *
+     * @param db データベース
+     * @return 再適用した記録の数
+     */
+    @WorkerThread
+    public synchronized int replay(@NonNull SupportSQLiteDatabase db) {
+        if (!replayFile.exists()) {
+            return 0;
+        }
+
+        List<Record> records;
+        try {
+            records = readUnresolved(replayFile);
+        } catch (IOException e) {
+            Log.e(TAG, "Journal not readable", e);
+            return 0;
+        }
+
+        try {
+            db.beginTransaction();
+            try {
+                for (Record record : records) {
+                    apply(db, record);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Journal replay failed", e);
+            return 0;
+        }
+
+        if (!replayFile.delete()) {
+            Log.w(TAG, "Replayed journal not deleted");
+        }
+        Log.i(TAG, "Journal replayed: " + records.size());
+        return records.size();
+    }
+
+    /**
+     * 前回のプロセスのジャーナルを再適用待ちのファイルに移す
+     */
+    private void carryOver() {
+        if (!file.exists()) {
+            return;
+        }
+        if (!replayFile.exists()) {
+            if (!file.renameTo(replayFile)) {
+                Log.w(TAG, "Journal not carried over");
+            }
+            return;
+        }
+        // 再適用前に再び終了していた場合は、再適用待ちの記録の後ろに連結して書き直す
+        // （番号はプロセスごとに振り直すため、重複しないよう後ろの記録の番号をずらす）
+        File merged = new File(replayFile.getPath() + ".tmp");
+        try {
+            List<byte[]> previous = readPayloads(replayFile);
+            long offset = 0;
+            ByteArrayOutputStream frames = new ByteArrayOutputStream();
+            for (byte[] payload : previous) {
+                offset = Math.max(offset, sequenceOf(payload));
+                writeFrame(frames, payload);
+            }
+            for (byte[] payload : readPayloads(file)) {
+                writeFrame(frames, shiftSequence(payload, offset));
+            }
+            try (OutputStream target = new FileOutputStream(merged)) {
+                target.write(frames.toByteArray());
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Journal not carried over", e);
+            return;
+        }
+        if (!merged.renameTo(replayFile) || !file.delete()) {
+            Log.w(TAG, "Carried-over journal not replaced");
+        }
+    }
+
+    private void write(@NonNull byte[] bytes) throws IOException {
+        if (out == null) {
+            out = new FileOutputStream(file, true);
+        }
+        out.write(bytes);
+    }
+
+    /**
+     * 記録をデータベースに適用（挿入または更新・削除・カテゴリ変更）
+     */
+    private static void apply(@NonNull SupportSQLiteDatabase db, @NonNull Record record) {
+        if (record.op == OP_MOVE) {
+            db.execSQL("UPDATE password_entries SET category = ?, updated_at = ? WHERE id = ?",
+                    new Object[] {record.category, record.updatedAt, record.id});
+            return;
+        }
+        if (record.op == OP_DELETE) {
+            db.execSQL("DELETE FROM search_tokens WHERE entry_id = ?", new Object[] {record.id});
+            db.execSQL("DELETE FROM password_entries WHERE id = ?", new Object[] {record.id});
+            return;
+        }
+
+        PasswordEntry entry = record.entry;
+        db.execSQL("INSERT INTO password_entries (id, title, encrypted_username, legacy_username, "
+                        + "encrypted_password, legacy_encrypted_password, key_id, encrypted_url, legacy_url, "
+                        + "encrypted_notes, legacy_notes, category, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, NULL, ?, ?, ?, ?, NULL, ?, NULL, ?, ?, ?) "
+                        + "ON CONFLICT(id) DO UPDATE SET title = excluded.title, "
+                        + "encrypted_username = excluded.encrypted_username, legacy_username = NULL, "
+                        + "encrypted_password = excluded.encrypted_password, "
+                        + "legacy_encrypted_password = excluded.legacy_encrypted_password, "
+                        + "key_id = excluded.key_id, encrypted_url = excluded.encrypted_url, legacy_url = NULL, "
+                        + "encrypted_notes = excluded.encrypted_notes, legacy_notes = NULL, "
+                        + "category = excluded.category, created_at = excluded.created_at, "
+                        + "updated_at = excluded.updated_at",
+                new Object[] {
+                        entry.getId(),
+                        entry.getTitle(),
+                        entry.getEncryptedUsername(),
+                        entry.getEncryptedPassword(),
+                        entry.getLegacyEncryptedPassword(),
+                        entry.getKeyId(),
+                        entry.getEncryptedUrl(),
+                        entry.getEncryptedNotes(),
+                        entry.getCategory(),
+                        entry.getCreatedAt(),
+                        entry.getUpdatedAt()
+                });
+        db.execSQL("DELETE FROM search_tokens WHERE entry_id = ?", new Object[] {record.id});
+        for (long token : record.tokens) {
+            db.execSQL("INSERT OR IGNORE INTO search_tokens (token, entry_id) VALUES (?, ?)",
+                    new Object[] {token, record.id});
+        }
+    }
+
+    /**
+     * ファイルから未解決の記録を書き込み順に読み込む
+     */
+    @VisibleForTesting
+    @NonNull
+    static List<Record> readUnresolved(@NonNull File source) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        List<Record> records = new ArrayList<>();
+        Set<Long> resolved = new HashSet<>();
+        for (byte[] payload : readPayloads(source)) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported journal format: " + version);
+            }
+            long sequence = in.readLong();
+            byte op = in.readByte();
+            if (op == OP_RESOLVED) {
+                resolved.add(sequence);
+                continue;
+            }
+            sequences.add(sequence);
+            records.add(decode(op, in));
+        }
+
+        List<Record> unresolved = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            if (!resolved.contains(sequences.get(i))) {
+                unresolved.add(records.get(i));
+            }
+        }
+        return unresolved;
+    }
+
+    /**
+     * ファイルから記録の本体を読み込む（途中で切れた・壊れた記録以降は無視する）
+     */
+    @NonNull
+    private static List<byte[]> readPayloads(@NonNull File source) throws IOException {
+        List<byte[]> payloads = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(source))) {
+            while (true) {
+                byte[] payload;
+                int checksum;
+                try {
+                    int length = in.readInt();
+                    checksum = in.readInt();
+                    if (length <= 0 || length > source.length()) {
+                        Log.w(TAG, "Corrupt journal record length: " + length);
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    Log.w(TAG, "Corrupt journal record checksum");
+                    break;
+                }
+                payloads.add(payload);
+            }
+        }
+        return payloads;
+    }
+
+    private static long sequenceOf(@NonNull byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        in.readUnsignedByte();
+        return in.readLong();
+    }
+
+    @NonNull
+    private static byte[] shiftSequence(@NonNull byte[] payload, long offset) throws IOException {
+        byte[] shifted = payload.clone();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Long.BYTES);
+        new DataOutputStream(bytes).writeLong(sequenceOf(payload) + offset);
+        System.arraycopy(bytes.toByteArray(), 0, shifted, 1, Long.BYTES);
+        return shifted;
+    }
+
+    private static void writeFrame(@NonNull ByteArrayOutputStream target, @NonNull byte[] payload)
+            throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        DataOutputStream out = new DataOutputStream(target);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+        out.flush();
+    }
+
+    @NonNull
+    private static byte[] encodeResolved(long sequence) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        out.writeLong(sequence);
+        out.writeByte(OP_RESOLVED);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @NonNull
+    private static byte[] encode(long sequence, @NonNull Record record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        out.writeLong(sequence);
+        out.writeByte(record.op);
+        out.writeUTF(record.id);
+        if (record.op == OP_MOVE) {
+            writeString(out, record.category);
+            out.writeLong(record.updatedAt);
+        } else if (record.op == OP_UPSERT) {
+            PasswordEntry entry = record.entry;
+            out.writeUTF(entry.getTitle());
+            writeBytes(out, entry.getEncryptedUsername());
+            writeBytes(out, entry.getEncryptedPassword());
+            writeString(out, entry.getLegacyEncryptedPassword());
+            out.writeInt(entry.getKeyId());
+            writeBytes(out, entry.getEncryptedUrl());
+            writeBytes(out, entry.getEncryptedNotes());
+            writeString(out, entry.getCategory());
+            out.writeLong(entry.getCreatedAt());
+            out.writeLong(entry.getUpdatedAt());
+            out.writeInt(record.tokens.length);
+            for (long token : record.tokens) {
+                out.writeLong(token);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @NonNull
+    private static Record decode(byte op, @NonNull DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        if (op == OP_DELETE) {
+            return Record.delete(id);
+        }
+        if (op == OP_MOVE) {
+            String category = readString(in);
+            return Record.move(id, category, in.readLong());
+        }
+        if (op != OP_UPSERT) {
+            throw new IOException("Unknown journal operation: " + op);
+        }
+
+        String title = in.readUTF();
+        byte[] encryptedUsername = readBytes(in);
+        PasswordEntry entry = new PasswordEntry(id, title, readBytes(in));
+        entry.setEncryptedUsername(encryptedUsername);
+        entry.setLegacyEncryptedPassword(readString(in));
+        entry.setKeyId(in.readInt());
+        entry.setEncryptedUrl(readBytes(in));
+        entry.setEncryptedNotes(readBytes(in));
+        entry.setCategory(readString(in));
+        entry.setCreatedAt(in.readLong());
+        entry.setUpdatedAt(in.readLong());
+        long[] tokens = new long[in.readInt()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = in.readLong();
+        }
+        return new Record(OP_UPSERT, id, entry, tokens, null, 0);
+    }
+
+    private static void writeBytes(@NonNull DataOutputStream out, @Nullable byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    @Nullable
+    private static byte[] readBytes(@NonNull DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        in.readFully(value);
+        return value;
+    }
+
+    private static void writeString(@NonNull DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    @Nullable
+    private static String readString(@NonNull DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private void closeQuietly() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Journal not closed", e);
+        }
+        out = null;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.local.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.memoripass.data.model.EntryChange;
+
+import java.util.List;
+
+/**
+ * パスワードエントリの変更履歴DAO
+ *
+ * <p>変更履歴はトリガーが書き込むため、読み取りのみを提供する。</p>
+ *
+ * @since 1.1
+ */
+@Dao
+public interface EntryChangeDao {
+
+    /**
+     * 指定した番号より後の変更を取得（番号順）
+     *
+     * <p>エントリごとに最新の変更のみが返る。</p>
+     *
+     * @param revision 取得済みの番号
+     * @return 変更
+     */
+    @Query("SELECT * FROM entry_changes WHERE revision > :revision ORDER BY revision")
+    List<EntryChange> getChangesSince(long revision);
+
+    /**
+     * 最新の変更の番号を取得
+     *
+     * @return 番号（変更がない場合は0）
+     */
+    @Query("SELECT COALESCE(MAX(revision), 0) FROM entry_changes")
+    long getLatestRevision();
+
+    /**
+     * 最新の変更の番号を監視
+     *
+     * @return 番号のLiveData（変更がない場合は0）
+     */
+    @Query("SELECT COALESCE(MAX(revision), 0) FROM entry_changes")
+    LiveData<Long> observeLatestRevision();
+}
@@ -17,14 +17,20 @@
 package com.memoripass.data.local.dao;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
 import com.memoripass.data.model.PasswordEntry;
+import com.memoripass.data.model.PasswordSearchCandidate;
+import com.memoripass.data.model.PasswordSummary;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -41,6 +47,46 @@ import java.util.List;
 @Dao
 public interface PasswordEntryDao {
 
+    /**
+     * 1つの文で IN 句に渡すIDの上限
+     *
+     * <p>古いSQLiteはバインド変数が999個までのため、他の引数の分を残して分割する。</p>
+     */
+    int MAX_IDS_PER_STATEMENT = 900;
+
+    /**
+     * 一覧表示に必要な列（{@link PasswordSummary}）
+     */
+    String SUMMARY_COLUMNS = "id, title, encrypted_username, legacy_username, category, updated_at, revision";
+
+    /**
+     * 検索の結合・並べ替え（SELECT 句以降を {@link #SEARCH_QUERY} と {@link #SEARCH_CANDIDATE_QUERY} で共有）
+     */
+    String SEARCH_FROM = " FROM password_entries AS e INNER JOIN ("
+            + "SELECT rowid AS entry_rowid, 0 AS tier FROM password_entries_fts "
+            + "WHERE password_entries_fts MATCH :match "
+            + "UNION ALL "
+            + "SELECT p.rowid AS entry_rowid, 1 AS tier FROM password_entries AS p "
+            + "INNER JOIN (SELECT entry_id FROM search_tokens WHERE token IN (:tokens) "
+            + "GROUP BY entry_id HAVING COUNT(*) = :tokenCount "
+            + "UNION SELECT entry_id FROM search_tokens WHERE token IN (:truncatedTokens)"
+            + ") AS m ON m.entry_id = p.id"
+            + ") AS h ON h.entry_rowid = e.rowid "
+            + "GROUP BY e.id "
+            + "ORDER BY MIN(h.tier), LENGTH(e.title), e.updated_at DESC, e.id";
+
+    /**
+     * 検索クエリ（全列）
+     */
+    String SEARCH_QUERY = "SELECT e.*" + SEARCH_FROM;
+
+    /**
+     * 検索クエリ（一覧表示の列と、一致の確認に使うURL・メモの列のみ。パスワードは読み込まない）
+     */
+    String SEARCH_CANDIDATE_QUERY = "SELECT e.id, e.title, e.encrypted_username, e.legacy_username, "
+            + "e.category, e.updated_at, e.revision, e.encrypted_url, e.legacy_url, e.encrypted_notes, e.legacy_notes"
+            + SEARCH_FROM;
+
     /**
      * すべてのパスワードエントリを取得（更新日時降順）
      *
@@ -49,6 +95,26 @@ public interface PasswordEntryDao {
     @Query("SELECT * FROM password_entries ORDER BY updated_at DESC")
     LiveData<List<PasswordEntry>> getAllPasswords();
 
+    /**
+     * すべてのエントリの要約をページ単位で取得（更新日時降順）
+     *
+     * <p>updated_at のインデックスを走査し、必要なページの一覧表示用の列のみを読み込む。
+     * パスワード・URL・メモの暗号文は読み込まない。</p>
+     *
+     * @return ページングソース（テーブル変更時に無効化される）
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM password_entries ORDER BY updated_at DESC")
+    PagingSource<Integer, PasswordSummary> pageSummaries();
+
+    /**
+     * 一覧の先頭の要約を取得（一覧と同じ並び順）
+     *
+     * @param limit 取得する件数
+     * @return 更新日時の新しい順の要約
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM password_entries ORDER BY updated_at DESC LIMIT :limit")
+    List<PasswordSummary> getRecentSummaries(int limit);
+
     /**
      * IDでパスワードエントリを取得
      *
@@ -58,6 +124,17 @@ public interface PasswordEntryDao {
     @Query("SELECT * FROM password_entries WHERE id = :id LIMIT 1")
     LiveData<PasswordEntry> getPasswordById(String id);
 
+    /**
+     * エントリの更新日時を監視
+     *
+     * <p>復号済みのキャッシュを照合するためのもので、暗号化された列は読み込まない。</p>
+     *
+     * @param id エントリID
+     * @return 更新日時のLiveData（エントリが存在しない場合はnull）
+     */
+    @Query("SELECT updated_at FROM password_entries WHERE id = :id LIMIT 1")
+    LiveData<Long> observeUpdatedAt(String id);
+
     /**
      * カテゴリでパスワードエントリを取得
      *
@@ -68,13 +145,111 @@ public interface PasswordEntryDao {
     LiveData<List<PasswordEntry>> getPasswordsByCategory(String category);
 
     /**
-     * パスワードを検索（タイトル・ユーザー名で部分一致）
+     * カテゴリでエントリの要約をページ単位で取得（更新日時降順）
+     *
+     * <p>(category, updated_at) のインデックスで絞り込みと並べ替えを行う。</p>
      *
-     * @param query 検索クエリ
+     * @param category カテゴリ名
+     * @return ページングソース（テーブル変更時に無効化される）
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM password_entries WHERE category = :category ORDER BY updated_at DESC")
+    PagingSource<Integer, PasswordSummary> pageSummariesByCategory(String category);
+
+    /**
+     * 複数のIDでパスワードエントリの要約を取得（変更のあったエントリの差分更新用）
+     *
+     * <p>IDは {@link #MAX_IDS_PER_STATEMENT} 件ずつに分けて取得する。存在しないIDは無視する。</p>
+     *
+     * @param ids エントリID
+     * @return 要約（順序は不定）
+     */
+    @Transaction
+    default List<PasswordSummary> getSummariesByIds(List<String> ids) {
+        List<PasswordSummary> summaries = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            summaries.addAll(getSummaryChunk(ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size()))));
+        }
+        return summaries;
+    }
+
+    /**
+     * 複数のIDでパスワードエントリの要約を取得（{@link #MAX_IDS_PER_STATEMENT} 件以内）
+     *
+     * @param ids エントリID
+     * @return 要約
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM password_entries WHERE id IN (:ids)")
+    List<PasswordSummary> getSummaryChunk(List<String> ids);
+
+    /**
+     * エントリを検索し、関連度順に上位の件数を取得
+     *
+     * <p>次の2つの候補を合わせる。どちらもインデックスで引くため、
+     * テーブル全体を走査しない。</p>
+     * <ul>
+     *   <li>タイトルの全文検索（password_entries_fts）で前方一致したエントリ</li>
+     *   <li>検索用ブラインドトークンをすべて持つエントリ（search_tokens の主キー）</li>
+     *   <li>インデックスを切り捨てたエントリ（切り捨ての印のトークンを持つもの）。
+     *       インデックスにない語でも一致する可能性があるため、常に候補とする</li>
+     * </ul>
+     *
+     * <p>並び順は、タイトルに一致したエントリ、タイトルの短い順（一致した語が
+     * タイトルに占める割合が大きい順）、更新日時の新しい順。トークンの一致は
+     * 部分一致の必要条件のため、呼び出し側で復号後に絞り込むこと。
+     * 絞り込みで件数が足りない場合は {@link #searchPage(String, long[], int, long[], int, int)}
+     * で続きの候補を取得する。</p>
+     *
+     * @param match タイトルの全文検索式（{@link com.memoripass.crypto.SearchTokenizer#prefixMatchQuery(String)}）
+     * @param tokens 検索語のブラインドトークン（使用中の鍵IDごとに同数ずつ連結したもの）
+     * @param tokenCount 鍵ID1つあたりのトークン数
+     * @param truncatedTokens 切り捨ての印のブラインドトークン（使用中の鍵IDごとに1つ）
+     * @param limit 最大件数
      * @return パスワードエントリのLiveDataリスト
      */
-    @Query("SELECT * FROM password_entries WHERE title LIKE '%' || :query || '%' OR username LIKE '%' || :query || '%' ORDER BY updated_at DESC")
-    LiveData<List<PasswordEntry>> searchPasswords(String query);
+    @Query(SEARCH_QUERY + " LIMIT :limit")
+    LiveData<List<PasswordEntry>> search(String match, long[] tokens, int tokenCount, long[] truncatedTokens, int limit);
+
+    /**
+     * エントリを検索し、関連度順の続きの候補を取得
+     *
+     * <p>条件と並び順は {@link #search(String, long[], int, long[], int)} と同じ。</p>
+     *
+     * @param match タイトルの全文検索式
+     * @param tokens 検索語のブラインドトークン（使用中の鍵IDごとに同数ずつ連結したもの）
+     * @param tokenCount 鍵ID1つあたりのトークン数
+     * @param truncatedTokens 切り捨ての印のブラインドトークン（使用中の鍵IDごとに1つ）
+     * @param limit 最大件数
+     * @param offset 読み飛ばす件数
+     * @return パスワードエントリのリスト
+     */
+    @Query(SEARCH_QUERY + " LIMIT :limit OFFSET :offset")
+    List<PasswordEntry> searchPage(
+            String match, long[] tokens, int tokenCount, long[] truncatedTokens, int limit, int offset);
+
+    /**
+     * エントリを検索し、関連度順に候補をページ単位で取得
+     *
+     * <p>条件と並び順は {@link #search(String, long[], int, long[], int)} と同じ。
+     * パスワードの暗号文は読み込まない。件数は制限せず、呼び出し側が復号後に絞り込みながら
+     * 必要な分だけページを読み込む。</p>
+     *
+     * @param match タイトルの全文検索式
+     * @param tokens 検索語のブラインドトークン（使用中の鍵IDごとに同数ずつ連結したもの）
+     * @param tokenCount 鍵ID1つあたりのトークン数
+     * @param truncatedTokens 切り捨ての印のブラインドトークン（使用中の鍵IDごとに1つ）
+     * @return ページングソース（テーブル変更時に無効化される）
+     */
+    @Query(SEARCH_CANDIDATE_QUERY)
+    PagingSource<Integer, PasswordSearchCandidate> pageSearchCandidates(
+            String match, long[] tokens, int tokenCount, long[] truncatedTokens);
+
+    /**
+     * エントリの暗号化に使用中のデータ鍵IDを取得
+     *
+     * @return データ鍵ID（通常は1つ、鍵ローテーション中は複数）
+     */
+    @Query("SELECT DISTINCT key_id FROM password_entries")
+    List<Integer> getKeyIdsInUse();
 
     /**
      * パスワードエントリを挿入
@@ -84,6 +259,24 @@ public interface PasswordEntryDao {
     @Insert
     void insert(PasswordEntry entry);
 
+    /**
+     * 複数のパスワードエントリを挿入
+     *
+     * @param entries パスワードエントリ
+     */
+    @Insert
+    void insertAll(List<PasswordEntry> entries);
+
+    /**
+     * 複数のパスワードエントリを挿入、または既存のエントリを更新
+     *
+     * <p>既存の行を削除せずに更新するため、検索用トークンが連鎖削除されることはない。</p>
+     *
+     * @param entries パスワードエントリ
+     */
+    @Upsert
+    void upsertAll(List<PasswordEntry> entries);
+
     /**
      * パスワードエントリを更新
      *
@@ -92,6 +285,15 @@ public interface PasswordEntryDao {
     @Update
     void update(PasswordEntry entry);
 
+    /**
+     * 複数のパスワードエントリを更新
+     *
+     * @param entries パスワードエントリ
+     * @return 更新件数
+     */
+    @Update
+    int updateAll(List<PasswordEntry> entries);
+
     /**
      * パスワードエントリを削除
      *
@@ -108,12 +310,183 @@ public interface PasswordEntryDao {
     @Query("DELETE FROM password_entries WHERE id = :id")
     void deleteById(String id);
 
+    /**
+     * 複数のIDでパスワードエントリを削除
+     *
+     * <p>IDは {@link #MAX_IDS_PER_STATEMENT} 件ずつに分けて削除する。
+     * 検索用トークンは外部キーにより連鎖削除される。</p>
+     *
+     * @param ids エントリID
+     * @return 削除件数
+     */
+    @Transaction
+    default int deleteByIds(List<String> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            deleted += deleteChunk(ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size())));
+        }
+        return deleted;
+    }
+
+    /**
+     * IDでパスワードエントリを削除（{@link #MAX_IDS_PER_STATEMENT} 件以内）
+     *
+     * @param ids エントリID
+     * @return 削除件数
+     */
+    @Query("DELETE FROM password_entries WHERE id IN (:ids)")
+    int deleteChunk(List<String> ids);
+
+    /**
+     * 複数のパスワードエントリのカテゴリを変更
+     *
+     * <p>IDは {@link #MAX_IDS_PER_STATEMENT} 件ずつに分けて更新する。</p>
+     *
+     * @param ids エントリID
+     * @param category 変更後のカテゴリ名（nullの場合は未分類）
+     * @param updatedAt 更新日時
+     * @return 更新件数
+     */
+    @Transaction
+    default int moveToCategory(List<String> ids, String category, long updatedAt) {
+        int moved = 0;
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            moved += moveChunkToCategory(
+                    ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size())), category, updatedAt);
+        }
+        return moved;
+    }
+
+    /**
+     * IDでパスワードエントリのカテゴリを変更（{@link #MAX_IDS_PER_STATEMENT} 件以内）
+     *
+     * @param ids エントリID
+     * @param category 変更後のカテゴリ名
+     * @param updatedAt 更新日時
+     * @return 更新件数
+     */
+    @Query("UPDATE password_entries SET category = :category, updated_at = :updatedAt WHERE id IN (:ids)")
+    int moveChunkToCategory(List<String> ids, String category, long updatedAt);
+
     /**
      * すべてのパスワードエントリを削除
      */
     @Query("DELETE FROM password_entries")
     void deleteAll();
 
+    /**
+     * 旧形式（Base64テキスト）の暗号文のみを持つエントリを取得
+     *
+     * <p>ID順のキーセットページングで取得する。</p>
+     *
+     * @param afterId このIDより後のエントリを取得（先頭からは空文字）
+     * @param limit 最大件数
+     * @return パスワードエントリのリスト
+     */
+    @Query("SELECT * FROM password_entries WHERE encrypted_password IS NULL AND legacy_encrypted_password IS NOT NULL AND id > :afterId ORDER BY id LIMIT :limit")
+    List<PasswordEntry> getLegacyCiphertextEntries(String afterId, int limit);
+
+    /**
+     * 旧形式の暗号文をバイナリ形式に置き換え
+     *
+     * <p>並行して更新されたエントリは上書きしない。更新日時は変更しない。</p>
+     *
+     * @param id エントリID
+     * @param encryptedPassword バイナリ形式の暗号文
+     * @return 更新件数
+     */
+    @Query("UPDATE password_entries SET encrypted_password = :encryptedPassword, legacy_encrypted_password = NULL WHERE id = :id AND encrypted_password IS NULL")
+    int replaceLegacyCiphertext(String id, byte[] encryptedPassword);
+
+    /**
+     * 指定した鍵ID以外で暗号化されたエントリを取得（鍵ローテーション用）
+     *
+     * <p>ID順のキーセットページングで取得する。</p>
+     *
+     * @param keyId 現在のデータ鍵ID
+     * @param afterId このIDより後のエントリを取得（先頭からは空文字）
+     * @param limit 最大件数
+     * @return パスワードエントリのリスト
+     */
+    @Query("SELECT * FROM password_entries WHERE key_id <> :keyId AND id > :afterId ORDER BY id LIMIT :limit")
+    List<PasswordEntry> getEntriesNotEncryptedWith(int keyId, String afterId, int limit);
+
+    /**
+     * 指定した鍵ID以外で暗号化されたエントリの数を取得
+     *
+     * @param keyId 現在のデータ鍵ID
+     * @return エントリ数
+     */
+    @Query("SELECT COUNT(*) FROM password_entries WHERE key_id <> :keyId")
+    int countEntriesNotEncryptedWith(int keyId);
+
+    /**
+     * 暗号文を再暗号化したものに置き換え
+     *
+     * <p>読み出し後に別の鍵で更新されたエントリは上書きしない。更新日時は変更しない。
+     * 暗号化前の平文のフィールドが残っていれば、暗号化したものに置き換える。</p>
+     *
+     * @param id エントリID
+     * @param encryptedPassword 再暗号化した暗号文
+     * @param encryptedUsername 再暗号化したユーザー名
+     * @param encryptedUrl 再暗号化したURL
+     * @param encryptedNotes 再暗号化したメモ
+     * @param keyId 再暗号化に使用したデータ鍵ID
+     * @param expectedKeyId 読み出し時のデータ鍵ID
+     * @return 更新件数
+     */
+    @Query("UPDATE password_entries SET encrypted_password = :encryptedPassword, legacy_encrypted_password = NULL, "
+            + "encrypted_username = :encryptedUsername, encrypted_url = :encryptedUrl, encrypted_notes = :encryptedNotes, "
+            + "legacy_username = NULL, legacy_url = NULL, legacy_notes = NULL, key_id = :keyId "
+            + "WHERE id = :id AND key_id = :expectedKeyId")
+    int replaceCiphertext(
+            String id,
+            byte[] encryptedPassword,
+            byte[] encryptedUsername,
+            byte[] encryptedUrl,
+            byte[] encryptedNotes,
+            int keyId,
+            int expectedKeyId
+    );
+
+    /**
+     * 暗号化前の平文のフィールドを持つ、または検索用トークンを持たないエントリを取得
+     *
+     * <p>ID順のキーセットページングで取得する。</p>
+     *
+     * @param afterId このIDより後のエントリを取得（先頭からは空文字）
+     * @param limit 最大件数
+     * @return パスワードエントリのリスト
+     */
+    @Query("SELECT * FROM password_entries WHERE id > :afterId AND ("
+            + "legacy_username IS NOT NULL OR legacy_url IS NOT NULL OR legacy_notes IS NOT NULL "
+            + "OR NOT EXISTS (SELECT 1 FROM search_tokens WHERE entry_id = password_entries.id)) "
+            + "ORDER BY id LIMIT :limit")
+    List<PasswordEntry> getEntriesNeedingFieldEncryption(String afterId, int limit);
+
+    /**
+     * 平文のフィールドを暗号化したものに置き換え
+     *
+     * <p>読み出し後にユーザーが編集したエントリは上書きしない。更新日時は変更しない。</p>
+     *
+     * @param id エントリID
+     * @param encryptedUsername 暗号化したユーザー名
+     * @param encryptedUrl 暗号化したURL
+     * @param encryptedNotes 暗号化したメモ
+     * @param expectedUpdatedAt 読み出し時の更新日時
+     * @return 更新件数
+     */
+    @Query("UPDATE password_entries SET encrypted_username = :encryptedUsername, encrypted_url = :encryptedUrl, "
+            + "encrypted_notes = :encryptedNotes, legacy_username = NULL, legacy_url = NULL, legacy_notes = NULL "
+            + "WHERE id = :id AND updated_at = :expectedUpdatedAt")
+    int replaceLegacyFields(
+            String id,
+            byte[] encryptedUsername,
+            byte[] encryptedUrl,
+            byte[] encryptedNotes,
+            long expectedUpdatedAt
+    );
+
     /**
      * パスワードエントリの総数を取得
      *
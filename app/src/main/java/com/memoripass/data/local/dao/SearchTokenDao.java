@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.memoripass.data.model.SearchToken;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 検索用ブラインドインデックスDAO
+ *
+ * <p>エントリのトークンは書き込みのたびにまとめて置き換える。
+ * 置き換えはエントリの書き込みと同じトランザクション内で行うこと。</p>
+ *
+ * @since 1.1
+ */
+@Dao
+public interface SearchTokenDao {
+
+    /**
+     * トークンを挿入
+     *
+     * @param tokens トークン
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<SearchToken> tokens);
+
+    /**
+     * エントリのトークンをすべて削除
+     *
+     * @param entryId エントリID
+     */
+    @Query("DELETE FROM search_tokens WHERE entry_id = :entryId")
+    void deleteForEntry(String entryId);
+
+    /**
+     * エントリのトークンを置き換え
+     *
+     * @param entryId エントリID
+     * @param tokens ブラインドトークン
+     */
+    @Transaction
+    default void replaceForEntry(String entryId, long[] tokens) {
+        deleteForEntry(entryId);
+        List<SearchToken> rows = new ArrayList<>(tokens.length);
+        for (long token : tokens) {
+            rows.add(new SearchToken(token, entryId));
+        }
+        insertAll(rows);
+    }
+
+    /**
+     * エントリのトークン数を取得
+     *
+     * @param entryId エントリID
+     * @return トークン数
+     */
+    @Query("SELECT COUNT(*) FROM search_tokens WHERE entry_id = :entryId")
+    int countForEntry(String entryId);
+}
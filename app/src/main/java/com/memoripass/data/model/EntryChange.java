@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * パスワードエントリの変更履歴
+ *
+ * <p>password_entries への挿入・更新・削除のたびに、データベースのトリガーが行を追加する
+ * （{@link com.memoripass.data.local.DatabaseMigrations#createChangeTriggers}）。
+ * 番号（revision）は単調に増加し、再利用されない。</p>
+ *
+ * <p>エントリごとに最新の1行のみを残すため、行数はエントリ数（削除済みを含む）を超えない。
+ * ある番号以降の変更を取得すれば、その時点からの差分（変更・削除されたエントリ）が分かる。</p>
+ *
+ * @since 1.1
+ */
+@Entity(
+        tableName = "entry_changes",
+        indices = @Index("entry_id")
+)
+public class EntryChange {
+
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "revision")
+    private final long revision;
+
+    @NonNull
+    @ColumnInfo(name = "entry_id")
+    private final String entryId;
+
+    @ColumnInfo(name = "deleted")
+    private final boolean deleted;
+
+    /**
+     * コンストラクタ
+     *
+     * @param revision 変更の番号
+     * @param entryId エントリID
+     * @param deleted 削除されたか
+     */
+    public EntryChange(long revision, @NonNull String entryId, boolean deleted) {
+        this.revision = revision;
+        this.entryId = entryId;
+        this.deleted = deleted;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    @NonNull
+    public String getEntryId() {
+        return entryId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ある時点からのパスワードエントリの差分
+ *
+ * <p>変更履歴（{@link EntryChange}）から作成する。変更されたエントリは復号済みの要約として、
+ * 削除されたエントリはIDとして持つ。</p>
+ *
+ * @since 1.1
+ */
+public final class PasswordChanges {
+
+    private final long revision;
+    private final List<PasswordSummary> updated;
+    private final Set<String> deleted;
+
+    /**
+     * コンストラクタ
+     *
+     * @param revision 差分に含まれる最新の変更の番号
+     * @param updated 挿入・更新されたエントリの要約（ユーザー名は復号済み）
+     * @param deleted 削除されたエントリ（ロック中は変更されたエントリも含む）のID
+     */
+    public PasswordChanges(long revision, @NonNull List<PasswordSummary> updated, @NonNull Set<String> deleted) {
+        this.revision = revision;
+        this.updated = Collections.unmodifiableList(updated);
+        this.deleted = Collections.unmodifiableSet(deleted);
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    @NonNull
+    public List<PasswordSummary> getUpdated() {
+        return updated;
+    }
+
+    @NonNull
+    public Set<String> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * 差分がないか
+     *
+     * @return true: 変更・削除なし
+     */
+    public boolean isEmpty() {
+        return updated.isEmpty() && deleted.isEmpty();
+    }
+}
@@ -17,8 +17,11 @@
 package com.memoripass.data.model;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
@@ -32,17 +35,34 @@ import androidx.room.PrimaryKey;
  *   <li>id: エントリの一意識別子（UUID）</li>
  *   <li>title: タイトル（例: "Gmail", "Amazon"）</li>
  *   <li>username: ユーザー名（例: "user@example.com"）</li>
- *   <li>encryptedPassword: 暗号化されたパスワード（Base64エンコード）</li>
+ *   <li>encryptedPassword: 暗号化されたパスワード（{@link com.memoripass.crypto.CiphertextFormat} 形式のバイナリ）</li>
+ *   <li>legacyEncryptedPassword: 旧形式の暗号化パスワード（Base64エンコード、BLOB列への移行完了後はnull）</li>
+ *   <li>keyId: パスワードを暗号化したデータ鍵のID（鍵ローテーションの進捗管理用）</li>
  *   <li>url: URL（例: "https://gmail.com"）</li>
  *   <li>notes: メモ</li>
  *   <li>category: カテゴリ（例: "仕事", "プライベート"）</li>
  *   <li>createdAt: 作成日時（UNIXタイムスタンプ、ミリ秒）</li>
  *   <li>updatedAt: 更新日時（UNIXタイムスタンプ、ミリ秒）</li>
+ *   <li>revision: 最後に変更された時の変更履歴の番号（データベースのトリガーが設定する）</li>
  * </ul>
  *
+ * <p>username・url・notesは暗号化して encrypted_* 列に保存する。平文のフィールドは
+ * 列を持たず、リポジトリが保存時に暗号化し、読み出し時に復号して設定する。
+ * 暗号化導入前の平文は legacy_* 列に残り、バックグラウンドで暗号化される。</p>
+ *
+ * <p>インデックス: key_id（鍵ローテーション）、updated_at（一覧の並べ替え）、
+ * (category, updated_at)（カテゴリ別一覧の絞り込みと並べ替え）。</p>
+ *
  * @since 1.0
  */
-@Entity(tableName = "password_entries")
+@Entity(
+        tableName = "password_entries",
+        indices = {
+                @Index("key_id"),
+                @Index("updated_at"),
+                @Index({"category", "updated_at"})
+        }
+)
 public class PasswordEntry {
 
     @PrimaryKey
@@ -54,19 +74,53 @@ public class PasswordEntry {
     @ColumnInfo(name = "title")
     private String title;
 
-    @ColumnInfo(name = "username")
+    // 平文のユーザー名（メモリ上のみ）
+    @Ignore
     private String username;
 
-    @NonNull
-    @ColumnInfo(name = "encrypted_password")
-    private String encryptedPassword;
+    @Nullable
+    @ColumnInfo(name = "encrypted_username", typeAffinity = ColumnInfo.BLOB)
+    private byte[] encryptedUsername;
+
+    @Nullable
+    @ColumnInfo(name = "legacy_username")
+    private String legacyUsername;
 
-    @ColumnInfo(name = "url")
+    @Nullable
+    @ColumnInfo(name = "encrypted_password", typeAffinity = ColumnInfo.BLOB)
+    private byte[] encryptedPassword;
+
+    @Nullable
+    @ColumnInfo(name = "legacy_encrypted_password")
+    private String legacyEncryptedPassword;
+
+    @ColumnInfo(name = "key_id", defaultValue = "1")
+    private int keyId = 1;
+
+    // 平文のURL（メモリ上のみ）
+    @Ignore
     private String url;
 
-    @ColumnInfo(name = "notes")
+    @Nullable
+    @ColumnInfo(name = "encrypted_url", typeAffinity = ColumnInfo.BLOB)
+    private byte[] encryptedUrl;
+
+    @Nullable
+    @ColumnInfo(name = "legacy_url")
+    private String legacyUrl;
+
+    // 平文のメモ（メモリ上のみ）
+    @Ignore
     private String notes;
 
+    @Nullable
+    @ColumnInfo(name = "encrypted_notes", typeAffinity = ColumnInfo.BLOB)
+    private byte[] encryptedNotes;
+
+    @Nullable
+    @ColumnInfo(name = "legacy_notes")
+    private String legacyNotes;
+
     @ColumnInfo(name = "category")
     private String category;
 
@@ -76,6 +130,9 @@ public class PasswordEntry {
     @ColumnInfo(name = "updated_at")
     private long updatedAt;
 
+    @ColumnInfo(name = "revision", defaultValue = "0")
+    private long revision;
+
     /**
      * コンストラクタ
      *
@@ -83,7 +140,7 @@ public class PasswordEntry {
      * @param title タイトル
      * @param encryptedPassword 暗号化されたパスワード
      */
-    public PasswordEntry(@NonNull String id, @NonNull String title, @NonNull String encryptedPassword) {
+    public PasswordEntry(@NonNull String id, @NonNull String title, @Nullable byte[] encryptedPassword) {
         this.id = id;
         this.title = title;
         this.encryptedPassword = encryptedPassword;
@@ -107,11 +164,30 @@ public class PasswordEntry {
         return username;
     }
 
-    @NonNull
-    public String getEncryptedPassword() {
+    /**
+     * 暗号化されたパスワードを取得
+     *
+     * @return バイナリ形式の暗号文（旧形式のみの行ではnull）
+     */
+    @Nullable
+    public byte[] getEncryptedPassword() {
         return encryptedPassword;
     }
 
+    /**
+     * 旧形式の暗号化パスワードを取得
+     *
+     * @return Base64エンコードされた暗号文（移行済みの行ではnull）
+     */
+    @Nullable
+    public String getLegacyEncryptedPassword() {
+        return legacyEncryptedPassword;
+    }
+
+    public int getKeyId() {
+        return keyId;
+    }
+
     public String getUrl() {
         return url;
     }
@@ -120,6 +196,50 @@ public class PasswordEntry {
         return notes;
     }
 
+    @Nullable
+    public byte[] getEncryptedUsername() {
+        return encryptedUsername;
+    }
+
+    @Nullable
+    public byte[] getEncryptedUrl() {
+        return encryptedUrl;
+    }
+
+    @Nullable
+    public byte[] getEncryptedNotes() {
+        return encryptedNotes;
+    }
+
+    /**
+     * 暗号化前の平文のユーザー名を取得
+     *
+     * @return 平文（暗号化済みの行ではnull）
+     */
+    @Nullable
+    public String getLegacyUsername() {
+        return legacyUsername;
+    }
+
+    @Nullable
+    public String getLegacyUrl() {
+        return legacyUrl;
+    }
+
+    @Nullable
+    public String getLegacyNotes() {
+        return legacyNotes;
+    }
+
+    /**
+     * 暗号化前の平文のフィールドが残っているかチェック
+     *
+     * @return true: 残っている, false: すべて暗号化済み
+     */
+    public boolean hasLegacyFields() {
+        return legacyUsername != null || legacyUrl != null || legacyNotes != null;
+    }
+
     public String getCategory() {
         return category;
     }
@@ -132,6 +252,10 @@ public class PasswordEntry {
         return updatedAt;
     }
 
+    public long getRevision() {
+        return revision;
+    }
+
     // Setters
 
     public void setId(@NonNull String id) {
@@ -146,10 +270,18 @@ public class PasswordEntry {
         this.username = username;
     }
 
-    public void setEncryptedPassword(@NonNull String encryptedPassword) {
+    public void setEncryptedPassword(@Nullable byte[] encryptedPassword) {
         this.encryptedPassword = encryptedPassword;
     }
 
+    public void setLegacyEncryptedPassword(@Nullable String legacyEncryptedPassword) {
+        this.legacyEncryptedPassword = legacyEncryptedPassword;
+    }
+
+    public void setKeyId(int keyId) {
+        this.keyId = keyId;
+    }
+
     public void setUrl(String url) {
         this.url = url;
     }
@@ -158,6 +290,30 @@ public class PasswordEntry {
         this.notes = notes;
     }
 
+    public void setEncryptedUsername(@Nullable byte[] encryptedUsername) {
+        this.encryptedUsername = encryptedUsername;
+    }
+
+    public void setEncryptedUrl(@Nullable byte[] encryptedUrl) {
+        this.encryptedUrl = encryptedUrl;
+    }
+
+    public void setEncryptedNotes(@Nullable byte[] encryptedNotes) {
+        this.encryptedNotes = encryptedNotes;
+    }
+
+    public void setLegacyUsername(@Nullable String legacyUsername) {
+        this.legacyUsername = legacyUsername;
+    }
+
+    public void setLegacyUrl(@Nullable String legacyUrl) {
+        this.legacyUrl = legacyUrl;
+    }
+
+    public void setLegacyNotes(@Nullable String legacyNotes) {
+        this.legacyNotes = legacyNotes;
+    }
+
     public void setCategory(String category) {
         this.category = category;
     }
@@ -170,6 +326,10 @@ public class PasswordEntry {
         this.updatedAt = updatedAt;
     }
 
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
     /**
      * 更新日時を現在時刻に設定
      */
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * タイトル検索用の全文検索テーブル
+ *
+ * <p>password_entries を外部コンテンツとするFTS4テーブル。本文を複製せず、
+ * 転置インデックスのみを保持する。Roomが作成するトリガーで
+ * password_entries の挿入・更新・削除に追従する。</p>
+ *
+ * <p>暗号化しているユーザー名・URL・メモは対象外とし、平文で保存している
+ * タイトルのみを索引する。暗号化したフィールドの検索は {@link SearchToken} で行う。</p>
+ *
+ * @since 1.1
+ */
+@Fts4(contentEntity = PasswordEntry.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "password_entries_fts")
+public class PasswordEntryFts {
+
+    // password_entries の rowid と同じ値
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowId;
+
+    @NonNull
+    @ColumnInfo(name = "title")
+    private String title;
+
+    /**
+     * コンストラクタ
+     *
+     * @param rowId password_entries の rowid
+     * @param title タイトル
+     */
+    public PasswordEntryFts(int rowId, @NonNull String title) {
+        this.rowId = rowId;
+        this.title = title;
+    }
+
+    public int getRowId() {
+        return rowId;
+    }
+
+    @NonNull
+    public String getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Ignore;
+
+/**
+ * 検索結果の候補
+ *
+ * <p>ブラインドトークンの一致は部分一致の必要条件にすぎないため、候補を確定するには
+ * URL・メモも復号して確認する必要がある。確認用にURL・メモの暗号文を追加で読み込み、
+ * 確認後は {@link #toSummary()} で一覧表示用の要約に変換して破棄する。</p>
+ *
+ * @since 1.1
+ */
+public class PasswordSearchCandidate extends PasswordSummary {
+
+    @Nullable
+    @ColumnInfo(name = "encrypted_url", typeAffinity = ColumnInfo.BLOB)
+    private final byte[] encryptedUrl;
+
+    @Nullable
+    @ColumnInfo(name = "legacy_url")
+    private final String legacyUrl;
+
+    @Nullable
+    @ColumnInfo(name = "encrypted_notes", typeAffinity = ColumnInfo.BLOB)
+    private final byte[] encryptedNotes;
+
+    @Nullable
+    @ColumnInfo(name = "legacy_notes")
+    private final String legacyNotes;
+
+    // 平文のURL・メモ（確認中のみ）
+    @Ignore
+    private String url;
+
+    @Ignore
+    private String notes;
+
+    /**
+     * コンストラクタ（Roomが使用）
+     */
+    public PasswordSearchCandidate(
+            @NonNull String id,
+            @NonNull String title,
+            @Nullable byte[] encryptedUsername,
+            @Nullable String legacyUsername,
+            @Nullable String category,
+            long updatedAt,
+            long revision,
+            @Nullable byte[] encryptedUrl,
+            @Nullable String legacyUrl,
+            @Nullable byte[] encryptedNotes,
+            @Nullable String legacyNotes
+    ) {
+        super(id, title, encryptedUsername, legacyUsername, category, updatedAt, revision);
+        this.encryptedUrl = encryptedUrl;
+        this.legacyUrl = legacyUrl;
+        this.encryptedNotes = encryptedNotes;
+        this.legacyNotes = legacyNotes;
+    }
+
+    @Nullable
+    public byte[] getEncryptedUrl() {
+        return encryptedUrl;
+    }
+
+    @Nullable
+    public String getLegacyUrl() {
+        return legacyUrl;
+    }
+
+    @Nullable
+    public byte[] getEncryptedNotes() {
+        return encryptedNotes;
+    }
+
+    @Nullable
+    public String getLegacyNotes() {
+        return legacyNotes;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    /**
+     * 一覧表示用の要約に変換（URL・メモは引き継がない）
+     *
+     * @return 要約
+     */
+    @NonNull
+    public PasswordSummary toSummary() {
+        PasswordSummary summary = new PasswordSummary(getId(), getTitle(), getEncryptedUsername(),
+                getLegacyUsername(), getCategory(), getUpdatedAt(), getRevision());
+        summary.setUsername(getUsername());
+        return summary;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Ignore;
+
+/**
+ * 一覧表示用のパスワードエントリの要約
+ *
+ * <p>一覧画面が表示する列（タイトル・ユーザー名・カテゴリ）と、並べ替えに使う
+ * 更新日時、差分更新に使う変更履歴の番号のみを持つ。パスワード・URL・メモの暗号文は読み込まないため、
+ * カーソルとヒープの使用量が小さい。詳細・編集画面はIDで {@link PasswordEntry} を取得する。</p>
+ *
+ * <p>ユーザー名は暗号文（または暗号化前の平文）として読み込み、
+ * リポジトリが復号して {@link #setUsername(String)} で設定する。</p>
+ *
+ * @since 1.1
+ */
+public class PasswordSummary {
+
+    @NonNull
+    @ColumnInfo(name = "id")
+    private final String id;
+
+    @NonNull
+    @ColumnInfo(name = "title")
+    private final String title;
+
+    @Nullable
+    @ColumnInfo(name = "encrypted_username", typeAffinity = ColumnInfo.BLOB)
+    private final byte[] encryptedUsername;
+
+    @Nullable
+    @ColumnInfo(name = "legacy_username")
+    private final String legacyUsername;
+
+    @Nullable
+    @ColumnInfo(name = "category")
+    private final String category;
+
+    @ColumnInfo(name = "updated_at")
+    private final long updatedAt;
+
+    @ColumnInfo(name = "revision")
+    private final long revision;
+
+    // 平文のユーザー名（メモリ上のみ）
+    @Ignore
+    private String username;
+
+    /**
+     * コンストラクタ（Roomが使用）
+     */
+    public PasswordSummary(
+            @NonNull String id,
+            @NonNull String title,
+            @Nullable byte[] encryptedUsername,
+            @Nullable String legacyUsername,
+            @Nullable String category,
+            long updatedAt,
+            long revision
+    ) {
+        this.id = id;
+        this.title = title;
+        this.encryptedUsername = encryptedUsername;
+        this.legacyUsername = legacyUsername;
+        this.category = category;
+        this.updatedAt = updatedAt;
+        this.revision = revision;
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    @NonNull
+    public String getTitle() {
+        return title;
+    }
+
+    @Nullable
+    public byte[] getEncryptedUsername() {
+        return encryptedUsername;
+    }
+
+    @Nullable
+    public String getLegacyUsername() {
+        return legacyUsername;
+    }
+
+    @Nullable
+    public String getCategory() {
+        return category;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * 最後に変更された時の変更履歴の番号を取得（同じ番号なら内容も同じ）
+     *
+     * @return 番号
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+}
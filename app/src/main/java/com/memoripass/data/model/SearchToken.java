@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * 検索用ブラインドインデックスのエンティティ
+ *
+ * <p>暗号化したフィールドを検索するための鍵付きハッシュ（ブラインドトークン）を
+ * エントリごとに保持する。トークンから平文は復元できない。</p>
+ *
+ * <p>フィールド:</p>
+ * <ul>
+ *   <li>token: ブラインドトークン（{@link com.memoripass.crypto.CryptoManager#indexTokens(int, String...)}）</li>
+ *   <li>entryId: トークンを持つエントリのID</li>
+ * </ul>
+ *
+ * <p>主キー (token, entry_id) のインデックスでトークンから直接エントリを引く。
+ * エントリの削除時はトークンも削除される。</p>
+ *
+ * @since 1.1
+ */
+@Entity(
+        tableName = "search_tokens",
+        primaryKeys = {"token", "entry_id"},
+        foreignKeys = @ForeignKey(
+                entity = PasswordEntry.class,
+                parentColumns = "id",
+                childColumns = "entry_id",
+                onDelete = ForeignKey.CASCADE
+        ),
+        indices = @Index("entry_id")
+)
+public class SearchToken {
+
+    @ColumnInfo(name = "token")
+    private final long token;
+
+    @NonNull
+    @ColumnInfo(name = "entry_id")
+    private final String entryId;
+
+    /**
+     * コンストラクタ
+     *
+     * @param token ブラインドトークン
+     * @param entryId エントリID
+     */
+    public SearchToken(long token, @NonNull String entryId) {
+        this.token = token;
+        this.entryId = entryId;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    @NonNull
+    public String getEntryId() {
+        return entryId;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.repository;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.memoripass.crypto.CryptoManager;
+import com.memoripass.crypto.DataKeyHolder;
+import com.memoripass.data.local.AppDatabase;
+import com.memoripass.data.local.dao.PasswordEntryDao;
+import com.memoripass.data.local.dao.SearchTokenDao;
+import com.memoripass.data.model.PasswordEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * フィールド暗号化の移行ワーカー
+ *
+ * <p>データベースバージョン4への移行で legacy_* 列に残った平文のユーザー名・URL・メモを
+ * 暗号化し、検索用ブラインドインデックスを作成する。インデックスを持たない行
+ * （移行前の行）も対象とする。</p>
+ *
+ * <p>特徴:</p>
+ * <ul>
+ *   <li>暗号処理はトランザクションの外で行い、書き込みだけを短いトランザクションにまとめる</li>
+ *   <li>読み出し時の更新日時を条件に更新するため、並行したユーザーの編集を上書きしない</li>
+ *   <li>対象の行は列の状態から判定するため、中断されても次回起動時に残りから再開する</li>
+ *   <li>移行前の行も平文の列から読み出せるため、UIは通常どおり動作する</li>
+ *   <li>ロック中は鍵をアンラップしないため一時停止し、アンロック後に中断したバッチから再開する</li>
+ * </ul>
+ *
+ * @since 1.1
+ */
+public class FieldEncryptionMigrator {
+
+    private static final String TAG = "FieldEncryptionMigrator";
+
+    // 1トランザクションで処理するエントリ数
+    private static final int BATCH_SIZE = 32;
+
+    // プロセス内で同時に1つだけ実行する
+    private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+    // プロセス内で完了済み（以降の起動確認を省略する）
+    private static volatile boolean completed;
+
+    private final AppDatabase database;
+    private final PasswordEntryDao passwordDao;
+    private final SearchTokenDao searchTokenDao;
+    private final PasswordRepository repository;
+
+    /**
+     * コンストラクタ
+     *
+     * @param database データベース
+     * @param repository 復号・暗号化に使用するリポジトリ
+     */
+    FieldEncryptionMigrator(@NonNull AppDatabase database, @NonNull PasswordRepository repository) {
+        this.database = database;
+        this.passwordDao = database.passwordEntryDao();
+        this.searchTokenDao = database.searchTokenDao();
+        this.repository = repository;
+    }
+
+    /**
+     * 未完了であればバックグラウンドで開始
+     */
+    void startIfNeeded() {
+        if (completed || !RUNNING.compareAndSet(false, true)) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                completed = run();
+            } catch (InterruptedException e) {
+                Log.w(TAG, "Field encryption stopped while locked");
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // 未処理の行は平文の列から読み出せるため、次回起動時に再試行する
+                Log.e(TAG, "Field encryption interrupted", e);
+            } finally {
+                RUNNING.set(false);
+            }
+        }, "field-encryption");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * 未処理の行をすべて処理
+     *
+     * @return true: すべての行を処理した, false: 失敗した行が残っている
+     * @throws InterruptedException アンロックを待つ間に割り込まれた
+     */
+    @WorkerThread
+    private boolean run() throws InterruptedException {
+        String afterId = "";
+        int migrated = 0;
+        boolean failed = false;
+
+        while (true) {
+            DataKeyHolder.getInstance().awaitUnlocked();
+            List<PasswordEntry> batch =
+                    passwordDao.getEntriesNeedingFieldEncryption(afterId, BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            // 暗号処理はトランザクションの外で行う
+            List<Sealed> results = new ArrayList<>(batch.size());
+            boolean locked = false;
+            for (PasswordEntry entry : batch) {
+                try {
+                    results.add(seal(entry));
+                } catch (CryptoManager.CryptoException e) {
+                    if (DataKeyHolder.isLockedError(e)) {
+                        locked = true;
+                        break;
+                    }
+                    // 失敗した行は平文のまま残し、次回起動時に再試行する
+                    Log.w(TAG, "Failed to encrypt fields: " + entry.getId(), e);
+                    failed = true;
+                }
+            }
+            if (locked) {
+                // アンロック後に同じバッチからやり直す
+                Log.d(TAG, "Locked during field encryption; pausing");
+                continue;
+            }
+
+            Integer updated = database.runInTransaction(() -> {
+                int count = 0;
+                for (Sealed result : results) {
+                    count += write(result);
+                }
+                return count;
+            });
+            migrated += updated != null ? updated : 0;
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+
+        if (migrated > 0) {
+            Log.i(TAG, "Encrypted fields and indexed " + migrated + " entries");
+        }
+        return !failed;
+    }
+
+    /**
+     * エントリのフィールドを暗号化し、検索用トークンを生成
+     */
+    @WorkerThread
+    @NonNull
+    private Sealed seal(@NonNull PasswordEntry entry) throws CryptoManager.CryptoException {
+        boolean hasLegacy = entry.hasLegacyFields();
+        repository.decryptFields(entry);
+        long[] tokens = repository.indexTokensFor(entry, entry.getKeyId());
+        if (!hasLegacy) {
+            return new Sealed(entry, tokens, false);
+        }
+
+        entry.setEncryptedUsername(repository.encryptField(entry.getUsername()));
+        entry.setEncryptedUrl(repository.encryptField(entry.getUrl()));
+        entry.setEncryptedNotes(repository.encryptField(entry.getNotes()));
+        return new Sealed(entry, tokens, true);
+    }
+
+    /**
+     * 1エントリ分の結果を書き込む（トランザクション内で呼び出す）
+     *
+     * @return 更新件数
+     */
+    private int write(@NonNull Sealed result) {
+        PasswordEntry entry = result.entry;
+        if (result.replaceLegacy) {
+            int updated = passwordDao.replaceLegacyFields(
+                    entry.getId(),
+                    entry.getEncryptedUsername(),
+                    entry.getEncryptedUrl(),
+                    entry.getEncryptedNotes(),
+                    entry.getUpdatedAt());
+            if (updated == 0) {
+                // 読み出し後に編集された行は、編集時に暗号化・インデックス済み
+                return 0;
+            }
+        } else if (searchTokenDao.countForEntry(entry.getId()) > 0) {
+            return 0;
+        }
+
+        searchTokenDao.replaceForEntry(entry.getId(), result.tokens);
+        return 1;
+    }
+
+    /**
+     * 暗号化の結果
+     */
+    private static final class Sealed {
+        final PasswordEntry entry;
+        final long[] tokens;
+        final boolean replaceLegacy;
+
+        Sealed(PasswordEntry entry, long[] tokens, boolean replaceLegacy) {
+            this.entry = entry;
+            this.tokens = tokens;
+            this.replaceLegacy = replaceLegacy;
+        }
+    }
+}
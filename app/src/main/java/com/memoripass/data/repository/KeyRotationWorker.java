@@ -0,0 +1,338 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.memoripass.crypto.CryptoManager;
+import com.memoripass.crypto.DataKeyHolder;
+import com.memoripass.data.local.AppDatabase;
+import com.memoripass.data.local.dao.PasswordEntryDao;
+import com.memoripass.data.local.dao.SearchTokenDao;
+import com.memoripass.data.model.PasswordEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 鍵ローテーションの再暗号化ワーカー
+ *
+ * <p>新しい世代の鍵以外で暗号化されたエントリを、バックグラウンドスレッドで
+ * 小さなバッチごとに再暗号化する。パスワードに加えてユーザー名・URL・メモも
+ * 再暗号化し、検索用トークンを新しい鍵で作り直す。</p>
+ *
+ * <p>特徴:</p>
+ * <ul>
+ *   <li>暗号処理はトランザクションの外で行い、書き込みだけを短いトランザクションにまとめる</li>
+ *   <li>読み出し時の鍵IDを条件に更新するため、並行したユーザーの編集を上書きしない</li>
+ *   <li>バッチごとに進捗（最後に処理したエントリID）を保存し、プロセス終了後も続きから再開する</li>
+ *   <li>受け付け済みの書き込みのコミットを待ち、書き込みスレッドで
+ *       すべてのエントリの移行を確認してから旧世代の鍵を削除する</li>
+ *   <li>ロック中は鍵をアンラップしないため一時停止し、アンロック後に中断したバッチから再開する</li>
+ * </ul>
+ *
+ * <p>処理中も新旧両方の鍵で復号できるため、UIは通常どおり読み書きできる。</p>
+ *
+ * @since 1.1
+ */
+public class KeyRotationWorker {
+
+    private static final String TAG = "KeyRotationWorker";
+
+    // 進捗の保存先
+    private static final String PREFS_NAME = "memoripass_key_rotation";
+    private static final String KEY_TARGET_KEY_ID = "target_key_id";
+    private static final String KEY_CHECKPOINT_ID = "checkpoint_entry_id";
+
+    // 1トランザクションで再暗号化するエントリ数
+    private static final int BATCH_SIZE = 32;
+
+    // 未解決の書き込みの解決を待って旧世代の鍵の削除を試みる回数と間隔（ミリ秒）
+    private static final int FINISH_ATTEMPTS = 5;
+    private static final long FINISH_RETRY_DELAY_MS = 1000;
+
+    // プロセス内で同時に1つだけ実行する
+    private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+    private final SharedPreferences prefs;
+    private final AppDatabase database;
+    private final PasswordEntryDao passwordDao;
+    private final SearchTokenDao searchTokenDao;
+    private final PasswordRepository repository;
+    private final CryptoManager cryptoManager;
+
+    /**
+     * コンストラクタ
+     *
+     * @param context アプリケーションコンテキスト
+     * @param database データベース
+     * @param repository 復号・暗号化に使用するリポジトリ
+     * @param cryptoManager 旧世代の鍵の削除に使用する暗号化マネージャー
+     */
+    KeyRotationWorker(
+            @NonNull Context context,
+            @NonNull AppDatabase database,
+            @NonNull PasswordRepository repository,
+            @NonNull CryptoManager cryptoManager
+    ) {
+        this.prefs = context.getApplicationContext()
+                .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.database = database;
+        this.passwordDao = database.passwordEntryDao();
+        this.searchTokenDao = database.searchTokenDao();
+        this.repository = repository;
+        this.cryptoManager = cryptoManager;
+    }
+
+    /**
+     * 新しい鍵IDへの再暗号化を開始
+     *
+     * @param targetKeyId 新しいデータ鍵ID
+     */
+    void start(int targetKeyId) {
+        prefs.edit()
+                .putInt(KEY_TARGET_KEY_ID, targetKeyId)
+                .putString(KEY_CHECKPOINT_ID, "")
+                .commit();
+        resumeIfNeeded();
+    }
+
+    /**
+     * 未完了のローテーションがあればバックグラウンドで再開
+     */
+    void resumeIfNeeded() {
+        if (!isPending() || !RUNNING.compareAndSet(false, true)) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                run();
+            } catch (InterruptedException e) {
+                Log.w(TAG, "Key rotation stopped while locked");
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // 進捗は保存済みのため、次回起動時に続きから再開する
+                Log.e(TAG, "Key rotation interrupted", e);
+            } finally {
+                RUNNING.set(false);
+            }
+        }, "key-rotation");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * 未完了のローテーションがあるかチェック
+     *
+     * @return true: 未完了, false: なし
+     */
+    boolean isPending() {
+        return prefs.contains(KEY_TARGET_KEY_ID);
+    }
+
+    /**
+     * チェックポイントから最後まで再暗号化し、完了していれば旧世代の鍵を削除
+     *
+     * @throws InterruptedException アンロックを待つ間に割り込まれた
+     */
+    @WorkerThread
+    private void run() throws InterruptedException {
+        int targetKeyId = prefs.getInt(KEY_TARGET_KEY_ID, cryptoManager.getActiveKeyId());
+        String checkpoint = prefs.getString(KEY_CHECKPOINT_ID, "");
+        int rotated = 0;
+
+        while (true) {
+            DataKeyHolder.getInstance().awaitUnlocked();
+            List<PasswordEntry> batch =
+                    passwordDao.getEntriesNotEncryptedWith(targetKeyId, checkpoint, BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            // 暗号処理はトランザクションの外で行う
+            List<Reencrypted> results = new ArrayList<>(batch.size());
+            boolean locked = false;
+            for (PasswordEntry entry : batch) {
+                try {
+                    String plaintext = repository.decryptPassword(entry);
+                    repository.decryptFields(entry);
+                    results.add(new Reencrypted(
+                            entry.getId(),
+                            entry.getKeyId(),
+                            repository.encryptPassword(plaintext),
+                            repository.encryptField(entry.getUsername()),
+                            repository.encryptField(entry.getUrl()),
+                            repository.encryptField(entry.getNotes()),
+                            repository.indexTokensFor(entry, targetKeyId)));
+                } catch (CryptoManager.CryptoException e) {
+                    if (DataKeyHolder.isLockedError(e)) {
+                        locked = true;
+                        break;
+                    }
+                    // 失敗したエントリは旧世代の鍵のまま残り、鍵は削除されない
+                    Log.w(TAG, "Failed to re-encrypt entry: " + entry.getId(), e);
+                }
+            }
+            if (locked) {
+                // チェックポイントは進めず、アンロック後に同じバッチからやり直す
+                Log.d(TAG, "Locked during key rotation; pausing");
+                continue;
+            }
+
+            Integer updated = database.runInTransaction(() -> {
+                int count = 0;
+                for (Reencrypted result : results) {
+                    int replaced = passwordDao.replaceCiphertext(
+                            result.id,
+                            result.encryptedPassword,
+                            result.encryptedUsername,
+                            result.encryptedUrl,
+                            result.encryptedNotes,
+                            targetKeyId,
+                            result.previousKeyId);
+                    if (replaced > 0) {
+                        searchTokenDao.replaceForEntry(result.id, result.searchTokens);
+                    }
+                    count += replaced;
+                }
+                return count;
+            });
+            rotated += updated != null ? updated : 0;
+
+            checkpoint = batch.get(batch.size() - 1).getId();
+            prefs.edit().putString(KEY_CHECKPOINT_ID, checkpoint).apply();
+        }
+
+        Log.i(TAG, "Re-encrypted " + rotated + " entries with key " + targetKeyId);
+        finish(targetKeyId);
+    }
+
+    /**
+     * すべてのエントリが移行済みであれば旧世代の鍵を削除
+     *
+     * <p>確認と削除は、受け付け済みの書き込み（旧世代の鍵で暗号化された可能性がある）が
+     * すべてコミットされた後に、書き込みスレッドで他の書き込みを挟まずに行う。
+     * 未解決の書き込みがジャーナルに残っている間は、その再適用で旧世代の鍵の行が
+     * 戻る可能性があるため削除しない。</p>
+     *
+     * @throws InterruptedException 再試行を待つ間に割り込まれた
+     */
+    @WorkerThread
+    private void finish(int targetKeyId) throws InterruptedException {
+        for (int attempt = 1; attempt <= FINISH_ATTEMPTS; attempt++) {
+            Retirement result;
+            try {
+                result = repository.runAfterPendingWrites(() -> retireIfMigrated(targetKeyId)).get();
+            } catch (ExecutionException e) {
+                // 次回の再開時に再試行する
+                Log.e(TAG, "Failed to check key rotation", e.getCause());
+                return;
+            }
+
+            switch (result) {
+                case RETIRED:
+                    prefs.edit().clear().commit();
+                    Log.i(TAG, "Key rotation completed");
+                    return;
+                case ENTRIES_REMAINING:
+                    // 次回の再開時に先頭から再試行する
+                    prefs.edit().putString(KEY_CHECKPOINT_ID, "").commit();
+                    return;
+                case FAILED:
+                    return;
+                case WRITES_PENDING:
+                default:
+                    Thread.sleep(FINISH_RETRY_DELAY_MS);
+                    break;
+            }
+        }
+        Log.w(TAG, "Writes still pending; keeping old keys until next resume");
+    }
+
+    /**
+     * 移行を確認して旧世代の鍵を削除（書き込みスレッドで実行）
+     */
+    @WorkerThread
+    @NonNull
+    private Retirement retireIfMigrated(int targetKeyId) {
+        if (repository.hasUnresolvedWrites()) {
+            Log.d(TAG, "Unresolved writes in journal; deferring key retirement");
+            return Retirement.WRITES_PENDING;
+        }
+        int remaining = passwordDao.countEntriesNotEncryptedWith(targetKeyId);
+        if (remaining > 0) {
+            Log.w(TAG, remaining + " entries still use an old key; keeping old keys");
+            return Retirement.ENTRIES_REMAINING;
+        }
+        try {
+            cryptoManager.retireKeysBefore(targetKeyId);
+            return Retirement.RETIRED;
+        } catch (CryptoManager.CryptoException e) {
+            Log.e(TAG, "Failed to retire old keys", e);
+            return Retirement.FAILED;
+        }
+    }
+
+    /**
+     * 旧世代の鍵の削除の結果
+     */
+    private enum Retirement {
+        RETIRED,
+        ENTRIES_REMAINING,
+        WRITES_PENDING,
+        FAILED
+    }
+
+    /**
+     * 再暗号化の結果
+     */
+    private static final class Reencrypted {
+        final String id;
+        final int previousKeyId;
+        final byte[] encryptedPassword;
+        final byte[] encryptedUsername;
+        final byte[] encryptedUrl;
+        final byte[] encryptedNotes;
+        final long[] searchTokens;
+
+        Reencrypted(
+                String id,
+                int previousKeyId,
+                byte[] encryptedPassword,
+                byte[] encryptedUsername,
+                byte[] encryptedUrl,
+                byte[] encryptedNotes,
+                long[] searchTokens
+        ) {
+            this.id = id;
+            this.previousKeyId = previousKeyId;
+            this.encryptedPassword = encryptedPassword;
+            this.encryptedUsername = encryptedUsername;
+            this.encryptedUrl = encryptedUrl;
+            this.encryptedNotes = encryptedNotes;
+            this.searchTokens = searchTokens;
+        }
+    }
+}
@@ -20,16 +20,49 @@ import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
+import androidx.paging.PagingSource;
 
+import com.memoripass.crypto.BatchCryptoProcessor;
+import com.memoripass.crypto.BatchResult;
+import com.memoripass.crypto.CiphertextFormat;
 import com.memoripass.crypto.CryptoManager;
+import com.memoripass.crypto.CryptoService;
+import com.memoripass.crypto.DataKeyHolder;
+import com.memoripass.crypto.SearchTokenizer;
 import com.memoripass.data.local.AppDatabase;
+import com.memoripass.data.local.WriteJournal;
+import com.memoripass.data.local.dao.EntryChangeDao;
 import com.memoripass.data.local.dao.PasswordEntryDao;
+import com.memoripass.data.local.dao.SearchTokenDao;
+import com.memoripass.data.model.EntryChange;
+import com.memoripass.data.model.PasswordChanges;
 import com.memoripass.data.model.PasswordEntry;
+import com.memoripass.data.model.PasswordSearchCandidate;
+import com.memoripass.data.model.PasswordSummary;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * パスワードリポジトリ
@@ -41,19 +74,43 @@ import java.util.concurrent.Executors;
  * <p>責務:</p>
  * <ul>
  *   <li>データの取得・保存・更新・削除</li>
- *   <li>パスワードの暗号化・復号</li>
+ *   <li>パスワード・ユーザー名・URL・メモの暗号化・復号</li>
+ *   <li>検索用ブラインドインデックスの更新と検索</li>
  *   <li>バックグラウンドスレッドでの処理実行</li>
  * </ul>
  *
+ * <p>読み取り操作が返すエントリは、ユーザー名・URL・メモを暗号処理スレッド
+ * （{@link CryptoService}）で復号してから通知する。</p>
+ *
  * @since 1.0
  */
 public class PasswordRepository {
 
     private static final String TAG = "PasswordRepository";
 
+    // 検索結果の最大件数のデフォルト
+    public static final int DEFAULT_SEARCH_LIMIT = 200;
+
+    // 検索で一度に読み込む候補数（最大件数に対する倍率、復号後の確認で除外される分を見込む）
+    private static final int SEARCH_CANDIDATE_FACTOR = 2;
+
+    // 一覧の1ページあたりの件数
+    static final int PAGE_SIZE = 30;
+
+    // メモリに保持する最大件数（これを超えると遠いページから破棄する）
+    static final int MAX_CACHED_ITEMS = PAGE_SIZE * 5;
+
+    private final AppDatabase database;
     private final PasswordEntryDao passwordDao;
+    private final SearchTokenDao searchTokenDao;
+    private final EntryChangeDao entryChangeDao;
     private final CryptoManager cryptoManager;
-    private final Executor executor;
+    private final BatchCryptoProcessor batchProcessor;
+    private final WriteQueue writeQueue;
+    private final WriteJournal journal;
+    private final CryptoService cryptoService;
+    private final KeyRotationWorker keyRotationWorker;
+    private final FieldEncryptionMigrator fieldEncryptionMigrator;
     private final LiveData<List<PasswordEntry>> allPasswords;
 
     /**
@@ -63,11 +120,28 @@ public class PasswordRepository {
      * @throws CryptoManager.CryptoException 暗号化マネージャーの初期化に失敗
      */
     public PasswordRepository(@NonNull Context context) throws CryptoManager.CryptoException {
-        AppDatabase database = AppDatabase.getInstance(context);
+        this.database = AppDatabase.getInstance(context);
         this.passwordDao = database.passwordEntryDao();
-        this.cryptoManager = new CryptoManager();
-        this.executor = Executors.newSingleThreadExecutor();
-        this.allPasswords = passwordDao.getAllPasswords();
+        this.searchTokenDao = database.searchTokenDao();
+        this.entryChangeDao = database.entryChangeDao();
+        this.cryptoManager = new CryptoManager(context);
+        this.batchProcessor = new BatchCryptoProcessor(
+                cryptoManager,
+                BatchCryptoProcessor.defaultWorkerCount(),
+                BatchCryptoProcessor.DEFAULT_CHUNK_SIZE
+        );
+        this.writeQueue = new WriteQueue(database::runInTransaction);
+        this.journal = WriteJournal.getInstance(context);
+        this.cryptoService = CryptoService.getInstance();
+        this.keyRotationWorker = new KeyRotationWorker(context, database, this, cryptoManager);
+        this.fieldEncryptionMigrator = new FieldEncryptionMigrator(database, this);
+        this.allPasswords = revealAll(passwordDao.getAllPasswords(), null);
+
+        // 中断された鍵ローテーションがあれば再開
+        keyRotationWorker.resumeIfNeeded();
+
+        // 平文のまま残っているフィールドを暗号化し、検索用インデックスを作成
+        fieldEncryptionMigrator.startIfNeeded();
 
         Log.d(TAG, "PasswordRepository initialized");
     }
@@ -90,7 +164,20 @@ public class PasswordRepository {
      * @return パスワードエントリのLiveData
      */
     public LiveData<PasswordEntry> getPasswordById(@NonNull String id) {
-        return passwordDao.getPasswordById(id);
+        return revealOne(passwordDao.getPasswordById(id));
+    }
+
+    /**
+     * エントリの更新日時を監視
+     *
+     * <p>復号を伴わないため、復号済みのキャッシュが有効かどうかの確認に使う。</p>
+     *
+     * @param id エントリID
+     * @return 更新日時のLiveData（エントリが存在しない場合はnull）
+     */
+    @NonNull
+    public LiveData<Long> observeUpdatedAt(@NonNull String id) {
+        return passwordDao.observeUpdatedAt(id);
     }
 
     /**
@@ -100,93 +187,1101 @@ public class PasswordRepository {
      * @return パスワードエントリのLiveDataリスト
      */
     public LiveData<List<PasswordEntry>> getPasswordsByCategory(@NonNull String category) {
-        return passwordDao.getPasswordsByCategory(category);
+        return revealAll(passwordDao.getPasswordsByCategory(category), null);
     }
 
     /**
-     * パスワードを検索
+     * パスワードを検索（上位 {@link #DEFAULT_SEARCH_LIMIT} 件）
      *
      * @param query 検索クエリ
-     * @return パスワードエントリのLiveDataリスト
+     * @return パスワードエントリのLiveDataリスト（関連度順）
+     * @see #searchPasswords(String, int)
      */
     public LiveData<List<PasswordEntry>> searchPasswords(@NonNull String query) {
-        return passwordDao.searchPasswords(query);
+        return searchPasswords(query, DEFAULT_SEARCH_LIMIT);
+    }
+
+    /**
+     * パスワードを検索し、関連度順に上位の件数を取得
+     *
+     * <p>タイトル・ユーザー名・URL・メモを対象とする。タイトルは全文検索で前方一致、
+     * 暗号化したフィールドは検索語をブラインドトークンに変換して候補を絞り込み、
+     * 復号した値で部分一致を確認する。タイトルに一致したエントリを先頭に並べる。</p>
+     *
+     * <p>確認で除外される候補を見込んで件数の {@link #SEARCH_CANDIDATE_FACTOR} 倍ずつ候補を読み込み、
+     * 一致が件数に達するか候補が尽きるまで続きを読み込む。</p>
+     *
+     * @param query 検索クエリ
+     * @param limit 最大件数
+     * @return パスワードエントリのLiveDataリスト（関連度順）
+     */
+    public LiveData<List<PasswordEntry>> searchPasswords(@NonNull String query, int limit) {
+        int pageSize = limit * SEARCH_CANDIDATE_FACTOR;
+        return Transformations.switchMap(tokenQuery(query), tokens -> tokens.match.isEmpty()
+                ? revealAll(passwordDao.getAllPasswords(), query)
+                : revealAll(
+                        passwordDao.search(tokens.match, tokens.tokens, tokens.tokenCount,
+                                tokens.truncatedTokens, pageSize),
+                        query,
+                        limit,
+                        pageSize,
+                        offset -> passwordDao.searchPage(tokens.match, tokens.tokens, tokens.tokenCount,
+                                tokens.truncatedTokens, pageSize, offset)));
+    }
+
+    // ==================== ページング ====================
+
+    /**
+     * すべてのパスワードの要約をページ単位で取得（更新日時降順）
+     *
+     * <p>表示位置の周辺のページのみを読み込み、ユーザー名を復号する。パスワード・URL・メモは
+     * 読み込まないため、一覧の再読み込みのたびに暗号文がメモリに載ることはない。
+     * プレースホルダーを有効にするため、スクロールバーは最初から全件分の長さになる。
+     * ViewModelで {@link PagingLiveData#cachedIn} してから監視すること。</p>
+     *
+     * <p>復号済みの要約は {@code revealed} に保持し、再読み込み時は変更のあった行のみを復号する。</p>
+     *
+     * @param revealed 一覧の復号済みの要約
+     * @return ページ単位の要約のLiveData
+     */
+    @NonNull
+    public LiveData<PagingData<PasswordSummary>> getPagedPasswords(@NonNull RevealedSummaries revealed) {
+        return revealSummaries(pages(true, passwordDao::pageSummaries), revealed);
+    }
+
+    /**
+     * カテゴリでパスワードの要約をページ単位で取得（更新日時降順）
+     *
+     * @param category カテゴリ名
+     * @param revealed 一覧の復号済みの要約
+     * @return ページ単位の要約のLiveData
+     */
+    @NonNull
+    public LiveData<PagingData<PasswordSummary>> getPagedPasswordsByCategory(
+            @NonNull String category,
+            @NonNull RevealedSummaries revealed
+    ) {
+        return revealSummaries(pages(true, () -> passwordDao.pageSummariesByCategory(category)), revealed);
+    }
+
+    /**
+     * パスワードを検索し、関連度順に要約をページ単位で取得
+     *
+     * <p>候補は復号後に絞り込むため、件数が確定しないプレースホルダーは使用しない。
+     * 候補の件数は制限せず、スクロールに合わせて続きの候補を読み込む。
+     * 一致の確認に使ったURL・メモは要約に引き継がない。</p>
+     *
+     * @param query 検索クエリ
+     * @param revealed 一覧の復号済みの要約（検索語が空の場合の全件表示に使用）
+     * @return ページ単位の要約のLiveData
+     * @see #searchPasswords(String, int)
+     */
+    @NonNull
+    public LiveData<PagingData<PasswordSummary>> searchPagedPasswords(
+            @NonNull String query,
+            @NonNull RevealedSummaries revealed
+    ) {
+        return Transformations.switchMap(tokenQuery(query), tokens -> tokens.match.isEmpty()
+                ? revealSummaries(pages(true, passwordDao::pageSummaries), revealed)
+                : revealCandidates(pages(false, () -> passwordDao.pageSearchCandidates(
+                        tokens.match, tokens.tokens, tokens.tokenCount, tokens.truncatedTokens)), query));
+    }
+
+    /**
+     * ページングソースからページ単位のLiveDataを作成
+     *
+     * @param placeholders 未読み込みの項目をプレースホルダー（null）として通知するか
+     * @param factory ページングソースの生成（無効化のたびに呼ばれる）
+     * @param <T> 項目の型
+     */
+    @NonNull
+    private static <T> LiveData<PagingData<T>> pages(
+            boolean placeholders,
+            @NonNull Supplier<PagingSource<Integer, T>> factory
+    ) {
+        PagingConfig config = new PagingConfig(
+                PAGE_SIZE,
+                PAGE_SIZE,
+                placeholders,
+                PAGE_SIZE * 2,
+                MAX_CACHED_ITEMS
+        );
+        return PagingLiveData.getLiveData(new Pager<>(config, factory::get));
+    }
+
+    /**
+     * 読み込んだページのユーザー名を暗号処理スレッド（通常レーン）で復号
+     *
+     * <p>変更履歴の番号が同じ復号済みの要約があれば、復号せずにそれを返す。</p>
+     *
+     * @param source ページ単位のLiveData
+     * @param revealed 一覧の復号済みの要約
+     */
+    @NonNull
+    private LiveData<PagingData<PasswordSummary>> revealSummaries(
+            @NonNull LiveData<PagingData<PasswordSummary>> source,
+            @NonNull RevealedSummaries revealed
+    ) {
+        Executor revealExecutor = cryptoService.executor(CryptoService.Priority.BACKGROUND);
+        return Transformations.map(source, pagingData ->
+                PagingDataTransforms.map(pagingData, revealExecutor, summary -> {
+                    PasswordSummary cached = revealed.get(summary);
+                    if (cached != null) {
+                        return cached;
+                    }
+                    revealUsername(summary);
+                    revealed.put(summary);
+                    return summary;
+                }));
+    }
+
+    /**
+     * 要約のユーザー名を復号
+     */
+    @WorkerThread
+    private void revealUsername(@NonNull PasswordSummary summary) {
+        summary.setUsername(revealField(summary.getEncryptedUsername(), summary.getLegacyUsername()));
+    }
+
+    /**
+     * 読み込んだ検索候補を暗号処理スレッド（通常レーン）で復号し、
+     * 検索語に一致したものを要約に変換
+     *
+     * @param source ページ単位のLiveData
+     * @param query 検索語
+     */
+    @NonNull
+    private LiveData<PagingData<PasswordSummary>> revealCandidates(
+            @NonNull LiveData<PagingData<PasswordSearchCandidate>> source,
+            @NonNull String query
+    ) {
+        Executor revealExecutor = cryptoService.executor(CryptoService.Priority.BACKGROUND);
+        return Transformations.map(source, pagingData -> {
+            PagingData<PasswordSearchCandidate> revealed = PagingDataTransforms.map(pagingData, revealExecutor,
+                    candidate -> {
+                        candidate.setUsername(revealField(candidate.getEncryptedUsername(),
+                                candidate.getLegacyUsername()));
+                        candidate.setUrl(revealField(candidate.getEncryptedUrl(), candidate.getLegacyUrl()));
+                        candidate.setNotes(revealField(candidate.getEncryptedNotes(), candidate.getLegacyNotes()));
+                        return candidate;
+                    });
+            PagingData<PasswordSearchCandidate> matched = PagingDataTransforms.filter(revealed, revealExecutor,
+                    candidate -> SearchTokenizer.matches(query, candidate.getTitle(),
+                            candidate.getUsername(), candidate.getUrl(), candidate.getNotes()));
+            return PagingDataTransforms.map(matched, revealExecutor, PasswordSearchCandidate::toSummary);
+        });
+    }
+
+    // ==================== 検索 ====================
+
+    /**
+     * 検索語を暗号処理スレッド（優先レーン）で検索条件に変換して通知
+     *
+     * <p>変換に失敗した場合（優先レーンの待ち行列が満杯、鍵IDの読み込みに失敗など）は、
+     * タイトルの全文検索のみの条件を通知する。通知しないと検索結果が更新されず、
+     * 前回の一覧が表示され続ける。</p>
+     */
+    @NonNull
+    private LiveData<TokenQuery> tokenQuery(@NonNull String query) {
+        MutableLiveData<TokenQuery> tokenQuery = new MutableLiveData<>();
+        cryptoService.submit(CryptoService.Priority.INTERACTIVE, () -> tokenQueryFor(query))
+                .whenComplete((tokens, error) -> {
+                    if (error != null) {
+                        Log.w(TAG, "Search tokens not computed, searching titles only", error);
+                        tokenQuery.postValue(TokenQuery.titleOnly(query));
+                        return;
+                    }
+                    tokenQuery.postValue(tokens);
+                });
+        return tokenQuery;
+    }
+
+    /**
+     * 検索語をタイトルの全文検索式と、使用中のすべての鍵IDのブラインドトークンに変換
+     *
+     * <p>インデックスを切り捨てたエントリを候補に含めるため、鍵IDごとの切り捨ての印も求める。</p>
+     */
+    @WorkerThread
+    @NonNull
+    private TokenQuery tokenQueryFor(@NonNull String query) {
+        List<Integer> keyIds = passwordDao.getKeyIdsInUse();
+        List<long[]> perKey = new ArrayList<>(keyIds.size());
+        long[] truncatedTokens = new long[keyIds.size()];
+        int tokenCount = 0;
+        int total = 0;
+        for (int keyId : keyIds) {
+            try {
+                long[] tokens = cryptoManager.queryTokens(keyId, query);
+                truncatedTokens[perKey.size()] = cryptoManager.truncatedIndexToken(keyId);
+                tokenCount = tokens.length;
+                total += tokens.length;
+                perKey.add(tokens);
+            } catch (CryptoManager.CryptoException e) {
+                Log.w(TAG, "Search tokens unavailable for key " + keyId, e);
+            }
+        }
+
+        long[] tokens = new long[total];
+        int position = 0;
+        for (long[] keyTokens : perKey) {
+            System.arraycopy(keyTokens, 0, tokens, position, keyTokens.length);
+            position += keyTokens.length;
+        }
+        return new TokenQuery(SearchTokenizer.prefixMatchQuery(query), tokens,
+                perKey.isEmpty() ? 0 : tokenCount, Arrays.copyOf(truncatedTokens, perKey.size()));
+    }
+
+    /**
+     * エントリ一覧のフィールドを暗号処理スレッド（通常レーン）で復号して通知
+     *
+     * @param source データベースのLiveData
+     * @param query 検索語（nullの場合は絞り込まない）
+     */
+    @NonNull
+    private LiveData<List<PasswordEntry>> revealAll(
+            @NonNull LiveData<List<PasswordEntry>> source,
+            @Nullable String query
+    ) {
+        return revealAll(source, query, Integer.MAX_VALUE, Integer.MAX_VALUE, offset -> Collections.emptyList());
+    }
+
+    /**
+     * 検索候補のフィールドを暗号処理スレッド（通常レーン）で復号し、上位の一致を通知
+     *
+     * <p>一致が件数に満たず、読み込んだ候補が1ページ分あれば、続きの候補を読み込む
+     * （{@link TopMatches}）。</p>
+     *
+     * @param source データベースのLiveData（最初のページの候補。変更時に再度通知される）
+     * @param query 検索語（nullの場合は絞り込まない）
+     * @param limit 最大件数
+     * @param pageSize 1ページの候補数
+     * @param pages 続きの候補の読み込み
+     */
+    @NonNull
+    private LiveData<List<PasswordEntry>> revealAll(
+            @NonNull LiveData<List<PasswordEntry>> source,
+            @Nullable String query,
+            int limit,
+            int pageSize,
+            @NonNull TopMatches.Pages<PasswordEntry> pages
+    ) {
+        MediatorLiveData<List<PasswordEntry>> result = new MediatorLiveData<>();
+        AtomicInteger generation = new AtomicInteger();
+        result.addSource(source, entries -> {
+            int current = generation.incrementAndGet();
+            cryptoService.submit(CryptoService.Priority.BACKGROUND, () -> {
+                // 後続の変更があれば古い結果は捨てる
+                if (current != generation.get() || entries == null) {
+                    return null;
+                }
+                List<PasswordEntry> revealed = TopMatches.collect(entries, pageSize, limit, pages, entry -> {
+                    revealFields(entry);
+                    return query == null || SearchTokenizer.matches(query, entry.getTitle(),
+                            entry.getUsername(), entry.getUrl(), entry.getNotes());
+                }, () -> current != generation.get());
+                // 複数スレッドで実行されるため、判定と通知をまとめて行う
+                synchronized (result) {
+                    if (current == generation.get()) {
+                        result.postValue(revealed);
+                    }
+                }
+                return null;
+            }).exceptionally(error -> {
+                Log.w(TAG, "Entries not revealed", error);
+                return null;
+            });
+        });
+        return result;
+    }
+
+    /**
+     * エントリのフィールドを暗号処理スレッド（優先レーン）で復号して通知
+     */
+    @NonNull
+    private LiveData<PasswordEntry> revealOne(@NonNull LiveData<PasswordEntry> source) {
+        MediatorLiveData<PasswordEntry> result = new MediatorLiveData<>();
+        result.addSource(source, entry -> cryptoService.submit(CryptoService.Priority.INTERACTIVE, () -> {
+            if (entry != null) {
+                revealFields(entry);
+            }
+            return entry;
+        }).whenComplete((revealed, error) -> {
+            if (error != null) {
+                Log.w(TAG, "Entry not revealed", error);
+                return;
+            }
+            result.postValue(revealed);
+        }));
+        return result;
+    }
+
+    // ==================== アンロック前の準備 ====================
+
+    /**
+     * 現在のデータ鍵を準備（認証待ちの間に呼び出す）
+     *
+     * @throws CryptoManager.CryptoException KeyStoreの読み込み・鍵のアンラップに失敗
+     * @see CryptoManager#prepareActiveKey()
+     */
+    @WorkerThread
+    public void prepareKeys() throws CryptoManager.CryptoException {
+        cryptoManager.prepareActiveKey();
+    }
+
+    /**
+     * 一覧の最初のページを先読みし、ユーザー名を復号して {@code revealed} に保持
+     *
+     * <p>読み込みは読み取り用スレッド、復号は暗号処理スレッド（通常レーン）で行う。
+     * 一覧の表示時は同じ番号の要約を復号せずに使う。基準の番号を要約より先に読むため、
+     * 先読み後の変更は差分として反映される。復号に失敗した行は保持せず、表示時に復号する。</p>
+     *
+     * @param revealed 一覧の復号済みの要約
+     * @return 保持した件数で完了するFuture
+     */
+    @NonNull
+    public CompletableFuture<Integer> prefetchFirstPage(@NonNull RevealedSummaries revealed) {
+        return CompletableFuture.supplyAsync(() -> {
+            long baseline = entryChangeDao.getLatestRevision();
+            List<PasswordSummary> summaries = passwordDao.getRecentSummaries(PAGE_SIZE * 2);
+            revealed.advanceTo(baseline);
+            return summaries;
+        }, database.getQueryExecutor()).thenCompose(summaries ->
+                cryptoService.submit(CryptoService.Priority.BACKGROUND, () -> {
+                    int count = 0;
+                    for (PasswordSummary summary : summaries) {
+                        if (revealed.get(summary) != null) {
+                            continue;
+                        }
+                        try {
+                            summary.setUsername(decryptField(summary.getEncryptedUsername(),
+                                    summary.getLegacyUsername()));
+                        } catch (CryptoManager.CryptoException e) {
+                            continue;
+                        }
+                        revealed.put(summary);
+                        count++;
+                    }
+                    return count;
+                }));
+    }
+
+    // ==================== 変更履歴 ====================
+
+    /**
+     * 最新の変更の番号を監視
+     *
+     * <p>エントリの挿入・更新・削除のたびに新しい番号が通知される。
+     * {@link #getChangesSince(long, RevealedSummaries)} と組み合わせて差分を取得する。</p>
+     *
+     * @return 番号のLiveData（変更がない場合は0）
+     */
+    @NonNull
+    public LiveData<Long> observeRevision() {
+        return entryChangeDao.observeLatestRevision();
+    }
+
+    /**
+     * 指定した番号以降の差分を取得
+     *
+     * <p>変更履歴の読み込みは読み取り用スレッド、ユーザー名の復号は暗号処理スレッド（通常レーン）で行う。
+     * 変更されたエントリのうち、{@code revealed} が保持しているもののみを読み込んで復号する
+     * （保持していないエントリは表示時に読み込まれる）。費用は変更された行数に比例し、全件数によらない。</p>
+     *
+     * <p>ロック中はデータ鍵をアンラップしないため復号しない。変更されたエントリは削除と同様に
+     * {@code revealed} から外し、アンロック後の表示時に復号する。</p>
+     *
+     * @param revision 反映済みの番号
+     * @param revealed 一覧の復号済みの要約
+     * @return 差分のFuture
+     */
+    @NonNull
+    public CompletableFuture<PasswordChanges> getChangesSince(long revision, @NonNull RevealedSummaries revealed) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<EntryChange> changes = entryChangeDao.getChangesSince(revision);
+            boolean unlocked = DataKeyHolder.getInstance().isUnlocked();
+            long latest = revision;
+            List<String> updatedIds = new ArrayList<>();
+            Set<String> deleted = new HashSet<>();
+            for (EntryChange change : changes) {
+                latest = Math.max(latest, change.getRevision());
+                if (change.isDeleted() || !unlocked) {
+                    deleted.add(change.getEntryId());
+                } else if (revealed.contains(change.getEntryId())) {
+                    updatedIds.add(change.getEntryId());
+                }
+            }
+            List<PasswordSummary> updated = updatedIds.isEmpty()
+                    ? Collections.emptyList()
+                    : passwordDao.getSummariesByIds(updatedIds);
+            return new PasswordChanges(latest, updated, deleted);
+        }, database.getQueryExecutor()).thenCompose(changes ->
+                changes.getUpdated().isEmpty()
+                        ? CompletableFuture.completedFuture(changes)
+                        : cryptoService.submit(CryptoService.Priority.BACKGROUND, () -> {
+                            for (PasswordSummary summary : changes.getUpdated()) {
+                                revealUsername(summary);
+                            }
+                            return changes;
+                        }));
     }
 
     // ==================== 書き込み操作 ====================
 
+    /*
+     * 書き込みは WriteQueue に積み、短時間に続いたものを1つのトランザクションでコミットする。
+     * 単一エントリの保存・削除と一括削除・カテゴリ変更は、キューに積む前に WriteJournal に記録し、
+     * コミット前にプロセスが終了しても次回のデータベースオープン時に再適用される。
+     * 返すFutureはコミット後に完了する（書き込み失敗時はその例外で失敗する）。
+     * Futureは書き込みスレッド上で完了するため、UIの更新は postValue などで行うこと。
+     */
+
     /**
      * パスワードを挿入
      *
      * @param entry パスワードエントリ
+     * @return コミットしたエントリで完了するFuture（コミット前に削除された場合はnull、
+     *         暗号化に失敗した場合は例外で失敗）
      */
-    public void insert(@NonNull PasswordEntry entry) {
-        executor.execute(() -> {
-            passwordDao.insert(entry);
-            Log.d(TAG, "Password inserted: " + entry.getId());
-        });
+    @NonNull
+    public CompletableFuture<PasswordEntry> insert(@NonNull PasswordEntry entry) {
+        Log.d(TAG, "Password insert queued: " + entry.getId());
+        return enqueueSealed(entry, true);
     }
 
     /**
      * パスワードを更新
      *
+     * <p>コミット前に同じエントリの更新が続いた場合は、最後の内容のみを書き込む。</p>
+     *
      * @param entry パスワードエントリ
+     * @return コミットしたエントリ（後続の更新にまとめられた場合は後続の内容）で完了するFuture
+     *         （コミット前に削除された場合はnull、暗号化に失敗した場合は例外で失敗）
      */
-    public void update(@NonNull PasswordEntry entry) {
-        executor.execute(() -> {
-            entry.updateTimestamp();
-            passwordDao.update(entry);
-            Log.d(TAG, "Password updated: " + entry.getId());
-        });
+    @NonNull
+    public CompletableFuture<PasswordEntry> update(@NonNull PasswordEntry entry) {
+        Log.d(TAG, "Password update queued: " + entry.getId());
+        return enqueueSealed(entry, false);
     }
 
     /**
      * パスワードを削除
      *
      * @param entry パスワードエントリ
+     * @return コミット時に完了するFuture
      */
-    public void delete(@NonNull PasswordEntry entry) {
-        executor.execute(() -> {
-            passwordDao.delete(entry);
-            Log.d(TAG, "Password deleted: " + entry.getId());
-        });
+    @NonNull
+    public CompletableFuture<Void> delete(@NonNull PasswordEntry entry) {
+        return deleteById(entry.getId());
     }
 
     /**
      * IDでパスワードを削除
      *
      * @param id エントリID
+     * @return コミット時に完了するFuture
+     */
+    @NonNull
+    public CompletableFuture<Void> deleteById(@NonNull String id) {
+        Log.d(TAG, "Password delete queued: " + id);
+        return enqueueInOrder(() -> new DeleteWrite(id), Collections.singletonList(WriteJournal.Record.delete(id)))
+                .thenApply(committed -> null);
+    }
+
+    /**
+     * フィールドを暗号化してから書き込みをキューに積む
+     *
+     * <p>暗号化は優先レーンで行い、暗号化済みの内容をジャーナルに記録してからキューに積む。</p>
+     */
+    @NonNull
+    private CompletableFuture<PasswordEntry> enqueueSealed(@NonNull PasswordEntry entry, boolean insert) {
+        return cryptoService.submit(CryptoService.Priority.INTERACTIVE, () -> {
+                    if (!insert) {
+                        entry.updateTimestamp();
+                    }
+                    return new EntryWrite(entry, insert, sealFields(entry));
+                })
+                .thenCompose(write -> enqueueDurably(write,
+                        Collections.singletonList(WriteJournal.Record.upsert(entry, write.tokens))))
+                .thenApply(PasswordRepository::committedEntry);
+    }
+
+    /**
+     * 書き込みを呼び出し順にキューに積む
+     *
+     * <p>単一エントリの保存は優先レーンで暗号化してからキューに積むため、
+     * その他の書き込みも同じレーンを通し、呼び出し順を保つ。</p>
+     *
+     * @param write 書き込みの生成
+     * @param records ジャーナルの記録（空の場合は記録しない）
+     */
+    @NonNull
+    private CompletableFuture<WriteQueue.Write> enqueueInOrder(
+            @NonNull CryptoService.Task<WriteQueue.Write> write,
+            @NonNull List<WriteJournal.Record> records
+    ) {
+        return cryptoService.submit(CryptoService.Priority.INTERACTIVE, write)
+                .thenCompose(prepared -> enqueueDurably(prepared, records));
+    }
+
+    /**
+     * 書き込みをジャーナルに記録してからキューに積み、コミット後に記録を解決済みにする
+     */
+    @NonNull
+    private CompletableFuture<WriteQueue.Write> enqueueDurably(
+            @NonNull WriteQueue.Write write,
+            @NonNull List<WriteJournal.Record> records
+    ) {
+        long sequence = records.isEmpty() ? 0 : journal.append(records);
+        CompletableFuture<WriteQueue.Write> committed = writeQueue.enqueue(write);
+        if (sequence > 0) {
+            committed.whenComplete((result, error) -> journal.resolve(sequence));
+        }
+        return committed;
+    }
+
+    /**
+     * 保存前にフィールドを暗号化し、検索用トークンを生成
+     *
+     * @return ブラインドトークン
+     */
+    @WorkerThread
+    @NonNull
+    private long[] sealFields(@NonNull PasswordEntry entry) throws CryptoManager.CryptoException {
+        entry.setEncryptedUsername(encryptField(entry.getUsername()));
+        entry.setEncryptedUrl(encryptField(entry.getUrl()));
+        entry.setEncryptedNotes(encryptField(entry.getNotes()));
+        entry.setLegacyUsername(null);
+        entry.setLegacyUrl(null);
+        entry.setLegacyNotes(null);
+        tagKeyId(entry);
+        return indexTokensFor(entry, entry.getKeyId());
+    }
+
+    /**
+     * 暗号文ヘッダーの鍵IDをエントリに記録
      */
-    public void deleteById(@NonNull String id) {
-        executor.execute(() -> {
+    private static void tagKeyId(@NonNull PasswordEntry entry) {
+        byte[] encrypted = entry.getEncryptedPassword();
+        if (encrypted != null && encrypted.length > 0) {
+            entry.setKeyId(CiphertextFormat.keyIdOf(encrypted));
+        }
+    }
+
+    // ==================== 一括書き込み操作 ====================
+
+    /**
+     * 複数のパスワードを1つのトランザクションで挿入
+     *
+     * <p>インポートなどで使用する。暗号化はトランザクションの外で先に行う。
+     * いずれかのエントリの暗号化に失敗した場合は何も書き込まない。</p>
+     *
+     * @param entries パスワードエントリ
+     * @return コミット時に完了するFuture
+     */
+    @NonNull
+    public CompletableFuture<Void> insertAll(@NonNull List<PasswordEntry> entries) {
+        Log.d(TAG, "Password batch insert queued: " + entries.size());
+        EntriesWrite write = new EntriesWrite(entries, false, passwordDao::insertAll);
+        return enqueueInOrder(() -> write, Collections.emptyList()).thenApply(committed -> null);
+    }
+
+    /**
+     * 複数のパスワードを1つのトランザクションで挿入、または既存のものを更新
+     *
+     * <p>同じIDのエントリがあれば更新する（インポートの再実行など）。</p>
+     *
+     * @param entries パスワードエントリ
+     * @return コミット時に完了するFuture
+     */
+    @NonNull
+    public CompletableFuture<Void> upsertAll(@NonNull List<PasswordEntry> entries) {
+        Log.d(TAG, "Password batch upsert queued: " + entries.size());
+        EntriesWrite write = new EntriesWrite(entries, false, passwordDao::upsertAll);
+        return enqueueInOrder(() -> write, Collections.emptyList()).thenApply(committed -> null);
+    }
+
+    /**
+     * 複数のパスワードを1つのトランザクションで更新
+     *
+     * @param entries パスワードエントリ
+     * @return コミット時に完了するFuture
+     */
+    @NonNull
+    public CompletableFuture<Void> updateAll(@NonNull List<PasswordEntry> entries) {
+        Log.d(TAG, "Password batch update queued: " + entries.size());
+        EntriesWrite write = new EntriesWrite(entries, true, passwordDao::updateAll);
+        return enqueueInOrder(() -> write, Collections.emptyList()).thenApply(committed -> null);
+    }
+
+    /**
+     * 複数のIDでパスワードを1つのトランザクションで削除
+     *
+     * @param ids エントリID
+     * @return コミット時に完了するFuture
+     */
+    @NonNull
+    public CompletableFuture<Void> deleteByIds(@NonNull Collection<String> ids) {
+        List<String> batch = new ArrayList<>(ids);
+        Log.d(TAG, "Password batch delete queued: " + batch.size());
+        List<WriteJournal.Record> records = new ArrayList<>(batch.size());
+        for (String id : batch) {
+            records.add(WriteJournal.Record.delete(id));
+        }
+        return enqueueInOrder(() -> new WriteQueue.Write(null) {
+            @Override
+            void apply() {
+                passwordDao.deleteByIds(batch);
+            }
+        }, records).thenApply(committed -> null);
+    }
+
+    /**
+     * 複数のパスワードのカテゴリを1つのトランザクションで変更
+     *
+     * <p>カテゴリは平文の列のため、再暗号化は行わない。</p>
+     *
+     * @param ids エントリID
+     * @param category 変更後のカテゴリ名（nullの場合は未分類）
+     * @return コミット時に完了するFuture
+     */
+    @NonNull
+    public CompletableFuture<Void> moveToCategory(@NonNull Collection<String> ids, @Nullable String category) {
+        List<String> batch = new ArrayList<>(ids);
+        Log.d(TAG, "Password batch move queued: " + batch.size());
+        long updatedAt = System.currentTimeMillis();
+        List<WriteJournal.Record> records = new ArrayList<>(batch.size());
+        for (String id : batch) {
+            records.add(WriteJournal.Record.move(id, category, updatedAt));
+        }
+        return enqueueInOrder(() -> new WriteQueue.Write(null) {
+            @Override
+            void apply() {
+                passwordDao.moveToCategory(batch, category, updatedAt);
+            }
+        }, records).thenApply(committed -> null);
+    }
+
+    // ==================== 書き込みキューの処理 ====================
+
+    /**
+     * コミットした書き込みのエントリを取得（削除にまとめられた場合はnull）
+     */
+    @Nullable
+    private static PasswordEntry committedEntry(@NonNull WriteQueue.Write committed) {
+        return committed instanceof EntryWrite ? ((EntryWrite) committed).entry : null;
+    }
+
+    /**
+     * エントリの挿入・更新
+     *
+     * <p>コミット前に同じエントリの更新が続いた場合は後の内容にまとめる
+     * （挿入に続く更新は、更新後の内容での挿入になる）。</p>
+     */
+    private final class EntryWrite extends WriteQueue.Write {
+
+        private final PasswordEntry entry;
+        private final boolean insert;
+        private final long[] tokens;
+
+        /**
+         * @param entry フィールドを暗号化済みのエントリ
+         * @param tokens 検索用ブラインドトークン
+         */
+        EntryWrite(@NonNull PasswordEntry entry, boolean insert, @NonNull long[] tokens) {
+            super(entry.getId());
+            this.entry = entry;
+            this.insert = insert;
+            this.tokens = tokens;
+        }
+
+        @Override
+        void apply() {
+            if (insert) {
+                passwordDao.insert(entry);
+            } else {
+                passwordDao.update(entry);
+            }
+            searchTokenDao.replaceForEntry(entry.getId(), tokens);
+        }
+
+        @Nullable
+        @Override
+        WriteQueue.Write coalesce(@NonNull WriteQueue.Write newer) {
+            if (newer instanceof EntryWrite && !((EntryWrite) newer).insert) {
+                EntryWrite update = (EntryWrite) newer;
+                return new EntryWrite(update.entry, insert, update.tokens);
+            }
+            if (newer instanceof DeleteWrite) {
+                // 削除されるエントリへの書き込みは不要
+                return newer;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * エントリの削除（検索用トークンは外部キーにより連鎖削除される）
+     */
+    private final class DeleteWrite extends WriteQueue.Write {
+
+        private final String id;
+
+        DeleteWrite(@NonNull String id) {
+            super(id);
+            this.id = id;
+        }
+
+        @Override
+        void apply() {
             passwordDao.deleteById(id);
-            Log.d(TAG, "Password deleted by ID: " + id);
-        });
+        }
+    }
+
+    /**
+     * 複数のエントリの一括書き込み（他の書き込みとはまとめない）
+     */
+    private final class EntriesWrite extends WriteQueue.Write {
+
+        private final List<PasswordEntry> entries;
+        private final boolean touch;
+        private final Consumer<List<PasswordEntry>> write;
+        private List<long[]> tokens;
+
+        /**
+         * @param touch 更新日時を現在時刻にするか
+         * @param write DAOの一括書き込み
+         */
+        EntriesWrite(
+                @NonNull List<PasswordEntry> entries,
+                boolean touch,
+                @NonNull Consumer<List<PasswordEntry>> write
+        ) {
+            super(null);
+            this.entries = new ArrayList<>(entries);
+            this.touch = touch;
+            this.write = write;
+        }
+
+        @Override
+        void prepare() throws CryptoManager.CryptoException {
+            List<long[]> sealed = new ArrayList<>(entries.size());
+            for (PasswordEntry entry : entries) {
+                if (touch) {
+                    entry.updateTimestamp();
+                }
+                sealed.add(sealFields(entry));
+            }
+            tokens = sealed;
+        }
+
+        @Override
+        void apply() {
+            write.accept(entries);
+            for (int i = 0; i < entries.size(); i++) {
+                searchTokenDao.replaceForEntry(entries.get(i).getId(), tokens.get(i));
+            }
+        }
+    }
+
+    /**
+     * 書き込みスレッドで単独のトランザクションとして実行する処理
+     */
+    private static final class ExclusiveWrite<T> extends WriteQueue.Write {
+
+        private final Supplier<T> task;
+        private volatile T result;
+
+        ExclusiveWrite(@NonNull Supplier<T> task) {
+            super(null);
+            this.task = task;
+        }
+
+        @Override
+        boolean isExclusive() {
+            return true;
+        }
+
+        @Override
+        void apply() {
+            result = task.get();
+        }
+    }
+
+    // ==================== セッション ====================
+
+    /**
+     * 暗号処理のセッションをクリア
+     *
+     * <p>ロック時に呼び出し、キャッシュした鍵の参照とプール中のCipherを破棄する。
+     * リポジトリ自体は破棄せず、アンロック後に鍵を再解決して使い続ける。</p>
+     */
+    public void clearCryptoSession() {
+        cryptoManager.clearSession();
+    }
+
+    // ==================== 鍵ローテーション ====================
+
+    /**
+     * マスター鍵のローテーションを開始
+     *
+     * <p>新しい世代の鍵を作成し、既存エントリをバックグラウンドで再暗号化する。
+     * 再暗号化中も新旧どちらの鍵のエントリも読み出せる。すべてのエントリの
+     * 移行後に旧世代の鍵を削除する。KeyStoreでの鍵生成を伴うため、
+     * バックグラウンドスレッドから呼び出すこと。</p>
+     *
+     * @throws CryptoManager.CryptoException 鍵の生成に失敗
+     */
+    @WorkerThread
+    public void rotateMasterKey() throws CryptoManager.CryptoException {
+        int keyId = cryptoManager.rotateMasterKey();
+        keyRotationWorker.start(keyId);
+    }
+
+    /**
+     * 鍵ローテーションが進行中かチェック
+     *
+     * @return true: 進行中（再暗号化が未完了）, false: 進行中でない
+     */
+    public boolean isKeyRotationInProgress() {
+        return keyRotationWorker.isPending();
+    }
+
+    /**
+     * 受け付け済みのすべての書き込みのコミット後に、書き込みスレッドで処理を実行
+     *
+     * <p>優先レーンで暗号化中の書き込みやキューで待機中の書き込みを含め、
+     * 呼び出し前に受け付けた書き込みがコミット（または失敗）してから、
+     * 単独のトランザクション内で実行する。実行中は他の書き込みが割り込まない。</p>
+     *
+     * @param task 書き込みスレッドで実行する処理
+     * @return 処理の結果で完了するFuture
+     */
+    @NonNull
+    <T> CompletableFuture<T> runAfterPendingWrites(@NonNull Supplier<T> task) {
+        ExclusiveWrite<T> write = new ExclusiveWrite<>(task);
+        return enqueueInOrder(() -> write, Collections.emptyList()).thenApply(committed -> write.result);
+    }
+
+    /**
+     * コミット待ち・再適用待ちの書き込みがあるかチェック
+     *
+     * @return true: 未解決の書き込みあり, false: なし
+     */
+    boolean hasUnresolvedWrites() {
+        return journal.hasOutstanding();
     }
 
     // ==================== 暗号化ヘルパー ====================
 
+    /**
+     * 表示用にユーザー名・URL・メモを復号してエントリに設定
+     *
+     * <p>復号に失敗したフィールドはnullとし、他のフィールドの表示は継続する。</p>
+     *
+     * @param entry パスワードエントリ
+     */
+    @WorkerThread
+    private void revealFields(@NonNull PasswordEntry entry) {
+        try {
+            decryptFields(entry);
+        } catch (CryptoManager.CryptoException e) {
+            Log.w(TAG, "Failed to decrypt fields: " + entry.getId(), e);
+            entry.setUsername(revealField(entry.getEncryptedUsername(), entry.getLegacyUsername()));
+            entry.setUrl(revealField(entry.getEncryptedUrl(), entry.getLegacyUrl()));
+            entry.setNotes(revealField(entry.getEncryptedNotes(), entry.getLegacyNotes()));
+        }
+    }
+
+    @Nullable
+    private String revealField(@Nullable byte[] encrypted, @Nullable String legacy) {
+        try {
+            return decryptField(encrypted, legacy);
+        } catch (CryptoManager.CryptoException e) {
+            return null;
+        }
+    }
+
+    /**
+     * ユーザー名・URL・メモを復号してエントリに設定
+     *
+     * <p>暗号化前の行は legacy_* 列の平文を使用する。</p>
+     *
+     * @param entry パスワードエントリ
+     * @throws CryptoManager.CryptoException いずれかのフィールドの復号に失敗
+     */
+    @WorkerThread
+    void decryptFields(@NonNull PasswordEntry entry) throws CryptoManager.CryptoException {
+        entry.setUsername(decryptField(entry.getEncryptedUsername(), entry.getLegacyUsername()));
+        entry.setUrl(decryptField(entry.getEncryptedUrl(), entry.getLegacyUrl()));
+        entry.setNotes(decryptField(entry.getEncryptedNotes(), entry.getLegacyNotes()));
+    }
+
+    @Nullable
+    private String decryptField(@Nullable byte[] encrypted, @Nullable String legacy)
+            throws CryptoManager.CryptoException {
+        if (encrypted == null) {
+            return legacy;
+        }
+        return cryptoManager.decrypt(encrypted);
+    }
+
+    /**
+     * ユーザー名・URL・メモなどの任意項目を暗号化
+     *
+     * @param value 平文（nullまたは空の場合は保存しない）
+     * @return バイナリ形式の暗号文（値がない場合はnull）
+     * @throws CryptoManager.CryptoException 暗号化に失敗
+     */
+    @Nullable
+    byte[] encryptField(@Nullable String value) throws CryptoManager.CryptoException {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return cryptoManager.encrypt(value);
+    }
+
+    /**
+     * 復号済みのエントリから検索用トークンを生成
+     *
+     * @param entry フィールドを復号済みのエントリ
+     * @param keyId トークンの生成に使用するデータ鍵ID（エントリの鍵ID）
+     * @return ブラインドトークン
+     * @throws CryptoManager.CryptoException 鍵の取得に失敗
+     */
+    @WorkerThread
+    @NonNull
+    long[] indexTokensFor(@NonNull PasswordEntry entry, int keyId) throws CryptoManager.CryptoException {
+        return cryptoManager.indexTokens(keyId,
+                entry.getTitle(), entry.getUsername(), entry.getUrl(), entry.getNotes());
+    }
+
     /**
      * パスワードを暗号化
      *
      * @param plainPassword 平文パスワード
-     * @return Base64エンコードされた暗号化パスワード
+     * @return バイナリ形式の暗号化パスワード
      * @throws CryptoManager.CryptoException 暗号化に失敗
      */
+    @WorkerThread
     @NonNull
-    public String encryptPassword(@NonNull String plainPassword) throws CryptoManager.CryptoException {
+    public byte[] encryptPassword(@NonNull String plainPassword) throws CryptoManager.CryptoException {
         return cryptoManager.encrypt(plainPassword);
     }
 
     /**
-     * パスワードを復号
+     * パスワードを暗号処理スレッドで暗号化
+     *
+     * <p>UIスレッドから呼び出してよい。保存操作の結果を待つ用途のため優先レーンで実行する。</p>
+     *
+     * @param plainPassword 平文パスワード
+     * @return バイナリ形式の暗号化パスワードのFuture
+     */
+    @NonNull
+    public CompletableFuture<byte[]> encryptPasswordAsync(@NonNull String plainPassword) {
+        return cryptoService.submit(CryptoService.Priority.INTERACTIVE,
+                () -> cryptoManager.encrypt(plainPassword));
+    }
+
+    /**
+     * エントリのパスワードを復号
      *
-     * @param encryptedPassword 暗号化パスワード
+     * <p>BLOB列への移行が完了していないエントリは旧形式の暗号文から復号する。</p>
+     *
+     * @param entry パスワードエントリ
      * @return 平文パスワード
      * @throws CryptoManager.CryptoException 復号に失敗
      */
+    @WorkerThread
+    @NonNull
+    public String decryptPassword(@NonNull PasswordEntry entry) throws CryptoManager.CryptoException {
+        byte[] encrypted = entry.getEncryptedPassword();
+        if (encrypted != null) {
+            return cryptoManager.decrypt(encrypted);
+        }
+
+        String legacy = entry.getLegacyEncryptedPassword();
+        if (legacy != null) {
+            return cryptoManager.decryptLegacy(legacy);
+        }
+        throw new CryptoManager.CryptoException("Entry has no encrypted password: " + entry.getId());
+    }
+
+    /**
+     * エントリのパスワードを暗号処理スレッドで復号
+     *
+     * <p>UIスレッドから呼び出してよい。表示中の画面向けのため優先レーンで実行する。</p>
+     *
+     * @param entry パスワードエントリ
+     * @return 平文パスワードのFuture
+     */
     @NonNull
-    public String decryptPassword(@NonNull String encryptedPassword) throws CryptoManager.CryptoException {
-        return cryptoManager.decrypt(encryptedPassword);
+    public CompletableFuture<String> decryptPasswordAsync(@NonNull PasswordEntry entry) {
+        return cryptoService.submit(CryptoService.Priority.INTERACTIVE, () -> decryptPassword(entry));
+    }
+
+    /**
+     * パスワードを一括復号
+     *
+     * <p>エクスポート・ヘルスチェックなど多数のエントリを扱う処理向け。
+     * 復号に失敗したエントリは結果に記録され、他のエントリの処理は継続する。
+     * ブロッキングのため、バックグラウンドスレッドから呼び出すこと。</p>
+     *
+     * @param entries パスワードエントリ
+     * @param listener 進捗リスナー
+     * @return エントリと同じ順序の平文パスワード
+     * @throws InterruptedException 処理中に割り込まれた
+     */
+    @WorkerThread
+    @NonNull
+    public BatchResult<String> decryptAll(
+            @NonNull List<PasswordEntry> entries,
+            @Nullable BatchCryptoProcessor.ProgressListener listener
+    ) throws InterruptedException {
+        return batchProcessor.processAll(entries, this::decryptPassword, listener);
+    }
+
+    /**
+     * パスワードを一括暗号化
+     *
+     * <p>インポートなど多数のパスワードを扱う処理向け。
+     * ブロッキングのため、バックグラウンドスレッドから呼び出すこと。</p>
+     *
+     * @param plainPasswords 平文パスワード
+     * @param listener 進捗リスナー
+     * @return 入力と同じ順序の暗号化パスワード
+     * @throws InterruptedException 処理中に割り込まれた
+     */
+    @WorkerThread
+    @NonNull
+    public BatchResult<byte[]> encryptAll(
+            @NonNull List<String> plainPasswords,
+            @Nullable BatchCryptoProcessor.ProgressListener listener
+    ) throws InterruptedException {
+        return batchProcessor.encryptAll(plainPasswords, password -> password, listener);
+    }
+
+    /**
+     * 検索語のブラインドトークン
+     */
+    private static final class TokenQuery {
+        final String match;
+        final long[] tokens;
+        final int tokenCount;
+        final long[] truncatedTokens;
+
+        TokenQuery(String match, long[] tokens, int tokenCount, long[] truncatedTokens) {
+            this.match = match;
+            this.tokens = tokens;
+            this.tokenCount = tokenCount;
+            this.truncatedTokens = truncatedTokens;
+        }
+
+        /**
+         * タイトルの全文検索のみの条件（ブラインドトークンを求められなかった場合）
+         */
+        @NonNull
+        static TokenQuery titleOnly(@NonNull String query) {
+            return new TokenQuery(SearchTokenizer.prefixMatchQuery(query), new long[0], 0, new long[0]);
+        }
     }
 }
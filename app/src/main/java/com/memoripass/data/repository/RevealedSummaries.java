@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.memoripass.data.model.PasswordChanges;
+import com.memoripass.data.model.PasswordSummary;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 復号済みの要約（一覧のメモリ上のモデル）
+ *
+ * <p>一覧に読み込んだエントリの要約を、ユーザー名を復号した状態でIDごとに保持する。
+ * ページの再読み込み時は変更履歴の番号が同じ要約を再利用し、変更のあったエントリのみを復号する。</p>
+ *
+ * <p>特徴:</p>
+ * <ul>
+ *   <li>変更履歴の差分（{@link PasswordChanges}）を {@link #apply(PasswordChanges)} で反映する
+ *       （削除されたエントリを破棄し、変更されたエントリを置き換える）</li>
+ *   <li>同じエントリは番号の新しい要約のみを残す（再読み込みと差分の順序が前後しても古い内容に戻らない）</li>
+ *   <li>複数の暗号処理スレッドから同時に使用できる</li>
+ * </ul>
+ *
+ * @since 1.1
+ */
+public final class RevealedSummaries {
+
+    private final Map<String, PasswordSummary> summaries = new ConcurrentHashMap<>();
+    private volatile long revision = -1;
+
+    /**
+     * 復号済みの要約を取得
+     *
+     * @param summary データベースから読み込んだ要約
+     * @return 同じ番号の復号済みの要約（なければnull）
+     */
+    @Nullable
+    public PasswordSummary get(@NonNull PasswordSummary summary) {
+        PasswordSummary revealed = summaries.get(summary.getId());
+        return revealed != null && revealed.getRevision() == summary.getRevision() ? revealed : null;
+    }
+
+    /**
+     * 復号した要約を保持
+     *
+     * @param revealed ユーザー名を復号した要約
+     */
+    public void put(@NonNull PasswordSummary revealed) {
+        summaries.merge(revealed.getId(), revealed,
+                (current, candidate) -> candidate.getRevision() >= current.getRevision() ? candidate : current);
+    }
+
+    /**
+     * 保持しているか
+     *
+     * @param id エントリID
+     * @return true: 保持している
+     */
+    public boolean contains(@NonNull String id) {
+        return summaries.containsKey(id);
+    }
+
+    /**
+     * 差分を反映
+     *
+     * @param changes {@link #getRevision()} 以降の差分
+     */
+    public void apply(@NonNull PasswordChanges changes) {
+        for (String id : changes.getDeleted()) {
+            summaries.remove(id);
+        }
+        for (PasswordSummary summary : changes.getUpdated()) {
+            put(summary);
+        }
+        advanceTo(changes.getRevision());
+    }
+
+    /**
+     * 反映済みの番号を進める（差分を取得する必要がない場合）
+     *
+     * @param latest 最新の変更の番号
+     */
+    public synchronized void advanceTo(long latest) {
+        if (latest > revision) {
+            revision = latest;
+        }
+    }
+
+    /**
+     * 反映済みの変更の番号を取得
+     *
+     * @return 番号（まだ基準がない場合は負の値）
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * 保持している要約の数を取得
+     *
+     * @return 要約の数
+     */
+    public int size() {
+        return summaries.size();
+    }
+}
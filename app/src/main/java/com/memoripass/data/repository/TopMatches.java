@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.memoripass.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 検索候補から上位の一致を集める
+ *
+ * <p>ブラインドトークンの一致は部分一致の必要条件にすぎないため、候補の一部は
+ * 復号後の確認で除外される。候補を上位の件数だけ読み込むと、一致するエントリが
+ * 残っていても結果が件数に満たないことがある。一致が件数に達するか候補が尽きるまで、
+ * 関連度順の続きの候補を1ページずつ読み込む。</p>
+ *
+ * @since 1.1
+ */
+final class TopMatches {
+
+    /**
+     * 続きの候補の読み込み
+     *
+     * @param <T> 候補の型
+     */
+    interface Pages<T> {
+
+        /**
+         * 続きの候補を読み込む
+         *
+         * @param offset 読み込み済みの候補数
+         * @return 続きの候補（最大1ページ分）
+         */
+        @WorkerThread
+        @NonNull
+        List<T> load(int offset);
+    }
+
+    private TopMatches() {
+        // インスタンス化禁止
+    }
+
+    /**
+     * 一致した候補を関連度順に集める
+     *
+     * @param firstPage 最初のページの候補
+     * @param pageSize 1ページの候補数（これに満たないページで候補が尽きたとみなす）
+     * @param limit 最大件数
+     * @param pages 続きの候補の読み込み
+     * @param matches 候補が一致するか（復号して確認する）
+     * @param cancelled 結果が不要になったか（trueの場合はその時点で打ち切る）
+     * @param <T> 候補の型
+     * @return 一致した候補（最大 {@code limit} 件、候補の順序のまま）
+     */
+    @WorkerThread
+    @NonNull
+    static <T> List<T> collect(
+            @NonNull List<T> firstPage,
+            int pageSize,
+            int limit,
+            @NonNull Pages<T> pages,
+            @NonNull Predicate<T> matches,
+            @NonNull BooleanSupplier cancelled
+    ) {
+        List<T> matched = new ArrayList<>(Math.min(limit, firstPage.size()));
+        List<T> page = firstPage;
+        int offset = 0;
+        while (true) {
+            for (T candidate : page) {
+                if (matches.test(candidate)) {
+                    matched.add(candidate);
+                    if (matched.size() >= limit) {
+                        return matched;
+                    }
+                }
+            }
+            offset += page.size();
+            if (page.isEmpty() || page.size() < pageSize || cancelled.getAsBoolean()) {
+                return matched;
+            }
+            page = pages.load(offset);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.data.repository;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.memoripass.crypto.CryptoManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 書き込みをまとめてコミットするキュー
+ *
+ * <p>短時間に続く書き込み（インポート中の編集、連続した操作など）を一定時間
+ * （{@link #FLUSH_DELAY_MS}）または一定件数（{@link #MAX_BATCH_SIZE}）ごとに集め、
+ * 1つのトランザクションでコミットする。コミット回数（ディスクへの同期）を減らす。</p>
+ *
+ * <p>特徴:</p>
+ * <ul>
+ *   <li>同じキー（エントリID）への書き込みがコミット前に続いた場合、
+ *       {@link Write#coalesce(Write)} で1つにまとめる（古い更新は書き込まない）</li>
+ *   <li>キーを持たない書き込み（一括削除など）は境界となり、それより前の書き込みとはまとめない</li>
+ *   <li>排他の書き込み（{@link Write#isExclusive()}）は、先行する書き込みのコミット後に
+ *       単独のトランザクションで実行する</li>
+ *   <li>暗号化などの準備（{@link Write#prepare()}）はトランザクションの外で行い、
+ *       準備に失敗した書き込みのみを除外する</li>
+ *   <li>トランザクション内の書き込み（{@link Write#apply()}）が失敗した場合は、
+ *       1件ずつのトランザクションでやり直し、失敗した書き込みのみを失敗させる</li>
+ *   <li>書き込みごとのFutureは、コミット後（またはトランザクションの失敗時）に1回だけ完了する。
+ *       まとめられた書き込みのFutureは、まとめた先の書き込みと同時に完了し、
+ *       実際にコミットされた書き込みを結果とする</li>
+ * </ul>
+ *
+ * <p>書き込みは単一のスレッドで順に実行する。</p>
+ *
+ * @since 1.1
+ */
+final class WriteQueue {
+
+    private static final String TAG = "WriteQueue";
+
+    // 書き込みを集める時間（ミリ秒）
+    static final long FLUSH_DELAY_MS = 50;
+
+    // この件数に達したら待たずにコミットする
+    static final int MAX_BATCH_SIZE = 64;
+
+    /**
+     * キューに積む書き込み
+     */
+    abstract static class Write {
+
+        @Nullable
+        private final String key;
+
+        /**
+         * コンストラクタ
+         *
+         * @param key まとめる単位のキー（nullの場合はまとめない）
+         */
+        Write(@Nullable String key) {
+            this.key = key;
+        }
+
+        @Nullable
+        final String key() {
+            return key;
+        }
+
+        /**
+         * 他の書き込みと同じトランザクションにまとめないかどうか
+         *
+         * <p>trueの場合、先行する書き込みがすべてコミット（または失敗）してから
+         * 単独のトランザクションで実行する。先行する書き込みのロールバックに
+         * 巻き込まれないため、トランザクション外の状態（鍵など）を変更できる。</p>
+         *
+         * @return true: 単独で実行する, false: まとめて実行できる
+         */
+        boolean isExclusive() {
+            return false;
+        }
+
+        /**
+         * トランザクションの外で行う準備（暗号化など）
+         *
+         * @throws CryptoManager.CryptoException 準備に失敗（この書き込みのみ除外する）
+         */
+        @WorkerThread
+        void prepare() throws CryptoManager.CryptoException {
+        }
+
+        /**
+         * トランザクション内で行う書き込み
+         */
+        @WorkerThread
+        abstract void apply();
+
+        /**
+         * コミット前の同じキーの書き込みに、後続の書き込みをまとめる
+         *
+         * @param newer 後続の書き込み
+         * @return 両方を置き換える書き込み（まとめられない場合はnull）
+         */
+        @Nullable
+        Write coalesce(@NonNull Write newer) {
+            return null;
+        }
+    }
+
+    /**
+     * コミット待ちの書き込みと、その完了を待つFuture
+     */
+    private static final class Pending {
+        Write write;
+        final List<CompletableFuture<Write>> futures = new ArrayList<>(1);
+
+        Pending(@NonNull Write write, @NonNull CompletableFuture<Write> future) {
+            this.write = write;
+            this.futures.add(future);
+        }
+    }
+
+    private final Consumer<Runnable> transactions;
+    private final long flushDelayMs;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+    private List<Pending> queue = new ArrayList<>();
+    // 直近の境界以降のキーごとの書き込み
+    private final Map<String, Pending> latestByKey = new HashMap<>();
+    private boolean flushScheduled;
+
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * コンストラクタ
+     *
+     * @param transactions 処理をトランザクション内で実行する（{@code database::runInTransaction}）
+     */
+    WriteQueue(@NonNull Consumer<Runnable> transactions) {
+        this(transactions, FLUSH_DELAY_MS, MAX_BATCH_SIZE);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param transactions 処理をトランザクション内で実行する
+     * @param flushDelayMs 書き込みを集める時間（ミリ秒）
+     * @param maxBatchSize 待たずにコミットする件数
+     */
+    @VisibleForTesting
+    WriteQueue(@NonNull Consumer<Runnable> transactions, long flushDelayMs, int maxBatchSize) {
+        this.transactions = transactions;
+        this.flushDelayMs = flushDelayMs;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "password-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 書き込みをキューに積む
+     *
+     * @param write 書き込み
+     * @return コミットした書き込み（まとめられた場合はまとめた先の書き込み）で完了するFuture
+     *         （準備・トランザクションに失敗した場合はその例外で失敗）
+     */
+    @NonNull
+    CompletableFuture<Write> enqueue(@NonNull Write write) {
+        CompletableFuture<Write> future = new CompletableFuture<>();
+        synchronized (lock) {
+            String key = write.key();
+            Pending previous = key != null ? latestByKey.get(key) : null;
+            Write merged = previous != null ? previous.write.coalesce(write) : null;
+            if (merged != null) {
+                previous.write = merged;
+                previous.futures.add(future);
+                coalescedCount.incrementAndGet();
+            } else {
+                Pending pending = new Pending(write, future);
+                queue.add(pending);
+                if (key != null) {
+                    latestByKey.put(key, pending);
+                } else {
+                    latestByKey.clear();
+                }
+            }
+
+            if (queue.size() >= maxBatchSize) {
+                executor.execute(this::flush);
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * コミットしたトランザクション数を取得
+     *
+     * @return コミット数
+     */
+    long getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * 後続の書き込みにまとめた書き込み数を取得
+     *
+     * @return まとめた書き込み数
+     */
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * 溜まった書き込みを1つのトランザクションでコミット
+     */
+    @WorkerThread
+    private void flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = queue;
+            queue = new ArrayList<>();
+            latestByKey.clear();
+            flushScheduled = false;
+        }
+
+        // 排他の書き込みの前後でトランザクションを分ける
+        List<Pending> segment = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (pending.write.isExclusive()) {
+                commitBatch(segment);
+                segment = new ArrayList<>();
+                commitBatch(Collections.singletonList(pending));
+            } else {
+                segment.add(pending);
+            }
+        }
+        commitBatch(segment);
+    }
+
+    /**
+     * 書き込みを準備し、1つのトランザクションでコミット
+     */
+    @WorkerThread
+    private void commitBatch(@NonNull List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Pending> prepared = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            try {
+                pending.write.prepare();
+                prepared.add(pending);
+            } catch (CryptoManager.CryptoException | RuntimeException e) {
+                Log.e(TAG, "Write not prepared: " + pending.write.key(), e);
+                completeAll(pending, e);
+            }
+        }
+        if (prepared.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactions.accept(() -> {
+                for (Pending pending : prepared) {
+                    pending.write.apply();
+                }
+            });
+        } catch (RuntimeException e) {
+            if (prepared.size() == 1) {
+                Log.e(TAG, "Write rolled back: " + prepared.get(0).write.key(), e);
+                completeAll(prepared.get(0), e);
+                return;
+            }
+            // 失敗した書き込みを特定するため、1件ずつのトランザクションでやり直す
+            Log.w(TAG, "Write batch rolled back, retrying one by one: " + prepared.size(), e);
+            for (Pending pending : prepared) {
+                commitAlone(pending);
+            }
+            return;
+        }
+
+        commitCount.incrementAndGet();
+        Log.d(TAG, "Write batch committed: " + prepared.size());
+        for (Pending pending : prepared) {
+            completeAll(pending, null);
+        }
+    }
+
+    /**
+     * 書き込みを単独のトランザクションでコミット
+     *
+     * <p>まとめたトランザクションがロールバックされた後に使う。
+     * 失敗した書き込みのFutureのみを失敗させる。</p>
+     */
+    @WorkerThread
+    private void commitAlone(@NonNull Pending pending) {
+        try {
+            transactions.accept(pending.write::apply);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Write rolled back: " + pending.write.key(), e);
+            completeAll(pending, e);
+            return;
+        }
+        commitCount.incrementAndGet();
+        completeAll(pending, null);
+    }
+
+    private static void completeAll(@NonNull Pending pending, @Nullable Throwable error) {
+        for (CompletableFuture<Write> future : pending.futures) {
+            if (error == null) {
+                future.complete(pending.write);
+            } else {
+                future.completeExceptionally(error);
+            }
+        }
+    }
+}
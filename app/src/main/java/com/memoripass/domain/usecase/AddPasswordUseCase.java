@@ -20,11 +20,12 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 
-import com.memoripass.crypto.CryptoManager;
 import com.memoripass.data.model.PasswordEntry;
 import com.memoripass.data.repository.PasswordRepository;
 import com.memoripass.domain.model.Password;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * パスワード追加ユースケース
  *
@@ -36,7 +37,7 @@ import com.memoripass.domain.model.Password;
  *   <li>入力バリデーション（タイトル・パスワード必須）</li>
  *   <li>パスワードの暗号化</li>
  *   <li>PasswordEntryエンティティに変換</li>
- *   <li>データベースに保存</li>
+ *   <li>データベースに保存（コミット後に結果を通知）</li>
  * </ol>
  *
  * @since 1.0
@@ -59,21 +60,34 @@ public class AddPasswordUseCase {
     /**
      * パスワードを追加
      *
+     * <p>暗号化は暗号処理スレッドで行い、呼び出し元をブロックしない。
+     * 返すFutureはデータベースへのコミット後に完了する。</p>
+     *
      * @param password パスワードドメインモデル
+     * @return 追加したエントリで完了するFuture（暗号化・保存に失敗した場合は例外で失敗）
      * @throws IllegalArgumentException バリデーションエラー
-     * @throws CryptoManager.CryptoException 暗号化エラー
      */
-    public void execute(@NonNull Password password) throws CryptoManager.CryptoException {
+    @NonNull
+    public CompletableFuture<PasswordEntry> execute(@NonNull Password password) {
         Log.d(TAG, "Executing AddPasswordUseCase for: " + password.getTitle());
 
         // ビジネスバリデーション
         validatePassword(password);
 
-        // パスワードを暗号化
-        String encryptedPassword = repository.encryptPassword(password.getPassword());
-        Log.d(TAG, "Password encrypted successfully");
+        // パスワードを暗号化してから保存
+        return repository.encryptPasswordAsync(password.getPassword())
+                .thenCompose(encryptedPassword -> repository.insert(toEntry(password, encryptedPassword)))
+                .thenApply(entry -> {
+                    Log.i(TAG, "Password added successfully: " + password.getId());
+                    return entry;
+                });
+    }
 
-        // PasswordEntryエンティティに変換
+    /**
+     * PasswordEntryエンティティに変換
+     */
+    @NonNull
+    private static PasswordEntry toEntry(@NonNull Password password, @NonNull byte[] encryptedPassword) {
         PasswordEntry entry = new PasswordEntry(
                 password.getId(),
                 password.getTitle(),
@@ -85,10 +99,7 @@ public class AddPasswordUseCase {
         entry.setCategory(password.getCategory());
         entry.setCreatedAt(password.getCreatedAt());
         entry.setUpdatedAt(password.getUpdatedAt());
-
-        // データベースに保存
-        repository.insert(entry);
-        Log.i(TAG, "Password added successfully: " + password.getId());
+        return entry;
     }
 
     /**
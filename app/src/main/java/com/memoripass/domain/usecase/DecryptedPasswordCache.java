@@ -0,0 +1,261 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.domain.usecase;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.memoripass.domain.model.Password;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 復号済みパスワードのキャッシュ（シングルトン）
+ *
+ * <p>詳細画面→編集画面→詳細画面のように同じエントリを続けて開く場合に、
+ * 再クエリ・再復号を省くため、アンロック中のセッションに限り復号結果を保持する。</p>
+ *
+ * <p>仕様:</p>
+ * <ul>
+ *   <li>エントリIDと更新日時（updated_at）の組で照合する。編集・移動で更新日時が
+ *       変わったエントリはヒットしない</li>
+ *   <li>件数上限を超えると最も長く参照されていないエントリから破棄する（LRU）</li>
+ *   <li>一定時間参照されなかったエントリは期限切れとして破棄する</li>
+ *   <li>アプリのロック時（オートロックを含む）に {@link #clear()} で全件破棄する。
+ *       破棄前に開始した復号の結果は {@link #put(Password, long)} で受け付けない</li>
+ *   <li>ヒット・ミス・破棄の件数を取得できる</li>
+ * </ul>
+ *
+ * <p>{@link Password} は平文をStringで保持するため内容をゼロクリアできない。
+ * 破棄時はキャッシュからの参照を外し、以後の回収はGCに委ねる。</p>
+ *
+ * @since 1.1
+ */
+public final class DecryptedPasswordCache {
+
+    private static final String TAG = "DecryptedPasswordCache";
+
+    // 保持する件数の上限（続けて開く画面の分だけあれば足りる）
+    static final int MAX_ENTRIES = 16;
+
+    // 参照されないまま保持する時間の上限（ミリ秒）
+    static final long IDLE_TTL_MS = 2 * 60_000;
+
+    private static final DecryptedPasswordCache INSTANCE = new DecryptedPasswordCache(
+            MAX_ENTRIES, IDLE_TTL_MS, SystemClock::elapsedRealtime);
+
+    private final int maxEntries;
+    private final long idleTtlMs;
+    private final LongSupplier clock;
+
+    // アクセス順のLinkedHashMap（先頭が最も長く参照されていないエントリ）
+    private final LinkedHashMap<String, Slot> slots = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // clear() のたびに進める世代番号
+    private long epoch;
+
+    /**
+     * インスタンスを取得
+     *
+     * @return アプリ全体で共有するキャッシュ
+     */
+    @NonNull
+    public static DecryptedPasswordCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param maxEntries 件数上限
+     * @param idleTtlMs 参照されないまま保持する時間の上限（ミリ秒）
+     * @param clock 現在時刻（ミリ秒、単調増加）
+     */
+    @VisibleForTesting
+    DecryptedPasswordCache(int maxEntries, long idleTtlMs, @NonNull LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.idleTtlMs = idleTtlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * 復号済みパスワードを取得
+     *
+     * @param id エントリID
+     * @param updatedAt エントリの現在の更新日時
+     * @return 復号済みパスワード（未保持・更新日時の不一致・期限切れの場合はnull）
+     */
+    @Nullable
+    public synchronized Password get(@NonNull String id, long updatedAt) {
+        long now = clock.getAsLong();
+        Slot slot = slots.get(id);
+        if (slot == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (slot.password.getUpdatedAt() != updatedAt || now - slot.lastAccess > idleTtlMs) {
+            slots.remove(id);
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        slot.lastAccess = now;
+        hits.incrementAndGet();
+        return slot.password;
+    }
+
+    /**
+     * 現在の世代番号を取得
+     *
+     * <p>復号を開始する前に取得し、{@link #put(Password, long)} に渡す。</p>
+     *
+     * @return 世代番号
+     */
+    public synchronized long epoch() {
+        return epoch;
+    }
+
+    /**
+     * 復号済みパスワードを保持
+     *
+     * <p>復号の開始後に {@link #clear()} された場合（ロックされた場合）は保持しない。</p>
+     *
+     * @param password 復号済みパスワード
+     * @param epoch 復号を開始した時点の世代番号
+     * @return true: 保持した, false: 世代が異なるため破棄した
+     */
+    public synchronized boolean put(@NonNull Password password, long epoch) {
+        if (epoch != this.epoch) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        Slot previous = slots.put(password.getId(), new Slot(password, now));
+        if (previous != null && previous.password != password) {
+            evictions.incrementAndGet();
+        }
+        evictExpired(now);
+        while (slots.size() > maxEntries) {
+            Iterator<Map.Entry<String, Slot>> eldest = slots.entrySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * エントリを破棄（削除時など）
+     *
+     * @param id エントリID
+     */
+    public synchronized void invalidate(@NonNull String id) {
+        if (slots.remove(id) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * 全件を破棄
+     *
+     * <p>アプリのロック時に呼び出す。世代番号を進め、実行中の復号の結果も受け付けない。</p>
+     */
+    public synchronized void clear() {
+        int size = slots.size();
+        slots.clear();
+        epoch++;
+        evictions.addAndGet(size);
+        Log.d(TAG, "Cache cleared: " + size + " entries");
+    }
+
+    /**
+     * 保持件数を取得
+     *
+     * @return 保持件数（期限切れで未破棄の分を含む）
+     */
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    /**
+     * ヒット件数を取得
+     *
+     * @return ヒット件数
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * ミス件数を取得
+     *
+     * @return ミス件数（更新日時の不一致・期限切れを含む）
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * 破棄件数を取得
+     *
+     * @return 件数上限・期限切れ・無効化・ロックで破棄した件数
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * 期限切れのエントリを破棄
+     */
+    private void evictExpired(long now) {
+        Iterator<Slot> iterator = slots.values().iterator();
+        while (iterator.hasNext()) {
+            Slot slot = iterator.next();
+            if (now - slot.lastAccess <= idleTtlMs) {
+                // アクセス順のため、以降はすべて期限内
+                return;
+            }
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * 保持中のパスワードと最終参照時刻
+     */
+    private static final class Slot {
+
+        final Password password;
+        long lastAccess;
+
+        Slot(@NonNull Password password, long lastAccess) {
+            this.password = password;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -22,6 +22,9 @@ import androidx.annotation.NonNull;
 
 import com.memoripass.data.repository.PasswordRepository;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * パスワード削除ユースケース
  *
@@ -54,9 +57,11 @@ public class DeletePasswordUseCase {
      * パスワードを削除
      *
      * @param passwordId パスワードID
+     * @return コミット時に完了するFuture
      * @throws IllegalArgumentException IDが無効
      */
-    public void execute(@NonNull String passwordId) {
+    @NonNull
+    public CompletableFuture<Void> execute(@NonNull String passwordId) {
         Log.d(TAG, "Executing DeletePasswordUseCase for: " + passwordId);
 
         // バリデーション
@@ -65,7 +70,30 @@ public class DeletePasswordUseCase {
         }
 
         // データベースから削除
-        repository.deleteById(passwordId);
-        Log.i(TAG, "Password deleted successfully: " + passwordId);
+        return repository.deleteById(passwordId)
+                .thenRun(() -> Log.i(TAG, "Password deleted successfully: " + passwordId));
+    }
+
+    /**
+     * 複数のパスワードを削除
+     *
+     * <p>1つのトランザクションで削除する（複数選択での削除に使用）。</p>
+     *
+     * @param passwordIds パスワードID
+     * @return コミット時に完了するFuture
+     * @throws IllegalArgumentException IDが指定されていない
+     */
+    @NonNull
+    public CompletableFuture<Void> executeAll(@NonNull Collection<String> passwordIds) {
+        Log.d(TAG, "Executing DeletePasswordUseCase for " + passwordIds.size() + " passwords");
+
+        // バリデーション
+        if (passwordIds.isEmpty()) {
+            throw new IllegalArgumentException("パスワードIDは必須です");
+        }
+
+        int count = passwordIds.size();
+        return repository.deleteByIds(passwordIds)
+                .thenRun(() -> Log.i(TAG, "Passwords deleted successfully: " + count));
     }
 }
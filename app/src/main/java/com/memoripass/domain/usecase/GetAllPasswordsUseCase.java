@@ -19,10 +19,16 @@ package com.memoripass.domain.usecase;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
 
 import com.memoripass.data.model.PasswordEntry;
+import com.memoripass.data.model.PasswordSummary;
 import com.memoripass.data.repository.PasswordRepository;
+import com.memoripass.data.repository.RevealedSummaries;
 
 import java.util.List;
 
@@ -37,6 +43,7 @@ import java.util.List;
  * <ul>
  *   <li>一覧表示ではパスワードを復号しない（パフォーマンスとセキュリティ）</li>
  *   <li>タイトルとユーザー名のみ表示</li>
+ *   <li>ページ単位の一覧は {@link PasswordSummary} を返し、パスワード・URL・メモを読み込まない</li>
  *   <li>パスワードは詳細画面で復号</li>
  * </ul>
  *
@@ -102,4 +109,47 @@ public class GetAllPasswordsUseCase {
 
         return repository.searchPasswords(query);
     }
+
+    /**
+     * パスワード一覧をページ単位で取得
+     *
+     * <p>検索クエリがあれば関連度順の検索結果（カテゴリ指定時はさらに絞り込む）、
+     * なければカテゴリ別、またはすべてのエントリを更新日時降順で返す。</p>
+     *
+     * @param query 検索クエリ（null・空文字の場合は検索しない）
+     * @param category カテゴリ名（null・空文字の場合は絞り込まない）
+     * @param revealed 一覧の復号済みの要約（再読み込み時に変更のない行を復号しない）
+     * @return ページ単位の要約のLiveData
+     */
+    public LiveData<PagingData<PasswordSummary>> executePaged(
+            @Nullable String query,
+            @Nullable String category,
+            @NonNull RevealedSummaries revealed
+    ) {
+        Log.d(TAG, "Executing GetAllPasswordsUseCase (paged) with query: " + query
+                + ", category: " + category);
+
+        boolean hasCategory = category != null && !category.isEmpty();
+        if (query != null && !query.isEmpty()) {
+            LiveData<PagingData<PasswordSummary>> results = repository.searchPagedPasswords(query, revealed);
+            return hasCategory
+                    ? Transformations.map(results, pagingData -> filterByCategory(pagingData, category))
+                    : results;
+        }
+        if (hasCategory) {
+            return repository.getPagedPasswordsByCategory(category, revealed);
+        }
+        return repository.getPagedPasswords(revealed);
+    }
+
+    /**
+     * 検索結果をカテゴリで絞り込む（カテゴリは平文のため復号は不要）
+     */
+    private static PagingData<PasswordSummary> filterByCategory(
+            @NonNull PagingData<PasswordSummary> pagingData,
+            @NonNull String category
+    ) {
+        return PagingDataTransforms.filter(pagingData, Runnable::run,
+                summary -> category.equals(summary.getCategory()));
+    }
 }
@@ -20,25 +20,33 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 
-import com.memoripass.crypto.CryptoManager;
 import com.memoripass.data.model.PasswordEntry;
 import com.memoripass.data.repository.PasswordRepository;
 import com.memoripass.domain.model.Password;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * パスワード取得ユースケース
  *
- * <p>IDでパスワードを取得し、復号する。</p>
+ * <p>IDでパスワードを取得し、復号する。復号は暗号処理スレッドで行い、
+ * メインスレッドでは実行しない。</p>
  *
  * <p>処理フロー:</p>
  * <ol>
- *   <li>データベースからPasswordEntryを取得</li>
- *   <li>暗号化されたパスワードを復号</li>
- *   <li>Passwordドメインモデルに変換</li>
+ *   <li>データベースからエントリの更新日時を取得</li>
+ *   <li>{@link DecryptedPasswordCache} に同じ更新日時の復号結果があればそれを返す</li>
+ *   <li>なければPasswordEntryを取得し、暗号化されたパスワードを復号</li>
+ *   <li>Passwordドメインモデルに変換し、キャッシュに保持</li>
  * </ol>
  *
+ * <p>詳細画面は {@link #executeMetadata(String)} でパスワード以外の項目のみを取得し、
+ * 表示・コピーの操作時に {@link #reveal(PasswordEntry)} でパスワードを復号する。</p>
+ *
  * @since 1.0
  */
 public class GetPasswordUseCase {
@@ -46,6 +54,7 @@ public class GetPasswordUseCase {
     private static final String TAG = "GetPasswordUseCase";
 
     private final PasswordRepository repository;
+    private final DecryptedPasswordCache cache;
 
     /**
      * コンストラクタ
@@ -54,13 +63,14 @@ public class GetPasswordUseCase {
      */
     public GetPasswordUseCase(@NonNull PasswordRepository repository) {
         this.repository = repository;
+        this.cache = DecryptedPasswordCache.getInstance();
     }
 
     /**
      * パスワードを取得（LiveData）
      *
      * <p>LiveDataを返すため、ViewModelから監視可能。
-     * データベース変更時に自動的に更新される。</p>
+     * エントリの更新日時が変わった時に自動的に更新される。</p>
      *
      * @param passwordId パスワードID
      * @return パスワードドメインモデルのLiveData
@@ -73,45 +83,156 @@ public class GetPasswordUseCase {
             throw new IllegalArgumentException("パスワードIDは必須です");
         }
 
-        // PasswordEntryをPasswordに変換（LiveData変換）
-        return Transformations.map(
-                repository.getPasswordById(passwordId),
-                this::convertToPassword
+        // 更新日時が変わった時だけ読み込み直す（他のエントリの変更では再通知しない）
+        return Transformations.switchMap(
+                Transformations.distinctUntilChanged(repository.observeUpdatedAt(passwordId)),
+                updatedAt -> load(passwordId, updatedAt)
         );
     }
 
     /**
-     * PasswordEntryをPasswordドメインモデルに変換
+     * キャッシュまたはデータベースからパスワードを読み込む
+     *
+     * @param passwordId パスワードID
+     * @param updatedAt エントリの更新日時（エントリが存在しない場合はnull）
+     * @return Passwordドメインモデル（復号済み）のLiveData
+     */
+    @NonNull
+    private LiveData<Password> load(@NonNull String passwordId, Long updatedAt) {
+        if (updatedAt == null) {
+            cache.invalidate(passwordId);
+            MutableLiveData<Password> result = new MutableLiveData<>();
+            result.setValue(null);
+            return result;
+        }
+
+        Password cached = cache.get(passwordId, updatedAt);
+        if (cached != null) {
+            Log.d(TAG, "Password served from cache");
+            MutableLiveData<Password> result = new MutableLiveData<>();
+            result.setValue(cached);
+            return result;
+        }
+
+        // 復号中にロックされた場合は結果をキャッシュしない
+        long epoch = cache.epoch();
+        MediatorLiveData<Password> result = new MediatorLiveData<>();
+        LiveData<PasswordEntry> source = loadEntryOnce(passwordId);
+        result.addSource(source, entry -> convertToPassword(entry, epoch, result));
+        return result;
+    }
+
+    /**
+     * パスワード以外の項目を取得（パスワードは復号しない）
+     *
+     * <p>詳細画面の表示用。ユーザー名・URL・メモは暗号処理スレッドで復号される。
+     * パスワードは表示・コピーの操作時に {@link #reveal(PasswordEntry)} で復号する。
+     * エントリの更新日時が変わった時に自動的に更新される。</p>
+     *
+     * @param passwordId パスワードID
+     * @return エントリのLiveData（エントリが存在しない場合はnull）
+     */
+    public LiveData<PasswordEntry> executeMetadata(@NonNull String passwordId) {
+        Log.d(TAG, "Executing GetPasswordUseCase (metadata) for: " + passwordId);
+
+        if (passwordId == null || passwordId.isEmpty()) {
+            throw new IllegalArgumentException("パスワードIDは必須です");
+        }
+
+        return Transformations.switchMap(
+                Transformations.distinctUntilChanged(repository.observeUpdatedAt(passwordId)),
+                updatedAt -> {
+                    if (updatedAt == null) {
+                        MutableLiveData<PasswordEntry> result = new MutableLiveData<>();
+                        result.setValue(null);
+                        return result;
+                    }
+                    return loadEntryOnce(passwordId);
+                }
+        );
+    }
+
+    /**
+     * エントリのパスワードを復号
+     *
+     * <p>{@link DecryptedPasswordCache} に同じ更新日時の復号結果があれば暗号処理を行わない。
+     * なければ暗号処理スレッドで復号し、結果をキャッシュに保持する。</p>
+     *
+     * @param entry {@link #executeMetadata(String)} で取得したエントリ
+     * @return 復号済みのPasswordで完了するFuture（復号に失敗した場合は例外で失敗）
+     */
+    @NonNull
+    public CompletableFuture<Password> reveal(@NonNull PasswordEntry entry) {
+        Password cached = cache.get(entry.getId(), entry.getUpdatedAt());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long epoch = cache.epoch();
+        return repository.decryptPasswordAsync(entry).thenApply(decryptedPassword -> {
+            Password password = toPassword(entry, decryptedPassword);
+            cache.put(password, epoch);
+            return password;
+        });
+    }
+
+    /**
+     * エントリを1回だけ読み込む
+     *
+     * <p>以降の変更は更新日時の監視で検知するため、最初の1件のみ通知する。</p>
+     */
+    @NonNull
+    private LiveData<PasswordEntry> loadEntryOnce(@NonNull String passwordId) {
+        MediatorLiveData<PasswordEntry> result = new MediatorLiveData<>();
+        LiveData<PasswordEntry> source = repository.getPasswordById(passwordId);
+        result.addSource(source, entry -> {
+            result.removeSource(source);
+            result.setValue(entry);
+        });
+        return result;
+    }
+
+    /**
+     * PasswordEntryをPasswordドメインモデルに変換して通知
      *
      * @param entry PasswordEntry
-     * @return Passwordドメインモデル（復号済み）
+     * @param epoch 読み込みを開始した時点のキャッシュの世代番号
+     * @param result 変換結果（復号失敗時はnull）の通知先
      */
-    private Password convertToPassword(PasswordEntry entry) {
+    private void convertToPassword(PasswordEntry entry, long epoch, @NonNull MutableLiveData<Password> result) {
         if (entry == null) {
-            return null;
+            result.setValue(null);
+            return;
         }
 
-        try {
-            // パスワードを復号
-            String decryptedPassword = repository.decryptPassword(entry.getEncryptedPassword());
+        // パスワードを暗号処理スレッドで復号
+        repository.decryptPasswordAsync(entry).whenComplete((decryptedPassword, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Failed to decrypt password", error);
+                result.postValue(null);
+                return;
+            }
             Log.d(TAG, "Password decrypted successfully");
+            Password password = toPassword(entry, decryptedPassword);
+            cache.put(password, epoch);
+            result.postValue(password);
+        });
+    }
 
-            // Passwordドメインモデルに変換
-            return new Password.Builder()
-                    .id(entry.getId())
-                    .title(entry.getTitle())
-                    .username(entry.getUsername())
-                    .password(decryptedPassword)
-                    .url(entry.getUrl())
-                    .notes(entry.getNotes())
-                    .category(entry.getCategory())
-                    .createdAt(entry.getCreatedAt())
-                    .updatedAt(entry.getUpdatedAt())
-                    .build();
-
-        } catch (CryptoManager.CryptoException e) {
-            Log.e(TAG, "Failed to decrypt password", e);
-            return null;
-        }
+    /**
+     * Passwordドメインモデルを作成
+     */
+    @NonNull
+    private static Password toPassword(@NonNull PasswordEntry entry, @NonNull String decryptedPassword) {
+        return new Password.Builder()
+                .id(entry.getId())
+                .title(entry.getTitle())
+                .username(entry.getUsername())
+                .password(decryptedPassword)
+                .url(entry.getUrl())
+                .notes(entry.getNotes())
+                .category(entry.getCategory())
+                .createdAt(entry.getCreatedAt())
+                .updatedAt(entry.getUpdatedAt())
+                .build();
     }
 }
@@ -19,11 +19,15 @@ package com.memoripass.domain.usecase;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import com.memoripass.crypto.CryptoManager;
 import com.memoripass.data.model.PasswordEntry;
 import com.memoripass.data.repository.PasswordRepository;
 import com.memoripass.domain.model.Password;
+import com.memoripass.util.ValidationUtils;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * パスワード更新ユースケース
@@ -36,7 +40,7 @@ import com.memoripass.domain.model.Password;
  *   <li>入力バリデーション</li>
  *   <li>パスワードの暗号化</li>
  *   <li>PasswordEntryエンティティに変換</li>
- *   <li>データベースを更新</li>
+ *   <li>データベースを更新（コミット後に結果を通知）</li>
  * </ol>
  *
  * @since 1.0
@@ -59,21 +63,34 @@ public class UpdatePasswordUseCase {
     /**
      * パスワードを更新
      *
+     * <p>暗号化は暗号処理スレッドで行い、呼び出し元をブロックしない。
+     * 返すFutureはデータベースへのコミット後に完了する。</p>
+     *
      * @param password パスワードドメインモデル
+     * @return 更新したエントリで完了するFuture（暗号化・保存に失敗した場合は例外で失敗）
      * @throws IllegalArgumentException バリデーションエラー
-     * @throws CryptoManager.CryptoException 暗号化エラー
      */
-    public void execute(@NonNull Password password) throws CryptoManager.CryptoException {
+    @NonNull
+    public CompletableFuture<PasswordEntry> execute(@NonNull Password password) {
         Log.d(TAG, "Executing UpdatePasswordUseCase for: " + password.getId());
 
         // ビジネスバリデーション
         validatePassword(password);
 
-        // パスワードを暗号化
-        String encryptedPassword = repository.encryptPassword(password.getPassword());
-        Log.d(TAG, "Password encrypted successfully");
+        // パスワードを暗号化してから更新
+        return repository.encryptPasswordAsync(password.getPassword())
+                .thenCompose(encryptedPassword -> repository.update(toEntry(password, encryptedPassword)))
+                .thenApply(entry -> {
+                    Log.i(TAG, "Password updated successfully: " + password.getId());
+                    return entry;
+                });
+    }
 
-        // PasswordEntryエンティティに変換
+    /**
+     * PasswordEntryエンティティに変換（更新日時は現在時刻）
+     */
+    @NonNull
+    private static PasswordEntry toEntry(@NonNull Password password, @NonNull byte[] encryptedPassword) {
         PasswordEntry entry = new PasswordEntry(
                 password.getId(),
                 password.getTitle(),
@@ -85,10 +102,36 @@ public class UpdatePasswordUseCase {
         entry.setCategory(password.getCategory());
         entry.setCreatedAt(password.getCreatedAt());
         entry.setUpdatedAt(System.currentTimeMillis()); // 更新日時を現在時刻に
+        return entry;
+    }
+
+    /**
+     * 複数のパスワードのカテゴリを変更
+     *
+     * <p>1つのトランザクションで更新する（複数選択での移動に使用）。
+     * カテゴリは平文のため、暗号化は行わない。</p>
+     *
+     * @param passwordIds パスワードID
+     * @param category 変更後のカテゴリ名（null・空文字の場合は未分類）
+     * @return コミット時に完了するFuture
+     * @throws IllegalArgumentException バリデーションエラー
+     */
+    @NonNull
+    public CompletableFuture<Void> executeMove(@NonNull Collection<String> passwordIds, @Nullable String category) {
+        Log.d(TAG, "Executing UpdatePasswordUseCase (move) for " + passwordIds.size() + " passwords");
+
+        if (passwordIds.isEmpty()) {
+            throw new IllegalArgumentException("パスワードIDは必須です");
+        }
+
+        ValidationUtils.ValidationResult result = ValidationUtils.validateCategory(category);
+        if (!result.isValid()) {
+            throw new IllegalArgumentException(result.getErrorMessage());
+        }
 
-        // データベースを更新
-        repository.update(entry);
-        Log.i(TAG, "Password updated successfully: " + password.getId());
+        int count = passwordIds.size();
+        return repository.moveToCategory(passwordIds, category == null || category.isEmpty() ? null : category)
+                .thenRun(() -> Log.i(TAG, "Passwords moved successfully: " + count));
     }
 
     /**
@@ -32,6 +32,7 @@ import androidx.lifecycle.ViewModelProvider;
 import com.google.android.material.textfield.TextInputEditText;
 import com.memoripass.R;
 import com.memoripass.ui.common.BaseFragment;
+import com.memoripass.ui.common.ViewModelFactory;
 import com.memoripass.util.PasswordGenerator;
 import com.memoripass.util.PasswordStrengthChecker;
 
@@ -155,7 +156,8 @@ public class AddPasswordFragment extends BaseFragment {
      * ViewModelのセットアップ
      */
     private void setupViewModel() {
-        viewModel = new ViewModelProvider(this).get(AddPasswordViewModel.class);
+        viewModel = new ViewModelProvider(this, ViewModelFactory.from(requireContext()))
+                .get(AddPasswordViewModel.class);
 
         viewModel.getViewState().observe(getViewLifecycleOwner(), this::handleViewState);
 
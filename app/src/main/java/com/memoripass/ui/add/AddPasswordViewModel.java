@@ -12,25 +12,24 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.memoripass.crypto.CryptoManager;
-import com.memoripass.data.model.PasswordEntry;
-import com.memoripass.data.repository.PasswordRepository;
+import com.memoripass.domain.model.Password;
+import com.memoripass.domain.usecase.AddPasswordUseCase;
 import com.memoripass.ui.common.BaseViewModel;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class AddPasswordViewModel extends BaseViewModel {
 
     private static final String TAG = "AddPasswordViewModel";
-    private final PasswordRepository repository;
+    private final AddPasswordUseCase addPasswordUseCase;
     private final MutableLiveData<Boolean> saveSuccess = new MutableLiveData<>();
+    // 保存中の二重送信を防ぐ
+    private final AtomicBoolean saving = new AtomicBoolean();
 
-    public AddPasswordViewModel(@NonNull Application application) {
+    public AddPasswordViewModel(@NonNull Application application, @NonNull AddPasswordUseCase addPasswordUseCase) {
         super(application);
-        try {
-            this.repository = new PasswordRepository(application);
-            Log.d(TAG, "AddPasswordViewModel initialized successfully");
-        } catch (CryptoManager.CryptoException e) {
-            Log.e(TAG, "Failed to initialize AddPasswordViewModel", e);
-            throw new RuntimeException("Failed to initialize ViewModel", e);
-        }
+        this.addPasswordUseCase = addPasswordUseCase;
+        Log.d(TAG, "AddPasswordViewModel initialized successfully");
     }
 
     public LiveData<Boolean> getSaveSuccess() {
@@ -46,7 +45,6 @@ public class AddPasswordViewModel extends BaseViewModel {
             String category
     ) {
         Log.d(TAG, "Saving password: " + title);
-        setLoading();
 
         if (title.trim().isEmpty()) {
             setError("タイトルを入力してください");
@@ -56,37 +54,39 @@ public class AddPasswordViewModel extends BaseViewModel {
             setError("パスワードを入力してください");
             return;
         }
+        if (!saving.compareAndSet(false, true)) {
+            Log.d(TAG, "Save already in progress");
+            return;
+        }
+        setLoading();
 
-        try {
-            Log.d(TAG, "Encrypting password on main thread...");
-            String encryptedPassword = repository.encryptPassword(password);
-            Log.d(TAG, "Encryption successful");
-
-            String id = java.util.UUID.randomUUID().toString();
-            PasswordEntry entry = new PasswordEntry(id, title.trim(), encryptedPassword);
-            entry.setUsername(username);
-            entry.setUrl(url);
-            entry.setNotes(notes);
-            entry.setCategory(category);
+        Password newPassword = new Password.Builder()
+                .title(title.trim())
+                .username(username)
+                .password(password)
+                .url(url)
+                .notes(notes)
+                .category(category)
+                .build();
 
-            new Thread(() -> {
-                try {
-                    repository.insert(entry);
-                    Log.i(TAG, "Password saved successfully: " + title);
-                    saveSuccess.postValue(true);
-                    setSuccess();
-                } catch (Exception e) {
-                    Log.e(TAG, "Database insert error", e);
-                    setError("保存に失敗しました: " + e.getMessage());
+        try {
+            // 暗号化・保存は別スレッドで行い、コミット後に一度だけ完了を通知する
+            addPasswordUseCase.execute(newPassword).whenComplete((entry, error) -> {
+                if (error != null) {
+                    saving.set(false);
+                    Throwable cause = causeOf(error);
+                    Log.e(TAG, "Save failed", cause);
+                    setError((cause instanceof CryptoManager.CryptoException ? "暗号化に失敗しました: "
+                            : "保存に失敗しました: ") + cause.getMessage());
+                    return;
                 }
-            }).start();
-
-        } catch (CryptoManager.CryptoException e) {
-            Log.e(TAG, "Encryption error", e);
-            setError("暗号化に失敗しました: " + e.getMessage());
-        } catch (Exception e) {
-            Log.e(TAG, "Unexpected error", e);
-            setError("エラーが発生しました: " + e.getMessage());
+                Log.i(TAG, "Password saved successfully: " + title);
+                saveSuccess.postValue(true);
+                setSuccess();
+            });
+        } catch (IllegalArgumentException e) {
+            saving.set(false);
+            handleException(e);
         }
     }
 }
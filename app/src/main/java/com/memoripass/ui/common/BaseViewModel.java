@@ -24,6 +24,8 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import java.util.concurrent.CompletionException;
+
 /**
  * ViewModel基底クラス
  *
@@ -104,4 +106,21 @@ public class BaseViewModel extends AndroidViewModel {
         setError(message);
         Log.e(TAG, "Exception handled", exception);
     }
+
+    /**
+     * 非同期処理の失敗原因を取得
+     *
+     * <p>CompletableFuture が失敗時にラップする {@link CompletionException} を外す。</p>
+     *
+     * @param throwable Futureの失敗
+     * @return 元の例外
+     */
+    @NonNull
+    protected static Throwable causeOf(@NonNull Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
 }
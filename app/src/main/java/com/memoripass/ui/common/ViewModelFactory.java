@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.ui.common;
+
+import android.app.Application;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.memoripass.AppContainer;
+import com.memoripass.crypto.CryptoManager;
+import com.memoripass.ui.add.AddPasswordViewModel;
+import com.memoripass.ui.detail.PasswordDetailViewModel;
+import com.memoripass.ui.edit.EditPasswordViewModel;
+import com.memoripass.ui.list.PasswordListViewModel;
+
+/**
+ * ViewModelファクトリ
+ *
+ * <p>{@link AppContainer} が保持するリポジトリ・ユースケースをViewModelに渡す。
+ * ViewModelごとにリポジトリや暗号化マネージャーを作成しない。</p>
+ *
+ * <p>使用例:</p>
+ * <pre>
+ * viewModel = new ViewModelProvider(this, ViewModelFactory.from(requireContext()))
+ *         .get(PasswordDetailViewModel.class);
+ * </pre>
+ *
+ * @since 1.1
+ */
+public final class ViewModelFactory implements ViewModelProvider.Factory {
+
+    private static final String TAG = "ViewModelFactory";
+
+    private final Application application;
+    private final AppContainer container;
+
+    private ViewModelFactory(@NonNull Application application, @NonNull AppContainer container) {
+        this.application = application;
+        this.container = container;
+    }
+
+    /**
+     * ファクトリを取得
+     *
+     * @param context コンテキスト
+     * @return アプリ全体のコンテナを使うファクトリ
+     */
+    @NonNull
+    public static ViewModelFactory from(@NonNull Context context) {
+        Application application = (Application) context.getApplicationContext();
+        return new ViewModelFactory(application, AppContainer.from(application));
+    }
+
+    @NonNull
+    @Override
+    public <T extends ViewModel> T create(@NonNull Class<T> modelClass) {
+        try {
+            if (modelClass == PasswordListViewModel.class) {
+                // アンロック中に先読みした最初のページの復号結果を引き継ぐ
+                return modelClass.cast(new PasswordListViewModel(
+                        application,
+                        container.getPasswordRepository(),
+                        container.getUnlockPreloader().takeRevealed(),
+                        container.getAllPasswordsUseCase(),
+                        container.deletePasswordUseCase(),
+                        container.updatePasswordUseCase()
+                ));
+            }
+            if (modelClass == PasswordDetailViewModel.class) {
+                return modelClass.cast(new PasswordDetailViewModel(application, container.getPasswordUseCase()));
+            }
+            if (modelClass == AddPasswordViewModel.class) {
+                return modelClass.cast(new AddPasswordViewModel(application, container.addPasswordUseCase()));
+            }
+            if (modelClass == EditPasswordViewModel.class) {
+                return modelClass.cast(new EditPasswordViewModel(
+                        application,
+                        container.getPasswordUseCase(),
+                        container.updatePasswordUseCase()
+                ));
+            }
+        } catch (CryptoManager.CryptoException e) {
+            Log.e(TAG, "Failed to create " + modelClass.getSimpleName(), e);
+            throw new RuntimeException("Failed to initialize ViewModel", e);
+        }
+        throw new IllegalArgumentException("Unknown ViewModel class: " + modelClass.getName());
+    }
+}
@@ -16,13 +16,13 @@
 
 package com.memoripass.ui.detail;
 
-import android.content.ClipData;
-import android.content.ClipboardManager;
-import android.content.Context;
+import android.annotation.SuppressLint;
 import android.os.Bundle;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
@@ -30,8 +30,9 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.memoripass.R;
-import com.memoripass.domain.model.Password;
+import com.memoripass.data.model.PasswordEntry;
 import com.memoripass.ui.common.BaseFragment;
+import com.memoripass.ui.common.ViewModelFactory;
 import com.memoripass.ui.edit.EditPasswordFragment;
 
 /**
@@ -39,6 +40,9 @@ import com.memoripass.ui.edit.EditPasswordFragment;
  *
  * <p>パスワードの詳細を表示する画面。</p>
  *
+ * <p>画面を開いた時はパスワードを復号せず、表示・コピーボタンの操作時に復号する。
+ * ボタンへのタッチ・ホバー、パスワード欄の長押しで復号を先に開始する。</p>
+ *
  * @since 1.0
  */
 public class PasswordDetailFragment extends BaseFragment {
@@ -52,6 +56,7 @@ public class PasswordDetailFragment extends BaseFragment {
     private TextView titleTextView;
     private TextView usernameTextView;
     private TextView passwordTextView;
+    private Button revealButton;
     private TextView urlTextView;
     private TextView categoryTextView;
     private TextView notesTextView;
@@ -91,8 +96,18 @@ public class PasswordDetailFragment extends BaseFragment {
         categoryTextView = view.findViewById(R.id.text_category);
         notesTextView = view.findViewById(R.id.text_notes);
 
-        // ボタンリスナー
-        view.findViewById(R.id.btn_copy_password).setOnClickListener(v -> copyPasswordToClipboard());
+        revealButton = view.findViewById(R.id.btn_reveal_password);
+        View copyButton = view.findViewById(R.id.btn_copy_password);
+
+        // ボタンリスナー（パスワードは操作時に復号する）
+        revealButton.setOnClickListener(v -> viewModel.toggleReveal());
+        copyButton.setOnClickListener(v -> viewModel.copyPassword());
+        prefetchOnIntent(revealButton);
+        prefetchOnIntent(copyButton);
+        passwordTextView.setOnLongClickListener(v -> {
+            viewModel.prefetchPassword();
+            return true;
+        });
         view.findViewById(R.id.btn_edit).setOnClickListener(v ->
                 navigateTo(EditPasswordFragment.newInstance(passwordId)));
         view.findViewById(R.id.btn_back).setOnClickListener(v -> navigateBack());
@@ -110,7 +125,8 @@ public class PasswordDetailFragment extends BaseFragment {
      * ViewModelのセットアップ
      */
     private void setupViewModel() {
-        viewModel = new ViewModelProvider(this).get(PasswordDetailViewModel.class);
+        viewModel = new ViewModelProvider(this, ViewModelFactory.from(requireContext()))
+                .get(PasswordDetailViewModel.class);
 
         // ViewStateを監視
         viewModel.getViewState().observe(getViewLifecycleOwner(), this::handleViewState);
@@ -118,49 +134,62 @@ public class PasswordDetailFragment extends BaseFragment {
         // パスワードを読み込み
         viewModel.loadPassword(passwordId);
 
-        // パスワードを監視
-        viewModel.getPassword().observe(getViewLifecycleOwner(), this::displayPassword);
+        // パスワード以外の項目を監視
+        viewModel.getEntry().observe(getViewLifecycleOwner(), this::displayEntry);
+
+        // 表示中のパスワードを監視
+        viewModel.getRevealedPassword().observe(getViewLifecycleOwner(), this::displayRevealedPassword);
+
+        viewModel.getMessage().observe(getViewLifecycleOwner(), message -> {
+            if (message != null) {
+                showMessage(message);
+                viewModel.onMessageShown();
+            }
+        });
     }
 
     /**
-     * パスワードを表示
+     * パスワード以外の項目を表示
      */
-    private void displayPassword(Password password) {
-        if (password == null) {
+    private void displayEntry(PasswordEntry entry) {
+        if (entry == null) {
             showError("パスワードが見つかりません");
             return;
         }
 
-        titleTextView.setText(password.getTitle());
-        usernameTextView.setText(password.getUsername() != null ? password.getUsername() : "未設定");
-        passwordTextView.setText("••••••••");
-        passwordTextView.setTag(password.getPassword());
-        urlTextView.setText(password.getUrl() != null ? password.getUrl() : "未設定");
-        categoryTextView.setText(password.getCategory() != null ? password.getCategory() : "未設定");
-        notesTextView.setText(password.getNotes() != null ? password.getNotes() : "なし");
+        titleTextView.setText(entry.getTitle());
+        usernameTextView.setText(entry.getUsername() != null ? entry.getUsername() : "未設定");
+        urlTextView.setText(entry.getUrl() != null ? entry.getUrl() : "未設定");
+        categoryTextView.setText(entry.getCategory() != null ? entry.getCategory() : "未設定");
+        notesTextView.setText(entry.getNotes() != null ? entry.getNotes() : "なし");
     }
 
     /**
-     * パスワードをクリップボードにコピー
+     * パスワードの表示・非表示を反映
      */
-    private void copyPasswordToClipboard() {
-        String password = (String) passwordTextView.getTag();
-        if (password == null) {
-            showError("パスワードが読み込まれていません");
-            return;
-        }
+    private void displayRevealedPassword(String password) {
+        passwordTextView.setText(password != null ? password : "••••••••");
+        revealButton.setText(password != null ? "隠す" : "表示");
+    }
 
-        ClipboardManager clipboard = (ClipboardManager) requireContext()
-                .getSystemService(Context.CLIPBOARD_SERVICE);
-        ClipData clip = ClipData.newPlainText("password", password);
-        clipboard.setPrimaryClip(clip);
-        // 30秒後にクリップボードを自動クリア
-        new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
-            ClipboardManager cm = (ClipboardManager) requireContext()
-                    .getSystemService(Context.CLIPBOARD_SERVICE);
-            cm.setPrimaryClip(ClipData.newPlainText("", ""));
-        }, 30_000);
-
-        showMessage("パスワードをコピーしました");
+    /**
+     * 操作の直前の入力（タッチ・ホバー）でパスワードの復号を開始
+     *
+     * <p>クリックなど本来の処理は妨げない。</p>
+     */
+    @SuppressLint("ClickableViewAccessibility")
+    private void prefetchOnIntent(@NonNull View button) {
+        button.setOnTouchListener((v, event) -> {
+            if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                viewModel.prefetchPassword();
+            }
+            return false;
+        });
+        button.setOnHoverListener((v, event) -> {
+            if (event.getActionMasked() == MotionEvent.ACTION_HOVER_ENTER) {
+                viewModel.prefetchPassword();
+            }
+            return false;
+        });
     }
 }
@@ -17,62 +17,96 @@
 package com.memoripass.ui.detail;
 
 import android.app.Application;
+import android.content.ClipData;
+import android.content.ClipboardManager;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
 
 import com.memoripass.crypto.CryptoManager;
-import com.memoripass.data.repository.PasswordRepository;
+import com.memoripass.data.model.PasswordEntry;
 import com.memoripass.domain.model.Password;
 import com.memoripass.domain.usecase.GetPasswordUseCase;
 import com.memoripass.ui.common.BaseViewModel;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * パスワード詳細ViewModel
  *
  * <p>パスワード詳細画面のUI状態とビジネスロジックを管理する。</p>
  *
+ * <p>画面を開いた時はパスワード以外の項目のみを読み込み、パスワードは復号しない。
+ * パスワードは表示・コピーの操作時に暗号処理スレッドで復号する。長押し・ホバーなど
+ * 操作の直前の入力で {@link #prefetchPassword()} を呼び出すと、先に復号を始めておける。
+ * 復号結果はViewModel内にのみ保持し、Viewのタグなどには置かない。
+ * 復号の完了はメインスレッドで処理する。</p>
+ *
  * @since 1.0
  */
 public class PasswordDetailViewModel extends BaseViewModel {
 
     private static final String TAG = "PasswordDetailViewModel";
 
+    // コピーしたパスワードをクリップボードから消去するまでの時間（ミリ秒）
+    private static final long CLIPBOARD_CLEAR_DELAY_MS = 30_000;
+
     private final GetPasswordUseCase getPasswordUseCase;
-    private LiveData<Password> password;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable clearClipboard = this::clearClipboard;
+
+    private final MediatorLiveData<PasswordEntry> entry = new MediatorLiveData<>();
+    // 表示中のパスワード（非表示の場合はnull）
+    private final MutableLiveData<String> revealedPassword = new MutableLiveData<>();
+    private final MutableLiveData<String> message = new MutableLiveData<>();
+
+    private String passwordId;
+    private LiveData<PasswordEntry> source;
+    // 表示中のエントリのパスワードの復号（未開始の場合はnull）
+    private CompletableFuture<Password> decryption;
 
     /**
      * コンストラクタ
      *
+     * <p>{@link com.memoripass.ui.common.ViewModelFactory} から生成する。</p>
+     *
      * @param application アプリケーション
+     * @param getPasswordUseCase パスワード取得ユースケース（アプリ全体で共有）
      */
-    public PasswordDetailViewModel(@NonNull Application application) {
+    public PasswordDetailViewModel(@NonNull Application application, @NonNull GetPasswordUseCase getPasswordUseCase) {
         super(application);
-
-        try {
-            PasswordRepository repository = new PasswordRepository(application);
-            this.getPasswordUseCase = new GetPasswordUseCase(repository);
-
-            Log.d(TAG, "PasswordDetailViewModel initialized successfully");
-
-        } catch (CryptoManager.CryptoException e) {
-            Log.e(TAG, "Failed to initialize PasswordDetailViewModel", e);
-            throw new RuntimeException("Failed to initialize ViewModel", e);
-        }
+        this.getPasswordUseCase = getPasswordUseCase;
+        Log.d(TAG, "PasswordDetailViewModel initialized successfully");
     }
 
     /**
-     * パスワードを読み込む
+     * パスワードを読み込む（パスワード以外の項目のみ）
+     *
+     * <p>同じIDで再度呼び出された場合（画面回転時など）は読み込み直さない。</p>
      *
      * @param passwordId パスワードID
      */
     public void loadPassword(@NonNull String passwordId) {
+        if (passwordId.equals(this.passwordId)) {
+            return;
+        }
         Log.d(TAG, "Loading password: " + passwordId);
         setLoading();
 
         try {
-            password = getPasswordUseCase.execute(passwordId);
+            if (source != null) {
+                entry.removeSource(source);
+            }
+            this.passwordId = passwordId;
+            source = getPasswordUseCase.executeMetadata(passwordId);
+            entry.addSource(source, this::onEntryLoaded);
             setSuccess();
 
         } catch (Exception e) {
@@ -82,11 +116,150 @@ public class PasswordDetailViewModel extends BaseViewModel {
     }
 
     /**
-     * パスワードを取得
+     * エントリを取得
+     *
+     * @return パスワード以外の項目（復号済み）のLiveData（エントリが存在しない場合はnull）
+     */
+    public LiveData<PasswordEntry> getEntry() {
+        return entry;
+    }
+
+    /**
+     * 表示中のパスワードを取得
+     *
+     * @return 復号したパスワードのLiveData（非表示の場合はnull）
+     */
+    public LiveData<String> getRevealedPassword() {
+        return revealedPassword;
+    }
+
+    /**
+     * 表示するメッセージを取得
+     *
+     * @return メッセージのLiveData（表示済みの場合はnull）
+     */
+    public LiveData<String> getMessage() {
+        return message;
+    }
+
+    /**
+     * メッセージを表示した時の処理（再表示しないように消去する）
+     */
+    public void onMessageShown() {
+        message.setValue(null);
+    }
+
+    /**
+     * パスワードの復号を先に開始（長押し・ホバーなど、表示・コピーの直前の入力で呼び出す）
+     */
+    public void prefetchPassword() {
+        decrypt();
+    }
+
+    /**
+     * パスワードの表示・非表示を切り替える
+     */
+    public void toggleReveal() {
+        if (revealedPassword.getValue() != null) {
+            revealedPassword.setValue(null);
+            return;
+        }
+        CompletableFuture<Password> pending = decrypt();
+        if (pending == null) {
+            setError("パスワードが読み込まれていません");
+            return;
+        }
+        pending.whenComplete((password, error) -> mainHandler.post(() -> {
+            if (error != null) {
+                onDecryptFailed(pending, error);
+                return;
+            }
+            // 復号中にエントリが更新された場合は表示しない
+            if (pending == decryption) {
+                revealedPassword.setValue(password.getPassword());
+            }
+        }));
+    }
+
+    /**
+     * パスワードをクリップボードにコピー（一定時間後に自動で消去）
+     */
+    public void copyPassword() {
+        CompletableFuture<Password> pending = decrypt();
+        if (pending == null) {
+            setError("パスワードが読み込まれていません");
+            return;
+        }
+        pending.whenComplete((password, error) -> mainHandler.post(() -> {
+            if (error != null) {
+                onDecryptFailed(pending, error);
+                return;
+            }
+            clipboard().setPrimaryClip(ClipData.newPlainText("password", password.getPassword()));
+            mainHandler.removeCallbacks(clearClipboard);
+            mainHandler.postDelayed(clearClipboard, CLIPBOARD_CLEAR_DELAY_MS);
+            message.setValue("パスワードをコピーしました");
+        }));
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // 画面を閉じても、コピーしたパスワードの自動消去は予定どおり行う
+        decryption = null;
+        revealedPassword.setValue(null);
+    }
+
+    /**
+     * エントリを読み込んだ時の処理
      *
-     * @return パスワードのLiveData
+     * <p>エントリが更新された場合は、前の内容の復号結果を破棄してパスワードを隠す。</p>
      */
-    public LiveData<Password> getPassword() {
-        return password;
+    private void onEntryLoaded(@Nullable PasswordEntry loaded) {
+        PasswordEntry previous = entry.getValue();
+        if (previous == null || loaded == null || previous.getUpdatedAt() != loaded.getUpdatedAt()) {
+            decryption = null;
+            revealedPassword.setValue(null);
+        }
+        entry.setValue(loaded);
+    }
+
+    /**
+     * 表示中のエントリのパスワードの復号を開始（開始済みであればそれを返す）
+     *
+     * @return 復号のFuture（エントリが未読み込みの場合はnull）
+     */
+    @Nullable
+    private CompletableFuture<Password> decrypt() {
+        PasswordEntry current = entry.getValue();
+        if (current == null) {
+            return null;
+        }
+        if (decryption == null) {
+            decryption = getPasswordUseCase.reveal(current);
+        }
+        return decryption;
+    }
+
+    /**
+     * 復号に失敗した時の処理（次の操作で再試行できるようにする）
+     */
+    private void onDecryptFailed(@NonNull CompletableFuture<Password> failed, @NonNull Throwable error) {
+        Throwable cause = causeOf(error);
+        Log.e(TAG, "Failed to decrypt password", cause);
+        if (decryption == failed) {
+            decryption = null;
+        }
+        setError((cause instanceof CryptoManager.CryptoException ? "復号に失敗しました: "
+                : "パスワードの読み込みに失敗しました: ") + cause.getMessage());
+    }
+
+    private void clearClipboard() {
+        clipboard().setPrimaryClip(ClipData.newPlainText("", ""));
+    }
+
+    @NonNull
+    private ClipboardManager clipboard() {
+        return (ClipboardManager) getApplication().getSystemService(Context.CLIPBOARD_SERVICE);
     }
 }
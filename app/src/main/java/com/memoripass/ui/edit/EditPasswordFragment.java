@@ -29,6 +29,7 @@ import com.google.android.material.textfield.TextInputEditText;
 import com.memoripass.R;
 import com.memoripass.domain.model.Password;
 import com.memoripass.ui.common.BaseFragment;
+import com.memoripass.ui.common.ViewModelFactory;
 
 public class EditPasswordFragment extends BaseFragment {
 
@@ -89,7 +90,8 @@ public class EditPasswordFragment extends BaseFragment {
     }
 
     private void setupViewModel() {
-        viewModel = new ViewModelProvider(this).get(EditPasswordViewModel.class);
+        viewModel = new ViewModelProvider(this, ViewModelFactory.from(requireContext()))
+                .get(EditPasswordViewModel.class);
 
         viewModel.getViewState().observe(getViewLifecycleOwner(), this::handleViewState);
 
@@ -12,33 +12,33 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.memoripass.crypto.CryptoManager;
-import com.memoripass.data.model.PasswordEntry;
-import com.memoripass.data.repository.PasswordRepository;
 import com.memoripass.domain.model.Password;
 import com.memoripass.domain.usecase.GetPasswordUseCase;
+import com.memoripass.domain.usecase.UpdatePasswordUseCase;
 import com.memoripass.ui.common.BaseViewModel;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class EditPasswordViewModel extends BaseViewModel {
 
     private static final String TAG = "EditPasswordViewModel";
 
-    private final PasswordRepository repository;
     private final GetPasswordUseCase getPasswordUseCase;
+    private final UpdatePasswordUseCase updatePasswordUseCase;
     private final MutableLiveData<Boolean> updateSuccess = new MutableLiveData<>();
+    // 更新中の二重送信を防ぐ
+    private final AtomicBoolean updating = new AtomicBoolean();
     private LiveData<Password> password;
 
-    public EditPasswordViewModel(@NonNull Application application) {
+    public EditPasswordViewModel(
+            @NonNull Application application,
+            @NonNull GetPasswordUseCase getPasswordUseCase,
+            @NonNull UpdatePasswordUseCase updatePasswordUseCase
+    ) {
         super(application);
-
-        try {
-            this.repository = new PasswordRepository(application);
-            this.getPasswordUseCase = new GetPasswordUseCase(repository);
-            Log.d(TAG, "EditPasswordViewModel initialized successfully");
-
-        } catch (CryptoManager.CryptoException e) {
-            Log.e(TAG, "Failed to initialize EditPasswordViewModel", e);
-            throw new RuntimeException("Failed to initialize ViewModel", e);
-        }
+        this.getPasswordUseCase = getPasswordUseCase;
+        this.updatePasswordUseCase = updatePasswordUseCase;
+        Log.d(TAG, "EditPasswordViewModel initialized successfully");
     }
 
     public void loadPassword(@NonNull String passwordId) {
@@ -73,7 +73,6 @@ public class EditPasswordViewModel extends BaseViewModel {
             long createdAt
     ) {
         Log.d(TAG, "Updating password: " + title);
-        setLoading();
 
         if (title.trim().isEmpty()) {
             setError("タイトルを入力してください");
@@ -85,37 +84,41 @@ public class EditPasswordViewModel extends BaseViewModel {
             return;
         }
 
+        if (!updating.compareAndSet(false, true)) {
+            Log.d(TAG, "Update already in progress");
+            return;
+        }
+        setLoading();
+
+        Password updated = new Password.Builder()
+                .id(id)
+                .title(title.trim())
+                .username(username)
+                .password(password)
+                .url(url)
+                .notes(notes)
+                .category(category)
+                .createdAt(createdAt)
+                .build();
+
         try {
-            Log.d(TAG, "Encrypting password on main thread...");
-            String encryptedPassword = repository.encryptPassword(password);
-            Log.d(TAG, "Encryption successful");
-
-            PasswordEntry entry = new PasswordEntry(id, title.trim(), encryptedPassword);
-            entry.setUsername(username);
-            entry.setUrl(url);
-            entry.setNotes(notes);
-            entry.setCategory(category);
-            entry.setCreatedAt(createdAt);
-            entry.setUpdatedAt(System.currentTimeMillis());
-
-            new Thread(() -> {
-                try {
-                    repository.update(entry);
-                    Log.i(TAG, "Password updated successfully: " + title);
-                    updateSuccess.postValue(true);
-                    setSuccess();
-                } catch (Exception e) {
-                    Log.e(TAG, "Database update error", e);
-                    setError("更新に失敗しました: " + e.getMessage());
+            // 暗号化・更新は別スレッドで行い、コミット後に一度だけ完了を通知する
+            updatePasswordUseCase.execute(updated).whenComplete((entry, error) -> {
+                if (error != null) {
+                    updating.set(false);
+                    Throwable cause = causeOf(error);
+                    Log.e(TAG, "Update failed", cause);
+                    setError((cause instanceof CryptoManager.CryptoException ? "暗号化に失敗しました: "
+                            : "更新に失敗しました: ") + cause.getMessage());
+                    return;
                 }
-            }).start();
-
-        } catch (CryptoManager.CryptoException e) {
-            Log.e(TAG, "Encryption error", e);
-            setError("暗号化に失敗しました: " + e.getMessage());
-        } catch (Exception e) {
-            Log.e(TAG, "Unexpected error", e);
-            setError("エラーが発生しました: " + e.getMessage());
+                Log.i(TAG, "Password updated successfully: " + title);
+                updateSuccess.postValue(true);
+                setSuccess();
+            });
+        } catch (IllegalArgumentException e) {
+            updating.set(false);
+            handleException(e);
         }
     }
 }
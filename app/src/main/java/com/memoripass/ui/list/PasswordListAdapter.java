@@ -22,32 +22,70 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.material.card.MaterialCardView;
 import com.memoripass.R;
-import com.memoripass.data.model.PasswordEntry;
+import com.memoripass.data.model.PasswordSummary;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * パスワード一覧アダプター
  *
- * <p>RecyclerViewでパスワードエントリを表示するためのアダプター。</p>
+ * <p>RecyclerViewでパスワードの要約（{@link PasswordSummary}）を表示するためのアダプター。
+ * 一覧はページ単位で受け取り、未読み込みの位置はプレースホルダーとして空の行を表示する。
+ * 複数選択中の行はチェック状態で表示する。</p>
  *
  * @since 1.0
  */
-public class PasswordListAdapter extends RecyclerView.Adapter<PasswordListAdapter.ViewHolder> {
+public class PasswordListAdapter extends PagingDataAdapter<PasswordSummary, PasswordListAdapter.ViewHolder> {
+
+    /**
+     * エントリの差分判定（IDで同一性、表示項目と更新日時で内容を比較）
+     */
+    private static final DiffUtil.ItemCallback<PasswordSummary> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<PasswordSummary>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull PasswordSummary oldItem, @NonNull PasswordSummary newItem) {
+                    return oldItem.getId().equals(newItem.getId());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull PasswordSummary oldItem, @NonNull PasswordSummary newItem) {
+                    if (oldItem == newItem) {
+                        // 変更のない行は復号済みの同じ要約が再利用される
+                        return true;
+                    }
+                    return oldItem.getRevision() == newItem.getRevision()
+                            && oldItem.getUpdatedAt() == newItem.getUpdatedAt()
+                            && oldItem.getTitle().equals(newItem.getTitle())
+                            && Objects.equals(oldItem.getUsername(), newItem.getUsername())
+                            && Objects.equals(oldItem.getCategory(), newItem.getCategory());
+                }
+            };
+
+    // 選択状態の更新のみを行う場合のペイロード（行全体を再バインドしない）
+    private static final Object PAYLOAD_SELECTION = new Object();
 
-    private List<PasswordEntry> passwords = new ArrayList<>();
     private OnItemClickListener listener;
+    private Set<String> selectedIds = Collections.emptySet();
+
+    public PasswordListAdapter() {
+        super(DIFF_CALLBACK);
+    }
 
     /**
      * アイテムクリックリスナー
      */
     public interface OnItemClickListener {
-        void onItemClick(PasswordEntry passwordEntry);
-        void onItemLongClick(PasswordEntry passwordEntry);
+        void onItemClick(PasswordSummary summary);
+        void onItemLongClick(PasswordSummary summary);
     }
 
     /**
@@ -58,11 +96,16 @@ public class PasswordListAdapter extends RecyclerView.Adapter<PasswordListAdapte
     }
 
     /**
-     * データを設定
+     * 選択中のIDを設定
+     *
+     * @param selectedIds 選択中のエントリID
      */
-    public void setPasswords(List<PasswordEntry> passwords) {
-        this.passwords = passwords != null ? passwords : new ArrayList<>();
-        notifyDataSetChanged();
+    public void setSelection(@NonNull Set<String> selectedIds) {
+        if (this.selectedIds.equals(selectedIds)) {
+            return;
+        }
+        this.selectedIds = selectedIds;
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
     }
 
     @NonNull
@@ -76,13 +119,22 @@ public class PasswordListAdapter extends RecyclerView.Adapter<PasswordListAdapte
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        PasswordEntry entry = passwords.get(position);
-        holder.bind(entry);
+        PasswordSummary entry = getItem(position);
+        if (entry != null) {
+            holder.bind(entry);
+        } else {
+            holder.bindPlaceholder();
+        }
     }
 
     @Override
-    public int getItemCount() {
-        return passwords.size();
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        PasswordSummary entry = peek(position);
+        if (entry != null && !payloads.isEmpty() && payloads.stream().allMatch(p -> p == PAYLOAD_SELECTION)) {
+            holder.bindSelection(entry);
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
     }
 
     /**
@@ -93,33 +145,52 @@ public class PasswordListAdapter extends RecyclerView.Adapter<PasswordListAdapte
         private final TextView titleTextView;
         private final TextView usernameTextView;
         private final TextView categoryTextView;
+        private final MaterialCardView cardView;
 
         ViewHolder(@NonNull View itemView) {
             super(itemView);
+            cardView = (MaterialCardView) itemView;
             titleTextView = itemView.findViewById(R.id.title);
             usernameTextView = itemView.findViewById(R.id.username);
             categoryTextView = itemView.findViewById(R.id.category);
 
             // クリックリスナー
             itemView.setOnClickListener(v -> {
-                int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onItemClick(passwords.get(position));
+                PasswordSummary entry = entryAt(getBindingAdapterPosition());
+                if (entry != null && listener != null) {
+                    listener.onItemClick(entry);
                 }
             });
 
             // 長押しリスナー
             itemView.setOnLongClickListener(v -> {
-                int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onItemLongClick(passwords.get(position));
+                PasswordSummary entry = entryAt(getBindingAdapterPosition());
+                if (entry != null && listener != null) {
+                    listener.onItemLongClick(entry);
                     return true;
                 }
                 return false;
             });
         }
 
-        void bind(PasswordEntry entry) {
+        /**
+         * 未読み込みの行を表示
+         */
+        void bindPlaceholder() {
+            titleTextView.setText(null);
+            usernameTextView.setText(null);
+            categoryTextView.setVisibility(View.GONE);
+            cardView.setChecked(false);
+        }
+
+        /**
+         * 選択状態を表示
+         */
+        void bindSelection(PasswordSummary entry) {
+            cardView.setChecked(selectedIds.contains(entry.getId()));
+        }
+
+        void bind(PasswordSummary entry) {
             // タイトル
             titleTextView.setText(entry.getTitle());
 
@@ -139,6 +210,19 @@ public class PasswordListAdapter extends RecyclerView.Adapter<PasswordListAdapte
             } else {
                 categoryTextView.setVisibility(View.GONE);
             }
+
+            // 選択状態
+            bindSelection(entry);
+        }
+    }
+
+    /**
+     * 位置の要約を取得（プレースホルダーの場合はnull）
+     */
+    private PasswordSummary entryAt(int position) {
+        if (position == RecyclerView.NO_POSITION) {
+            return null;
         }
+        return peek(position);
     }
 }
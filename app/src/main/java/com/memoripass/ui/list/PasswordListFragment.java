@@ -20,40 +20,59 @@ import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
+import android.view.Menu;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.EditText;
 
+import androidx.activity.OnBackPressedCallback;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.memoripass.R;
-import com.memoripass.data.model.PasswordEntry;
+import com.memoripass.data.model.PasswordSummary;
 import com.memoripass.ui.add.AddPasswordFragment;
 import com.memoripass.ui.common.BaseFragment;
+import com.memoripass.ui.common.ViewModelFactory;
 import com.memoripass.ui.detail.PasswordDetailFragment;
 
+import java.util.Set;
+
+import kotlin.Unit;
+
 /**
  * パスワード一覧Fragment
  *
  * <p>登録されているパスワードの一覧を表示する。</p>
  *
+ * <p>長押しで複数選択モードに入り、選択したパスワードをツールバーから
+ * まとめて削除・カテゴリ移動できる（1つのトランザクションで書き込む）。</p>
+ *
  * @since 1.0
  */
 public class PasswordListFragment extends BaseFragment {
 
     private static final String TAG = "PasswordListFragment";
 
+    // 選択モードのメニュー項目ID
+    private static final int MENU_MOVE = 1;
+    private static final int MENU_DELETE = 2;
+
     private PasswordListViewModel viewModel;
     private PasswordListAdapter adapter;
     private RecyclerView recyclerView;
     private FloatingActionButton fab;
     private View emptyStateView;
     private TextInputEditText searchEditText;
+    private MaterialToolbar toolbar;
+    private OnBackPressedCallback clearSelectionCallback;
 
     @Nullable
     @Override
@@ -66,6 +85,7 @@ public class PasswordListFragment extends BaseFragment {
         fab           = view.findViewById(R.id.fab_add);
         emptyStateView = view.findViewById(R.id.empty_state);
         searchEditText = view.findViewById(R.id.edit_search);
+        toolbar       = view.findViewById(R.id.toolbar);
 
         return view;
     }
@@ -78,6 +98,7 @@ public class PasswordListFragment extends BaseFragment {
         setupViewModel();
         setupFab();
         setupSearch();
+        setupSelection();
     }
 
     /**
@@ -90,13 +111,13 @@ public class PasswordListFragment extends BaseFragment {
 
         adapter.setOnItemClickListener(new PasswordListAdapter.OnItemClickListener() {
             @Override
-            public void onItemClick(PasswordEntry passwordEntry) {
-                onPasswordClick(passwordEntry);
+            public void onItemClick(PasswordSummary summary) {
+                onPasswordClick(summary);
             }
 
             @Override
-            public void onItemLongClick(PasswordEntry passwordEntry) {
-                onPasswordLongClick(passwordEntry);
+            public void onItemLongClick(PasswordSummary summary) {
+                onPasswordLongClick(summary);
             }
         });
     }
@@ -105,14 +126,29 @@ public class PasswordListFragment extends BaseFragment {
      * ViewModelのセットアップ
      */
     private void setupViewModel() {
-        viewModel = new ViewModelProvider(this).get(PasswordListViewModel.class);
+        viewModel = new ViewModelProvider(this, ViewModelFactory.from(requireContext()))
+                .get(PasswordListViewModel.class);
+
+        viewModel.getPasswords().observe(getViewLifecycleOwner(), passwords ->
+                adapter.submitData(getViewLifecycleOwner().getLifecycle(), passwords));
 
-        viewModel.getPasswords().observe(getViewLifecycleOwner(), passwords -> {
-            adapter.setPasswords(passwords);
-            viewModel.onPasswordsLoaded(passwords);
+        // 先頭ページの読み込み完了時に件数で空表示を切り替える
+        adapter.addLoadStateListener(loadStates -> {
+            if (loadStates.getRefresh() instanceof LoadState.NotLoading) {
+                viewModel.onPasswordsLoaded(adapter.getItemCount());
+            }
+            return Unit.INSTANCE;
         });
 
         viewModel.getViewState().observe(getViewLifecycleOwner(), this::handleViewState);
+
+        // 削除・移動のコミット後に一度だけ表示する
+        viewModel.getMessage().observe(getViewLifecycleOwner(), message -> {
+            if (message != null) {
+                showMessage(message);
+                viewModel.onMessageShown();
+            }
+        });
     }
 
     /**
@@ -141,22 +177,97 @@ public class PasswordListFragment extends BaseFragment {
         });
     }
 
-    private void onPasswordClick(PasswordEntry passwordEntry) {
-        navigateTo(PasswordDetailFragment.newInstance(passwordEntry.getId()));
+    /**
+     * 複数選択のセットアップ
+     */
+    private void setupSelection() {
+        // 選択中は戻る操作で選択を解除する
+        clearSelectionCallback = new OnBackPressedCallback(false) {
+            @Override
+            public void handleOnBackPressed() {
+                viewModel.clearSelection();
+            }
+        };
+        requireActivity().getOnBackPressedDispatcher()
+                .addCallback(getViewLifecycleOwner(), clearSelectionCallback);
+
+        toolbar.setOnMenuItemClickListener(item -> {
+            if (item.getItemId() == MENU_DELETE) {
+                confirmDeleteSelected();
+                return true;
+            }
+            if (item.getItemId() == MENU_MOVE) {
+                promptMoveSelected();
+                return true;
+            }
+            return false;
+        });
+
+        viewModel.getSelection().observe(getViewLifecycleOwner(), selected -> {
+            adapter.setSelection(selected);
+            updateToolbar(selected.size());
+            clearSelectionCallback.setEnabled(!selected.isEmpty());
+        });
+    }
+
+    /**
+     * 選択件数に応じてツールバーを切り替え
+     */
+    private void updateToolbar(int selectedCount) {
+        Menu menu = toolbar.getMenu();
+        menu.clear();
+        if (selectedCount == 0) {
+            toolbar.setTitle(R.string.app_name);
+            toolbar.setNavigationIcon(null);
+            toolbar.setNavigationOnClickListener(null);
+            return;
+        }
+        toolbar.setTitle(selectedCount + "件選択中");
+        toolbar.setNavigationIcon(android.R.drawable.ic_menu_close_clear_cancel);
+        toolbar.setNavigationOnClickListener(v -> viewModel.clearSelection());
+        menu.add(Menu.NONE, MENU_MOVE, Menu.NONE, "移動");
+        menu.add(Menu.NONE, MENU_DELETE, Menu.NONE, "削除");
+    }
+
+    private void onPasswordClick(PasswordSummary summary) {
+        if (viewModel.isSelecting()) {
+            viewModel.toggleSelection(summary.getId());
+            return;
+        }
+        navigateTo(PasswordDetailFragment.newInstance(summary.getId()));
     }
 
-    private void onPasswordLongClick(PasswordEntry passwordEntry) {
+    private void onPasswordLongClick(PasswordSummary summary) {
+        viewModel.toggleSelection(summary.getId());
+    }
+
+    private void confirmDeleteSelected() {
         new androidx.appcompat.app.AlertDialog.Builder(requireContext())
                 .setTitle("削除確認")
-                .setMessage(passwordEntry.getTitle() + " を削除しますか？")
-                .setPositiveButton("削除", (dialog, which) -> {
-                    viewModel.deletePassword(passwordEntry);
-                    showMessage("削除しました");
-                })
+                .setMessage(selectionSize() + "件のパスワードを削除しますか？")
+                .setPositiveButton("削除", (dialog, which) -> viewModel.deleteSelected())
+                .setNegativeButton("キャンセル", null)
+                .show();
+    }
+
+    private void promptMoveSelected() {
+        EditText categoryInput = new EditText(requireContext());
+        categoryInput.setHint("カテゴリ（空欄で未分類）");
+        categoryInput.setSingleLine(true);
+        new androidx.appcompat.app.AlertDialog.Builder(requireContext())
+                .setTitle(selectionSize() + "件をカテゴリに移動")
+                .setView(categoryInput)
+                .setPositiveButton("移動", (dialog, which) ->
+                        viewModel.moveSelected(categoryInput.getText().toString().trim()))
                 .setNegativeButton("キャンセル", null)
                 .show();
     }
 
+    private int selectionSize() {
+        Set<String> selected = viewModel.getSelection().getValue();
+        return selected != null ? selected.size() : 0;
+    }
+
     public static PasswordListFragment newInstance() {
         return new PasswordListFragment();
     }
@@ -20,18 +20,28 @@ import android.app.Application;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.Transformations;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
-import com.memoripass.crypto.CryptoManager;
-import com.memoripass.data.model.PasswordEntry;
+import com.memoripass.data.model.PasswordSummary;
 import com.memoripass.data.repository.PasswordRepository;
+import com.memoripass.data.repository.RevealedSummaries;
 import com.memoripass.domain.usecase.DeletePasswordUseCase;
 import com.memoripass.domain.usecase.GetAllPasswordsUseCase;
+import com.memoripass.domain.usecase.UpdatePasswordUseCase;
 import com.memoripass.ui.common.BaseViewModel;
 
-import java.util.List;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * パスワード一覧ViewModel
@@ -44,60 +54,92 @@ import java.util.List;
  *   <li>検索</li>
  *   <li>カテゴリフィルタ</li>
  *   <li>パスワード削除</li>
+ *   <li>複数選択での一括削除・カテゴリ移動</li>
  * </ul>
  *
+ * <p>一覧はページ単位で読み込み、ViewModelのスコープでキャッシュする
+ * （画面回転時に再読み込み・再復号しない）。</p>
+ *
+ * <p>復号済みの要約はメモリ上のモデル（{@link RevealedSummaries}）に保持し、
+ * 変更履歴の差分（変更・削除されたエントリ）のみを反映する。データベースの変更でページを
+ * 再読み込みしても、変更のなかった行は復号しない。挿入されたエントリは表示時に復号する。</p>
+ *
  * @since 1.0
  */
 public class PasswordListViewModel extends BaseViewModel {
 
     private static final String TAG = "PasswordListViewModel";
 
+    private final PasswordRepository repository;
     private final GetAllPasswordsUseCase getAllPasswordsUseCase;
     private final DeletePasswordUseCase deletePasswordUseCase;
+    private final UpdatePasswordUseCase updatePasswordUseCase;
+
+    private final MutableLiveData<ListQuery> listQuery = new MutableLiveData<>();
+    private final LiveData<PagingData<PasswordSummary>> passwords;
+    private final MutableLiveData<Set<String>> selection = new MutableLiveData<>(Collections.emptySet());
+    private final MutableLiveData<String> message = new MutableLiveData<>();
 
-    private final MutableLiveData<String> searchQuery = new MutableLiveData<>();
-    private final LiveData<List<PasswordEntry>> passwords;
+    private final RevealedSummaries revealed;
+    private final LiveData<Long> revision;
+    private final Observer<Long> revisionObserver = this::onRevisionChanged;
+    private final AtomicBoolean patching = new AtomicBoolean();
+    private final AtomicBoolean patchPending = new AtomicBoolean();
 
     /**
      * コンストラクタ
      *
+     * <p>{@link com.memoripass.ui.common.ViewModelFactory} から生成する。
+     * リポジトリ・ユースケースはアプリ全体で共有するものを受け取る。</p>
+     *
      * @param application アプリケーション
+     * @param repository パスワードリポジトリ
+     * @param revealed 復号済みの要約（アンロック中に先読みしたもの、または空）
+     * @param getAllPasswordsUseCase パスワード一覧取得ユースケース
+     * @param deletePasswordUseCase パスワード削除ユースケース
+     * @param updatePasswordUseCase パスワード更新ユースケース
      */
-    public PasswordListViewModel(@NonNull Application application) {
+    public PasswordListViewModel(
+            @NonNull Application application,
+            @NonNull PasswordRepository repository,
+            @NonNull RevealedSummaries revealed,
+            @NonNull GetAllPasswordsUseCase getAllPasswordsUseCase,
+            @NonNull DeletePasswordUseCase deletePasswordUseCase,
+            @NonNull UpdatePasswordUseCase updatePasswordUseCase
+    ) {
         super(application);
 
-        try {
-            // Repositoryとユースケースの初期化
-            PasswordRepository repository = new PasswordRepository(application);
-            this.getAllPasswordsUseCase = new GetAllPasswordsUseCase(repository);
-            this.deletePasswordUseCase = new DeletePasswordUseCase(repository);
-
-            // 検索クエリに応じてパスワードを取得
-            this.passwords = Transformations.switchMap(searchQuery, query -> {
-                if (query == null || query.isEmpty()) {
-                    return getAllPasswordsUseCase.execute();
-                } else {
-                    return getAllPasswordsUseCase.executeSearch(query);
-                }
-            });
-
-            // 初期状態として全件取得
-            searchQuery.setValue("");
-
-            Log.d(TAG, "PasswordListViewModel initialized successfully");
-
-        } catch (CryptoManager.CryptoException e) {
-            Log.e(TAG, "Failed to initialize PasswordListViewModel", e);
-            throw new RuntimeException("Failed to initialize ViewModel", e);
-        }
+        this.repository = repository;
+        this.revealed = revealed;
+        this.getAllPasswordsUseCase = getAllPasswordsUseCase;
+        this.deletePasswordUseCase = deletePasswordUseCase;
+        this.updatePasswordUseCase = updatePasswordUseCase;
+
+        // 検索クエリ・カテゴリに応じてパスワードを取得
+        this.passwords = PagingLiveData.cachedIn(
+                Transformations.switchMap(
+                        Transformations.distinctUntilChanged(listQuery),
+                        query -> getAllPasswordsUseCase.executePaged(query.query, query.category, revealed)
+                ),
+                this
+        );
+
+        // 初期状態として全件取得
+        listQuery.setValue(new ListQuery("", null));
+
+        // 変更履歴の差分を復号済みの要約に反映
+        this.revision = repository.observeRevision();
+        revision.observeForever(revisionObserver);
+
+        Log.d(TAG, "PasswordListViewModel initialized successfully");
     }
 
     /**
      * パスワード一覧を取得
      *
-     * @return パスワードエントリのLiveDataリスト
+     * @return ページ単位の要約のLiveData
      */
-    public LiveData<List<PasswordEntry>> getPasswords() {
+    public LiveData<PagingData<PasswordSummary>> getPasswords() {
         return passwords;
     }
 
@@ -108,7 +150,7 @@ public class PasswordListViewModel extends BaseViewModel {
      */
     public void searchPasswords(@NonNull String query) {
         Log.d(TAG, "Searching passwords with query: " + query);
-        searchQuery.setValue(query);
+        listQuery.setValue(new ListQuery(query, currentCategory()));
     }
 
     /**
@@ -116,7 +158,7 @@ public class PasswordListViewModel extends BaseViewModel {
      */
     public void clearSearch() {
         Log.d(TAG, "Clearing search");
-        searchQuery.setValue("");
+        listQuery.setValue(new ListQuery("", currentCategory()));
     }
 
     /**
@@ -126,37 +168,227 @@ public class PasswordListViewModel extends BaseViewModel {
      */
     public void filterByCategory(@NonNull String category) {
         Log.d(TAG, "Filtering by category: " + category);
-        // TODO: カテゴリフィルタの実装
-        // 現時点では検索機能で代用
+        ListQuery current = listQuery.getValue();
+        listQuery.setValue(new ListQuery(current != null ? current.query : "",
+                category.isEmpty() ? null : category));
     }
 
     /**
      * パスワードを削除
      *
-     * @param passwordEntry 削除するパスワードエントリ
+     * @param summary 削除するパスワードの要約
      */
-    public void deletePassword(@NonNull PasswordEntry passwordEntry) {
-        Log.d(TAG, "Deleting password: " + passwordEntry.getId());
+    public void deletePassword(@NonNull PasswordSummary summary) {
+        Log.d(TAG, "Deleting password: " + summary.getId());
 
         try {
-            deletePasswordUseCase.execute(passwordEntry.getId());
-            setSuccess();
-            Log.i(TAG, "Password deleted successfully");
+            notifyWhenCommitted(deletePasswordUseCase.execute(summary.getId()), "削除しました");
+        } catch (Exception e) {
+            handleException(e);
+        }
+    }
+
+    /**
+     * 選択中のパスワードIDを取得
+     *
+     * @return 選択中のIDのLiveData（空の場合は選択モードではない）
+     */
+    public LiveData<Set<String>> getSelection() {
+        return selection;
+    }
+
+    /**
+     * 選択中かどうか
+     *
+     * @return true: 1件以上選択中
+     */
+    public boolean isSelecting() {
+        return !selectedIds().isEmpty();
+    }
+
+    /**
+     * パスワードの選択を切り替え
+     *
+     * @param id エントリID
+     */
+    public void toggleSelection(@NonNull String id) {
+        Set<String> selected = new LinkedHashSet<>(selectedIds());
+        if (!selected.remove(id)) {
+            selected.add(id);
+        }
+        selection.setValue(Collections.unmodifiableSet(selected));
+    }
+
+    /**
+     * 選択を解除
+     */
+    public void clearSelection() {
+        selection.setValue(Collections.emptySet());
+    }
+
+    /**
+     * 選択中のパスワードを一括削除
+     */
+    public void deleteSelected() {
+        Set<String> selected = selectedIds();
+        Log.d(TAG, "Deleting selected passwords: " + selected.size());
+
+        try {
+            notifyWhenCommitted(deletePasswordUseCase.executeAll(selected), selected.size() + "件を削除しました");
+            clearSelection();
+        } catch (Exception e) {
+            handleException(e);
+        }
+    }
+
+    /**
+     * 選択中のパスワードのカテゴリを一括変更
+     *
+     * @param category 変更後のカテゴリ名（空文字の場合は未分類）
+     */
+    public void moveSelected(@NonNull String category) {
+        Set<String> selected = selectedIds();
+        Log.d(TAG, "Moving selected passwords: " + selected.size() + " to " + category);
+
+        try {
+            notifyWhenCommitted(updatePasswordUseCase.executeMove(selected, category),
+                    selected.size() + "件を移動しました");
+            clearSelection();
         } catch (Exception e) {
             handleException(e);
         }
     }
 
     /**
-     * パスワード一覧が読み込まれた時の処理
+     * 書き込み完了のメッセージを取得
      *
-     * @param passwords パスワードリスト
+     * @return コミット後に通知するメッセージのLiveData（表示済みの場合はnull）
+     */
+    public LiveData<String> getMessage() {
+        return message;
+    }
+
+    /**
+     * メッセージを表示した時の処理（再表示しないように消去する）
      */
-    public void onPasswordsLoaded(List<PasswordEntry> passwords) {
-        if (passwords == null || passwords.isEmpty()) {
+    public void onMessageShown() {
+        message.setValue(null);
+    }
+
+    /**
+     * パスワード一覧の読み込みが完了した時の処理
+     *
+     * @param itemCount 表示件数（プレースホルダーを含む）
+     */
+    public void onPasswordsLoaded(int itemCount) {
+        if (itemCount == 0) {
             setEmpty();
         } else {
             setSuccess();
         }
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        revision.removeObserver(revisionObserver);
+    }
+
+    /**
+     * 最新の変更の番号が変わった時の処理
+     *
+     * @param latest 最新の変更の番号
+     */
+    private void onRevisionChanged(@Nullable Long latest) {
+        if (latest == null) {
+            return;
+        }
+        if (revealed.getRevision() < 0 || revealed.size() == 0) {
+            // 復号済みの要約がなければ差分は不要（基準の番号のみ記録）
+            revealed.advanceTo(latest);
+            return;
+        }
+        if (latest > revealed.getRevision()) {
+            patchRevealed();
+        }
+    }
+
+    /**
+     * 反映済みの番号以降の差分を取得して反映（取得中に変更があれば取得後にもう一度行う）
+     */
+    private void patchRevealed() {
+        if (!patching.compareAndSet(false, true)) {
+            patchPending.set(true);
+            return;
+        }
+        repository.getChangesSince(revealed.getRevision(), revealed).whenComplete((changes, error) -> {
+            if (error != null) {
+                Log.w(TAG, "Changes not applied", causeOf(error));
+            } else {
+                revealed.apply(changes);
+                Log.d(TAG, "Changes applied: " + changes.getUpdated().size() + " updated, "
+                        + changes.getDeleted().size() + " deleted");
+            }
+            patching.set(false);
+            if (patchPending.getAndSet(false)) {
+                patchRevealed();
+            }
+        });
+    }
+
+    /**
+     * 書き込みのコミット後にメッセージを通知（一覧はデータベースの変更で自動的に更新される）
+     */
+    private void notifyWhenCommitted(@NonNull CompletableFuture<Void> write, @NonNull String doneMessage) {
+        write.whenComplete((ignored, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Write failed", causeOf(error));
+                handleError(causeOf(error));
+                return;
+            }
+            message.postValue(doneMessage);
+        });
+    }
+
+    @NonNull
+    private Set<String> selectedIds() {
+        Set<String> selected = selection.getValue();
+        return selected != null ? selected : Collections.emptySet();
+    }
+
+    @Nullable
+    private String currentCategory() {
+        ListQuery current = listQuery.getValue();
+        return current != null ? current.category : null;
+    }
+
+    /**
+     * 一覧の表示条件
+     */
+    private static final class ListQuery {
+        final String query;
+        final String category;
+
+        ListQuery(@NonNull String query, @Nullable String category) {
+            this.query = query;
+            this.category = category;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ListQuery)) {
+                return false;
+            }
+            ListQuery other = (ListQuery) o;
+            return query.equals(other.query) && Objects.equals(category, other.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, category);
+        }
+    }
 }
@@ -77,10 +77,13 @@ public class AuditLogger {
     /**
      * 操作を記録
      *
+     * <p>起動処理のバックグラウンドスレッドからも呼ばれるため、
+     * 日時の整形とログ件数の更新を排他する。</p>
+     *
      * @param action 操作種別
      * @param detail 詳細情報（機密情報は含めない）
      */
-    public void log(@NonNull Action action, String detail) {
+    public synchronized void log(@NonNull Action action, String detail) {
         String timestamp = dateFormat.format(new Date());
         String logEntry = String.format("[%s] %s: %s",
                 timestamp, action.getDisplayName(),
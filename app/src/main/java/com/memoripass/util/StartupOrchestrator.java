@@ -0,0 +1,449 @@
+/*
+ * Copyright 2026 wafukarubonara-stack
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.memoripass.util;
+
+import android.os.Trace;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 起動処理のオーケストレーター
+ *
+ * <p>起動時の初期化処理を依存関係付きのタスクとして登録し、
+ * 互いに依存しないタスクはメインスレッド外で並行に実行する。</p>
+ *
+ * <p>仕様:</p>
+ * <ul>
+ *   <li>{@link #addBlocking} で登録したタスクは {@link #start()} の中で呼び出し元スレッドで順に実行する
+ *       （最初のフレームまでに必要なものだけを登録する）</li>
+ *   <li>{@link #add} で登録したタスクは依存先の完了後にバックグラウンドスレッドで実行する</li>
+ *   <li>依存先は先に登録しておくこと（循環は登録時点で発生しない）。
+ *       呼び出し元スレッドのタスクはバックグラウンドのタスクに依存できない</li>
+ *   <li>依存先が失敗した場合、そのタスクは実行せずにスキップする</li>
+ *   <li>各タスクは {@link Trace} のセクション（"startup:タスク名"）で囲み、
+ *       所要時間を起動レポート（{@link Report}）に記録する</li>
+ * </ul>
+ *
+ * @since 1.1
+ */
+public final class StartupOrchestrator {
+
+    private static final String TAG = "StartupOrchestrator";
+
+    // Traceのセクション名の接頭辞
+    private static final String SECTION_PREFIX = "startup:";
+
+    // 起動処理全体の非同期セクション
+    private static final String PIPELINE_SECTION = "startup";
+
+    // 非同期セクションの識別子（Activityの再生成で前回の起動処理と重なっても対応を取れるよう、インスタンスごとに発行）
+    private static final AtomicInteger NEXT_COOKIE = new AtomicInteger();
+
+    // バックグラウンドスレッド数の上限
+    private static final int MAX_THREADS = 3;
+
+    /**
+     * 初期化処理
+     */
+    @FunctionalInterface
+    public interface Initializer {
+        void run() throws Exception;
+    }
+
+    @Nullable
+    private final Executor executor;
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private final CompletableFuture<Report> completion = new CompletableFuture<>();
+    private final int traceCookie = NEXT_COOKIE.incrementAndGet();
+    private boolean started;
+    private long originNanos;
+
+    /**
+     * コンストラクタ
+     *
+     * <p>バックグラウンドのタスクは専用のスレッドで実行し、すべての完了後にスレッドを停止する。</p>
+     */
+    public StartupOrchestrator() {
+        this(null);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param executor バックグラウンドのタスクを実行するExecutor（nullの場合は専用のスレッドを作成）
+     */
+    @VisibleForTesting
+    StartupOrchestrator(@Nullable Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 最初のフレームまでに必要なタスクを登録
+     *
+     * @param name タスク名
+     * @param task 初期化処理
+     * @param dependsOn 依存先のタスク名（呼び出し元スレッドのタスクのみ）
+     * @return このオーケストレーター
+     * @throws IllegalArgumentException 名前の重複・未登録またはバックグラウンドのタスクへの依存
+     */
+    @NonNull
+    public StartupOrchestrator addBlocking(@NonNull String name, @NonNull Initializer task,
+                                           @NonNull String... dependsOn) {
+        for (String dependency : dependsOn) {
+            Step step = steps.get(dependency);
+            if (step != null && !step.blocking) {
+                throw new IllegalArgumentException(name + " cannot wait for background task " + dependency);
+            }
+        }
+        return register(new Step(name, true, task, dependsOn));
+    }
+
+    /**
+     * バックグラウンドで実行するタスクを登録
+     *
+     * @param name タスク名
+     * @param task 初期化処理
+     * @param dependsOn 依存先のタスク名
+     * @return このオーケストレーター
+     * @throws IllegalArgumentException 名前の重複・未登録のタスクへの依存
+     */
+    @NonNull
+    public StartupOrchestrator add(@NonNull String name, @NonNull Initializer task, @NonNull String... dependsOn) {
+        return register(new Step(name, false, task, dependsOn));
+    }
+
+    /**
+     * 起動処理を開始
+     *
+     * <p>バックグラウンドのタスクを投入した後、呼び出し元スレッドのタスクを実行して戻る。</p>
+     *
+     * @throws IllegalStateException 開始済み
+     * @throws RuntimeException 呼び出し元スレッドのタスクが失敗（バックグラウンドのタスクは継続する）
+     */
+    public void start() {
+        if (started) {
+            throw new IllegalStateException("Startup already started");
+        }
+        started = true;
+        originNanos = System.nanoTime();
+        Trace.beginAsyncSection(PIPELINE_SECTION, traceCookie);
+
+        List<Step> blocking = new ArrayList<>();
+        int backgroundCount = 0;
+        for (Step step : steps.values()) {
+            if (step.blocking) {
+                blocking.add(step);
+            } else {
+                backgroundCount++;
+            }
+        }
+        ExecutorService ownPool = executor == null && backgroundCount > 0
+                ? newPool(Math.min(MAX_THREADS, backgroundCount)) : null;
+        Executor background = ownPool != null ? ownPool : executor;
+
+        // 依存先の完了後に実行するよう、登録順に組み立てる
+        List<CompletableFuture<Void>> all = new ArrayList<>(steps.size());
+        for (Step step : steps.values()) {
+            if (step.blocking) {
+                step.done = new CompletableFuture<>();
+            } else {
+                CompletableFuture<?>[] dependencies = new CompletableFuture<?>[step.dependsOn.length];
+                for (int i = 0; i < dependencies.length; i++) {
+                    dependencies[i] = steps.get(step.dependsOn[i]).done;
+                }
+                step.done = CompletableFuture.allOf(dependencies).thenRunAsync(() -> run(step), background);
+            }
+            all.add(step.done);
+        }
+
+        CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            Report report = buildReport();
+            Trace.endAsyncSection(PIPELINE_SECTION, traceCookie);
+            if (ownPool != null) {
+                ownPool.shutdown();
+            }
+            Log.i(TAG, report.toString());
+            completion.complete(report);
+        });
+
+        RuntimeException failure = null;
+        for (Step step : blocking) {
+            if (failure != null) {
+                // 失敗以降のタスクは実行しない（待ち合わせているタスクもスキップされる）
+                step.done.completeExceptionally(failure);
+                continue;
+            }
+            try {
+                run(step);
+                step.done.complete(null);
+            } catch (CompletionException e) {
+                step.done.completeExceptionally(e.getCause());
+                failure = e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause()
+                        : new RuntimeException("Startup task failed: " + step.name, e.getCause());
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        Log.d(TAG, "Blocking startup tasks finished in " + elapsedMillis(System.nanoTime()) + "ms");
+    }
+
+    /**
+     * すべてのタスクの完了（失敗・スキップを含む）を待ち合わせるFutureを取得
+     *
+     * @return 起動レポートで完了するFuture
+     */
+    @NonNull
+    public CompletableFuture<Report> whenComplete() {
+        return completion;
+    }
+
+    @NonNull
+    private StartupOrchestrator register(@NonNull Step step) {
+        if (started) {
+            throw new IllegalStateException("Startup already started");
+        }
+        if (steps.containsKey(step.name)) {
+            throw new IllegalArgumentException("Duplicate startup task: " + step.name);
+        }
+        for (String dependency : step.dependsOn) {
+            if (!steps.containsKey(dependency)) {
+                throw new IllegalArgumentException(step.name + " depends on unknown task " + dependency);
+            }
+        }
+        steps.put(step.name, step);
+        return this;
+    }
+
+    /**
+     * タスクを実行し、所要時間を記録
+     *
+     * @throws CompletionException タスクが失敗
+     */
+    private void run(@NonNull Step step) {
+        long begin = System.nanoTime();
+        step.threadName = Thread.currentThread().getName();
+        Trace.beginSection(SECTION_PREFIX + step.name);
+        try {
+            step.task.run();
+            step.status = Status.COMPLETED;
+        } catch (Exception e) {
+            step.status = Status.FAILED;
+            Log.e(TAG, "Startup task failed: " + step.name, e);
+            throw new CompletionException(e);
+        } finally {
+            Trace.endSection();
+            step.startMillis = elapsedMillis(begin);
+            step.durationMillis = (System.nanoTime() - begin) / 1_000_000.0;
+        }
+    }
+
+    @NonNull
+    private Report buildReport() {
+        List<Timing> timings = new ArrayList<>(steps.size());
+        double gateMillis = 0;
+        for (Step step : steps.values()) {
+            // 実行されなかったタスクは依存先の失敗によるスキップ
+            Status status = step.status != null ? step.status : Status.SKIPPED;
+            Timing timing = new Timing(step.name, step.blocking, status, step.threadName,
+                    step.startMillis, step.durationMillis);
+            timings.add(timing);
+            if (step.blocking) {
+                gateMillis = Math.max(gateMillis, step.startMillis + step.durationMillis);
+            }
+        }
+        return new Report(timings, gateMillis, elapsedMillis(System.nanoTime()));
+    }
+
+    private double elapsedMillis(long nanos) {
+        return (nanos - originNanos) / 1_000_000.0;
+    }
+
+    @NonNull
+    private static ExecutorService newPool(int threads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads,
+                threads,
+                1,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "startup-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * タスクの結果
+     */
+    public enum Status {
+        /** 完了 */
+        COMPLETED,
+        /** 例外で失敗 */
+        FAILED,
+        /** 依存先の失敗により未実行 */
+        SKIPPED
+    }
+
+    /**
+     * 登録されたタスク
+     */
+    private static final class Step {
+
+        final String name;
+        final boolean blocking;
+        final Initializer task;
+        final String[] dependsOn;
+        CompletableFuture<Void> done;
+
+        // 実行したスレッドで書き込み、完了（done）後に読み出す
+        volatile Status status;
+        volatile String threadName;
+        volatile double startMillis;
+        volatile double durationMillis;
+
+        Step(@NonNull String name, boolean blocking, @NonNull Initializer task, @NonNull String[] dependsOn) {
+            this.name = name;
+            this.blocking = blocking;
+            this.task = task;
+            this.dependsOn = dependsOn.clone();
+        }
+    }
+
+    /**
+     * タスクごとの所要時間
+     */
+    public static final class Timing {
+
+        public final String name;
+        public final boolean blocking;
+        public final Status status;
+        @Nullable
+        public final String threadName;
+        // 起動処理の開始からタスクの開始までの時間（ミリ秒）
+        public final double startMillis;
+        public final double durationMillis;
+
+        Timing(@NonNull String name, boolean blocking, @NonNull Status status, @Nullable String threadName,
+               double startMillis, double durationMillis) {
+            this.name = name;
+            this.blocking = blocking;
+            this.status = status;
+            this.threadName = threadName;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+        }
+    }
+
+    /**
+     * 起動レポート
+     */
+    public static final class Report {
+
+        private final List<Timing> timings;
+        private final double gateMillis;
+        private final double totalMillis;
+
+        Report(@NonNull List<Timing> timings, double gateMillis, double totalMillis) {
+            this.timings = Collections.unmodifiableList(timings);
+            this.gateMillis = gateMillis;
+            this.totalMillis = totalMillis;
+        }
+
+        /**
+         * タスクごとの所要時間を取得
+         *
+         * @return 登録順の所要時間
+         */
+        @NonNull
+        public List<Timing> getTimings() {
+            return timings;
+        }
+
+        /**
+         * 指定したタスクの所要時間を取得
+         *
+         * @param name タスク名
+         * @return 所要時間（未登録の場合はnull）
+         */
+        @Nullable
+        public Timing get(@NonNull String name) {
+            for (Timing timing : timings) {
+                if (timing.name.equals(name)) {
+                    return timing;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 呼び出し元スレッドのタスクがすべて終わるまでの時間を取得
+         *
+         * @return 最初のフレームを待たせた時間（ミリ秒）
+         */
+        public double getGateMillis() {
+            return gateMillis;
+        }
+
+        /**
+         * すべてのタスクが終わるまでの時間を取得
+         *
+         * @return 起動処理の所要時間（ミリ秒）
+         */
+        public double getTotalMillis() {
+            return totalMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(String.format(Locale.US,
+                    "Startup report: gate %.1fms, total %.1fms", gateMillis, totalMillis));
+            for (Timing timing : timings) {
+                builder.append(String.format(Locale.US, "%n  %-16s %-9s %s +%.1fms %.1fms [%s]",
+                        timing.name, timing.status, timing.blocking ? "blocking" : "async",
+                        timing.startMillis, timing.durationMillis,
+                        timing.threadName != null ? timing.threadName : "-"));
+            }
+            return builder.toString();
+        }
+    }
+}
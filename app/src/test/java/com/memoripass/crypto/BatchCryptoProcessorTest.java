@@ -0,0 +1,143 @@
+package com.memoripass.crypto;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BatchCryptoProcessorのユニットテスト（JVM上で実行）
+ *
+ * <p>{@link BatchCryptoProcessor#processAll} は暗号化マネージャーを使わないため、
+ * 任意の処理を渡して並列処理の振る舞いのみを確認する。</p>
+ */
+public class BatchCryptoProcessorTest {
+
+    private BatchCryptoProcessor processor;
+
+    @After
+    public void tearDown() {
+        if (processor != null) {
+            processor.shutdown();
+        }
+    }
+
+    @Test
+    public void failedItems_areRecordedWithoutAbortingBatch_inInputOrder() throws Exception {
+        processor = new BatchCryptoProcessor(null, 3, 8);
+        List<Integer> items = range(200);
+
+        BatchResult<Integer> result = processor.processAll(items, item -> {
+            if (item % 7 == 0) {
+                throw new CryptoManager.CryptoException("item " + item);
+            }
+            // チャンクの完了順を入れ替える
+            Thread.yield();
+            return item * 2;
+        }, null);
+
+        assertEquals(200, result.size());
+        assertEquals(29, result.getFailureCount());
+        assertEquals(171, result.getSuccessCount());
+        for (int i = 0; i < items.size(); i++) {
+            if (i % 7 == 0) {
+                assertFalse(result.isSuccess(i));
+                assertEquals("item " + i, result.getError(i).getMessage());
+            } else {
+                assertEquals(Integer.valueOf(i * 2), result.getValue(i));
+            }
+        }
+    }
+
+    @Test
+    public void chunksInFlight_areBoundedPerWorker() throws Exception {
+        int workers = 2;
+        int limit = workers * BatchCryptoProcessor.CHUNKS_IN_FLIGHT_PER_WORKER;
+        processor = new BatchCryptoProcessor(null, workers, 1);
+        CountDownLatch started = new CountDownLatch(workers);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+
+        CompletableFuture<BatchResult<Integer>> batch = CompletableFuture.supplyAsync(() -> {
+            try {
+                return processor.processAll(range(20), item -> {
+                    running.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return item;
+                }, null);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // ワーカーが塞がっている間、投入は上限で止まる
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (processor.getQueuedChunkCount() < limit - workers && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        assertEquals(workers, running.get());
+        assertEquals(limit - workers, processor.getQueuedChunkCount());
+
+        release.countDown();
+        assertEquals(20, batch.get(5, TimeUnit.SECONDS).getSuccessCount());
+    }
+
+    @Test
+    public void rejectedChunks_areMarkedAsErrors() throws Exception {
+        processor = new BatchCryptoProcessor(null, 2, 4);
+        processor.shutdown();
+        AtomicInteger progressCalls = new AtomicInteger();
+
+        BatchResult<Integer> result = processor.processAll(range(10), item -> item,
+                (completed, total) -> progressCalls.incrementAndGet());
+
+        assertEquals(10, result.getFailureCount());
+        for (int i = 0; i < result.size(); i++) {
+            assertTrue(result.getError(i) instanceof RejectedExecutionException);
+        }
+        assertEquals(0, progressCalls.get());
+    }
+
+    @Test
+    public void progress_isReportedOncePerChunk() throws Exception {
+        processor = new BatchCryptoProcessor(null, 3, 10);
+        List<Integer> reported = Collections.synchronizedList(new ArrayList<>());
+
+        processor.processAll(range(95), item -> item, (completed, total) -> {
+            assertEquals(95, total);
+            reported.add(completed);
+        });
+
+        // 通知はワーカースレッドから届くため順不同。チャンクごとに1回、異なる累計件数で届く
+        List<Integer> sorted = new ArrayList<>(reported);
+        Collections.sort(sorted);
+        assertEquals(10, sorted.size());
+        assertEquals(10, sorted.stream().distinct().count());
+        assertEquals(Integer.valueOf(95), sorted.get(sorted.size() - 1));
+    }
+
+    private static List<Integer> range(int count) {
+        return IntStream.range(0, count).boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,142 @@
+package com.memoripass.crypto;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 呼び出し側バッファを使う暗号化・復号のユニットテスト（JVM上で実行）
+ *
+ * <p>定常状態の割り当て量をスレッド単位で計測し、平文の長さに比例した
+ * 一時オブジェクトが生成されないことを確認する。</p>
+ */
+public class BufferCryptoTest {
+
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 2_000;
+
+    private CipherEngine engine;
+    private byte[] header;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        SecretKey key = generator.generateKey();
+        engine = new CipherEngine(() -> key, 2);
+        header = CiphertextFormat.newHeaderV2(CipherSuite.AES_256_GCM, 3);
+    }
+
+    @Test
+    public void chars_roundTripIncludingMultibyteText() throws Exception {
+        char[] plaintext = "パスワード🔑 p@ss".toCharArray();
+        ByteBuffer encrypted = ByteBuffer.allocate(
+                CipherEngine.encryptedSize(header.length, Utf8.maxEncodedLength(plaintext.length)));
+
+        int written = BufferCrypto.encrypt(engine, header, plaintext, 0, plaintext.length, encrypted);
+        byte[] expected = new String(plaintext).getBytes(StandardCharsets.UTF_8);
+        assertEquals(CipherEngine.encryptedSize(header.length, expected.length), written);
+
+        // String APIと同じ形式で読み出せる
+        assertArrayEquals(expected, engine.decrypt(encrypted.array(), 0, written, header.length));
+
+        char[] decrypted = new char[written];
+        encrypted.flip();
+        int length = BufferCrypto.decrypt(engine, encrypted, header.length, decrypted, 0);
+        assertArrayEquals(plaintext, Arrays.copyOf(decrypted, length));
+    }
+
+    @Test
+    public void steadyStateAllocation_doesNotGrowWithPayload() throws Exception {
+        long small = allocatedPerRound(payload(16));
+        long large = allocatedPerRound(payload(2_048));
+
+        // 平文が128倍になっても、割り当て量は暗号プロバイダー内部の定数分のみ
+        assertTrue("Allocation grew with payload: " + small + " -> " + large,
+                large - small < 256);
+    }
+
+    @Test
+    public void steadyStateAllocation_isBelowByteArrayPath() throws Exception {
+        char[] plaintext = payload(2_048);
+        long buffered = allocatedPerRound(plaintext);
+
+        String text = new String(plaintext);
+        Runnable arrayPath = () -> {
+            try {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                byte[] encrypted = engine.encrypt(header, bytes, 0, bytes.length);
+                new String(engine.decrypt(encrypted, 0, encrypted.length, header.length),
+                        StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        };
+        long allocating = measure(arrayPath);
+
+        assertTrue("Expected less garbage: " + buffered + " vs " + allocating,
+                buffered * 4 < allocating);
+    }
+
+    /**
+     * 呼び出し側バッファでの暗号化+復号1回あたりの割り当てバイト数
+     */
+    private long allocatedPerRound(char[] plaintext) throws Exception {
+        ByteBuffer encrypted = ByteBuffer.allocate(
+                CipherEngine.encryptedSize(header.length, Utf8.maxEncodedLength(plaintext.length)));
+        char[] decrypted = new char[plaintext.length];
+
+        return measure(() -> {
+            try {
+                encrypted.clear();
+                BufferCrypto.encrypt(engine, header, plaintext, 0, plaintext.length, encrypted);
+                encrypted.flip();
+                BufferCrypto.decrypt(engine, encrypted, header.length, decrypted, 0);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+    }
+
+    /**
+     * ウォームアップ後の1回あたりの割り当てバイト数
+     */
+    private static long measure(Runnable round) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("Allocation counter not supported",
+                bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_ROUNDS;
+    }
+
+    private static char[] payload(int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + i % 26);
+        }
+        return chars;
+    }
+}
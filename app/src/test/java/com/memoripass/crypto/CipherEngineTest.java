@@ -0,0 +1,170 @@
+package com.memoripass.crypto;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * CipherEngineのユニットテスト（JVM上で実行）
+ *
+ * <p>AndroidKeyStoreの代わりにソフトウェアAES鍵を使用する。</p>
+ */
+public class CipherEngineTest {
+
+    private static final byte[] PLAINTEXT =
+            "correct horse battery staple".getBytes(StandardCharsets.UTF_8);
+
+    // スループット計測の試行回数と、並列化で期待する最小の高速化率
+    private static final int THROUGHPUT_RUNS = 5;
+    private static final double MIN_SPEEDUP = 1.1;
+
+    private SecretKey key;
+    private AtomicInteger resolveCount;
+    private CipherEngine engine;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        key = generator.generateKey();
+        resolveCount = new AtomicInteger();
+        engine = new CipherEngine(() -> {
+            resolveCount.incrementAndGet();
+            return key;
+        }, 2);
+    }
+
+    @Test
+    public void encryptThenDecrypt_roundTrips() throws Exception {
+        byte[] encrypted = engine.encrypt(PLAINTEXT, 0, PLAINTEXT.length);
+
+        assertEquals(CipherEngine.IV_SIZE_BYTES + PLAINTEXT.length + 16, encrypted.length);
+        assertArrayEquals(PLAINTEXT, engine.decrypt(encrypted, 0, encrypted.length));
+    }
+
+    @Test
+    public void encryptWithHeader_authenticatesHeader() throws Exception {
+        byte[] header = CiphertextFormat.newHeaderV2(CipherSuite.AES_256_GCM, 7);
+        byte[] encrypted = engine.encrypt(header, PLAINTEXT, 0, PLAINTEXT.length);
+
+        assertEquals(CiphertextFormat.VERSION_2, CiphertextFormat.versionOf(encrypted));
+        assertEquals(CipherSuite.AES_256_GCM, CiphertextFormat.suiteOf(encrypted));
+        assertEquals(7, CiphertextFormat.keyIdOf(encrypted));
+        assertArrayEquals(PLAINTEXT, engine.decrypt(
+                encrypted, 0, encrypted.length, CiphertextFormat.HEADER_SIZE_V2));
+
+        // ヘッダーのキーIDを書き換えると復号できない
+        encrypted[CiphertextFormat.HEADER_SIZE_V2 - 1] ^= 0x01;
+        try {
+            engine.decrypt(encrypted, 0, encrypted.length, CiphertextFormat.HEADER_SIZE_V2);
+            fail("Tampered header must not decrypt");
+        } catch (GeneralSecurityException expected) {
+            // OK
+        }
+    }
+
+    @Test
+    public void decrypt_rejectsTamperedCiphertext() throws Exception {
+        byte[] encrypted = engine.encrypt(PLAINTEXT, 0, PLAINTEXT.length);
+        encrypted[encrypted.length - 1] ^= 0x01;
+
+        try {
+            engine.decrypt(encrypted, 0, encrypted.length);
+            fail("Tampered ciphertext must not decrypt");
+        } catch (GeneralSecurityException expected) {
+            // 改ざん検出
+        }
+    }
+
+    @Test
+    public void key_isResolvedOncePerSession() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            byte[] encrypted = engine.encrypt(PLAINTEXT, 0, PLAINTEXT.length);
+            engine.decrypt(encrypted, 0, encrypted.length);
+        }
+        assertEquals(1, resolveCount.get());
+
+        engine.invalidateKey();
+        engine.encrypt(PLAINTEXT, 0, PLAINTEXT.length);
+        assertEquals(2, resolveCount.get());
+    }
+
+    @Test
+    public void ciphers_areReusedPerThread() throws Exception {
+        int threads = 4;
+        runConcurrently(threads, 500);
+
+        // スレッドごとに1つ生成され、以降は再利用される
+        assertTrue(engine.getCipherPool().getCreatedCount() <= threads);
+    }
+
+    @Test
+    public void throughput_scalesWithThreadCount() throws Exception {
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        assumeTrue("Requires at least 2 CPUs", threads >= 2);
+
+        int totalOperations = 20_000;
+
+        // ウォームアップ（JIT・プール作成）
+        runConcurrently(threads, 2_000);
+
+        // 共有のCI環境では他の処理に割り込まれるため、数回の最短時間で比べ、閾値も緩くする
+        long singleNanos = Long.MAX_VALUE;
+        long parallelNanos = Long.MAX_VALUE;
+        for (int run = 0; run < THROUGHPUT_RUNS; run++) {
+            singleNanos = Math.min(singleNanos, runConcurrently(1, totalOperations));
+            parallelNanos = Math.min(parallelNanos, runConcurrently(threads, totalOperations / threads));
+        }
+
+        double speedup = (double) singleNanos / parallelNanos;
+        assertTrue("Expected parallel speedup, got " + speedup, speedup > MIN_SPEEDUP);
+    }
+
+    /**
+     * 指定スレッド数で暗号化+復号を実行し、経過時間（ナノ秒）を返す
+     */
+    private long runConcurrently(int threads, int operationsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        byte[] encrypted = engine.encrypt(PLAINTEXT, 0, PLAINTEXT.length);
+                        byte[] decrypted = engine.decrypt(encrypted, 0, encrypted.length);
+                        if (decrypted.length != PLAINTEXT.length) {
+                            throw new AssertionError("Round trip failed");
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            long start = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
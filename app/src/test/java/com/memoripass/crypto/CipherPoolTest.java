@@ -0,0 +1,50 @@
+package com.memoripass.crypto;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * CipherPoolのユニットテスト（JVM上で実行）
+ */
+public class CipherPoolTest {
+
+    @Test
+    public void clear_emptiesPoolsOfOtherThreads() throws Exception {
+        CipherPool pool = new CipherPool("AES/GCM/NoPadding", 2);
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            worker.submit(() -> {
+                pool.release(pool.acquire());
+                return null;
+            }).get(5, TimeUnit.SECONDS);
+            assertEquals(1, pool.getPooledCount());
+
+            // ロックは暗号処理のスレッドとは別のスレッドから呼ばれる
+            pool.clear();
+
+            assertEquals(0, pool.getPooledCount());
+        } finally {
+            worker.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cipherAcquiredBeforeClear_isNotPooled() throws Exception {
+        CipherPool pool = new CipherPool("AES/GCM/NoPadding", 2);
+
+        Cipher cipher = pool.acquire();
+        pool.clear();
+        pool.release(cipher);
+
+        assertEquals(0, pool.getPooledCount());
+        pool.release(pool.acquire());
+        assertEquals(1, pool.getPooledCount());
+    }
+}
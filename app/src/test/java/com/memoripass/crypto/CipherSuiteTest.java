@@ -0,0 +1,83 @@
+package com.memoripass.crypto;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * CipherSuite・CipherSuiteSelectorのユニットテスト（JVM上で実行）
+ */
+public class CipherSuiteTest {
+
+    private static final byte[] PLAINTEXT =
+            "correct horse battery staple".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void everyAvailableSuite_roundTripsWithHeader() throws Exception {
+        for (CipherSuite suite : CipherSuite.values()) {
+            if (!suite.isAvailable()) {
+                continue;
+            }
+            CipherEngine engine = newEngine(suite);
+            byte[] header = CiphertextFormat.newHeaderV2(suite, 1);
+            byte[] encrypted = engine.encrypt(header, PLAINTEXT, 0, PLAINTEXT.length);
+
+            assertEquals(suite, CiphertextFormat.suiteOf(encrypted));
+            assertArrayEquals(suite.toString(), PLAINTEXT, engine.decrypt(
+                    encrypted, 0, encrypted.length, CiphertextFormat.HEADER_SIZE_V2));
+        }
+    }
+
+    @Test
+    public void chaCha20Poly1305_usesFreshNonces() throws Exception {
+        assumeTrue(CipherSuite.CHACHA20_POLY1305.isAvailable());
+        CipherEngine engine = newEngine(CipherSuite.CHACHA20_POLY1305);
+
+        byte[] first = engine.encrypt(PLAINTEXT, 0, PLAINTEXT.length);
+        byte[] second = engine.encrypt(PLAINTEXT, 0, PLAINTEXT.length);
+
+        assertEquals(first.length, second.length);
+        assertFalse(Arrays.equals(first, second));
+    }
+
+    @Test
+    public void fromId_rejectsUnknownSuite() {
+        try {
+            CipherSuite.fromId((byte) 0x7F);
+            fail("Unknown suite id must be rejected");
+        } catch (CryptoManager.CryptoException expected) {
+            // OK
+        }
+    }
+
+    @Test
+    public void benchmark_picksAnAvailableSuite() {
+        EnumSet<CipherSuite> available = EnumSet.noneOf(CipherSuite.class);
+        for (CipherSuite suite : CipherSuite.values()) {
+            if (suite.isAvailable()) {
+                available.add(suite);
+            }
+        }
+
+        CipherSuite selected = CipherSuiteSelector.benchmark(available, 20);
+
+        assertTrue(available.contains(selected));
+    }
+
+    private static CipherEngine newEngine(CipherSuite suite) {
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        SessionKey key = new SessionKey(keyBytes, suite.getKeyAlgorithm());
+        return new CipherEngine(suite, () -> key, 1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.memoripass.crypto;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * CryptoServiceのユニットテスト（JVM上で実行）
+ */
+public class CryptoServiceTest {
+
+    @Test
+    public void interactiveLane_isNotBlockedByBackgroundWork() throws Exception {
+        CryptoService service = new CryptoService(1, 4, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 3; i++) {
+                service.submit(CryptoService.Priority.BACKGROUND, blockUntil(release));
+            }
+
+            String revealed = service.submit(CryptoService.Priority.INTERACTIVE, () -> "revealed")
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals("revealed", revealed);
+            assertEquals(2, service.getQueueDepth(CryptoService.Priority.BACKGROUND));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void fullQueue_rejectsWithoutBlockingCaller() throws Exception {
+        CryptoService service = new CryptoService(1, 4, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // 実行中1件 + 待ち行列2件で満杯
+            for (int i = 0; i < 3; i++) {
+                service.submit(CryptoService.Priority.BACKGROUND, blockUntil(release));
+            }
+
+            CompletableFuture<Object> rejected =
+                    service.submit(CryptoService.Priority.BACKGROUND, () -> "late");
+
+            assertTrue(rejected.isCompletedExceptionally());
+            assertEquals(1, service.getRejectedCount(CryptoService.Priority.BACKGROUND));
+            assertEquals(0, service.getRejectedCount(CryptoService.Priority.INTERACTIVE));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void cryptoException_failsFuture() throws Exception {
+        CryptoService service = new CryptoService(1, 4, 4);
+        CompletableFuture<String> future = service.submit(CryptoService.Priority.INTERACTIVE, () -> {
+            throw new CryptoManager.CryptoException("Decryption failed");
+        });
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CryptoManager.CryptoException);
+        }
+    }
+
+    /**
+     * ラッチが解放されるまで実行中のままになる処理
+     */
+    private static CryptoService.Task<Object> blockUntil(CountDownLatch latch) {
+        return () -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.memoripass.crypto;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * DataKeyHolderのセッション管理のユニットテスト（JVM上で実行）
+ */
+public class DataKeyHolderTest {
+
+    private final DataKeyHolder holder = DataKeyHolder.getInstance();
+
+    @After
+    public void tearDown() {
+        holder.clear();
+    }
+
+    @Test
+    public void clear_wipesKeysAndEndsSession() {
+        holder.beginSession();
+        holder.set(1, new byte[32], "AES");
+        assertTrue(holder.isUnlocked());
+
+        holder.clear();
+
+        assertFalse(holder.isUnlocked());
+        assertNull(holder.get(1));
+    }
+
+    @Test
+    public void endSession_keepsLaterSession() {
+        long preload = holder.beginSession();
+        holder.beginSession();
+        holder.set(1, new byte[32], "AES");
+
+        // 破棄した先行準備の後始末は、その後の認証で始まったセッションを終了しない
+        holder.endSession(preload);
+
+        assertTrue(holder.isUnlocked());
+        assertNotNull(holder.get(1));
+    }
+
+    @Test
+    public void awaitUnlocked_blocksUntilSessionBegins() throws Exception {
+        holder.clear();
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> {
+            try {
+                holder.awaitUnlocked();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        try {
+            waiting.get(100, TimeUnit.MILLISECONDS);
+            fail("Must wait while locked");
+        } catch (TimeoutException expected) {
+            // ロック中は待機する
+        }
+        holder.beginSession();
+        waiting.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void isLockedError_followsCauses() {
+        Exception wrapped = new CryptoManager.CryptoException("Decryption failed",
+                new DataKeyHolder.LockedException(1));
+
+        assertTrue(DataKeyHolder.isLockedError(wrapped));
+        assertFalse(DataKeyHolder.isLockedError(new CryptoManager.CryptoException("Decryption failed")));
+        assertFalse(DataKeyHolder.isLockedError(null));
+    }
+}
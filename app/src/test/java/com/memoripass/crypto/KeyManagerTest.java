@@ -0,0 +1,42 @@
+package com.memoripass.crypto;
+
+import org.junit.Test;
+
+import java.security.KeyStoreException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * KeyManagerのユニットテスト（JVM上で実行）
+ *
+ * <p>JVMにはAndroidKeyStoreが存在しないため、読み込みは常に失敗する。</p>
+ */
+public class KeyManagerTest {
+
+    @Test
+    public void failedLoad_isRetriedOnNextWarmUp() throws Exception {
+        KeyManager keyManager = KeyManager.getInstance();
+
+        CompletableFuture<KeyManager> first = keyManager.warmUp();
+        assertLoadFails(first);
+
+        // 失敗は次の呼び出しに持ち越されず、読み込みをやり直す
+        CompletableFuture<KeyManager> second = keyManager.warmUp();
+        assertNotSame(first, second);
+        assertLoadFails(second);
+    }
+
+    private static void assertLoadFails(CompletableFuture<KeyManager> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof KeyStoreException);
+        }
+    }
+}
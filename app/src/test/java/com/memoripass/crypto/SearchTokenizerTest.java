@@ -0,0 +1,94 @@
+package com.memoripass.crypto;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SearchTokenizerのユニットテスト（JVM上で実行）
+ */
+public class SearchTokenizerTest {
+
+    @Test
+    public void queryTokens_areSubsetOfIndexTokensForSubstring() {
+        Set<String> index = SearchTokenizer.indexTokens("Gmail", "user@Example.com", null, null);
+
+        for (String query : new String[] {"g", "ma", "exam", "EXAMPLE", "ｕｓｅｒ", "user example"}) {
+            assertTrue(query, index.containsAll(SearchTokenizer.queryTokens(query)));
+            assertTrue(query, SearchTokenizer.matches(query, "Gmail", "user@Example.com"));
+        }
+    }
+
+    @Test
+    public void japaneseText_supportsSubstringSearch() {
+        Set<String> index = SearchTokenizer.indexTokens("三井住友銀行", null, null, "ネットバンキング用");
+
+        assertTrue(index.containsAll(SearchTokenizer.queryTokens("銀行")));
+        assertTrue(index.containsAll(SearchTokenizer.queryTokens("住友銀")));
+        assertTrue(index.containsAll(SearchTokenizer.queryTokens("バンキング")));
+        assertFalse(index.containsAll(SearchTokenizer.queryTokens("証券")));
+    }
+
+    @Test
+    public void singleCharacter_matchesWordPrefixOnly() {
+        assertTrue(SearchTokenizer.matches("a", "amazon"));
+        assertFalse(SearchTokenizer.matches("z", "amazon"));
+    }
+
+    @Test
+    public void matches_rejectsNonContiguousTrigrams() {
+        // "abcd" のトリグラムをすべて含むため候補になるが、部分文字列としては一致しない
+        Set<String> index = SearchTokenizer.indexTokens("abc bcd");
+        assertTrue(index.containsAll(SearchTokenizer.queryTokens("abcd")));
+        assertFalse(SearchTokenizer.matches("abcd", "abc bcd"));
+    }
+
+    @Test
+    public void indexTokens_areCapped() {
+        StringBuilder notes = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            notes.append((char) ('一' + i));
+        }
+        Set<String> index = SearchTokenizer.indexTokens("title", null, null, notes.toString());
+
+        assertEquals(SearchTokenizer.MAX_TOKENS_PER_ENTRY, index.size());
+        // 先頭のフィールドは切り捨てられない
+        assertTrue(index.containsAll(SearchTokenizer.queryTokens("title")));
+        assertTrue(index.contains(SearchTokenizer.TRUNCATED_TOKEN));
+    }
+
+    @Test
+    public void longNotes_remainSearchableNearTheEnd() {
+        // 約300文字のメモの末尾に語を置く
+        StringBuilder notes = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            notes.append((char) ('一' + i));
+        }
+        notes.append(" recoverycode");
+        Set<String> index = SearchTokenizer.indexTokens("Bank", "user", null, notes.toString());
+
+        // 末尾の語はトークンに含まれないが、切り捨ての印により候補となり、復号後の確認で一致する
+        assertFalse(index.containsAll(SearchTokenizer.queryTokens("recovery")));
+        assertTrue(index.contains(SearchTokenizer.TRUNCATED_TOKEN));
+        assertTrue(SearchTokenizer.matches("recovery", "Bank", "user", null, notes.toString()));
+    }
+
+    @Test
+    public void shortFields_areNotMarkedTruncated() {
+        Set<String> index = SearchTokenizer.indexTokens("Gmail", "user@example.com", "https://mail.google.com", "メモ");
+
+        assertFalse(index.contains(SearchTokenizer.TRUNCATED_TOKEN));
+    }
+
+    @Test
+    public void prefixMatchQuery_quotesEachWord() {
+        assertEquals("\"gmail*\" \"work*\"", SearchTokenizer.prefixMatchQuery("Gmail  work"));
+        // FTSの演算子・構文文字は単語に含まれない
+        assertEquals("\"a*\" \"or*\" \"b*\"", SearchTokenizer.prefixMatchQuery("a OR \"b\"*"));
+        assertEquals("", SearchTokenizer.prefixMatchQuery("-- *"));
+    }
+}
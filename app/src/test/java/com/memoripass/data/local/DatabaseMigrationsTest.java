@@ -0,0 +1,24 @@
+package com.memoripass.data.local;
+
+import androidx.room.migration.Migration;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * DatabaseMigrationsのユニットテスト（JVM上で実行）
+ */
+public class DatabaseMigrationsTest {
+
+    @Test
+    public void migrations_coverEveryVersionWithoutGaps() {
+        int version = 1;
+        for (Migration migration : DatabaseMigrations.all()) {
+            assertEquals("Migration out of order", version, migration.startVersion);
+            assertEquals("Migration must advance one version", version + 1, migration.endVersion);
+            version = migration.endVersion;
+        }
+        assertEquals(DatabaseMigrations.LATEST_VERSION, version);
+    }
+}
@@ -0,0 +1,50 @@
+package com.memoripass.data.local;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * QueryProfilerのユニットテスト（JVM上で実行）
+ */
+public class QueryProfilerTest {
+
+    @Test
+    public void statementsInWrappedTasks_areTimedAndSlowOnesFlagged() {
+        QueryProfiler profiler = new QueryProfiler(20);
+        Executor executor = profiler.wrap(Runnable::run);
+
+        executor.execute(() -> {
+            profiler.onQuery("SELECT 1", Collections.emptyList());
+            sleep(40);
+            // 次の文の開始で直前の文の計測が終わる
+            profiler.onQuery("SELECT 2", Collections.emptyList());
+        });
+
+        assertEquals(2, profiler.getTimedCount());
+        assertEquals(1, profiler.getSlowCount());
+        assertTrue(profiler.getMaxMillis() >= 40);
+    }
+
+    @Test
+    public void statementsOutsideWrappedTasks_areOnlyCounted() {
+        QueryProfiler profiler = new QueryProfiler(0);
+
+        profiler.onQuery("SELECT 1", Collections.emptyList());
+
+        assertEquals(1, profiler.getStatementCount());
+        assertEquals(0, profiler.getTimedCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.memoripass.data.local;
+
+import com.memoripass.data.model.PasswordEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * WriteJournalのユニットテスト（JVM上で実行）
+ */
+public class WriteJournalTest {
+
+    private File dir;
+    private File file;
+    private File replayFile;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal").toFile();
+        file = new File(dir, WriteJournal.FILE_NAME);
+        replayFile = new File(dir, WriteJournal.REPLAY_FILE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        for (File child : dir.listFiles()) {
+            child.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void resolvedWrites_areNotReplayed() throws IOException {
+        WriteJournal journal = new WriteJournal(file, replayFile);
+        long first = journal.append(
+                Collections.singletonList(WriteJournal.Record.upsert(sealed("a"), new long[] {7L, 9L})));
+        journal.append(Collections.singletonList(WriteJournal.Record.delete("b")));
+        journal.resolve(first);
+
+        List<WriteJournal.Record> pending = WriteJournal.readUnresolved(file);
+        assertEquals(1, pending.size());
+        assertEquals("b", pending.get(0).id);
+    }
+
+    @Test
+    public void lastResolve_deletesJournal() {
+        WriteJournal journal = new WriteJournal(file, replayFile);
+        long sequence = journal.append(Arrays.asList(
+                WriteJournal.Record.move("a", "仕事", 1L),
+                WriteJournal.Record.move("b", "仕事", 1L)));
+        assertTrue(file.exists());
+        assertTrue(journal.hasOutstanding());
+
+        journal.resolve(sequence);
+        assertFalse(file.exists());
+        assertFalse(journal.hasOutstanding());
+    }
+
+    @Test
+    public void tornTail_isIgnoredAndPreviousProcessIsCarriedOver() throws IOException {
+        WriteJournal previous = new WriteJournal(file, replayFile);
+        previous.append(Collections.singletonList(WriteJournal.Record.upsert(sealed("a"), new long[] {7L})));
+        previous.append(Collections.singletonList(WriteJournal.Record.delete("b")));
+        // 最後の記録の途中でプロセスが終了した状態にする
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        // 再適用待ちの記録は、このプロセスで書き込む前から未解決として扱う
+        assertTrue(new WriteJournal(file, replayFile).hasOutstanding());
+        assertFalse(file.exists());
+
+        List<WriteJournal.Record> pending = WriteJournal.readUnresolved(replayFile);
+        assertEquals(1, pending.size());
+        assertEquals("a", pending.get(0).id);
+        assertArrayEquals(new byte[] {1, 2, 3}, pending.get(0).entry.getEncryptedPassword());
+        assertArrayEquals(new long[] {7L}, pending.get(0).tokens);
+    }
+
+    @Test
+    public void carryOver_appendsAfterPendingReplay() throws IOException {
+        new WriteJournal(file, replayFile)
+                .append(Collections.singletonList(WriteJournal.Record.delete("a")));
+        // 再適用前に再び終了し、次のプロセスでも未解決の記録が残った
+        WriteJournal second = new WriteJournal(file, replayFile);
+        second.append(Collections.singletonList(WriteJournal.Record.delete("b")));
+        second.append(Collections.singletonList(WriteJournal.Record.delete("c")));
+        second.resolve(1);
+        try (FileOutputStream garbage = new FileOutputStream(replayFile, true)) {
+            garbage.write(new byte[] {0, 0, 0});
+        }
+
+        new WriteJournal(file, replayFile);
+
+        List<WriteJournal.Record> pending = WriteJournal.readUnresolved(replayFile);
+        assertEquals(2, pending.size());
+        assertEquals("a", pending.get(0).id);
+        assertEquals("c", pending.get(1).id);
+    }
+
+    private static PasswordEntry sealed(String id) {
+        PasswordEntry entry = new PasswordEntry(id, "title-" + id, new byte[] {1, 2, 3});
+        entry.setEncryptedUsername(new byte[] {4});
+        entry.setCategory("仕事");
+        return entry;
+    }
+}
@@ -0,0 +1,58 @@
+package com.memoripass.data.repository;
+
+import com.memoripass.data.model.PasswordChanges;
+import com.memoripass.data.model.PasswordSummary;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * RevealedSummariesのユニットテスト（JVM上で実行）
+ */
+public class RevealedSummariesTest {
+
+    @Test
+    public void get_reusesOnlySameRevision() {
+        RevealedSummaries revealed = new RevealedSummaries();
+        PasswordSummary cached = summary("a", 3);
+        revealed.put(cached);
+
+        assertSame(cached, revealed.get(summary("a", 3)));
+        assertNull(revealed.get(summary("a", 4)));
+    }
+
+    @Test
+    public void apply_replacesUpdatedAndDropsDeleted() {
+        RevealedSummaries revealed = new RevealedSummaries();
+        revealed.put(summary("a", 1));
+        revealed.put(summary("b", 2));
+        PasswordSummary updated = summary("a", 5);
+
+        revealed.apply(new PasswordChanges(6, Collections.singletonList(updated), Collections.singleton("b")));
+
+        assertSame(updated, revealed.get(summary("a", 5)));
+        assertFalse(revealed.contains("b"));
+        assertEquals(6, revealed.getRevision());
+    }
+
+    @Test
+    public void put_keepsNewerRevision() {
+        RevealedSummaries revealed = new RevealedSummaries();
+        PasswordSummary newer = summary("a", 5);
+        revealed.put(newer);
+        // 差分より前に読み込んだ古い内容で上書きしない
+        revealed.put(summary("a", 4));
+
+        assertSame(newer, revealed.get(summary("a", 5)));
+    }
+
+    private static PasswordSummary summary(String id, long revision) {
+        return new PasswordSummary(id, "title", null, null, null, 0L, revision);
+    }
+}
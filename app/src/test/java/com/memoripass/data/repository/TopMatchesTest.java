@@ -0,0 +1,63 @@
+package com.memoripass.data.repository;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * TopMatchesのユニットテスト（JVM上で実行）
+ */
+public class TopMatchesTest {
+
+    @Test
+    public void falsePositives_inFirstPage_areReplacedByLaterCandidates() {
+        // 偶数のみが一致する候補。最初のページ（4件）では2件しか一致しない
+        List<Integer> candidates = range(0, 20);
+        List<Integer> offsets = new ArrayList<>();
+
+        List<Integer> matched = TopMatches.collect(candidates.subList(0, 4), 4, 5,
+                offset -> {
+                    offsets.add(offset);
+                    return candidates.subList(offset, Math.min(offset + 4, candidates.size()));
+                },
+                candidate -> candidate % 2 == 0,
+                () -> false);
+
+        assertEquals(List.of(0, 2, 4, 6, 8), matched);
+        // 件数に達した時点で読み込みをやめる
+        assertEquals(List.of(4, 8), offsets);
+    }
+
+    @Test
+    public void exhaustedCandidates_returnFewerMatches() {
+        List<Integer> candidates = range(0, 6);
+
+        List<Integer> matched = TopMatches.collect(candidates.subList(0, 4), 4, 10,
+                offset -> candidates.subList(offset, Math.min(offset + 4, candidates.size())),
+                candidate -> candidate % 2 == 0,
+                () -> false);
+
+        assertEquals(List.of(0, 2, 4), matched);
+    }
+
+    @Test
+    public void cancelledSearch_stopsLoading() {
+        List<Integer> matched = TopMatches.collect(range(0, 4), 4, 10,
+                offset -> {
+                    throw new AssertionError("loaded after cancellation");
+                },
+                candidate -> candidate % 2 == 0,
+                () -> true);
+
+        assertEquals(List.of(0, 2), matched);
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+}
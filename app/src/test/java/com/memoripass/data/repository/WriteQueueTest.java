@@ -0,0 +1,180 @@
+package com.memoripass.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.memoripass.crypto.CryptoManager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * WriteQueueのユニットテスト（JVM上で実行）
+ */
+public class WriteQueueTest {
+
+    private final List<String> applied = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger transactions = new AtomicInteger();
+
+    @Test
+    public void burst_isCommittedInOneTransaction_andLaterUpdatesWin() throws Exception {
+        WriteQueue queue = newQueue(10_000, 4);
+
+        CompletableFuture<WriteQueue.Write> first = queue.enqueue(new Put("a", "1"));
+        CompletableFuture<WriteQueue.Write> second = queue.enqueue(new Put("b", "1"));
+        Put newer = new Put("a", "2");
+        CompletableFuture<WriteQueue.Write> superseded = queue.enqueue(newer);
+        CompletableFuture<WriteQueue.Write> barrier = queue.enqueue(new Put(null, "bulk"));
+        // 境界より後の書き込みは、境界より前の書き込みにまとめない
+        CompletableFuture<WriteQueue.Write> afterBarrier = queue.enqueue(new Put("a", "3"));
+
+        // 上限（4件）に達した時点で待たずにコミットされる
+        CompletableFuture.allOf(first, second, superseded, barrier, afterBarrier).get(5, TimeUnit.SECONDS);
+        assertEquals(1, transactions.get());
+        assertEquals(List.of("a=2", "b=1", "null=bulk", "a=3"), new ArrayList<>(applied));
+        assertEquals(1, queue.getCoalescedCount());
+        // まとめられた書き込みのFutureは、実際にコミットされた書き込みで完了する
+        assertSame(newer, first.get());
+    }
+
+    @Test
+    public void pendingWrites_areFlushedAfterDelay() throws Exception {
+        WriteQueue queue = newQueue(20, 64);
+
+        CompletableFuture<WriteQueue.Write> a = queue.enqueue(new Put("a", "1"));
+        CompletableFuture<WriteQueue.Write> b = queue.enqueue(new Put("a", "2"));
+        CompletableFuture.allOf(a, b).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a=2"), new ArrayList<>(applied));
+        assertEquals(1, queue.getCommitCount());
+    }
+
+    @Test
+    public void failedPreparation_failsOnlyThatWrite() throws Exception {
+        WriteQueue queue = newQueue(20, 64);
+
+        CompletableFuture<WriteQueue.Write> failed = queue.enqueue(new Put("a", "1") {
+            @Override
+            void prepare() throws CryptoManager.CryptoException {
+                throw new CryptoManager.CryptoException("boom");
+            }
+        });
+        CompletableFuture<WriteQueue.Write> ok = queue.enqueue(new Put("b", "1"));
+
+        ok.get(5, TimeUnit.SECONDS);
+        try {
+            failed.get(5, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CryptoManager.CryptoException);
+        }
+        assertEquals(List.of("b=1"), new ArrayList<>(applied));
+    }
+
+    @Test
+    public void failedApply_rollsBackOnlyThatWrite() throws Exception {
+        WriteQueue queue = newQueue(20, 64);
+
+        CompletableFuture<WriteQueue.Write> before = queue.enqueue(new Put("a", "1"));
+        CompletableFuture<WriteQueue.Write> failed = queue.enqueue(new Put(null, "bulk") {
+            @Override
+            void apply() {
+                super.apply();
+                throw new IllegalStateException("UNIQUE constraint failed");
+            }
+        });
+        CompletableFuture<WriteQueue.Write> after = queue.enqueue(new Put("b", "1"));
+
+        before.get(5, TimeUnit.SECONDS);
+        after.get(5, TimeUnit.SECONDS);
+        try {
+            failed.get(5, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // まとめたトランザクションのロールバック後、成功した書き込みは1件ずつコミットされる
+        assertEquals(List.of("a=1", "b=1"), new ArrayList<>(applied));
+        assertEquals(2, queue.getCommitCount());
+    }
+
+    @Test
+    public void exclusiveWrite_runsAloneAfterEarlierWritesCommit() throws Exception {
+        WriteQueue queue = newQueue(10_000, 4);
+        List<Boolean> earlierCommitted = new ArrayList<>();
+
+        CompletableFuture<WriteQueue.Write> a = queue.enqueue(new Put("a", "1"));
+        CompletableFuture<WriteQueue.Write> b = queue.enqueue(new Put("b", "1"));
+        CompletableFuture<WriteQueue.Write> exclusive = queue.enqueue(new Put(null, "check") {
+            @Override
+            boolean isExclusive() {
+                return true;
+            }
+
+            @Override
+            void apply() {
+                earlierCommitted.add(a.isDone() && b.isDone());
+                super.apply();
+            }
+        });
+        CompletableFuture<WriteQueue.Write> c = queue.enqueue(new Put("c", "1"));
+
+        CompletableFuture.allOf(a, b, exclusive, c).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("a=1", "b=1", "null=check", "c=1"), new ArrayList<>(applied));
+        // 前後の書き込みとは別のトランザクションになる
+        assertEquals(3, transactions.get());
+        assertEquals(List.of(true), earlierCommitted);
+    }
+
+    /**
+     * 本体が例外を投げた場合に、そのトランザクション内の書き込みを破棄するキューを作成
+     */
+    private WriteQueue newQueue(long flushDelayMs, int maxBatchSize) {
+        return new WriteQueue(body -> {
+            transactions.incrementAndGet();
+            List<String> committed = new ArrayList<>(applied);
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                applied.clear();
+                applied.addAll(committed);
+                throw e;
+            }
+        }, flushDelayMs, maxBatchSize);
+    }
+
+    /**
+     * キーに値を書き込む（同じキーの後続の書き込みにまとめられる）
+     */
+    private class Put extends WriteQueue.Write {
+        private final String value;
+
+        Put(@Nullable String key, @NonNull String value) {
+            super(key);
+            this.value = value;
+        }
+
+        @Override
+        void apply() {
+            applied.add(key() + "=" + value);
+        }
+
+        @Nullable
+        @Override
+        WriteQueue.Write coalesce(@NonNull WriteQueue.Write newer) {
+            return newer;
+        }
+    }
+}
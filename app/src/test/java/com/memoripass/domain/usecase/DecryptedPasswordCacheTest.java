@@ -0,0 +1,73 @@
+package com.memoripass.domain.usecase;
+
+import com.memoripass.domain.model.Password;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * DecryptedPasswordCacheのユニットテスト（JVM上で実行）
+ */
+public class DecryptedPasswordCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    public void get_hitsOnlySameUpdatedAtWithinTtl() {
+        DecryptedPasswordCache cache = new DecryptedPasswordCache(4, 100, now::get);
+        Password password = password("a", 10);
+        cache.put(password, cache.epoch());
+
+        assertSame(password, cache.get("a", 10));
+        assertNull(cache.get("a", 11));
+
+        cache.put(password, cache.epoch());
+        now.addAndGet(101);
+        assertNull(cache.get("a", 10));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() {
+        DecryptedPasswordCache cache = new DecryptedPasswordCache(2, 100, now::get);
+        cache.put(password("a", 1), cache.epoch());
+        cache.put(password("b", 1), cache.epoch());
+        cache.get("a", 1);
+        cache.put(password("c", 1), cache.epoch());
+
+        assertNull(cache.get("b", 1));
+        assertEquals("a", cache.get("a", 1).getId());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void clear_dropsEntriesAndRejectsStaleDecryptions() {
+        DecryptedPasswordCache cache = new DecryptedPasswordCache(4, 100, now::get);
+        long epoch = cache.epoch();
+        cache.put(password("a", 1), epoch);
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertFalse(cache.put(password("b", 1), epoch));
+        assertNull(cache.get("b", 1));
+    }
+
+    private static Password password(String id, long updatedAt) {
+        return new Password.Builder()
+                .id(id)
+                .title("title-" + id)
+                .password("secret")
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
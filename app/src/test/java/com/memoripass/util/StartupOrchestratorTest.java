@@ -0,0 +1,59 @@
+package com.memoripass.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * StartupOrchestratorのユニットテスト（JVM上で実行）
+ */
+public class StartupOrchestratorTest {
+
+    @Test
+    public void start_runsBlockingInlineAndBackgroundAfterDependencies() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        String caller = Thread.currentThread().getName();
+        StartupOrchestrator startup = new StartupOrchestrator()
+                .addBlocking("auth", () -> order.add("auth"))
+                .add("audit", () -> {
+                    Thread.sleep(20);
+                    order.add("audit");
+                })
+                .add("root", () -> order.add("root"), "audit");
+
+        startup.start();
+        assertTrue(order.contains("auth"));
+
+        StartupOrchestrator.Report report = startup.whenComplete().get(5, TimeUnit.SECONDS);
+        assertTrue(order.indexOf("audit") < order.indexOf("root"));
+        assertEquals(caller, report.get("auth").threadName);
+        assertNotEquals(caller, report.get("root").threadName);
+        assertEquals(StartupOrchestrator.Status.COMPLETED, report.get("root").status);
+        assertTrue(report.getTotalMillis() >= report.getGateMillis());
+    }
+
+    @Test
+    public void start_skipsDependentsOfFailedTask() throws Exception {
+        StartupOrchestrator startup = new StartupOrchestrator(Runnable::run)
+                .add("audit", () -> {
+                    throw new IllegalStateException("boom");
+                })
+                .add("root", () -> {
+                }, "audit")
+                .add("keystore", () -> {
+                });
+
+        startup.start();
+
+        StartupOrchestrator.Report report = startup.whenComplete().get(5, TimeUnit.SECONDS);
+        assertEquals(StartupOrchestrator.Status.FAILED, report.get("audit").status);
+        assertEquals(StartupOrchestrator.Status.SKIPPED, report.get("root").status);
+        assertEquals(StartupOrchestrator.Status.COMPLETED, report.get("keystore").status);
+    }
+}